@@ -280,26 +280,14 @@ public class ServiceExplorerView extends ViewPart implements PropertyChangeListe
         public void listChanged(final ListChangedEvent e) {
             switch (e.getAction()) {
                 case add:
-                    // create child tree nodes for the new nodes
-                    for (Node childNode : (Collection<Node>) e.getNewItems()) {
-                        // Eclipse does no support arm, so here need to skip resource management node
-                        if (UNSUPPORTED_NODE_LIST.contains(childNode.getClass().getName())) {
-                            continue;
-                        }
-                        treeNode.add(createTreeNode(childNode));
-                    }
+                    addChildTreeNodes((Collection<Node>) e.getNewItems());
                     break;
                 case remove:
-                    // unregister all event handlers recursively and remove
-                    // child nodes from the tree
-                    for (Node childNode : (Collection<Node>) e.getOldItems()) {
-                        if (UNSUPPORTED_NODE_LIST.contains(childNode.getClass().getName())) {
-                            continue;
-                        }
-                        removeEventHandlers(childNode);
-                        // remove this node from the tree
-                        treeNode.remove((TreeNode) childNode.getViewData());
-                    }
+                    removeChildTreeNodes((Collection<Node>) e.getOldItems());
+                    break;
+                case replace:
+                    removeChildTreeNodes((Collection<Node>) e.getOldItems());
+                    addChildTreeNodes((Collection<Node>) e.getNewItems());
                     break;
                 default:
                     break;
@@ -311,6 +299,30 @@ public class ServiceExplorerView extends ViewPart implements PropertyChangeListe
                 }
             });
         }
+
+        private void addChildTreeNodes(Collection<Node> childNodes) {
+            // create child tree nodes for the new nodes
+            for (Node childNode : childNodes) {
+                // Eclipse does no support arm, so here need to skip resource management node
+                if (UNSUPPORTED_NODE_LIST.contains(childNode.getClass().getName())) {
+                    continue;
+                }
+                treeNode.add(createTreeNode(childNode));
+            }
+        }
+
+        private void removeChildTreeNodes(Collection<Node> childNodes) {
+            // unregister all event handlers recursively and remove
+            // child nodes from the tree
+            for (Node childNode : childNodes) {
+                if (UNSUPPORTED_NODE_LIST.contains(childNode.getClass().getName())) {
+                    continue;
+                }
+                removeEventHandlers(childNode);
+                // remove this node from the tree
+                treeNode.remove((TreeNode) childNode.getViewData());
+            }
+        }
     }
 
     class ViewLabelProvider extends LabelProvider {
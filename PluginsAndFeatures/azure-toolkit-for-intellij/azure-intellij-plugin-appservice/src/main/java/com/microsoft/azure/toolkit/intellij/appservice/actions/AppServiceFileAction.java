@@ -41,7 +41,9 @@ import com.microsoft.azure.toolkit.lib.common.operation.AzureOperation;
 import com.microsoft.azure.toolkit.lib.common.operation.AzureOperationBundle;
 import com.microsoft.azure.toolkit.lib.common.task.AzureTask;
 import com.microsoft.azure.toolkit.lib.common.task.AzureTaskManager;
+import com.microsoft.azure.toolkit.lib.legacy.appservice.AppServiceFileDownloader;
 import lombok.SneakyThrows;
+import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.exception.ExceptionUtils;
@@ -49,7 +51,6 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InterruptedIOException;
 import java.io.OutputStream;
@@ -188,24 +189,15 @@ public class AppServiceFileAction {
         if (Objects.isNull(destFile)) {
             return;
         }
-        final OutputStream output = new FileOutputStream(destFile);
         final AzureString title = AzureOperationBundle.title("appservice.download_file.file", file.getName());
         final AzureTask<Void> task = new AzureTask<>(project, title, false, () -> {
-            ProgressManager.getInstance().getProgressIndicator().setIndeterminate(true);
-            file.getApp()
-                    .getFileContent(file.getPath())
-                    .doOnComplete(() -> notifyDownloadSuccess(file.getName(), destFile, project))
-                    .doOnTerminate(() -> IOUtils.closeQuietly(output, null))
-                    .subscribe(bytes -> {
-                        try {
-                            if (bytes != null) {
-                                output.write(bytes.array(), 0, bytes.limit());
-                            }
-                        } catch (final IOException e) {
-                            final String error = "failed to write data into local file";
-                            throw new AzureToolkitRuntimeException(error, e, retry);
-                        }
-                    }, AppServiceFileAction::onRxException);
+            final ProgressIndicator indicator = ProgressManager.getInstance().getProgressIndicator();
+            indicator.setIndeterminate(true);
+            final String error = "failed to write data into local file";
+            AppServiceFileDownloader.download(file.getApp().getFileContent(file.getPath()), destFile,
+                            size -> indicator.setText2(FileUtils.byteCountToDisplaySize(size)))
+                    .onErrorMap(IOException.class, e -> new AzureToolkitRuntimeException(error, e, retry))
+                    .subscribe(size -> notifyDownloadSuccess(file.getName(), destFile, project), AppServiceFileAction::onRxException);
         });
         AzureTaskManager.getInstance().runInModal(task);
     }
@@ -7,12 +7,14 @@ package com.microsoft.azure.toolkit.intellij.legacy.appservice;
 import com.intellij.execution.impl.ConsoleViewImpl;
 import com.intellij.execution.ui.ConsoleViewContentType;
 import com.intellij.openapi.project.Project;
+import com.microsoft.azure.toolkit.intellij.common.StreamingLogConsoleSink;
 import org.jetbrains.annotations.NotNull;
 import reactor.core.Disposable;
 import reactor.core.publisher.Flux;
 import reactor.core.scheduler.Schedulers;
 
-import static com.intellij.execution.ui.ConsoleViewContentType.NORMAL_OUTPUT;
+import java.awt.BorderLayout;
+
 import static com.intellij.execution.ui.ConsoleViewContentType.SYSTEM_OUTPUT;
 import static com.microsoft.azure.toolkit.intellij.common.AzureBundle.message;
 
@@ -23,25 +25,33 @@ public class AppServiceStreamingLogConsoleView extends ConsoleViewImpl {
     private boolean isDisposed;
     private String resourceId;
     private Disposable subscription;
+    private final StreamingLogConsoleSink logSink;
 
     public AppServiceStreamingLogConsoleView(@NotNull Project project, String resourceId) {
         super(project, true);
         this.isDisposed = false;
         this.resourceId = resourceId;
+        this.logSink = new StreamingLogConsoleSink(this);
+        add(logSink.getHeader(), BorderLayout.NORTH);
     }
 
     public void startStreamingLog(Flux<String> logStreaming) {
         if (!isActive()) {
             printlnToConsole(message("appService.logStreaming.hint.connect"), SYSTEM_OUTPUT);
+            logSink.start();
             subscription = logStreaming.subscribeOn(Schedulers.boundedElastic())
-                                       .doAfterTerminate(() -> printlnToConsole(message("appService.logStreaming.hint.disconnected"), SYSTEM_OUTPUT))
-                                       .subscribe((log) -> printlnToConsole(log, NORMAL_OUTPUT));
+                                       .doAfterTerminate(() -> {
+                                           logSink.stop();
+                                           printlnToConsole(message("appService.logStreaming.hint.disconnected"), SYSTEM_OUTPUT);
+                                       })
+                                       .subscribe(logSink::println);
         }
     }
 
     public void closeStreamingLog() {
         if (isActive()) {
             subscription.dispose();
+            logSink.stop();
             printlnToConsole(message("appService.logStreaming.hint.disconnected"), SYSTEM_OUTPUT);
         }
     }
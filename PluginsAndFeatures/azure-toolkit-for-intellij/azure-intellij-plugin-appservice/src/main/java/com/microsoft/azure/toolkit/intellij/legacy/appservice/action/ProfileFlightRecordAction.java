@@ -14,6 +14,7 @@ import com.microsoft.azure.toolkit.intellij.legacy.appservice.jfr.RunFlightRecor
 import com.microsoft.azure.toolkit.lib.appservice.model.OperatingSystem;
 import com.microsoft.azure.toolkit.lib.appservice.service.IAppService;
 import com.microsoft.azure.toolkit.lib.common.bundle.AzureString;
+import com.microsoft.azure.toolkit.lib.common.exception.AzureToolkitRuntimeException;
 import com.microsoft.azure.toolkit.lib.common.messager.AzureMessager;
 import com.microsoft.azure.toolkit.lib.common.operation.AzureOperationBundle;
 import com.microsoft.azure.toolkit.lib.common.task.AzureTask;
@@ -129,14 +130,16 @@ public class ProfileFlightRecordAction {
             progressIndicator.checkCanceled();
             progressIndicator.setText(message("webapp.flightRecord.hint.profileCompletedOnAzure"));
             progressIndicator.setText(message("webapp.flightRecord.hint.downloadingJfr"));
-            final byte[] content = starter.downloadJFRFile(file.getName());
-            if (content != null) {
-                FileUtils.writeByteArrayToFile(file, content);
-                progressIndicator.setText(message("webapp.flightRecord.hint.downloadingJfrDone"));
-                AzureMessager.getMessager().info(getActionOnJfrFile(file.getAbsolutePath()), message("webapp.flightRecord.hint.profileRecorderComplete"));
-            } else {
+            try {
+                starter.downloadJFRFile(file.getName(), file, size -> progressIndicator.setText2(FileUtils.byteCountToDisplaySize(size)));
+            } catch (final AzureToolkitRuntimeException e) {
                 notifyUserWithErrorMessage(message("webapp.flightRecord.error.jfrDownload.title"), message("webapp.flightRecord.error.jfrDownload.message"));
+                return;
+            } finally {
+                progressIndicator.setText2(null);
             }
+            progressIndicator.setText(message("webapp.flightRecord.hint.downloadingJfrDone"));
+            AzureMessager.getMessager().info(getActionOnJfrFile(file.getAbsolutePath()), message("webapp.flightRecord.hint.profileRecorderComplete"));
 
         } catch (final IOException e) {
             notifyUserWithErrorMessage(message("webapp.flightRecord.error.profileFlightRecorderFailed.title"),
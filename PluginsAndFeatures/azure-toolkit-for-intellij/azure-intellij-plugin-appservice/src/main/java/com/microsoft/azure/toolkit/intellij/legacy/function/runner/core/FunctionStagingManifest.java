@@ -0,0 +1,274 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.intellij.legacy.function.runner.core;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+import org.apache.commons.compress.archivers.zip.ZipFile;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang3.ArrayUtils;
+import org.apache.commons.lang3.StringUtils;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * The manifest of a function staging folder, which records the content hash of every staged file, together with the
+ * size and last modified time of the file and of its source. The manifest is kept in the staging folder, so the next
+ * staging only links or copies the changed libraries and only writes the changed `function.json` files, and the
+ * next packaging only compresses the changed entries, copying the others raw from the last package.
+ */
+public class FunctionStagingManifest {
+    public static final String MANIFEST_FILE = ".staging-manifest.json";
+
+    private static final Gson GSON = new Gson();
+
+    private final Path stagingFolder;
+    private final ManifestData data;
+    private final Set<String> stagedPaths = new HashSet<>();
+
+    private FunctionStagingManifest(@Nonnull Path stagingFolder, @Nonnull ManifestData data) {
+        this.stagingFolder = stagingFolder;
+        this.data = data;
+    }
+
+    /**
+     * Load the manifest of a staging folder, or an empty one if the folder isn't staged yet or the manifest is broken
+     */
+    @Nonnull
+    public static FunctionStagingManifest load(@Nonnull Path stagingFolder) {
+        final File manifestFile = stagingFolder.resolve(MANIFEST_FILE).toFile();
+        ManifestData data = null;
+        if (manifestFile.isFile()) {
+            try (Reader reader = Files.newBufferedReader(manifestFile.toPath(), StandardCharsets.UTF_8)) {
+                data = GSON.fromJson(reader, ManifestData.class);
+            } catch (final IOException | JsonParseException e) {
+                // start over with an empty manifest
+            }
+        }
+        return new FunctionStagingManifest(stagingFolder, data == null ? new ManifestData() : data);
+    }
+
+    public void save() throws IOException {
+        Files.createDirectories(stagingFolder);
+        try (Writer writer = Files.newBufferedWriter(stagingFolder.resolve(MANIFEST_FILE), StandardCharsets.UTF_8)) {
+            GSON.toJson(data, writer);
+        }
+    }
+
+    /**
+     * Stage a file from the source. The staged file is kept if the source isn't changed, otherwise it's hard linked
+     * to the source, or copied if the link can't be created.
+     *
+     * @param source the source file
+     * @param path the path relative to the staging folder, separated by `/`
+     */
+    public void stageFile(@Nonnull File source, @Nonnull String path) throws IOException {
+        stagedPaths.add(path);
+        final Path target = stagingFolder.resolve(path);
+        final Entry entry = data.entries.get(path);
+        final String sourcePath = source.getAbsolutePath();
+        if (entry != null && StringUtils.equals(entry.sourcePath, sourcePath) &&
+                entry.sourceSize == source.length() && entry.sourceLastModified == source.lastModified() &&
+                entry.isUpToDate(target.toFile())) {
+            return;
+        }
+
+        final String hash = hash(source);
+        if (entry == null || !StringUtils.equals(entry.hash, hash) || !entry.isUpToDate(target.toFile())) {
+            Files.createDirectories(target.getParent());
+            Files.deleteIfExists(target);
+            try {
+                Files.createLink(target, source.toPath());
+            } catch (final IOException | UnsupportedOperationException e) {
+                Files.copy(source.toPath(), target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.COPY_ATTRIBUTES);
+            }
+        }
+
+        final Entry updated = Entry.of(target.toFile(), hash);
+        updated.sourcePath = sourcePath;
+        updated.sourceSize = source.length();
+        updated.sourceLastModified = source.lastModified();
+        data.entries.put(path, updated);
+    }
+
+    /**
+     * Stage a file with the content, which is written only if it's changed
+     *
+     * @param content the file content
+     * @param path the path relative to the staging folder, separated by `/`
+     */
+    public void stageContent(@Nonnull byte[] content, @Nonnull String path) throws IOException {
+        stagedPaths.add(path);
+        final Path target = stagingFolder.resolve(path);
+        final Entry entry = data.entries.get(path);
+        final String hash = DigestUtils.sha256Hex(content);
+        if (entry != null && StringUtils.equals(entry.hash, hash) && entry.isUpToDate(target.toFile())) {
+            return;
+        }
+
+        Files.createDirectories(target.getParent());
+        Files.write(target, content);
+        data.entries.put(path, Entry.of(target.toFile(), hash));
+    }
+
+    /**
+     * Record a file written into the staging folder by others, such as the function jar
+     *
+     * @param path the path relative to the staging folder, separated by `/`
+     */
+    public void stageWrittenFile(@Nonnull String path) throws IOException {
+        stagedPaths.add(path);
+        final File target = stagingFolder.resolve(path).toFile();
+        final Entry entry = data.entries.get(path);
+        if (entry != null && entry.sourcePath == null && entry.isUpToDate(target)) {
+            return;
+        }
+
+        data.entries.put(path, Entry.of(target, hash(target)));
+    }
+
+    /**
+     * Remove the files staged last time but not this time, along with the folders left empty
+     */
+    public void removeStaleFiles() throws IOException {
+        final List<String> stalePaths = data.entries.keySet().stream()
+                .filter(path -> !stagedPaths.contains(path))
+                .collect(Collectors.toList());
+        for (final String path : stalePaths) {
+            data.entries.remove(path);
+            final Path file = stagingFolder.resolve(path);
+            Files.deleteIfExists(file);
+            for (Path folder = file.getParent(); folder != null && !folder.equals(stagingFolder); folder = folder.getParent()) {
+                final String[] children = folder.toFile().list();
+                if (children == null || children.length > 0) {
+                    break;
+                }
+                Files.deleteIfExists(folder);
+            }
+        }
+    }
+
+    /**
+     * Package the staging folder into a zip file. The entries not changed since the zip file was packaged last time
+     * are copied raw from it, and only the changed ones are compressed.
+     *
+     * @param zipFile the zip file, which is replaced
+     * @param excludedPaths the paths relative to the staging folder not to package
+     */
+    public void packageTo(@Nonnull File zipFile, String... excludedPaths) throws IOException {
+        final Map<String, String> packagedHashes = new HashMap<>();
+        final File newZipFile = new File(zipFile.getParentFile(), zipFile.getName() + ".tmp");
+        try (ZipFile lastZip = openZipFile(zipFile);
+             ZipArchiveOutputStream output = new ZipArchiveOutputStream(newZipFile)) {
+            final List<Path> files;
+            try (Stream<Path> walk = Files.walk(stagingFolder)) {
+                files = walk.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+            }
+
+            for (final Path file : files) {
+                final String path = toEntryName(stagingFolder.relativize(file));
+                if (MANIFEST_FILE.equals(path) || ArrayUtils.contains(excludedPaths, path)) {
+                    continue;
+                }
+
+                final Entry entry = data.entries.get(path);
+                final String hash = entry != null && entry.isUpToDate(file.toFile()) ? entry.hash : null;
+                final ZipArchiveEntry lastZipEntry = lastZip == null || hash == null ? null : lastZip.getEntry(path);
+                if (lastZipEntry != null && hash.equals(data.packagedHashes.get(path))) {
+                    try (InputStream raw = lastZip.getRawInputStream(lastZipEntry)) {
+                        output.addRawArchiveEntry(lastZipEntry, raw);
+                    }
+                } else {
+                    final ZipArchiveEntry zipEntry = new ZipArchiveEntry(file.toFile(), path);
+                    output.putArchiveEntry(zipEntry);
+                    Files.copy(file, output);
+                    output.closeArchiveEntry();
+                }
+
+                if (hash != null) {
+                    packagedHashes.put(path, hash);
+                }
+            }
+        }
+
+        Files.move(newZipFile.toPath(), zipFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        data.packagedHashes = packagedHashes;
+        save();
+    }
+
+    @Nullable
+    private static ZipFile openZipFile(@Nonnull File zipFile) {
+        if (!zipFile.isFile() || zipFile.length() == 0) {
+            return null;
+        }
+        try {
+            return new ZipFile(zipFile);
+        } catch (final IOException e) {
+            // compress all entries if the last zip file is broken
+            return null;
+        }
+    }
+
+    @Nonnull
+    private static String toEntryName(@Nonnull Path relativePath) {
+        return StringUtils.replace(relativePath.toString(), File.separator, "/");
+    }
+
+    @Nonnull
+    private static String hash(@Nonnull File file) throws IOException {
+        try (InputStream input = FileUtils.openInputStream(file)) {
+            return DigestUtils.sha256Hex(input);
+        }
+    }
+
+    private static class ManifestData {
+        private Map<String, Entry> entries = new HashMap<>();
+        // the hashes of the entries in the zip file packaged last time
+        private Map<String, String> packagedHashes = new HashMap<>();
+    }
+
+    private static class Entry {
+        private String hash;
+        private long size;
+        private long lastModified;
+        private String sourcePath;
+        private long sourceSize;
+        private long sourceLastModified;
+
+        static Entry of(@Nonnull File file, @Nonnull String hash) {
+            final Entry entry = new Entry();
+            entry.hash = hash;
+            entry.size = file.length();
+            entry.lastModified = file.lastModified();
+            return entry;
+        }
+
+        boolean isUpToDate(@Nonnull File file) {
+            return file.isFile() && file.length() == size && file.lastModified() == lastModified && Objects.nonNull(hash);
+        }
+    }
+}
@@ -10,6 +10,7 @@ import com.intellij.codeInsight.AnnotationUtil;
 import com.intellij.codeInsight.MetaAnnotationUtil;
 import com.intellij.lang.jvm.JvmAnnotation;
 import com.intellij.lang.jvm.JvmParameter;
+import com.intellij.openapi.application.PathManager;
 import com.intellij.openapi.application.ReadAction;
 import com.intellij.openapi.module.Module;
 import com.intellij.openapi.module.ModuleManager;
@@ -55,6 +56,7 @@ import javax.annotation.Nullable;
 import java.io.File;
 import java.io.IOException;
 import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -64,6 +66,8 @@ import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 import static com.microsoft.azure.toolkit.intellij.common.AzureBundle.message;
@@ -73,9 +77,11 @@ public class FunctionUtils {
     private static final String AZURE_FUNCTION_ANNOTATION_CLASS =
             "com.microsoft.azure.functions.annotation.FunctionName";
     private static final String FUNCTION_JSON = "function.json";
+    private static final String HOST_JSON = "host.json";
     private static final String HTTP_OUTPUT_DEFAULT_NAME = "$return";
     private static final String DEFAULT_HOST_JSON = "{\"version\":\"2.0\",\"extensionBundle\":" +
             "{\"id\":\"Microsoft.Azure.Functions.ExtensionBundle\",\"version\":\"[1.*, 2.0.0)\"}}\n";
+    private static final String LOCAL_SETTINGS_JSON = "local.settings.json";
     private static final String DEFAULT_LOCAL_SETTINGS_JSON = "{ \"IsEncrypted\": false, \"Values\": " +
             "{ \"FUNCTIONS_WORKER_RUNTIME\": \"java\" } }";
     private static final String AZURE_FUNCTIONS = "azure-functions";
@@ -84,6 +90,7 @@ public class FunctionUtils {
     private static final Map<BindingEnum, List<String>> REQUIRED_ATTRIBUTE_MAP = new HashMap<>();
     private static final List<String> CUSTOM_BINDING_RESERVED_PROPERTIES = Arrays.asList("type", "name", "direction");
     private static final String AZURE_FUNCTIONS_APP_SETTINGS = "Azure Functions App Settings";
+    private static final Set<String> STAGING_FOLDERS_IN_USE = ConcurrentHashMap.newKeySet();
 
     static {
         //initialize required attributes, which will be saved to function.json even if it equals to its default value
@@ -219,7 +226,7 @@ public class FunctionUtils {
     public static void copyLocalSettingsToStagingFolder(Path stagingFolder,
                                                         Path localSettingJson,
                                                         Map<String, String> appSettings) throws IOException {
-        final File localSettingsFile = new File(stagingFolder.toFile(), "local.settings.json");
+        final File localSettingsFile = new File(stagingFolder.toFile(), LOCAL_SETTINGS_JSON);
         copyFilesWithDefaultContent(localSettingJson, localSettingsFile, DEFAULT_LOCAL_SETTINGS_JSON);
         if (MapUtils.isNotEmpty(appSettings)) {
             updateLocalSettingValues(localSettingsFile, appSettings);
@@ -233,9 +240,8 @@ public class FunctionUtils {
     public static Map<String, FunctionConfiguration> prepareStagingFolder(Path stagingFolder, Path hostJson, Project project, Module module, PsiMethod[] methods)
             throws AzureExecutionException, IOException {
         final Map<String, FunctionConfiguration> configMap = generateConfigurations(methods);
-        if (stagingFolder.toFile().isDirectory()) {
-            FileUtils.cleanDirectory(stagingFolder.toFile());
-        }
+        // the files not changed since the last staging are kept, see FunctionStagingManifest
+        final FunctionStagingManifest manifest = FunctionStagingManifest.load(stagingFolder);
 
         final Path jarFile;
         // test if it is gradle project
@@ -247,23 +253,27 @@ public class FunctionUtils {
                 final String error = String.format("Failed generate jar file for project(%s)", gradleProject.getName());
                 throw new AzureToolkitRuntimeException(error);
             }
-            FileUtils.copyFileToDirectory(gradleProject.getArtifactFile(), stagingFolder.toFile());
+            manifest.stageFile(gradleProject.getArtifactFile(), gradleProject.getArtifactFile().getName());
         } else {
             jarFile = JarUtils.buildJarFileToStagingPath(stagingFolder.toString(), module);
+            manifest.stageWrittenFile(jarFile.getFileName().toString());
         }
 
         final String scriptFilePath = "../" + jarFile.getFileName().toString();
         configMap.values().forEach(config -> config.setScriptFile(scriptFilePath));
         for (final Map.Entry<String, FunctionConfiguration> config : configMap.entrySet()) {
             if (StringUtils.isNotBlank(config.getKey())) {
-                final File functionJsonFile = Paths.get(stagingFolder.toString(), config.getKey(), FUNCTION_JSON)
-                                                   .toFile();
-                writeFunctionJsonFile(functionJsonFile, config.getValue());
+                final String functionJson = JsonUtils.toJsonString(getFunctionJson(config.getValue()));
+                manifest.stageContent(functionJson.getBytes(StandardCharsets.UTF_8), config.getKey() + "/" + FUNCTION_JSON);
             }
         }
 
-        final File hostJsonFile = new File(stagingFolder.toFile(), "host.json");
-        copyFilesWithDefaultContent(hostJson, hostJsonFile, DEFAULT_HOST_JSON);
+        final File hostJsonFile = hostJson == null ? null : hostJson.toFile();
+        if (hostJsonFile != null && hostJsonFile.exists()) {
+            manifest.stageFile(hostJsonFile, HOST_JSON);
+        } else {
+            manifest.stageContent(DEFAULT_HOST_JSON.getBytes(Charset.defaultCharset()), HOST_JSON);
+        }
 
         final List<File> jarFiles = new ArrayList<>();
         if (gradleProject.isValid()) {
@@ -290,13 +300,64 @@ public class FunctionUtils {
             });
         }
 
-        final File libFolder = new File(stagingFolder.toFile(), "lib");
         for (final File file : jarFiles) {
-            FileUtils.copyFileToDirectory(file, libFolder);
+            manifest.stageFile(file, "lib/" + file.getName());
         }
+        manifest.removeStaleFiles();
+        manifest.save();
         return configMap;
     }
 
+    /**
+     * Get the staging folder kept for the module, so the files not changed can be reused by the next staging. A temp
+     * staging folder is returned if the kept one is being used, such as by a running function host.
+     *
+     * @param module the function module
+     * @param purpose the staging purpose, such as `run` and `deploy`
+     * @return the staging folder, which should be released by {@link #releaseStagingFolder(File)}
+     */
+    public static File acquireStagingFolder(@Nullable Module module, String purpose) {
+        if (module == null) {
+            return getTempStagingFolder();
+        }
+        final File stagingFolder = Paths.get(PathManager.getSystemPath(), AZURE_FUNCTIONS, module.getProject().getLocationHash(),
+                                             module.getName(), purpose).toFile();
+        if (!STAGING_FOLDERS_IN_USE.add(stagingFolder.getAbsolutePath())) {
+            return getTempStagingFolder();
+        }
+        // left by a staging not released, such as when the IDE exits during a run
+        deleteLocalSettings(stagingFolder);
+        return stagingFolder;
+    }
+
+    /**
+     * Release a staging folder got from {@link #acquireStagingFolder(Module, String)}. The temp staging folder is
+     * removed, while the kept one is left for the next staging without the `local.settings.json`, which holds the app
+     * settings loaded from the secure storage.
+     */
+    public static void releaseStagingFolder(File stagingFolder) {
+        if (stagingFolder == null) {
+            return;
+        }
+        if (STAGING_FOLDERS_IN_USE.remove(stagingFolder.getAbsolutePath())) {
+            deleteLocalSettings(stagingFolder);
+        } else {
+            cleanUpStagingFolder(stagingFolder);
+            FileUtils.deleteQuietly(getStagingPackageFile(stagingFolder));
+        }
+    }
+
+    private static void deleteLocalSettings(File stagingFolder) {
+        FileUtils.deleteQuietly(new File(stagingFolder, LOCAL_SETTINGS_JSON));
+    }
+
+    /**
+     * Get the zip file to package the staging folder into, which is next to the staging folder
+     */
+    public static File getStagingPackageFile(File stagingFolder) {
+        return new File(stagingFolder.getParentFile(), stagingFolder.getName() + ".zip");
+    }
+
     public static String getTargetFolder(Module module) {
         if (module == null) {
             return StringUtils.EMPTY;
@@ -325,7 +386,7 @@ public class FunctionUtils {
                         .collect(Collectors.toList());
     }
 
-    private static void writeFunctionJsonFile(File file, FunctionConfiguration config) throws IOException {
+    private static Map<String, Object> getFunctionJson(FunctionConfiguration config) {
         final Map<String, Object> json = new LinkedHashMap<>();
         json.put("scriptFile", config.getScriptFile());
         json.put("entryPoint", config.getEntryPoint());
@@ -348,8 +409,7 @@ public class FunctionUtils {
             }
             json.put("bindings", lists.toArray());
         }
-        file.getParentFile().mkdirs();
-        JsonUtils.writeJsonToFile(file, json);
+        return json;
     }
 
     private static String stripExtraCharacters(String fileName) {
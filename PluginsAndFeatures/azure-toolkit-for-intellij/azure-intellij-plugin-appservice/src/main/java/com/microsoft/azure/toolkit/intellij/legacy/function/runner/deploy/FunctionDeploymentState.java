@@ -93,10 +93,11 @@ public class FunctionDeploymentState extends AzureRunProfileState<FunctionApp> {
                     .functionApp(functionDeployConfiguration.getFunctionId());
             updateApplicationSettings(functionApp);
         }
-        stagingFolder = FunctionUtils.getTempStagingFolder();
+        stagingFolder = FunctionUtils.acquireStagingFolder(functionDeployConfiguration.getModule(), "deploy");
         prepareStagingFolder(stagingFolder, processHandler, operation);
         // deploy function to Azure
-        FunctionAppService.getInstance().deployFunctionApp(functionApp, stagingFolder);
+        FunctionAppService.getInstance().deployFunctionApp(functionApp, stagingFolder,
+                FunctionUtils.getStagingPackageFile(stagingFolder));
         // list triggers after deployment
         listHTTPTriggerUrls(functionApp);
         operation.trackProperties(AzureTelemetry.getActionContext().getProperties());
@@ -171,13 +172,13 @@ public class FunctionDeploymentState extends AzureRunProfileState<FunctionApp> {
     protected void onSuccess(FunctionApp result, @NotNull RunProcessHandler processHandler) {
         processHandler.setText(message("appService.deploy.hint.succeed"));
         processHandler.notifyComplete();
-        FunctionUtils.cleanUpStagingFolder(stagingFolder);
+        FunctionUtils.releaseStagingFolder(stagingFolder);
     }
 
     @Override
     protected void onFail(@NotNull Throwable error, @NotNull RunProcessHandler processHandler) {
         super.onFail(error, processHandler);
-        FunctionUtils.cleanUpStagingFolder(stagingFolder);
+        FunctionUtils.releaseStagingFolder(stagingFolder);
     }
 
     @Override
@@ -118,7 +118,7 @@ public class FunctionRunState extends AzureRunProfileState<FunctionApp> {
     protected FunctionApp executeSteps(@NotNull RunProcessHandler processHandler, @NotNull Operation operation) throws Exception {
         // Prepare staging Folder
         validateFunctionRuntime(processHandler);
-        stagingFolder = FunctionUtils.getTempStagingFolder();
+        stagingFolder = FunctionUtils.acquireStagingFolder(functionRunConfiguration.getModule(), "run");
         addProcessTerminatedListener(processHandler);
         prepareStagingFolder(stagingFolder, processHandler, operation);
         // Run Function Host
@@ -369,14 +369,14 @@ public class FunctionRunState extends AzureRunProfileState<FunctionApp> {
             processHandler.setText(message("function.run.hint.succeed"));
             processHandler.notifyComplete();
         }
-        FunctionUtils.cleanUpStagingFolder(stagingFolder);
+        FunctionUtils.releaseStagingFolder(stagingFolder);
     }
 
     @Override
     protected void onFail(@NotNull Throwable error, @NotNull RunProcessHandler processHandler) {
         super.onFail(error, processHandler);
         stopProcessIfAlive(process);
-        FunctionUtils.cleanUpStagingFolder(stagingFolder);
+        FunctionUtils.releaseStagingFolder(stagingFolder);
     }
 
     private boolean isInstallingExtensionNeeded(Set<BindingEnum> bindingTypes, RunProcessHandler processHandler) {
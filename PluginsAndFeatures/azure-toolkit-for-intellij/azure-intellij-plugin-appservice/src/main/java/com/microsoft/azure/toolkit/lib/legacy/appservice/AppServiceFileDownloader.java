@@ -0,0 +1,136 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.lib.legacy.appservice;
+
+import com.azure.core.util.FluxUtil;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.file.FileSystemException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongConsumer;
+import java.util.function.LongFunction;
+
+/**
+ * Downloads a file of app service into a local file chunk by chunk, so the file content is never held in memory.
+ *
+ * The content is written into a `.part` file next to the target, which is moved to the target once it's complete.
+ * When the connection is broken, the download is retried and resumed from the bytes already written, while the other
+ * failures, such as a missing file or a denied access, fail the download at once.
+ */
+public class AppServiceFileDownloader {
+    private static final String PART_FILE_SUFFIX = ".part";
+    private static final int MAX_RETRIES = 3;
+
+    /**
+     * Download the content into the target file. The kudu vfs api doesn't take a range, so a resumed download reads
+     * the content from the start again, and the bytes already on disk are skipped instead of written again.
+     *
+     * @param content  the file content, which is subscribed again on retry
+     * @param target   the target file, which is replaced
+     * @param progress the consumer of the number of bytes downloaded so far
+     * @return the size of the file downloaded
+     */
+    @Nonnull
+    public static Mono<Long> download(@Nonnull Flux<ByteBuffer> content, @Nonnull File target, @Nullable LongConsumer progress) {
+        return download(offset -> skip(content, offset), target, progress);
+    }
+
+    /**
+     * Download the content into the target file, a resumed download requests the content from the bytes on disk
+     *
+     * @param contentFrom the function to get the file content from the offset given, called again on retry
+     * @param target      the target file, which is replaced
+     * @param progress    the consumer of the number of bytes downloaded so far
+     * @return the size of the file downloaded
+     */
+    @Nonnull
+    public static Mono<Long> download(@Nonnull LongFunction<Flux<ByteBuffer>> contentFrom, @Nonnull File target,
+                                      @Nullable LongConsumer progress) {
+        final File partFile = new File(target.getParentFile(), target.getName() + PART_FILE_SUFFIX);
+        return Mono.fromCallable(() -> Files.deleteIfExists(partFile.toPath()))
+                .then(Mono.defer(() -> {
+                    final long offset = partFile.length();
+                    return downloadFrom(contentFrom.apply(offset), partFile, offset, progress);
+                }).retryWhen(Retry.max(MAX_RETRIES)
+                        .filter(AppServiceFileDownloader::isTransientFailure)
+                        .onRetryExhaustedThrow((spec, signal) -> signal.failure())))
+                .flatMap(size -> Mono.fromCallable(() -> {
+                    Files.move(partFile.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+                    return size;
+                }))
+                .doOnError(e -> partFile.delete());
+    }
+
+    /**
+     * Check whether the download failed on a broken connection, which is worth resuming. The failures of writing the
+     * local file and the error responses, such as 404 or 401, fail the same again.
+     */
+    static boolean isTransientFailure(@Nonnull Throwable error) {
+        for (final Throwable cause : ExceptionUtils.getThrowableList(error)) {
+            if (cause instanceof FileSystemException) {
+                return false;
+            }
+            if (cause instanceof IOException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Nonnull
+    private static Mono<Long> downloadFrom(@Nonnull Flux<ByteBuffer> remaining, @Nonnull File partFile, long offset,
+                                           @Nullable LongConsumer progress) {
+        final AtomicLong received = new AtomicLong(offset);
+        return Mono.using(
+            () -> AsynchronousFileChannel.open(partFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE),
+            channel -> FluxUtil.writeFile(remaining.doOnNext(buffer -> {
+                        final long size = received.addAndGet(buffer.remaining());
+                        if (progress != null) {
+                            progress.accept(size);
+                        }
+                    }), channel, offset)
+                    .then(Mono.fromCallable(() -> {
+                        channel.truncate(received.get());
+                        return received.get();
+                    })),
+            channel -> IOUtils.closeQuietly(channel, null));
+    }
+
+    /**
+     * Skip the first bytes of the content, which have been written into the part file
+     */
+    @Nonnull
+    private static Flux<ByteBuffer> skip(@Nonnull Flux<ByteBuffer> content, long offset) {
+        if (offset <= 0) {
+            return content;
+        }
+        return Flux.defer(() -> {
+            final AtomicLong read = new AtomicLong();
+            return content
+                    .map(buffer -> {
+                        final long start = read.getAndAdd(buffer.remaining());
+                        if (start < offset) {
+                            buffer.position(buffer.position() + (int) Math.min(offset - start, buffer.remaining()));
+                        }
+                        return buffer;
+                    })
+                    .filter(ByteBuffer::hasRemaining);
+        });
+    }
+}
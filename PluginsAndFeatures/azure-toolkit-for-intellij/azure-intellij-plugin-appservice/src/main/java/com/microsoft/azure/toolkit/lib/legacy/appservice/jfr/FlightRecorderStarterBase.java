@@ -5,15 +5,18 @@
 
 package com.microsoft.azure.toolkit.lib.legacy.appservice.jfr;
 
-import com.azure.core.util.FluxUtil;
 import com.microsoft.azure.toolkit.lib.appservice.model.ProcessInfo;
 import com.microsoft.azure.toolkit.lib.appservice.model.CommandOutput;
 import com.microsoft.azure.toolkit.lib.appservice.service.IAppService;
 import com.microsoft.azure.toolkit.lib.common.exception.AzureToolkitRuntimeException;
+import com.microsoft.azure.toolkit.lib.legacy.appservice.AppServiceFileDownloader;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
+import java.io.File;
 import java.io.IOException;
 import java.util.List;
+import java.util.function.LongConsumer;
 
 public abstract class FlightRecorderStarterBase {
     protected IAppService appService;
@@ -33,8 +36,23 @@ public abstract class FlightRecorderStarterBase {
 
     public abstract CommandOutput startFlightRecorder(int pid, int timeInSeconds, String fileName) throws IOException;
 
-    public byte[] downloadJFRFile(String fileName) {
-        return FluxUtil.collectBytesInByteBufferStream(appService.getFileContent(getFinalJfrPath(fileName))).blockOptional()
-                .orElseThrow(() -> new AzureToolkitRuntimeException(String.format("Failed to download JFR file %s from %s", fileName, appService.name())));
+    /**
+     * The path of the JFR file to download through the kudu vfs api
+     */
+    protected String getJfrDownloadPath(String fileName) {
+        return getFinalJfrPath(fileName);
+    }
+
+    /**
+     * Download the JFR file into the target file, streaming the content to disk
+     *
+     * @param progress the consumer of the number of bytes downloaded so far
+     */
+    public void downloadJFRFile(String fileName, @NotNull File target, @Nullable LongConsumer progress) {
+        try {
+            AppServiceFileDownloader.download(appService.getFileContent(getJfrDownloadPath(fileName)), target, progress).block();
+        } catch (final RuntimeException e) {
+            throw new AzureToolkitRuntimeException(String.format("Failed to download JFR file %s from %s", fileName, appService.name()), e);
+        }
     }
 }
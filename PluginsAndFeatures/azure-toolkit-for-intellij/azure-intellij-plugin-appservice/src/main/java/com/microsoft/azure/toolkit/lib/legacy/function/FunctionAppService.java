@@ -8,6 +8,7 @@ import com.azure.core.management.AzureEnvironment;
 import com.azure.core.management.exception.ManagementException;
 import com.microsoft.azure.toolkit.ide.appservice.function.FunctionAppConfig;
 import com.microsoft.azure.toolkit.ide.appservice.model.ApplicationInsightsConfig;
+import com.microsoft.azure.toolkit.intellij.legacy.function.runner.core.FunctionStagingManifest;
 import com.microsoft.azure.toolkit.lib.Azure;
 import com.microsoft.azure.toolkit.lib.applicationinsights.ApplicationInsights;
 import com.microsoft.azure.toolkit.lib.applicationinsights.ApplicationInsightsEntity;
@@ -25,7 +26,6 @@ import com.microsoft.azure.toolkit.lib.common.model.Subscription;
 import com.microsoft.azure.toolkit.lib.common.telemetry.AzureTelemetry;
 import com.microsoft.azure.toolkit.lib.resource.AzureGroup;
 import org.apache.commons.lang3.StringUtils;
-import org.zeroturnaround.zip.ZipUtil;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -202,10 +202,18 @@ public class FunctionAppService {
     }
 
     public void deployFunctionApp(final FunctionApp functionApp, final File stagingFolder) throws IOException {
+        deployFunctionApp(functionApp, stagingFolder, Files.createTempFile("azure-toolkit", ".zip").toFile());
+    }
+
+    /**
+     * Deploy the staging folder packaged into the zip file. If the zip file was packaged from the staging folder last
+     * time, the entries not changed are copied from it rather than compressed again.
+     */
+    public void deployFunctionApp(final FunctionApp functionApp, final File stagingFolder, final File packageFile) throws IOException {
         AzureMessager.getMessager().info(DEPLOY_START);
         final FunctionDeployType deployType = getDeployType(functionApp);
         AzureTelemetry.getActionContext().setProperty(DEPLOYMENT_TYPE, deployType.name());
-        functionApp.deploy(packageStagingDirectory(stagingFolder), deployType);
+        functionApp.deploy(packageStagingDirectory(stagingFolder, packageFile), deployType);
         if (!StringUtils.equalsIgnoreCase(functionApp.state(), RUNNING)) {
             functionApp.start();
         }
@@ -222,10 +230,8 @@ public class FunctionAppService {
                 FunctionDeployType.RUN_FROM_BLOB : FunctionDeployType.RUN_FROM_ZIP;
     }
 
-    private File packageStagingDirectory(final File stagingFolder) throws IOException {
-        final File zipFile = Files.createTempFile("azure-toolkit", ".zip").toFile();
-        ZipUtil.pack(stagingFolder, zipFile);
-        ZipUtil.removeEntry(zipFile, LOCAL_SETTINGS_FILE);
+    private File packageStagingDirectory(final File stagingFolder, final File zipFile) throws IOException {
+        FunctionStagingManifest.load(stagingFolder.toPath()).packageTo(zipFile, LOCAL_SETTINGS_FILE);
         return zipFile;
     }
 }
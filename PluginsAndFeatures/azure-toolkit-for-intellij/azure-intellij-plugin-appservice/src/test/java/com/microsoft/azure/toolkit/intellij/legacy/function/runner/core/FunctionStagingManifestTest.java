@@ -0,0 +1,171 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.intellij.legacy.function.runner.core;
+
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+import org.apache.commons.compress.archivers.zip.ZipFile;
+import org.apache.commons.io.IOUtils;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+public class FunctionStagingManifestTest {
+    private static final String LIBRARY_PATH = "lib/library.jar";
+    private static final String HTTP_FUNCTION_JSON = "HttpTrigger/function.json";
+    private static final String TIMER_FUNCTION_JSON = "TimerTrigger/function.json";
+    private static final String LOCAL_SETTINGS_JSON = "local.settings.json";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Path stagingFolder;
+    private File library;
+
+    @Before
+    public void setUp() throws IOException {
+        stagingFolder = folder.newFolder("staging").toPath();
+        library = folder.newFile("library.jar");
+        Files.write(library.toPath(), "library v1".getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testKeepUnchangedLibrary() throws IOException {
+        stage(Collections.emptyMap());
+        final Object stagedFileKey = getFileKey(stagingFolder.resolve(LIBRARY_PATH));
+
+        // A new file of the same path, size and last modified time is taken as the library not changed
+        final File sameLibrary = folder.newFile("library.jar.new");
+        Files.write(sameLibrary.toPath(), "library v1".getBytes(StandardCharsets.UTF_8));
+        Assert.assertTrue(sameLibrary.setLastModified(library.lastModified()));
+        Files.move(sameLibrary.toPath(), library.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        stage(Collections.emptyMap());
+
+        Assert.assertEquals(stagedFileKey, getFileKey(stagingFolder.resolve(LIBRARY_PATH)));
+        Assert.assertNotEquals(getFileKey(library.toPath()), getFileKey(stagingFolder.resolve(LIBRARY_PATH)));
+        Assert.assertEquals("library v1", read(stagingFolder.resolve(LIBRARY_PATH)));
+    }
+
+    @Test
+    public void testRestageChangedLibrary() throws IOException {
+        stage(Collections.emptyMap());
+
+        // Replace the library rather than writing it, which would change the library linked as well
+        final File changedLibrary = folder.newFile("library.jar.new");
+        Files.write(changedLibrary.toPath(), "library v2 changed".getBytes(StandardCharsets.UTF_8));
+        Files.move(changedLibrary.toPath(), library.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        stage(Collections.emptyMap());
+
+        Assert.assertEquals("library v2 changed", read(stagingFolder.resolve(LIBRARY_PATH)));
+    }
+
+    @Test
+    public void testRewriteChangedFunctionJson() throws IOException {
+        stage(Collections.singletonMap(HTTP_FUNCTION_JSON, "{\"bindings\":[]}"));
+
+        stage(Collections.singletonMap(HTTP_FUNCTION_JSON, "{\"bindings\":[{\"type\":\"httpTrigger\"}]}"));
+
+        Assert.assertEquals("{\"bindings\":[{\"type\":\"httpTrigger\"}]}", read(stagingFolder.resolve(HTTP_FUNCTION_JSON)));
+    }
+
+    @Test
+    public void testRemoveFolderOfRemovedFunction() throws IOException {
+        final Map<String, String> functions = new HashMap<>();
+        functions.put(HTTP_FUNCTION_JSON, "{\"bindings\":[]}");
+        functions.put(TIMER_FUNCTION_JSON, "{\"bindings\":[]}");
+        stage(functions);
+        Assert.assertTrue(Files.isRegularFile(stagingFolder.resolve(TIMER_FUNCTION_JSON)));
+
+        stage(Collections.singletonMap(HTTP_FUNCTION_JSON, "{\"bindings\":[]}"));
+
+        Assert.assertFalse(Files.exists(stagingFolder.resolve("TimerTrigger")));
+        Assert.assertTrue(Files.isRegularFile(stagingFolder.resolve(HTTP_FUNCTION_JSON)));
+        Assert.assertTrue(Files.isRegularFile(stagingFolder.resolve(LIBRARY_PATH)));
+    }
+
+    @Test
+    public void testPackageUnchangedEntriesRawWithoutLocalSettings() throws IOException {
+        final File zipFile = folder.getRoot().toPath().resolve("staging.zip").toFile();
+        stage(Collections.singletonMap(HTTP_FUNCTION_JSON, "{\"bindings\":[]}"));
+        Files.write(stagingFolder.resolve(LOCAL_SETTINGS_JSON), "{\"Values\":{\"secret\":\"value\"}}".getBytes(StandardCharsets.UTF_8));
+        FunctionStagingManifest.load(stagingFolder).packageTo(zipFile, LOCAL_SETTINGS_JSON);
+        // Mark the packaged entries, the mark is kept only by the entries copied raw from this zip
+        markEntries(zipFile);
+
+        stage(Collections.singletonMap(HTTP_FUNCTION_JSON, "{\"bindings\":[{\"type\":\"httpTrigger\"}]}"));
+        FunctionStagingManifest.load(stagingFolder).packageTo(zipFile, LOCAL_SETTINGS_JSON);
+
+        try (ZipFile zip = new ZipFile(zipFile)) {
+            Assert.assertNull(zip.getEntry(LOCAL_SETTINGS_JSON));
+            Assert.assertNull(zip.getEntry(FunctionStagingManifest.MANIFEST_FILE));
+
+            final ZipArchiveEntry libraryEntry = zip.getEntry(LIBRARY_PATH);
+            Assert.assertEquals("packaged", libraryEntry.getComment());
+            Assert.assertEquals("library v1", read(zip, libraryEntry));
+
+            final ZipArchiveEntry functionJsonEntry = zip.getEntry(HTTP_FUNCTION_JSON);
+            Assert.assertNotEquals("packaged", functionJsonEntry.getComment());
+            Assert.assertEquals("{\"bindings\":[{\"type\":\"httpTrigger\"}]}", read(zip, functionJsonEntry));
+        }
+        Assert.assertFalse(new File(zipFile.getParentFile(), zipFile.getName() + ".tmp").exists());
+    }
+
+    /**
+     * Stage the library and the function.json files as a staging of functions does, with the manifest saved last time
+     */
+    private void stage(Map<String, String> functionJsons) throws IOException {
+        final FunctionStagingManifest manifest = FunctionStagingManifest.load(stagingFolder);
+        for (final Map.Entry<String, String> functionJson : functionJsons.entrySet()) {
+            manifest.stageContent(functionJson.getValue().getBytes(StandardCharsets.UTF_8), functionJson.getKey());
+        }
+        manifest.stageFile(library, LIBRARY_PATH);
+        manifest.removeStaleFiles();
+        manifest.save();
+    }
+
+    private void markEntries(File zipFile) throws IOException {
+        final File markedZipFile = folder.newFile("marked.zip");
+        try (ZipFile zip = new ZipFile(zipFile);
+             ZipArchiveOutputStream output = new ZipArchiveOutputStream(markedZipFile)) {
+            for (final ZipArchiveEntry entry : Collections.list(zip.getEntries())) {
+                final ZipArchiveEntry marked = new ZipArchiveEntry(entry);
+                marked.setComment("packaged");
+                try (InputStream raw = zip.getRawInputStream(entry)) {
+                    output.addRawArchiveEntry(marked, raw);
+                }
+            }
+        }
+        Files.move(markedZipFile.toPath(), zipFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static Object getFileKey(Path file) throws IOException {
+        return Files.readAttributes(file, BasicFileAttributes.class).fileKey();
+    }
+
+    private static String read(Path file) throws IOException {
+        return new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+    }
+
+    private static String read(ZipFile zip, ZipArchiveEntry entry) throws IOException {
+        try (InputStream input = zip.getInputStream(entry)) {
+            return IOUtils.toString(input, StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.lib.legacy.appservice;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Flux;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AccessDeniedException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class AppServiceFileDownloaderTest {
+    private static final int CHUNK_SIZE = 4;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private byte[] content;
+    private File target;
+    private File partFile;
+    private final List<Long> progress = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        content = "0123456789abcdefghij".getBytes(StandardCharsets.UTF_8);
+        target = new File(folder.getRoot(), "app.log");
+        partFile = new File(folder.getRoot(), "app.log.part");
+    }
+
+    @Test
+    public void testDownloadIntoPartFileAndMoveToTarget() throws IOException {
+        Files.write(target.toPath(), "old".getBytes(StandardCharsets.UTF_8));
+
+        final Long size = AppServiceFileDownloader.download(chunks(0, content.length, null), target, progress::add).block();
+
+        Assert.assertEquals(Long.valueOf(content.length), size);
+        Assert.assertArrayEquals(content, Files.readAllBytes(target.toPath()));
+        Assert.assertFalse(partFile.exists());
+        Assert.assertEquals(Arrays.asList(4L, 8L, 12L, 16L, 20L), progress);
+    }
+
+    @Test
+    public void testResumeFromTheBytesWritten() throws IOException {
+        final List<Long> offsets = new ArrayList<>();
+        final Long size = AppServiceFileDownloader.download(offset -> {
+            offsets.add(offset);
+            // The connection is broken after 2 chunks for the first time
+            return offsets.size() == 1 ? chunks(0, 2 * CHUNK_SIZE, new IOException("Connection reset"))
+                                       : chunks((int) offset, content.length, null);
+        }, target, progress::add).block();
+
+        Assert.assertEquals(Long.valueOf(content.length), size);
+        Assert.assertArrayEquals(content, Files.readAllBytes(target.toPath()));
+        // The write of the last chunk received may not complete before the connection is broken
+        Assert.assertEquals(2, offsets.size());
+        Assert.assertEquals(Long.valueOf(0), offsets.get(0));
+        Assert.assertTrue(offsets.get(1) > 0 && offsets.get(1) <= 2 * CHUNK_SIZE);
+        Assert.assertEquals(Long.valueOf(content.length), progress.get(progress.size() - 1));
+    }
+
+    @Test
+    public void testResumeContentWithoutRangeBySkippingTheBytesWritten() throws IOException {
+        final AtomicInteger subscriptions = new AtomicInteger();
+        final Flux<ByteBuffer> flakyContent = Flux.defer(() -> subscriptions.incrementAndGet() == 1
+                ? chunks(0, 2 * CHUNK_SIZE, new IOException("Connection reset"))
+                : chunks(0, content.length, null));
+
+        final Long size = AppServiceFileDownloader.download(flakyContent, target, progress::add).block();
+
+        Assert.assertEquals(Long.valueOf(content.length), size);
+        Assert.assertArrayEquals(content, Files.readAllBytes(target.toPath()));
+        Assert.assertEquals(2, subscriptions.get());
+        Assert.assertEquals(Long.valueOf(content.length), progress.get(progress.size() - 1));
+    }
+
+    @Test
+    public void testFailAtOnceWithoutRetryingErrorResponse() throws IOException {
+        Files.write(target.toPath(), "old".getBytes(StandardCharsets.UTF_8));
+        final AtomicInteger subscriptions = new AtomicInteger();
+        final IllegalStateException notFound = new IllegalStateException("Status code 404, file not found");
+        final Flux<ByteBuffer> failedContent = Flux.defer(() -> {
+            subscriptions.incrementAndGet();
+            return chunks(0, CHUNK_SIZE, notFound);
+        });
+
+        final Throwable error = download(failedContent);
+
+        Assert.assertSame(notFound, error);
+        Assert.assertEquals(1, subscriptions.get());
+        Assert.assertFalse(partFile.exists());
+        Assert.assertArrayEquals("old".getBytes(StandardCharsets.UTF_8), Files.readAllBytes(target.toPath()));
+    }
+
+    @Test
+    public void testFailWithTheLastErrorWhenRetriesExhausted() {
+        final AtomicInteger subscriptions = new AtomicInteger();
+        final IOException reset = new IOException("Connection reset");
+        final Flux<ByteBuffer> brokenContent = Flux.defer(() -> {
+            subscriptions.incrementAndGet();
+            return chunks(0, CHUNK_SIZE, reset);
+        });
+
+        final Throwable error = download(brokenContent);
+
+        Assert.assertSame(reset, error);
+        Assert.assertEquals(4, subscriptions.get());
+        Assert.assertFalse(partFile.exists());
+        Assert.assertFalse(target.exists());
+    }
+
+    @Test
+    public void testIsTransientFailure() {
+        Assert.assertTrue(AppServiceFileDownloader.isTransientFailure(new IOException("Connection reset")));
+        Assert.assertTrue(AppServiceFileDownloader.isTransientFailure(
+                new UncheckedIOException(new IOException("Connection reset"))));
+        Assert.assertFalse(AppServiceFileDownloader.isTransientFailure(new AccessDeniedException("app.log.part")));
+        Assert.assertFalse(AppServiceFileDownloader.isTransientFailure(new IllegalStateException("Status code 401")));
+    }
+
+    private Throwable download(Flux<ByteBuffer> source) {
+        try {
+            AppServiceFileDownloader.download(source, target, null).block();
+        } catch (RuntimeException e) {
+            // block() wraps the checked exceptions
+            return Exceptions.unwrap(e);
+        }
+        Assert.fail("The download should fail");
+        return null;
+    }
+
+    /**
+     * Emit the content from the start to the end in chunks, ended by the error if it's given
+     */
+    private Flux<ByteBuffer> chunks(int start, int end, Throwable error) {
+        final List<ByteBuffer> buffers = new ArrayList<>();
+        for (int i = start; i < end; i += CHUNK_SIZE) {
+            buffers.add(ByteBuffer.wrap(Arrays.copyOfRange(content, i, Math.min(i + CHUNK_SIZE, end))));
+        }
+        final Flux<ByteBuffer> chunks = Flux.fromIterable(Collections.unmodifiableList(buffers));
+        return error == null ? chunks : chunks.concatWith(Flux.error(error));
+    }
+}
@@ -0,0 +1,178 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.intellij.common;
+
+import com.intellij.execution.ui.ConsoleView;
+import com.intellij.execution.ui.ConsoleViewContentType;
+import com.intellij.openapi.application.Application;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.ModalityState;
+import com.intellij.ui.components.JBLabel;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import com.intellij.util.ui.JBUI;
+import com.intellij.util.ui.UIUtil;
+import org.jetbrains.annotations.NotNull;
+
+import javax.swing.JComponent;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Prints streaming log lines into a console in batches, rather than one print for each line.
+ *
+ * The lines are buffered and printed every {@link #FLUSH_INTERVAL_MS}, at most {@link #MAX_LINES_PER_FLUSH} lines for
+ * each time, so a chatty app can't flood the console. Once {@link #MAX_BUFFERED_LINES} lines are waiting, the oldest
+ * ones are dropped. The throughput of the lines received and the dropped lines are shown in the header component.
+ */
+public class StreamingLogConsoleSink {
+    private static final long FLUSH_INTERVAL_MS = 100;
+    private static final int MAX_LINES_PER_FLUSH = 2000;
+    private static final int MAX_BUFFERED_LINES = 10000;
+    private static final long STATISTICS_INTERVAL_MS = 1000;
+    private static final String SEPARATOR = "\n";
+
+    private final ConsoleView consoleView;
+    private final ScheduledExecutorService flushExecutor;
+    private final Deque<String> bufferedLines = new ArrayDeque<>();
+    private final AtomicLong receivedLines = new AtomicLong();
+    private final AtomicLong printedLines = new AtomicLong();
+    private final AtomicLong droppedLines = new AtomicLong();
+
+    private ScheduledFuture<?> flushFuture;
+    private long lastStatisticsTimeMs;
+    private long lastStatisticsLines;
+    // Created on the first use on the UI thread
+    private JBLabel header;
+
+    public StreamingLogConsoleSink(@NotNull ConsoleView consoleView) {
+        this(consoleView, AppExecutorUtil.getAppScheduledExecutorService());
+    }
+
+    StreamingLogConsoleSink(@NotNull ConsoleView consoleView, @NotNull ScheduledExecutorService flushExecutor) {
+        this.consoleView = consoleView;
+        this.flushExecutor = flushExecutor;
+    }
+
+    /**
+     * The header component showing the throughput and the dropped lines, which is to be put above the console
+     */
+    public JComponent getHeader() {
+        if (header == null) {
+            header = new JBLabel();
+            header.setBorder(JBUI.Borders.empty(2, 6));
+            header.setForeground(UIUtil.getContextHelpForeground());
+            header.setVisible(false);
+        }
+        return header;
+    }
+
+    public synchronized void start() {
+        if (flushFuture != null) {
+            return;
+        }
+        receivedLines.set(0);
+        printedLines.set(0);
+        droppedLines.set(0);
+        lastStatisticsTimeMs = System.currentTimeMillis();
+        lastStatisticsLines = 0;
+        flushFuture = flushExecutor.scheduleWithFixedDelay(this::flush, FLUSH_INTERVAL_MS, FLUSH_INTERVAL_MS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stop flushing periodically, and print all the lines buffered
+     */
+    public void stop() {
+        synchronized (this) {
+            if (flushFuture == null) {
+                return;
+            }
+            flushFuture.cancel(false);
+            flushFuture = null;
+        }
+        while (flush()) {
+            // print all the lines left
+        }
+    }
+
+    /**
+     * Buffer a line to print, which never blocks the caller
+     */
+    public void println(@NotNull String line) {
+        receivedLines.incrementAndGet();
+        synchronized (bufferedLines) {
+            if (bufferedLines.size() >= MAX_BUFFERED_LINES) {
+                bufferedLines.pollFirst();
+                droppedLines.incrementAndGet();
+            }
+            bufferedLines.addLast(line);
+        }
+    }
+
+    /**
+     * Print the buffered lines of one batch
+     *
+     * @return true if there are lines left in the buffer
+     */
+    private synchronized boolean flush() {
+        final StringBuilder batch = new StringBuilder();
+        int lines = 0;
+        final boolean hasMore;
+        synchronized (bufferedLines) {
+            while (lines < MAX_LINES_PER_FLUSH && !bufferedLines.isEmpty()) {
+                batch.append(bufferedLines.pollFirst()).append(SEPARATOR);
+                lines++;
+            }
+            hasMore = !bufferedLines.isEmpty();
+        }
+
+        if (lines > 0) {
+            consoleView.print(batch.toString(), ConsoleViewContentType.NORMAL_OUTPUT);
+            printedLines.addAndGet(lines);
+        }
+        updateStatistics();
+        return hasMore;
+    }
+
+    private void updateStatistics() {
+        final long now = System.currentTimeMillis();
+        if (now - lastStatisticsTimeMs < STATISTICS_INTERVAL_MS) {
+            return;
+        }
+
+        // The throughput of the lines coming in, which are more than the lines printed while the oldest are dropped
+        final long received = receivedLines.get();
+        final long linesPerSecond = (received - lastStatisticsLines) * 1000 / (now - lastStatisticsTimeMs);
+        lastStatisticsTimeMs = now;
+        lastStatisticsLines = received;
+        final String text = String.format("%,d lines/s, %,d lines printed, %,d lines dropped",
+                linesPerSecond, printedLines.get(), droppedLines.get());
+        final Application application = ApplicationManager.getApplication();
+        if (application == null) {
+            // No UI to show the header in
+            return;
+        }
+        application.invokeLater(() -> {
+            getHeader().setVisible(true);
+            header.setText(text);
+        }, ModalityState.any());
+    }
+
+    public long getReceivedLines() {
+        return receivedLines.get();
+    }
+
+    public long getPrintedLines() {
+        return printedLines.get();
+    }
+
+    public long getDroppedLines() {
+        return droppedLines.get();
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.intellij.common;
+
+import com.intellij.execution.ui.ConsoleView;
+import com.intellij.execution.ui.ConsoleViewContentType;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class StreamingLogConsoleSinkTest {
+    private ConsoleView consoleView;
+    private ScheduledFuture<?> flushFuture;
+    private StreamingLogConsoleSink sink;
+
+    @Before
+    public void setUp() {
+        consoleView = mock(ConsoleView.class);
+        flushFuture = mock(ScheduledFuture.class);
+
+        // The periodic flushes are never run, so the buffer is only printed by stop()
+        final ScheduledExecutorService flushExecutor = mock(ScheduledExecutorService.class);
+        doReturn(flushFuture).when(flushExecutor)
+                .scheduleWithFixedDelay(any(Runnable.class), anyLong(), anyLong(), any(TimeUnit.class));
+
+        sink = new StreamingLogConsoleSink(consoleView, flushExecutor);
+        sink.start();
+    }
+
+    @Test
+    public void testPrintInBatches() {
+        printLines(0, 4500);
+        verify(consoleView, never()).print(anyString(), any(ConsoleViewContentType.class));
+
+        sink.stop();
+
+        final List<String> batches = capturePrints(3);
+        assertEquals(2000, countLines(batches.get(0)));
+        assertEquals(2000, countLines(batches.get(1)));
+        assertEquals(500, countLines(batches.get(2)));
+        assertEquals(expectedLines(0, 4500), String.join("", batches));
+        assertEquals(4500, sink.getReceivedLines());
+        assertEquals(4500, sink.getPrintedLines());
+        assertEquals(0, sink.getDroppedLines());
+    }
+
+    @Test
+    public void testDropOldestLines() {
+        printLines(0, 10005);
+
+        sink.stop();
+
+        // The 5 oldest lines are dropped, the 10000 lines left are printed in order
+        final List<String> batches = capturePrints(5);
+        assertTrue(batches.get(0).startsWith("line 5\n"));
+        assertEquals(expectedLines(5, 10005), String.join("", batches));
+        assertEquals(10005, sink.getReceivedLines());
+        assertEquals(10000, sink.getPrintedLines());
+        assertEquals(5, sink.getDroppedLines());
+    }
+
+    @Test
+    public void testStopDrainsBuffer() {
+        printLines(0, 10);
+
+        sink.stop();
+
+        verify(flushFuture).cancel(false);
+        final List<String> batches = capturePrints(1);
+        assertEquals(expectedLines(0, 10), batches.get(0));
+
+        // Stopped already, nothing more is printed
+        sink.stop();
+        verify(consoleView, times(1)).print(anyString(), any(ConsoleViewContentType.class));
+    }
+
+    private void printLines(int from, int to) {
+        for (int i = from; i < to; i++) {
+            sink.println("line " + i);
+        }
+    }
+
+    private List<String> capturePrints(int times) {
+        final ArgumentCaptor<String> batches = ArgumentCaptor.forClass(String.class);
+        verify(consoleView, times(times)).print(batches.capture(), eq(ConsoleViewContentType.NORMAL_OUTPUT));
+        return batches.getAllValues();
+    }
+
+    private static String expectedLines(int from, int to) {
+        final StringBuilder lines = new StringBuilder();
+        for (int i = from; i < to; i++) {
+            lines.append("line ").append(i).append('\n');
+        }
+        return lines.toString();
+    }
+
+    private static int countLines(String batch) {
+        return batch.split("\n").length;
+    }
+}
@@ -11,9 +11,13 @@ import com.microsoft.azure.toolkit.lib.common.task.AzureTaskManager;
 import com.microsoft.azure.toolkit.redis.RedisCache;
 import org.apache.commons.lang3.tuple.Pair;
 import redis.clients.jedis.Jedis;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.Protocol;
+import redis.clients.jedis.Response;
 import redis.clients.jedis.ScanParams;
 import redis.clients.jedis.ScanResult;
 import redis.clients.jedis.Tuple;
+import redis.clients.jedis.exceptions.JedisDataException;
 import redis.clients.jedis.exceptions.JedisException;
 
 import javax.annotation.Nonnull;
@@ -24,10 +28,14 @@ import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
 import static redis.clients.jedis.ScanParams.SCAN_POINTER_START;
@@ -41,6 +49,10 @@ public class RedisCacheExplorer extends BaseEditor {
 
     private String currentCursor;
     private String lastChosenKey;
+    // The type, TTL and memory usage of the keys listed, got in the same round trip of scanning
+    private final Map<String, KeyInfo> keyInfos = new HashMap<>();
+    // The next scan page, fetched in the background while the current page is shown
+    private PrefetchedPage prefetchedPage;
 
     private static final String[] LIST_TITLE = new String[]{" Index", " Item"};
     private static final String[] SET_TITLE = new String[]{" Member"};
@@ -52,6 +64,7 @@ public class RedisCacheExplorer extends BaseEditor {
     private static final int SPLIT_PANE_DIVIDER_SIZE = 2;
     private static final double SPLIT_PANE_WEIGHT = 0.4;
     private static final int DEFAULT_KEY_COUNT = 50;
+    private static final long PREFETCHED_PAGE_EXPIRY_SECONDS = 30;
     private static final int DEFAULT_REDIS_DB_NUMBER = 16;
     private static final int MAX_DATABASE_NUMBER = 64;
     private static final long DEFAULT_RANGE_START = 0;
@@ -118,8 +131,11 @@ public class RedisCacheExplorer extends BaseEditor {
             }
             RedisCacheExplorer.this.setWidgetEnableStatus(false);
             lastChosenKey = selectedKey;
+            final int db = cbDatabase.getSelectedIndex();
+            final KeyInfo keyInfo = keyInfos.get(selectedKey);
+            final String knownType = keyInfo == null ? null : keyInfo.type;
             manager.runOnPooledThread(() -> {
-                final Pair<String, ArrayList<String[]>> data = doWithRedis(jedis -> getValueByKey(jedis, selectedKey));
+                final Pair<String, ArrayList<String[]>> data = doWithRedis(db, jedis -> getValueByKey(jedis, selectedKey, knownType));
                 manager.runLater(() -> RedisCacheExplorer.this.showContent(data));
             });
         });
@@ -128,15 +144,22 @@ public class RedisCacheExplorer extends BaseEditor {
 
         btnScanMore.addActionListener(event -> {
             RedisCacheExplorer.this.setWidgetEnableStatus(false);
-            manager.runOnPooledThread(() -> {
-                final ScanResult<String> r = doWithRedis(jedis -> jedis.scan(currentCursor, new ScanParams()
-                    .match(txtKeyPattern.getText()).count(DEFAULT_KEY_COUNT)));
-                manager.runLater(() -> RedisCacheExplorer.this.showScanResult(r));
-            });
+            scanKeys(currentCursor, txtKeyPattern.getText());
         });
 
         txtKeyPattern.addActionListener(event -> onBtnSearchClick());
 
+        lstKey.setCellRenderer(new DefaultListCellRenderer() {
+            @Override
+            public Component getListCellRendererComponent(JList<?> list, Object value, int index, boolean isSelected,
+                                                          boolean cellHasFocus) {
+                final Component component = super.getListCellRendererComponent(list, value, index, isSelected, cellHasFocus);
+                final KeyInfo keyInfo = keyInfos.get(String.valueOf(value));
+                setToolTipText(keyInfo == null ? null : keyInfo.toString());
+                return component;
+            }
+        });
+
         cbActionType.addActionListener(event -> {
             final String selected = (String) cbActionType.getSelectedItem();
             if (Objects.equals(selected, ACTION_GET)) {
@@ -158,6 +181,63 @@ public class RedisCacheExplorer extends BaseEditor {
         }
     }
 
+    private <T> T doWithRedis(int db, Function<Jedis, T> func) {
+        // The pooled connection is reset to the default database once returned, so select the database every time
+        return doWithRedis(jedis -> {
+            jedis.select(db);
+            return func.apply(jedis);
+        });
+    }
+
+    /**
+     * Scan a page of keys, or take it if it's prefetched, and prefetch the page after it.
+     */
+    private void scanKeys(String cursor, String pattern) {
+        final AzureTaskManager manager = AzureTaskManager.getInstance();
+        final int db = cbDatabase.getSelectedIndex();
+        final PrefetchedPage prefetched = prefetchedPage;
+        prefetchedPage = null;
+
+        final CompletableFuture<KeyPage> page = prefetched != null && prefetched.isFor(db, cursor, pattern) ? prefetched.page : null;
+        if (prefetched != null && page == null) {
+            prefetched.page.cancel(false);
+        }
+
+        manager.runOnPooledThread(() -> {
+            KeyPage result = null;
+            if (page != null) {
+                try {
+                    result = page.get();
+                } catch (final InterruptedException | ExecutionException e) {
+                    // The prefetching failed, scan again to report the error
+                }
+            }
+            if (result == null) {
+                result = doWithRedis(db, jedis -> scanKeyPage(jedis, cursor, pattern));
+            }
+            final KeyPage keyPage = result;
+            manager.runLater(() -> {
+                RedisCacheExplorer.this.showScanResult(keyPage);
+                if (!SCAN_POINTER_START.equals(keyPage.scanResult.getCursor())) {
+                    prefetchedPage = new PrefetchedPage(db, keyPage.scanResult.getCursor(), pattern,
+                        fetchKeyPage(db, keyPage.scanResult.getCursor(), pattern));
+                }
+            });
+        });
+    }
+
+    private CompletableFuture<KeyPage> fetchKeyPage(int db, String cursor, String pattern) {
+        final CompletableFuture<KeyPage> page = new CompletableFuture<>();
+        AzureTaskManager.getInstance().runOnPooledThread(() -> {
+            try {
+                page.complete(doWithRedis(db, jedis -> scanKeyPage(jedis, cursor, pattern)));
+            } catch (final RuntimeException e) {
+                page.completeExceptionally(e);
+            }
+        });
+        return page;
+    }
+
     @Nonnull
     @Override
     public JComponent getComponent() {
@@ -182,10 +262,13 @@ public class RedisCacheExplorer extends BaseEditor {
         }
     }
 
-    public void showScanResult(ScanResult<String> result) {
+    private void showScanResult(KeyPage page) {
+        final ScanResult<String> result = page.scanResult;
+        keyInfos.clear();
+        keyInfos.putAll(page.keyInfos);
         lstKey.removeAll();
         final DefaultListModel<String> listModel = new DefaultListModel<>();
-        final List<String> keys = result.getResult();
+        final List<String> keys = new ArrayList<>(result.getResult());
         Collections.sort(keys);
         for (final String key : keys) {
             listModel.addElement(key);
@@ -252,14 +335,7 @@ public class RedisCacheExplorer extends BaseEditor {
     }
 
     private void onDataBaseSelect() {
-        final AzureTaskManager manager = AzureTaskManager.getInstance();
-        manager.runOnPooledThread(() -> {
-            final ScanResult<String> r = doWithRedis(jedis -> {
-                jedis.select(cbDatabase.getSelectedIndex());
-                return jedis.scan(SCAN_POINTER_START, new ScanParams().match(DEFAULT_SCAN_PATTERN).count(DEFAULT_KEY_COUNT));
-            });
-            manager.runLater(() -> RedisCacheExplorer.this.showScanResult(r));
-        });
+        scanKeys(SCAN_POINTER_START, DEFAULT_SCAN_PATTERN);
     }
 
     private void setWidgetEnableStatus(boolean enabled) {
@@ -292,23 +368,71 @@ public class RedisCacheExplorer extends BaseEditor {
         final String key = txtKeyPattern.getText();
         if (Objects.equals(actionType, ACTION_GET)) {
             final AzureTaskManager manager = AzureTaskManager.getInstance();
+            final int db = cbDatabase.getSelectedIndex();
             manager.runOnPooledThread(() -> {
-                final Pair<String, ArrayList<String[]>> result = doWithRedis(jedis ->
-                    jedis.exists(key) ? getValueByKey(jedis, key) : Pair.of("", new ArrayList<>()));
+                final Pair<String, ArrayList<String[]>> result = doWithRedis(db, jedis ->
+                    jedis.exists(key) ? getValueByKey(jedis, key, null) : Pair.of("", new ArrayList<>()));
                 this.updateKeyList();
                 this.showContent(result);
             });
         } else if (Objects.equals(actionType, ACTION_SCAN)) {
-            final AzureTaskManager manager = AzureTaskManager.getInstance();
-            manager.runOnPooledThread(() -> {
-                final ScanResult<String> r = doWithRedis(jedis -> jedis.scan(SCAN_POINTER_START, new ScanParams().match(key).count(DEFAULT_KEY_COUNT)));
-                manager.runLater(() -> RedisCacheExplorer.this.showScanResult(r));
-            });
+            scanKeys(SCAN_POINTER_START, key);
             currentCursor = SCAN_POINTER_START;
         }
         lastChosenKey = "";
     }
 
+    private static class KeyInfo {
+        @Nullable
+        private final String type;
+        private final long ttl;
+        @Nullable
+        private final Long memoryUsage;
+
+        KeyInfo(@Nullable String type, long ttl, @Nullable Long memoryUsage) {
+            this.type = type;
+            this.ttl = ttl;
+            this.memoryUsage = memoryUsage;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Type: %s, TTL: %s, Memory: %s", Objects.toString(type, "unknown"),
+                ttl < 0 ? "none" : ttl + "s", memoryUsage == null ? "unknown" : memoryUsage + " bytes");
+        }
+    }
+
+    private static class KeyPage {
+        private final ScanResult<String> scanResult;
+        private final Map<String, KeyInfo> keyInfos;
+
+        KeyPage(ScanResult<String> scanResult, Map<String, KeyInfo> keyInfos) {
+            this.scanResult = scanResult;
+            this.keyInfos = keyInfos;
+        }
+    }
+
+    private static class PrefetchedPage {
+        private final int db;
+        private final String cursor;
+        private final String pattern;
+        private final CompletableFuture<KeyPage> page;
+        private final long prefetchedAt = System.nanoTime();
+
+        PrefetchedPage(int db, String cursor, String pattern, CompletableFuture<KeyPage> page) {
+            this.db = db;
+            this.cursor = cursor;
+            this.pattern = pattern;
+            this.page = page;
+        }
+
+        boolean isFor(int db, String cursor, String pattern) {
+            // An old page may miss the keys changed since, scan it again then
+            return this.db == db && Objects.equals(this.cursor, cursor) && Objects.equals(this.pattern, pattern)
+                && System.nanoTime() - prefetchedAt < TimeUnit.SECONDS.toNanos(PREFETCHED_PAGE_EXPIRY_SECONDS);
+        }
+    }
+
     private static class ReadOnlyTableModel extends DefaultTableModel {
         ReadOnlyTableModel(Object[][] data, String[] columnNames) {
             super(data, columnNames);
@@ -351,9 +475,60 @@ public class RedisCacheExplorer extends BaseEditor {
         }
     }
 
+    private static KeyPage scanKeyPage(Jedis jedis, String cursor, String pattern) {
+        final ScanResult<String> scanResult = jedis.scan(cursor, new ScanParams().match(pattern).count(DEFAULT_KEY_COUNT));
+        final List<String> keys = scanResult.getResult();
+        final Map<String, KeyInfo> infos = new HashMap<>();
+        if (keys.isEmpty()) {
+            return new KeyPage(scanResult, infos);
+        }
+
+        // Get all keys' type, TTL and memory usage in one round trip
+        final Pipeline pipeline = jedis.pipelined();
+        final List<Response<String>> types = new ArrayList<>(keys.size());
+        final List<Response<Long>> ttls = new ArrayList<>(keys.size());
+        final List<Response<Object>> memoryUsages = new ArrayList<>(keys.size());
+        for (final String key : keys) {
+            types.add(pipeline.type(key));
+            ttls.add(pipeline.ttl(key));
+            memoryUsages.add(pipeline.sendCommand(Protocol.Command.MEMORY, "USAGE", key));
+        }
+        pipeline.sync();
+
+        for (int i = 0; i < keys.size(); i++) {
+            final String type = getQuietly(types.get(i));
+            final Long ttl = getQuietly(ttls.get(i));
+            final Object memoryUsage = getQuietly(memoryUsages.get(i));
+            infos.put(keys.get(i), new KeyInfo(type == null ? null : type.toUpperCase(), ttl == null ? -1 : ttl,
+                memoryUsage instanceof Long ? (Long) memoryUsage : null));
+        }
+        return new KeyPage(scanResult, infos);
+    }
+
+    @Nullable
+    private static <T> T getQuietly(Response<T> response) {
+        try {
+            return response.get();
+        } catch (final JedisException e) {
+            // Such as the command isn't supported by the server
+            return null;
+        }
+    }
+
+    @Nullable
+    private static Pair<String, ArrayList<String[]>> getValueByKey(Jedis jedis, String key, @Nullable String knownType) {
+        if (knownType != null) {
+            try {
+                return getValueByKeyAndType(jedis, key, knownType);
+            } catch (final JedisDataException e) {
+                // The key has been changed to another type since scanned
+            }
+        }
+        return getValueByKeyAndType(jedis, key, jedis.type(key).toUpperCase());
+    }
+
     @Nullable
-    private static Pair<String, ArrayList<String[]>> getValueByKey(Jedis jedis, String key) {
-        final String type = jedis.type(key).toUpperCase();
+    private static Pair<String, ArrayList<String[]>> getValueByKeyAndType(Jedis jedis, String key, String type) {
         final ArrayList<String[]> columnData = new ArrayList<>();
         switch (type) {
             case "STRING":
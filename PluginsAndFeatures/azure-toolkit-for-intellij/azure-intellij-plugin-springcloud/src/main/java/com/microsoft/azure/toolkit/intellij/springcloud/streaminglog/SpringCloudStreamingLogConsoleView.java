@@ -9,12 +9,14 @@ import com.intellij.execution.impl.ConsoleViewImpl;
 import com.intellij.execution.ui.ConsoleViewContentType;
 import com.intellij.openapi.project.Project;
 import com.microsoft.applicationinsights.internal.util.ThreadPoolUtils;
+import com.microsoft.azure.toolkit.intellij.common.StreamingLogConsoleSink;
 import com.microsoft.azure.toolkit.lib.common.bundle.AzureString;
 import com.microsoft.azure.toolkit.lib.common.operation.AzureOperationBundle;
 import com.microsoft.azure.toolkit.lib.common.task.AzureTask;
 import com.microsoft.azure.toolkit.lib.common.task.AzureTaskManager;
 import org.jetbrains.annotations.NotNull;
 
+import java.awt.BorderLayout;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
@@ -31,11 +33,14 @@ public class SpringCloudStreamingLogConsoleView extends ConsoleViewImpl {
 
     private final String resourceName;
     private InputStream logInputStream;
+    private final StreamingLogConsoleSink logSink;
 
     public SpringCloudStreamingLogConsoleView(@NotNull Project project, String resourceName) {
         super(project, true);
         this.status = ConsoleViewStatus.STOPPED;
         this.resourceName = resourceName;
+        this.logSink = new StreamingLogConsoleSink(this);
+        add(logSink.getHeader(), BorderLayout.NORTH);
     }
 
     public ConsoleViewStatus getStatus() {
@@ -65,19 +70,18 @@ public class SpringCloudStreamingLogConsoleView extends ConsoleViewImpl {
             setStatus(ConsoleViewStatus.ACTIVE);
         }
         this.print("Streaming Log Start.\n", ConsoleViewContentType.SYSTEM_OUTPUT);
+        logSink.start();
         executorService = Executors.newSingleThreadExecutor();
         executorService.submit(() -> {
             try (final Scanner scanner = new Scanner(new InputStreamReader(logInputStream))) {
-                while (getStatus() == ConsoleViewStatus.ACTIVE && scanner.hasNext()) {
-                    final String log = scanner.nextLine();
-                    SpringCloudStreamingLogConsoleView.this.print(log + "\n", ConsoleViewContentType.NORMAL_OUTPUT);
-                    Thread.sleep(50);
+                while (getStatus() == ConsoleViewStatus.ACTIVE && scanner.hasNextLine()) {
+                    logSink.println(scanner.nextLine());
                 }
-            } catch (final InterruptedException e) {
-                // swallow interrupt exception while shutdown
             } catch (final Exception e) {
+                logSink.stop();
                 this.print(String.format("Streaming Log is interrupted due to error : %s.\n", e.getMessage()), ConsoleViewContentType.SYSTEM_OUTPUT);
             } finally {
+                logSink.stop();
                 print("Streaming Log stops.\n", ConsoleViewContentType.SYSTEM_OUTPUT);
                 setStatus(ConsoleViewStatus.STOPPED);
             }
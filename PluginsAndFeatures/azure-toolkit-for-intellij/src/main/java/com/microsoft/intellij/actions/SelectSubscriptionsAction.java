@@ -21,6 +21,7 @@ import com.microsoft.azuretools.authmanage.models.SubscriptionDetail;
 import com.microsoft.intellij.ui.SubscriptionsDialog;
 import com.microsoft.intellij.AzureAnAction;
 import com.microsoft.azuretools.sdkmanage.AzureManager;
+import com.microsoft.azuretools.sdkmanage.AzureManagerBase;
 import com.microsoft.azuretools.telemetrywrapper.Operation;
 import com.microsoft.intellij.helpers.UIHelperImpl;
 import com.microsoft.intellij.serviceexplorer.azure.ManageSubscriptionsAction;
@@ -32,6 +33,7 @@ import rx.Single;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 public class SelectSubscriptionsAction extends AzureAnAction {
     private static final Logger LOGGER = Logger.getInstance(SelectSubscriptionsAction.class);
@@ -50,8 +52,8 @@ public class SelectSubscriptionsAction extends AzureAnAction {
     @Override
     public void update(AnActionEvent e) {
         try {
-            boolean isSignIn = AuthMethodManager.getInstance().isSignedIn();
-            e.getPresentation().setEnabled(isSignIn);
+            final AuthMethodManager authMethodManager = AuthMethodManager.getInstance();
+            e.getPresentation().setEnabled(authMethodManager.isSignedIn() || authMethodManager.isRestoringSignIn());
             e.getPresentation().setIcon(UIHelperImpl.loadIcon(ManageSubscriptionsAction.getIcon()));
         } catch (Exception ex) {
             ex.printStackTrace();
@@ -63,6 +65,12 @@ public class SelectSubscriptionsAction extends AzureAnAction {
         final AuthMethodManager authMethodManager = AuthMethodManager.getInstance();
         final AzureManager manager = authMethodManager.getAzureManager();
         if (manager == null) {
+            if (authMethodManager.isRestoringSignIn()) {
+                // the subscriptions found last time are only shown, they can't be selected until the sign-in is restored
+                final List<SubscriptionDetail> lastKnown = AzureManagerBase.getLastKnownSubscriptionDetails().stream()
+                    .distinct().collect(Collectors.toList());
+                AzureTaskManager.getInstance().runLater(() -> SubscriptionsDialog.showLastKnown(lastKnown, project));
+            }
             return Single.fromCallable(() -> null);
         }
 
@@ -54,6 +54,7 @@ import com.microsoft.azure.toolkit.lib.common.operation.AzureOperation;
 import com.microsoft.azure.toolkit.lib.common.operation.AzureOperationBundle;
 import com.microsoft.azure.toolkit.lib.common.task.AzureTask;
 import com.microsoft.azure.toolkit.lib.common.task.AzureTaskManager;
+import com.microsoft.azure.toolkit.lib.legacy.appservice.AppServiceFileDownloader;
 import com.microsoft.azuretools.azurecommons.helpers.AzureCmdException;
 import com.microsoft.azuretools.azurecommons.helpers.NotNull;
 import com.microsoft.azuretools.azurecommons.helpers.Nullable;
@@ -64,6 +65,7 @@ import com.microsoft.tooling.msservices.components.DefaultLoader;
 import com.microsoft.tooling.msservices.helpers.IDEHelper;
 import lombok.SneakyThrows;
 import lombok.extern.java.Log;
+import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.exception.ExceptionUtils;
@@ -71,7 +73,6 @@ import org.apache.commons.lang3.exception.ExceptionUtils;
 import javax.swing.*;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InterruptedIOException;
@@ -483,26 +484,17 @@ public class IDEHelperImpl implements IDEHelper {
         if (Objects.isNull(destFile)) {
             return;
         }
-        final OutputStream output = new FileOutputStream(destFile);
         final Project project = (Project) context;
         final AzureString title = AzureOperationBundle.title("appservice.download_file.file", file.getName());
         final AzureTask<Void> task = new AzureTask<>(project, title, false, () -> {
-            ProgressManager.getInstance().getProgressIndicator().setIndeterminate(true);
-            file.getApp()
-                    .getFileContent(file.getPath())
-                    .doOnComplete(() -> notifyDownloadSuccess(file.getName(), destFile, ((Project) context)))
-                    .doOnTerminate(() -> IOUtils.closeQuietly(output, null))
-                    .subscribe(bytes -> {
-                        try {
-                            if (bytes != null) {
-                                output.write(bytes.array(), 0, bytes.limit());
-                            }
-                        } catch (final IOException e) {
-                            final String error = "failed to write data into local file";
-                            final String action = "try later";
-                            throw new AzureToolkitRuntimeException(error, e, action, retry);
-                        }
-                    }, IDEHelperImpl::onRxException);
+            final ProgressIndicator indicator = ProgressManager.getInstance().getProgressIndicator();
+            indicator.setIndeterminate(true);
+            final String error = "failed to write data into local file";
+            final String action = "try later";
+            AppServiceFileDownloader.download(file.getApp().getFileContent(file.getPath()), destFile,
+                            size -> indicator.setText2(FileUtils.byteCountToDisplaySize(size)))
+                    .onErrorMap(IOException.class, e -> new AzureToolkitRuntimeException(error, e, action, retry))
+                    .subscribe(size -> notifyDownloadSuccess(file.getName(), destFile, ((Project) context)), IDEHelperImpl::onRxException);
         });
         AzureTaskManager.getInstance().runInModal(task);
     }
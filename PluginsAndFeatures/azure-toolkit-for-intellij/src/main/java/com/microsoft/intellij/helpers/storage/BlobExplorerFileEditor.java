@@ -40,6 +40,7 @@ import com.microsoft.tooling.msservices.model.storage.BlobContainer;
 import com.microsoft.tooling.msservices.model.storage.BlobDirectory;
 import com.microsoft.tooling.msservices.model.storage.BlobFile;
 import com.microsoft.tooling.msservices.model.storage.BlobItem;
+import com.microsoft.tooling.msservices.model.storage.BlobItemPage;
 import com.microsoft.tooling.msservices.serviceexplorer.NodeActionEvent;
 import com.microsoft.tooling.msservices.serviceexplorer.NodeActionListener;
 import org.apache.commons.io.IOUtils;
@@ -76,6 +77,9 @@ public class BlobExplorerFileEditor implements FileEditor, TelemetryProperties {
     static final String UPLOAD = "Upload";
     static final String QUERY = "Query";
 
+    private static final int BLOB_ITEM_PAGE_SIZE = 1000;
+    private static final int NEXT_PAGE_PREFETCH_ROWS = 100;
+
     private JPanel mainPanel;
     private JTextField queryTextField;
     private JTable blobListTable;
@@ -94,7 +98,8 @@ public class BlobExplorerFileEditor implements FileEditor, TelemetryProperties {
     private Project project;
 
     private LinkedList<BlobDirectory> directoryQueue = new LinkedList<BlobDirectory>();
-    private List<BlobItem> blobItems;
+    private List<BlobItem> blobItems = new ArrayList<BlobItem>();
+    private final BlobItemPaging paging = new BlobItemPaging();
 
     private ISubscriptionSelectionListener subscriptionListener;
     private FileEditorVirtualNode fileEditorVirtualNode;
@@ -194,6 +199,16 @@ public class BlobExplorerFileEditor implements FileEditor, TelemetryProperties {
         });
 
         blobListTable.setRowSorter(sorter);
+
+        JScrollPane blobListScrollPane = (JScrollPane) SwingUtilities.getAncestorOfClass(JScrollPane.class, blobListTable);
+        if (blobListScrollPane != null) {
+            blobListScrollPane.getVerticalScrollBar().addAdjustmentListener(new AdjustmentListener() {
+                @Override
+                public void adjustmentValueChanged(AdjustmentEvent adjustmentEvent) {
+                    loadNextPageIfScrolledNearEnd();
+                }
+            });
+        }
         List<RowSorter.SortKey> sortKeys = new ArrayList<RowSorter.SortKey>();
 
         sortKeys.add(new RowSorter.SortKey(0, SortOrder.DESCENDING));
@@ -267,7 +282,18 @@ public class BlobExplorerFileEditor implements FileEditor, TelemetryProperties {
             }
         };
 
-        refreshButton.addActionListener(queryAction);
+        refreshButton.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent actionEvent) {
+                try {
+                    StorageClientSDKManager.getManager().invalidateBlobItemPages(connectionString, blobContainer);
+                } catch (AzureCmdException ex) {
+                    DefaultLoader.getUIHelper().logError(ex.getMessage(), ex);
+                }
+
+                fileEditorVirtualNode.getNodeActionByName(QUERY).fireNodeActionEvent();
+            }
+        });
         queryButton.addActionListener(queryAction);
 
         deleteButton.addActionListener(new ActionListener() {
@@ -302,7 +328,34 @@ public class BlobExplorerFileEditor implements FileEditor, TelemetryProperties {
     }
 
     public void fillGrid() {
-        setUIState(true);
+        loadBlobItemPage(true);
+    }
+
+    private void loadNextPageIfScrolledNearEnd() {
+        Rectangle visibleRect = blobListTable.getVisibleRect();
+        int lastVisibleRow = blobListTable.rowAtPoint(new Point(0, visibleRect.y + visibleRect.height - 1));
+
+        // The row is -1 when the rows can't fill the view
+        if (lastVisibleRow < 0 || lastVisibleRow >= blobListTable.getRowCount() - NEXT_PAGE_PREFETCH_ROWS) {
+            loadBlobItemPage(false);
+        }
+    }
+
+    private void loadBlobItemPage(final boolean isFirstPage) {
+        final String continuationToken;
+        if (isFirstPage) {
+            paging.startListing(queryTextField.getText());
+            continuationToken = null;
+            setUIState(true);
+        } else {
+            continuationToken = paging.startNextPage();
+            if (continuationToken == null) {
+                return;
+            }
+        }
+
+        final int generation = paging.getGeneration();
+        final String query = paging.getQuery();
 
         final AzureString title = AzureOperationBundle.title("blob.list_blobs.container", blobContainer.getName());
         AzureTaskManager.getInstance().runInBackground(new AzureTask(project, title, false, () -> {
@@ -314,28 +367,27 @@ public class BlobExplorerFileEditor implements FileEditor, TelemetryProperties {
                     directoryQueue.addLast(StorageClientSDKManager.getManager().getRootDirectory(connectionString, blobContainer));
                 }
 
-                blobItems = StorageClientSDKManager.getManager().getBlobItems(connectionString, directoryQueue.peekLast());
-
-                if (!queryTextField.getText().isEmpty()) {
-                    for (int i = blobItems.size() - 1; i >= 0; i--) {
-                        BlobItem blobItem = blobItems.get(i);
-
-                        if (blobItem instanceof BlobFile && !blobItem.getName().startsWith(queryTextField.getText())) {
-                            blobItems.remove(i);
-                        }
-                    }
-                }
+                final BlobDirectory directory = directoryQueue.peekLast();
+                final BlobItemPage page = StorageClientSDKManager.getManager().getBlobItemPage(
+                    connectionString, directory, query, continuationToken, BLOB_ITEM_PAGE_SIZE);
+                final List<BlobItem> pageItems = page.getItems();
 
                 AzureTaskManager.getInstance().runLater(() -> {
+                    if (!paging.onPageLoaded(generation, page)) {
+                        // Another directory or query is listed since
+                        return;
+                    }
 
-                    pathLabel.setText(directoryQueue.peekLast().getPath());
                     DefaultTableModel model = (DefaultTableModel) blobListTable.getModel();
 
-                    while (model.getRowCount() > 0) {
-                        model.removeRow(0);
+                    if (isFirstPage) {
+                        pathLabel.setText(directory.getPath());
+                        model.setRowCount(0);
+                        blobItems = new ArrayList<BlobItem>();
                     }
 
-                    for (BlobItem blobItem : blobItems) {
+                    SimpleDateFormat dateFormat = new SimpleDateFormat();
+                    for (BlobItem blobItem : pageItems) {
                         if (blobItem instanceof BlobDirectory) {
                             model.addRow(new Object[]{
                                 UIHelperImpl.loadIcon("storagefolder.png"),
@@ -352,18 +404,26 @@ public class BlobExplorerFileEditor implements FileEditor, TelemetryProperties {
                                 "",
                                 blobFile.getName(),
                                 UIHelperImpl.readableFileSize(blobFile.getSize()),
-                                new SimpleDateFormat().format(blobFile.getLastModified().getTime()),
+                                dateFormat.format(new Date(blobFile.getLastModifiedTime())),
                                 blobFile.getContentType(),
                                 blobFile.getUri()
                             });
                         }
                     }
 
-                    setUIState(false);
+                    blobItems.addAll(pageItems);
 
-                    blobListTable.clearSelection();
+                    if (isFirstPage) {
+                        setUIState(false);
+
+                        blobListTable.clearSelection();
+                    }
+
+                    loadNextPageIfScrolledNearEnd();
                 });
             } catch (AzureCmdException ex) {
+                AzureTaskManager.getInstance().runLater(() -> paging.onPageFailed(generation));
+
                 String msg = "An error occurred while attempting to query blob list." + "\n" + String.format(message("webappExpMsg"), ex.getMessage());
                 PluginUtil.displayErrorDialogAndLog(message("errTtl"), msg, ex);
             }
@@ -582,69 +642,61 @@ public class BlobExplorerFileEditor implements FileEditor, TelemetryProperties {
                         }
                     }
 
-                    final BufferedOutputStream bufferedOutputStream = new BufferedOutputStream(new FileOutputStream(targetFile), 65536) {
-                        private long runningCount = 0;
-
+                    final CallableSingleArg<Void, Long> callable = new CallableSingleArg<Void, Long>() {
                         @Override
-                        public synchronized void write(@NotNull byte[] bytes, int i, int i1) throws IOException {
-                            super.write(bytes, i, i1);
-
-                            runningCount += i1;
-
-                            double progress = (double) runningCount / fileSelection.getSize();
+                        public Void call(Long downloadedBytes) throws Exception {
+                            double progress = (double) downloadedBytes / fileSelection.getSize();
                             progressIndicator.setFraction(progress);
                             progressIndicator.setText2(String.format("%s%% downloaded", (int) (progress * 100)));
+
+                            return null;
                         }
                     };
 
-                    try {
-                        Future<?> future = ApplicationManager.getApplication().executeOnPooledThread(new Runnable() {
-                            @Override
-                            public void run() {
-                                try {
-                                    StorageClientSDKManager.getManager().downloadBlobFileContent(connectionString, fileSelection, bufferedOutputStream);
+                    Future<?> future = ApplicationManager.getApplication().executeOnPooledThread(new Runnable() {
+                        @Override
+                        public void run() {
+                            try {
+                                StorageClientSDKManager.getManager().downloadBlobFile(connectionString, fileSelection, targetFile, callable);
 
-                                    if (open && targetFile.exists()) {
-                                        Desktop.getDesktop().open(targetFile);
-                                    }
-                                } catch (AzureCmdException e) {
-                                    Throwable connectionFault = e.getCause().getCause();
-
-                                    progressIndicator.setText("Error downloading Blob");
-                                    progressIndicator.setText2((connectionFault instanceof SocketTimeoutException) ?
-                                                               "Connection timed out" : connectionFault.getMessage());
-                                } catch (IOException ex) {
-                                    try {
-                                        final Process p;
-                                        Runtime runtime = Runtime.getRuntime();
-                                        p = runtime.exec(
-                                            new String[]{"open", "-R", targetFile.getName()},
-                                            null,
-                                            targetFile.getParentFile());
-
-                                        InputStream errorStream = p.getErrorStream();
-                                        String errResponse = new String(IOUtils.readFully(errorStream, -1));
-
-                                        if (p.waitFor() != 0) {
-                                            throw new Exception(errResponse);
-                                        }
-                                    } catch (Exception e) {
-                                        progressIndicator.setText("Error openning file");
-                                        progressIndicator.setText2(ex.getMessage());
+                                if (open && targetFile.exists()) {
+                                    Desktop.getDesktop().open(targetFile);
+                                }
+                            } catch (AzureCmdException e) {
+                                Throwable connectionFault = e.getCause().getCause();
+
+                                progressIndicator.setText("Error downloading Blob");
+                                progressIndicator.setText2((connectionFault instanceof SocketTimeoutException) ?
+                                                           "Connection timed out" : connectionFault.getMessage());
+                            } catch (IOException ex) {
+                                try {
+                                    final Process p;
+                                    Runtime runtime = Runtime.getRuntime();
+                                    p = runtime.exec(
+                                        new String[]{"open", "-R", targetFile.getName()},
+                                        null,
+                                        targetFile.getParentFile());
+
+                                    InputStream errorStream = p.getErrorStream();
+                                    String errResponse = new String(IOUtils.readFully(errorStream, -1));
+
+                                    if (p.waitFor() != 0) {
+                                        throw new Exception(errResponse);
                                     }
+                                } catch (Exception e) {
+                                    progressIndicator.setText("Error openning file");
+                                    progressIndicator.setText2(ex.getMessage());
                                 }
                             }
-                        });
+                        }
+                    });
 
-                        while (!future.isDone()) {
-                            progressIndicator.checkCanceled();
+                    while (!future.isDone()) {
+                        progressIndicator.checkCanceled();
 
-                            if (progressIndicator.isCanceled()) {
-                                future.cancel(true);
-                            }
+                        if (progressIndicator.isCanceled()) {
+                            future.cancel(true);
                         }
-                    } finally {
-                        bufferedOutputStream.close();
                     }
                 } catch (IOException e) {
                     PluginUtil.displayErrorDialogAndLog(message("errTtl"), "An error occurred while attempting to download Blob.", e);
@@ -685,7 +737,9 @@ public class BlobExplorerFileEditor implements FileEditor, TelemetryProperties {
             try {
                 final BlobDirectory blobDirectory = directoryQueue.peekLast();
 
-                final BufferedInputStream bufferedInputStream = new BufferedInputStream(new FileInputStream(selectedFile));
+                if (!selectedFile.isFile()) {
+                    throw new FileNotFoundException(selectedFile.getPath());
+                }
 
                 progressIndicator.setIndeterminate(false);
                 progressIndicator.setText("Uploading blob...");
@@ -707,21 +761,12 @@ public class BlobExplorerFileEditor implements FileEditor, TelemetryProperties {
                     Future<Void> future = ApplicationManager.getApplication().executeOnPooledThread(new Callable<Void>() {
                         @Override
                         public Void call() throws AzureCmdException {
-                            try {
-                                StorageClientSDKManager.getManager().uploadBlobFileContent(
-                                    connectionString,
-                                    blobContainer,
-                                    path,
-                                    bufferedInputStream,
-                                    callable,
-                                    1024 * 1024,
-                                    selectedFile.length());
-                            } finally {
-                                try {
-                                    bufferedInputStream.close();
-                                } catch (IOException ignored) {
-                                }
-                            }
+                            StorageClientSDKManager.getManager().uploadBlobFile(
+                                connectionString,
+                                blobContainer,
+                                path,
+                                selectedFile,
+                                callable);
 
                             return null;
                         }
@@ -733,7 +778,6 @@ public class BlobExplorerFileEditor implements FileEditor, TelemetryProperties {
 
                         if (progressIndicator.isCanceled()) {
                             future.cancel(true);
-                            bufferedInputStream.close();
 
                             for (BlobItem blobItem : StorageClientSDKManager.getManager().getBlobItems(connectionString, blobDirectory)) {
                                 if (blobItem instanceof BlobFile && blobItem.getPath().equals(path)) {
@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.intellij.helpers.storage;
+
+import com.microsoft.azuretools.azurecommons.helpers.NotNull;
+import com.microsoft.azuretools.azurecommons.helpers.Nullable;
+import com.microsoft.tooling.msservices.model.storage.BlobItemPage;
+
+/**
+ * The paging state of the blob listing shown by {@link BlobExplorerFileEditor}. A listing of a directory and query
+ * is loaded page by page with the continuation token of the page before. A new listing drops the pages still loading
+ * for the former one, which are told apart by the listing generation. Only accessed on the UI thread.
+ */
+final class BlobItemPaging {
+    private int generation = 0;
+    @NotNull
+    private String query = "";
+    @Nullable
+    private String nextPageToken = null;
+    private boolean isLoadingNextPage = false;
+
+    /**
+     * Start a new listing from its first page
+     *
+     * @param query the prefix of the blob items to list, empty for all
+     * @return the generation of the new listing
+     */
+    int startListing(@NotNull String query) {
+        generation++;
+        this.query = query;
+        // The next page of the former listing must not be appended to this one
+        nextPageToken = null;
+        isLoadingNextPage = false;
+
+        return generation;
+    }
+
+    /**
+     * Start loading the next page of the current listing, unless it's loading or the last page is loaded
+     *
+     * @return the continuation token of the next page, or null if there is no page to load now
+     */
+    @Nullable
+    String startNextPage() {
+        if (nextPageToken == null || isLoadingNextPage) {
+            return null;
+        }
+
+        isLoadingNextPage = true;
+        return nextPageToken;
+    }
+
+    int getGeneration() {
+        return generation;
+    }
+
+    @NotNull
+    String getQuery() {
+        return query;
+    }
+
+    /**
+     * Take a loaded page of a listing
+     *
+     * @return false if the page is of a former listing, which must be dropped
+     */
+    boolean onPageLoaded(int generation, @NotNull BlobItemPage page) {
+        if (generation != this.generation) {
+            return false;
+        }
+
+        nextPageToken = page.getContinuationToken();
+        isLoadingNextPage = false;
+        return true;
+    }
+
+    /**
+     * Let a failed page of the current listing be loaded again
+     */
+    void onPageFailed(int generation) {
+        if (generation == this.generation) {
+            isLoadingNextPage = false;
+        }
+    }
+}
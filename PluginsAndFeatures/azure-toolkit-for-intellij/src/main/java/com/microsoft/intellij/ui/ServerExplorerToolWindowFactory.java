@@ -371,25 +371,14 @@ public class ServerExplorerToolWindowFactory implements ToolWindowFactory, Prope
 
             switch (e.getAction()) {
                 case add:
-                    // create child tree nodes for the new nodes
-                    for (Node childNode : (Collection<Node>) e.getNewItems()) {
-                        if (isOutdatedModule(childNode)) {
-                            continue;
-                        }
-                        treeNode.add(createTreeNode(childNode, project));
-                    }
+                    addChildTreeNodes((Collection<Node>) e.getNewItems());
                     break;
                 case remove:
-                    // unregistered all event handlers recursively and remove
-                    // child nodes from the tree
-                    for (Node childNode : (Collection<Node>) e.getOldItems()) {
-                        if (isOutdatedModule(childNode)) {
-                            continue;
-                        }
-                        // remove this node from the tree
-                        removeEventHandlers(childNode);
-                        treeNode.remove((MutableTreeNode) childNode.getViewData());
-                    }
+                    removeChildTreeNodes((Collection<Node>) e.getOldItems());
+                    break;
+                case replace:
+                    removeChildTreeNodes((Collection<Node>) e.getOldItems());
+                    addChildTreeNodes((Collection<Node>) e.getNewItems());
                     break;
                 default:
                     break;
@@ -398,6 +387,29 @@ public class ServerExplorerToolWindowFactory implements ToolWindowFactory, Prope
                 treeModelMap.get(project).reload(treeNode);
             }
         }
+
+        private void addChildTreeNodes(Collection<Node> childNodes) {
+            // create child tree nodes for the new nodes
+            for (Node childNode : childNodes) {
+                if (isOutdatedModule(childNode)) {
+                    continue;
+                }
+                treeNode.add(createTreeNode(childNode, project));
+            }
+        }
+
+        private void removeChildTreeNodes(Collection<Node> childNodes) {
+            // unregistered all event handlers recursively and remove
+            // child nodes from the tree
+            for (Node childNode : childNodes) {
+                if (isOutdatedModule(childNode)) {
+                    continue;
+                }
+                // remove this node from the tree
+                removeEventHandlers(childNode);
+                treeNode.remove((MutableTreeNode) childNode.getViewData());
+            }
+        }
     }
 
     private class NodeTreeCellRenderer extends NodeRenderer {
@@ -64,19 +64,26 @@ public class SubscriptionsDialog extends AzureDialogWrapper {
     private JPanel panelTable;
     private JBTable table;
     private List<SubscriptionDetail> sdl;
+    private AnActionButton refreshAction;
 
-    private SubscriptionsDialog(List<SubscriptionDetail> sdl, Project project) {
+    private SubscriptionsDialog(List<SubscriptionDetail> sdl, Project project, boolean readOnly) {
         super(project, true, IdeModalityType.PROJECT);
         this.sdl = sdl;
         this.project = project;
         setModal(true);
-        setTitle("Select Subscriptions");
+        setTitle(readOnly ? "Select Subscriptions (Signing In...)" : "Select Subscriptions");
         setOKButtonText("Select");
 
         setSubscriptions();
 
         init();
 
+        if (readOnly) {
+            table.setEnabled(false);
+            refreshAction.setEnabled(false);
+            setOKActionEnabled(false);
+        }
+
         table.setAutoCreateRowSorter(true);
     }
 
@@ -92,7 +99,7 @@ public class SubscriptionsDialog extends AzureDialogWrapper {
             }
             return null;
         }
-        SubscriptionsDialog d = new SubscriptionsDialog(sdl, project);
+        SubscriptionsDialog d = new SubscriptionsDialog(sdl, project, false);
         d.show();
         if (d.getExitCode() == DialogWrapper.OK_EXIT_CODE) {
             return d;
@@ -101,6 +108,17 @@ public class SubscriptionsDialog extends AzureDialogWrapper {
         return null;
     }
 
+    /**
+     * Open the subscription dialog read-only, to show the subscriptions found last time while the sign-in is being
+     * restored. Nothing can be selected until the sign-in is restored.
+     */
+    public static void showLastKnown(List<SubscriptionDetail> sdl, Project project) {
+        if (CollectionUtils.isEmpty(sdl)) {
+            return;
+        }
+        new SubscriptionsDialog(sdl, project, true).show();
+    }
+
     public List<SubscriptionDetail> getSubscriptionDetails() {
         return sdl;
     }
@@ -165,7 +183,7 @@ public class SubscriptionsDialog extends AzureDialogWrapper {
         JTableUtils.enableBatchSelection(table, CHECKBOX_COLUMN);
         table.getTableHeader().setReorderingAllowed(false);
         new TableSpeedSearch(table);
-        AnActionButton refreshAction = new AnActionButton("Refresh", AllIcons.Actions.Refresh) {
+        refreshAction = new AnActionButton("Refresh", AllIcons.Actions.Refresh) {
             @Override
             public void actionPerformed(AnActionEvent anActionEvent) {
                 this.setEnabled(false);
@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) Microsoft Corporation
+ *
+ * All rights reserved.
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ *
+ * THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.microsoft.azure.hdinsight.spark.console
+
+/**
+ * A growable ring buffer of primitive bytes, which isn't thread safe.
+ */
+class ByteRingBuffer(initialCapacity: Int = 4096) {
+    private var buffer = ByteArray(maxOf(initialCapacity, 1))
+    private var head = 0
+
+    var size = 0
+        private set
+
+    fun isEmpty(): Boolean = size == 0
+
+    fun write(bytes: ByteArray, offset: Int = 0, length: Int = bytes.size) {
+        ensureCapacity(size + length)
+
+        val tail = (head + size) % buffer.size
+        val firstPart = minOf(length, buffer.size - tail)
+        System.arraycopy(bytes, offset, buffer, tail, firstPart)
+        System.arraycopy(bytes, offset + firstPart, buffer, 0, length - firstPart)
+        size += length
+    }
+
+    /**
+     * Read one byte, or -1 if the buffer is empty
+     */
+    fun read(): Int {
+        if (isEmpty()) {
+            return -1
+        }
+
+        val byte = buffer[head].toInt() and 0xFF
+        head = (head + 1) % buffer.size
+        size--
+
+        return byte
+    }
+
+    /**
+     * Read up to [length] bytes into [bytes], returns the count of bytes read
+     */
+    fun read(bytes: ByteArray, offset: Int, length: Int): Int {
+        val count = minOf(length, size)
+        val firstPart = minOf(count, buffer.size - head)
+        System.arraycopy(buffer, head, bytes, offset, firstPart)
+        System.arraycopy(buffer, 0, bytes, offset + firstPart, count - firstPart)
+        head = (head + count) % buffer.size
+        size -= count
+
+        return count
+    }
+
+    private fun ensureCapacity(capacity: Int) {
+        if (capacity <= buffer.size) {
+            return
+        }
+
+        var newCapacity = buffer.size
+        while (newCapacity < capacity) {
+            newCapacity = Math.multiplyExact(newCapacity, 2)
+        }
+
+        val newBuffer = ByteArray(newCapacity)
+        val count = size
+        read(newBuffer, 0, count)
+        buffer = newBuffer
+        head = 0
+        size = count
+    }
+}
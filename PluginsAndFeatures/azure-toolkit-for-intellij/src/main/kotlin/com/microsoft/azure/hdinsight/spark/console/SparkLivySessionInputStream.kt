@@ -24,66 +24,162 @@ package com.microsoft.azure.hdinsight.spark.console
 
 import com.microsoft.azure.hdinsight.common.logger.ILogger
 import com.microsoft.azure.hdinsight.sdk.common.livy.interactive.Session
-import com.microsoft.azure.hdinsight.sdk.common.livy.interactive.Statement
 import com.microsoft.azure.hdinsight.sdk.rest.livy.interactive.StatementOutput
+import rx.Subscription
+import rx.schedulers.Schedulers
 import java.io.InputStream
+import java.io.InterruptedIOException
 import java.nio.charset.StandardCharsets.UTF_8
-import java.util.*
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.locks.ReentrantLock
+import kotlin.concurrent.withLock
 
 abstract class SparkLivySessionInputStream(val session: Session) : InputStream(), ILogger {
+    companion object {
+        // The interval to check the session state, which isn't signalled by the session itself
+        private const val SESSION_STATE_CHECK_INTERVAL_MS = 1000L
+
+        // The delay to poll the statement again after a failed poll
+        private const val STATEMENT_RETRY_DELAY_MS = 1000L
+    }
+
+    @Volatile
     private var isClosed: Boolean = false
     private var nextStatementId = 0
-    private var statementOutputQueue: ArrayDeque<Byte>? = null
+    private val statementOutputBuffer = ByteRingBuffer()
+    private val lock = ReentrantLock()
+    // Signalled when statement output is buffered, the prefetching ends or the stream is closed
+    private val outputChanged = lock.newCondition()
+    private var prefetcher: Subscription? = null
 
     override fun read(): Int {
         if (isClosed) {
             return -1
         }
 
-        return statementOutputQueue?.pollFirst()?.toInt() ?: -1
+        startPrefetcher()
+
+        return lock.withLock {
+            if (awaitOutput()) statementOutputBuffer.read() else -1
+        }
+    }
+
+    override fun read(b: ByteArray, off: Int, len: Int): Int {
+        if (off < 0 || len < 0 || len > b.size - off) {
+            throw IndexOutOfBoundsException()
+        }
+
+        if (isClosed) {
+            return -1
+        }
+
+        if (len == 0) {
+            return 0
+        }
+
+        startPrefetcher()
+
+        return lock.withLock {
+            if (awaitOutput()) statementOutputBuffer.read(b, off, len) else -1
+        }
     }
 
     override fun close() {
-        this.isClosed = true
+        lock.withLock {
+            this.isClosed = true
+            prefetcher?.unsubscribe()
+            outputChanged.signalAll()
+        }
     }
 
     override fun available(): Int {
-        if (this.isClosed || session.isStop) {
-            return 0;
+        if (this.isClosed) {
+            return 0
         }
 
-        if (isOutputEmpty()) {
-            fetchNextStatementOutput()
+        startPrefetcher()
 
-            if (isOutputEmpty()) {
-                Thread.sleep(1000)
+        return lock.withLock {
+            // Wait for the prefetcher, which wakes up the reader as soon as the output arrives
+            if (statementOutputBuffer.isEmpty() && !session.isStop) {
+                outputChanged.await(SESSION_STATE_CHECK_INTERVAL_MS, TimeUnit.MILLISECONDS)
             }
+
+            if (isClosed) 0 else statementOutputBuffer.size
         }
+    }
 
-        return statementOutputQueue?.size ?: 0
+    /**
+     * Block the reader until some output is buffered. The stream only ends when it's closed, or when the session is
+     * stopped with all its output read. Called with the lock held.
+     *
+     * @return true if there is output to read
+     */
+    private fun awaitOutput(): Boolean {
+        try {
+            // The wait is timed to check the session state, which isn't signalled by the session itself
+            while (statementOutputBuffer.isEmpty() && !isClosed && !session.isStop) {
+                outputChanged.await(SESSION_STATE_CHECK_INTERVAL_MS, TimeUnit.MILLISECONDS)
+            }
+        } catch (ex: InterruptedException) {
+            Thread.currentThread().interrupt()
+            throw InterruptedIOException("Interrupted while waiting for the Livy session output")
+        }
+
+        if (statementOutputBuffer.isEmpty() && session.isStop) {
+            // All output of the stopped session is read, no more statements to wait for
+            prefetcher?.unsubscribe()
+        }
+
+        return !isClosed && !statementOutputBuffer.isEmpty()
     }
 
     abstract fun createStatementBytesQueue(output: StatementOutput): String?
 
-    private fun fetchNextStatementOutput() {
-        val statement = Statement(session, nextStatementId)
-
-        try {
-            statementOutputQueue = statement.get()
-                    .map { stm ->
-                        createStatementBytesQueue(stm.output)?.let {
-                            log().debug("Statement $nextStatementId result $it")
-                            ArrayDeque("$it\n".toByteArray(UTF_8).toList())
-                        }
-                    }
-                    .toBlocking()
-                    .singleOrDefault(null)
-
-            nextStatementId++
-        } catch (err: Exception) {
-            log().debug("Can't get the $nextStatementId output", err)
+    private fun startPrefetcher() {
+        lock.withLock {
+            if (prefetcher == null && !isClosed) {
+                prefetchStatementOutput()
+            }
         }
     }
 
-    private fun isOutputEmpty(): Boolean = (statementOutputQueue?.isEmpty() ?: true)
-}
\ No newline at end of file
+    /**
+     * Wait for the output of the next statement ahead of the reader, through the poll scheduler of the session, which
+     * backs off while the statement runs and shares the polls with the other statement waits of the session. Moves
+     * on to the next statement once the output is buffered. Called with the lock held.
+     */
+    private fun prefetchStatementOutput() {
+        val statementId = nextStatementId
+
+        prefetcher = session.pollScheduler.pollStatement(session, statementId)
+                .filter { it.output != null }
+                .first()
+                .retryWhen { errors -> errors
+                        .doOnNext { log().debug("Can't get the $statementId output", it) }
+                        .delay(STATEMENT_RETRY_DELAY_MS, TimeUnit.MILLISECONDS) }
+                // Not to poll on the reader thread, which holds the lock
+                .subscribeOn(Schedulers.io())
+                .subscribe(
+                        { onStatementOutput(statementId, it.output) },
+                        { log().warn("Stop getting the statement outputs from $statementId", it) })
+    }
+
+    private fun onStatementOutput(statementId: Int, output: StatementOutput) {
+        val bytes = createStatementBytesQueue(output)?.let {
+            log().debug("Statement $statementId result $it")
+            "$it\n".toByteArray(UTF_8)
+        }
+
+        lock.withLock {
+            bytes?.let { statementOutputBuffer.write(it) }
+            nextStatementId = statementId + 1
+
+            if (!isClosed && !session.isStop) {
+                prefetchStatementOutput()
+            }
+
+            outputChanged.signalAll()
+        }
+    }
+}
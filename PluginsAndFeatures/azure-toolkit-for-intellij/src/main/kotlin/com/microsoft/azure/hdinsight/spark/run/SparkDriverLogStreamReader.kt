@@ -24,6 +24,7 @@ package com.microsoft.azure.hdinsight.spark.run
 
 import com.intellij.execution.process.ProcessHandler
 import com.intellij.execution.process.ProcessOutputTypes.SYSTEM
+import com.intellij.openapi.util.Key
 import com.intellij.util.concurrency.AppExecutorUtil
 import com.intellij.util.io.BaseOutputReader
 import com.microsoft.azure.hdinsight.common.ConsoleViewLogLine
@@ -39,9 +40,18 @@ class SparkDriverLogStreamReader(val processHandler: ProcessHandler,
                                  inputStream: InputStream,
                                  private val logSource: String)
     : BaseOutputReader(inputStream, Charset.forName("UTF-8")) {
+    companion object {
+        // The max length of the text appended to console at once
+        private const val MAX_BATCH_LENGTH = 64 * 1024
+    }
+
     private val defaultMessageInfoType = MessageInfoType.Log
     private var previousLogLine = SparkLogLine(logSource, defaultMessageInfoType, "")
 
+    // The consecutive lines of the same output type, which are appended to console together
+    private val pendingText = StringBuilder()
+    private var pendingOutputType: Key<*> = SYSTEM
+
     init {
         start("Reading Spark Driver log $logSource")
     }
@@ -54,13 +64,38 @@ class SparkDriverLogStreamReader(val processHandler: ProcessHandler,
         // The second parameter is of Key<Any> type and there are only 3 registered Keys: SYSTEM, STDOUT and STDERR.
         // To support more log style, we registered more Keys in class ConsoleViewTypeRegistration at application
         // startup
-        processHandler.notifyTextAvailable(
-                consoleViewLogLine.formatText, contentTypeKeyMap[consoleViewLogLine.contentType] ?: SYSTEM)
+        val outputType = contentTypeKeyMap[consoleViewLogLine.contentType] ?: SYSTEM
+        if (outputType != pendingOutputType || pendingText.length >= MAX_BATCH_LENGTH) {
+            flushPendingText()
+        }
+
+        pendingText.append(consoleViewLogLine.formatText)
+        pendingOutputType = outputType
 
         // Update previous log line
         previousLogLine = typedLogLine
     }
 
+    override fun onBufferExhaustion() {
+        // No more lines to read for now, append the pending ones
+        flushPendingText()
+    }
+
+    override fun close() {
+        // The reader is stopped or the stream is ended, append the pending lines with the last unterminated one
+        flushPendingText()
+        super.close()
+    }
+
+    private fun flushPendingText() {
+        if (pendingText.isEmpty()) {
+            return
+        }
+
+        processHandler.notifyTextAvailable(pendingText.toString(), pendingOutputType)
+        pendingText.setLength(0)
+    }
+
     override fun executeOnPooledThread(runnable: Runnable): Future<*> {
         return AppExecutorUtil.getAppExecutorService().submit(runnable)
     }
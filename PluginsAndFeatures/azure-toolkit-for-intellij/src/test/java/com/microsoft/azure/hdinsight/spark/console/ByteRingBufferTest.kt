@@ -0,0 +1,56 @@
+/*
+ * Copyright (c) Microsoft Corporation
+ *
+ * All rights reserved.
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ *
+ * THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.microsoft.azure.hdinsight.spark.console
+
+import junit.framework.TestCase
+import org.junit.Test
+
+class ByteRingBufferTest: TestCase() {
+    @Test
+    fun testWrapAroundAndGrow() {
+        val buffer = ByteRingBuffer(4)
+        buffer.write(byteArrayOf(1, 2, 3))
+        assertEquals(1, buffer.read())
+        assertEquals(2, buffer.read())
+
+        // wrap around the end of the array, and then grow
+        buffer.write(byteArrayOf(4, 5, 6))
+        assertEquals(4, buffer.size)
+        buffer.write(byteArrayOf(7, 8, 9))
+        assertEquals(7, buffer.size)
+
+        val bytes = ByteArray(10)
+        assertEquals(7, buffer.read(bytes, 1, 9))
+        assertEquals(listOf<Byte>(3, 4, 5, 6, 7, 8, 9), bytes.slice(1..7))
+        assertTrue(buffer.isEmpty())
+        assertEquals(-1, buffer.read())
+    }
+
+    @Test
+    fun testReadUnsignedByte() {
+        val buffer = ByteRingBuffer()
+        buffer.write(byteArrayOf(-1))
+
+        assertEquals(255, buffer.read())
+    }
+}
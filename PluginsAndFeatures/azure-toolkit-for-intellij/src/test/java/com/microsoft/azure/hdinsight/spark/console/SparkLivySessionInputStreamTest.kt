@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.hdinsight.spark.console
+
+import com.microsoft.azure.hdinsight.sdk.common.livy.interactive.LivyPollScheduler
+import com.microsoft.azure.hdinsight.sdk.common.livy.interactive.Session
+import com.microsoft.azure.hdinsight.sdk.rest.livy.interactive.Statement
+import com.microsoft.azure.hdinsight.sdk.rest.livy.interactive.StatementOutput
+import junit.framework.TestCase
+import org.junit.Test
+import org.mockito.Mockito.`when`
+import org.mockito.Mockito.mock
+import org.mockito.Mockito.times
+import org.mockito.Mockito.verify
+import rx.Observable
+import rx.subjects.ReplaySubject
+import java.util.concurrent.Callable
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicBoolean
+
+class SparkLivySessionInputStreamTest: TestCase() {
+    @Test
+    fun testReadBlocksUntilOutputAndEndsAfterSessionStops() {
+        val isStop = AtomicBoolean(false)
+        val pollScheduler = mock(LivyPollScheduler::class.java)
+        val session = mock(Session::class.java)
+        `when`(session.pollScheduler).thenReturn(pollScheduler)
+        `when`(session.isStop).thenAnswer { isStop.get() }
+
+        // The polls of the statement 0, replayed as the prefetcher subscribes on its own thread
+        val statementPolls = ReplaySubject.create<Statement>()
+        `when`(pollScheduler.pollStatement(session, 0)).thenReturn(statementPolls)
+        `when`(pollScheduler.pollStatement(session, 1)).thenReturn(Observable.never())
+
+        val stream = SparkLivySessionStdOutStream(session)
+        val executor = Executors.newSingleThreadExecutor()
+        try {
+            val read = executor.submit(Callable { stream.read() })
+
+            Thread.sleep(300)
+            assertFalse(read.isDone)
+
+            // Still running, without output
+            statementPolls.onNext(mockStatement(null))
+            Thread.sleep(300)
+            assertFalse(read.isDone)
+
+            statementPolls.onNext(mockStatement(mockOutput("A")))
+            assertEquals('A'.toInt(), read.get(5, TimeUnit.SECONDS))
+            assertEquals('\n'.toInt(), stream.read())
+
+            // All output is read, the stream ends once the session is stopped
+            isStop.set(true)
+            assertEquals(-1, executor.submit(Callable { stream.read() }).get(5, TimeUnit.SECONDS))
+
+            // Polled through the poll scheduler only, moving on to the next statement after the output
+            verify(pollScheduler, times(1)).pollStatement(session, 0)
+            verify(pollScheduler, times(1)).pollStatement(session, 1)
+        } finally {
+            stream.close()
+            executor.shutdownNow()
+        }
+    }
+
+    private fun mockStatement(output: StatementOutput?): Statement {
+        val statement = mock(Statement::class.java)
+        `when`(statement.output).thenReturn(output)
+
+        return statement
+    }
+
+    private fun mockOutput(text: String): StatementOutput {
+        val output = mock(StatementOutput::class.java)
+        `when`(output.status).thenReturn("ok")
+        `when`(output.data).thenReturn(mapOf("text/plain" to text))
+
+        return output
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright (c) Microsoft Corporation
+ *
+ * All rights reserved.
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ *
+ * THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.microsoft.azure.hdinsight.spark.run
+
+import com.intellij.execution.process.ProcessHandler
+import com.intellij.openapi.util.Key
+import junit.framework.TestCase
+import org.junit.Test
+import java.io.ByteArrayInputStream
+import java.io.OutputStream
+import java.util.concurrent.TimeUnit
+
+class SparkDriverLogStreamReaderTest: TestCase() {
+    // Collect the text appended to console
+    private class TextCollectingProcessHandler : ProcessHandler() {
+        val text = StringBuffer()
+
+        override fun notifyTextAvailable(text: String, outputType: Key<*>) {
+            this.text.append(text)
+        }
+
+        override fun destroyProcessImpl() {}
+
+        override fun detachProcessImpl() {}
+
+        override fun detachIsDefault(): Boolean = false
+
+        override fun getProcessInput(): OutputStream? = null
+    }
+
+    @Test
+    fun testFinalUnterminatedLineAppendedWhenStopped() {
+        val processHandler = TextCollectingProcessHandler()
+        val log = "21/10/18 10:00:00 INFO SparkContext: Running Spark\n" +
+                "21/10/18 10:00:01 WARN Utils: the last line without line end"
+        val reader = SparkDriverLogStreamReader(processHandler, ByteArrayInputStream(log.toByteArray()), "stdout")
+
+        // Let the reader consume the whole stream before stopping it
+        val deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10)
+        while (!processHandler.text.contains("SparkContext") && System.nanoTime() < deadline) {
+            Thread.sleep(50)
+        }
+        reader.stop()
+        reader.waitFor(10, TimeUnit.SECONDS)
+
+        assertTrue(processHandler.text.contains("INFO SparkContext: Running Spark"))
+        assertTrue(processHandler.text.endsWith("WARN Utils: the last line without line end\n"))
+    }
+}
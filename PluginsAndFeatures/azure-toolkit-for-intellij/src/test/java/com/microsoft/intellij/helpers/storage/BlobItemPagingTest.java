@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.intellij.helpers.storage;
+
+import com.microsoft.tooling.msservices.model.storage.BlobItemPage;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+public class BlobItemPagingTest {
+    private BlobItemPaging paging;
+
+    @Before
+    public void setUp() {
+        paging = new BlobItemPaging();
+    }
+
+    @Test
+    public void testLoadPagesUntilTheLast() {
+        final int generation = paging.startListing("log");
+        assertEquals("log", paging.getQuery());
+        // No next page before the first one is loaded
+        assertNull(paging.startNextPage());
+
+        assertTrue(paging.onPageLoaded(generation, page("token-2")));
+        assertEquals("token-2", paging.startNextPage());
+        // Only one next page is loaded at a time
+        assertNull(paging.startNextPage());
+
+        assertTrue(paging.onPageLoaded(generation, page(null)));
+        assertNull(paging.startNextPage());
+        assertEquals("log", paging.getQuery());
+    }
+
+    @Test
+    public void testRetryFailedPage() {
+        final int generation = paging.startListing("");
+        paging.onPageLoaded(generation, page("token-2"));
+        assertEquals("token-2", paging.startNextPage());
+
+        paging.onPageFailed(generation);
+
+        assertEquals("token-2", paging.startNextPage());
+    }
+
+    @Test
+    public void testDropPageOfFormerListing() {
+        final int former = paging.startListing("");
+        paging.onPageLoaded(former, page("token-2"));
+        assertEquals("token-2", paging.startNextPage());
+
+        final int current = paging.startListing("data");
+        assertNotEquals(former, current);
+        assertEquals(current, paging.getGeneration());
+        assertEquals("data", paging.getQuery());
+
+        // The next page of the former listing is loaded after the new listing started
+        assertFalse(paging.onPageLoaded(former, page("token-3")));
+        assertNull(paging.startNextPage());
+
+        // Nor is the failure of it taken for the current listing
+        assertTrue(paging.onPageLoaded(current, page("data-2")));
+        assertEquals("data-2", paging.startNextPage());
+        paging.onPageFailed(former);
+        assertNull(paging.startNextPage());
+    }
+
+    private static BlobItemPage page(String continuationToken) {
+        return new BlobItemPage(Collections.emptyList(), continuationToken);
+    }
+}
@@ -0,0 +1,195 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.oidc.concurrent.cache.impl;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.microsoft.azure.oidc.concurrent.cache.ConcurrentCache;
+
+/**
+ * Lock-striped LRU cache with a TTL. Keys are spread over independent segments, each guarded by its own lock and
+ * keeping its entries in access order, so that the least recently used entry of a segment is always at its head and
+ * is the one evicted in O(1) once the segment is full. An entry expires a TTL after it was put, however often it's
+ * read, and the periodic sweep drops all expired entries of a segment in one pass.
+ */
+public final class SegmentedConcurrentCache<K, V> implements ConcurrentCache<K, V> {
+    private static final int MAX_SEGMENTS = 16;
+
+    private final Segment<K, V>[] segments;
+    private final int segmentMask;
+    private final ScheduledExecutorService scheduledExecutorService = Executors
+            .newSingleThreadScheduledExecutor(new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable runnable) {
+                    final Thread thread = new Thread(runnable, "oidc-cache-sweeper");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong evictionCount = new AtomicLong();
+    private final Long ttl;
+
+    public SegmentedConcurrentCache(final Long ttl, final Long maxSize) {
+        this.ttl = ttl * 60000;
+        final int segmentCount = segmentCountFor(maxSize);
+        final int segmentCapacity = (int) ((maxSize + segmentCount - 1) / segmentCount);
+        // A generic array can't be created, the segments created below are all of K and V
+        @SuppressWarnings("unchecked")
+        final Segment<K, V>[] segments = (Segment<K, V>[]) new Segment<?, ?>[segmentCount];
+        this.segments = segments;
+        this.segmentMask = segmentCount - 1;
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment<K, V>(segmentCapacity, evictionCount);
+        }
+        scheduledExecutorService.scheduleAtFixedRate(new Runnable() {
+            @Override
+            public void run() {
+                final long expiredBefore = System.currentTimeMillis() - getTtl();
+                for (final Segment<K, V> segment : segments) {
+                    segment.removeExpired(expiredBefore);
+                }
+            }
+        }, 1, 1, TimeUnit.MINUTES);
+    }
+
+    @Override
+    public V get(Object key) {
+        final V value = segmentFor(key).get(key, System.currentTimeMillis() - getTtl());
+        if (value == null) {
+            missCount.incrementAndGet();
+        } else {
+            hitCount.incrementAndGet();
+        }
+        return value;
+    }
+
+    @Override
+    public V putIfAbsent(K key, V value) {
+        return segmentFor(key).putIfAbsent(key, value, System.currentTimeMillis(), getTtl());
+    }
+
+    @Override
+    public void shutdownNow() {
+        scheduledExecutorService.shutdownNow();
+    }
+
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    public long getEvictionCount() {
+        return evictionCount.get();
+    }
+
+    private Segment<K, V> segmentFor(Object key) {
+        int hash = key.hashCode();
+        hash ^= (hash >>> 16);
+        return segments[hash & segmentMask];
+    }
+
+    private long getTtl() {
+        return ttl;
+    }
+
+    private static int segmentCountFor(final Long maxSize) {
+        final int bound = (int) Math.max(1L, Math.min(MAX_SEGMENTS, maxSize));
+        return Integer.highestOneBit(bound);
+    }
+
+    private static final class Segment<K, V> {
+        private final ReentrantLock lock = new ReentrantLock();
+        // Access ordered, so a hit moves the entry to the most recently used end
+        private final LinkedHashMap<K, Entry<V>> entries = new LinkedHashMap<K, Entry<V>>(16, 0.75f, true);
+        private final int capacity;
+        private final AtomicLong evictionCount;
+
+        private Segment(final int capacity, final AtomicLong evictionCount) {
+            this.capacity = Math.max(1, capacity);
+            this.evictionCount = evictionCount;
+        }
+
+        private V get(final Object key, final long expiredBefore) {
+            lock.lock();
+            try {
+                final Entry<V> entry = entries.get(key);
+                if (entry == null) {
+                    return null;
+                }
+                if (entry.timestamp < expiredBefore) {
+                    entries.remove(key);
+                    evictionCount.incrementAndGet();
+                    return null;
+                }
+                return entry.value;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private V putIfAbsent(final K key, final V value, final long now, final long ttl) {
+            lock.lock();
+            try {
+                final Entry<V> existing = entries.get(key);
+                if (existing != null) {
+                    if (existing.timestamp >= now - ttl) {
+                        return existing.value;
+                    }
+                    entries.remove(key);
+                    evictionCount.incrementAndGet();
+                }
+                while (entries.size() >= capacity) {
+                    final Iterator<Entry<V>> iterator = entries.values().iterator();
+                    iterator.next();
+                    iterator.remove();
+                    evictionCount.incrementAndGet();
+                }
+                entries.put(key, new Entry<V>(value, now));
+                return null;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void removeExpired(final long expiredBefore) {
+            lock.lock();
+            try {
+                // Access order isn't expiry order, so every entry is checked
+                final Iterator<Entry<V>> iterator = entries.values().iterator();
+                while (iterator.hasNext()) {
+                    if (iterator.next().timestamp < expiredBefore) {
+                        iterator.remove();
+                        evictionCount.incrementAndGet();
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private static final class Entry<V> {
+        private final V value;
+        private final long timestamp;
+
+        private Entry(final V value, final long timestamp) {
+            this.value = value;
+            this.timestamp = timestamp;
+        }
+    }
+}
@@ -9,4 +9,8 @@ public interface ConfigurationCache {
 
     Configuration load();
 
+    void refresh();
+
+    void shutdownNow();
+
 }
@@ -5,36 +5,129 @@
 
 package com.microsoft.azure.oidc.configuration.impl;
 
-import com.microsoft.azure.oidc.concurrent.cache.ConcurrentCacheService;
-import com.microsoft.azure.oidc.concurrent.cache.impl.SimpleConcurrentCacheService;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
 import com.microsoft.azure.oidc.configuration.Configuration;
 import com.microsoft.azure.oidc.configuration.ConfigurationCache;
 import com.microsoft.azure.oidc.configuration.ConfigurationLoader;
 import com.microsoft.azure.oidc.future.FutureHelper;
 import com.microsoft.azure.oidc.future.impl.SimpleFutureHelper;
 
+/**
+ * Keeps the last good configuration and refreshes it on a single background thread. Request threads only wait for
+ * the network when no configuration has been loaded yet; concurrent misses share one in-flight load.
+ */
 public class SimpleConfigurationCache implements ConfigurationCache {
     private static final ConfigurationCache INSTANCE = new SimpleConfigurationCache();
+    private static final long REFRESH_INTERVAL_MINUTES = 60L;
+    private static final long MIN_EARLY_REFRESH_INTERVAL_MILLIS = 60000L;
+
+    private final ConfigurationLoader configurationLoader;
+
+    private final FutureHelper futureHelper;
+
+    private final long minEarlyRefreshIntervalMillis;
+
+    private final Object refreshLock = new Object();
 
-    private final ConfigurationLoader configurationLoader = SimpleConfigurationLoader.getInstance();
+    private volatile Configuration configuration;
 
-    private final FutureHelper futureHelper = SimpleFutureHelper.getInstance();
+    private volatile long lastRefreshTime;
 
-    private final ConcurrentCacheService concurrentCacheService = SimpleConcurrentCacheService.getInstance();
+    private Future<Configuration> pendingRefresh;
+
+    // Created on the first refresh after shutdownNow(), so the cache keeps working when the filter is initialised again
+    private volatile ScheduledExecutorService scheduledExecutorService;
+
+    private SimpleConfigurationCache() {
+        this(SimpleConfigurationLoader.getInstance(), SimpleFutureHelper.getInstance(), MIN_EARLY_REFRESH_INTERVAL_MILLIS);
+    }
+
+    SimpleConfigurationCache(final ConfigurationLoader configurationLoader, final FutureHelper futureHelper,
+            final long minEarlyRefreshIntervalMillis) {
+        this.configurationLoader = configurationLoader;
+        this.futureHelper = futureHelper;
+        this.minEarlyRefreshIntervalMillis = minEarlyRefreshIntervalMillis;
+    }
 
     @Override
     public Configuration load() {
-        final String key = "SINGLE";
-        final Configuration entry = concurrentCacheService.getCache(Configuration.class, "configurationCache").get(key);
+        final Configuration entry = configuration;
         if (entry != null) {
+            if (scheduledExecutorService == null) {
+                // The configuration loaded before the filter was destroyed is served while the refresher restarts
+                synchronized (refreshLock) {
+                    getScheduledExecutorService();
+                }
+            }
             return entry;
         }
-        final Configuration result = futureHelper.getResult(configurationLoader.loadAsync());
-        if (result == null) {
-            return result;
+        return futureHelper.getResult(refreshAsync());
+    }
+
+    @Override
+    public void refresh() {
+        if (System.currentTimeMillis() - lastRefreshTime < minEarlyRefreshIntervalMillis) {
+            return;
+        }
+        refreshAsync();
+    }
+
+    @Override
+    public void shutdownNow() {
+        synchronized (refreshLock) {
+            if (scheduledExecutorService != null) {
+                scheduledExecutorService.shutdownNow();
+                scheduledExecutorService = null;
+                pendingRefresh = null;
+            }
+        }
+    }
+
+    private Future<Configuration> refreshAsync() {
+        synchronized (refreshLock) {
+            if (pendingRefresh == null || pendingRefresh.isDone()) {
+                lastRefreshTime = System.currentTimeMillis();
+                pendingRefresh = getScheduledExecutorService().submit(new Callable<Configuration>() {
+                    @Override
+                    public Configuration call() throws Exception {
+                        final Configuration result = configurationLoader.load();
+                        if (result == null) {
+                            return configuration;
+                        }
+                        configuration = result;
+                        return result;
+                    }
+                });
+            }
+            return pendingRefresh;
+        }
+    }
+
+    // Called with the refresh lock held
+    private ScheduledExecutorService getScheduledExecutorService() {
+        if (scheduledExecutorService == null) {
+            scheduledExecutorService = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable runnable) {
+                    final Thread thread = new Thread(runnable, "oidc-configuration-refresher");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+            scheduledExecutorService.scheduleWithFixedDelay(new Runnable() {
+                @Override
+                public void run() {
+                    refreshAsync();
+                }
+            }, REFRESH_INTERVAL_MINUTES, REFRESH_INTERVAL_MINUTES, TimeUnit.MINUTES);
         }
-        concurrentCacheService.getCache(Configuration.class, "configurationCache").putIfAbsent(key, result);
-        return result;
+        return scheduledExecutorService;
     }
 
     public static ConfigurationCache getInstance() {
@@ -24,8 +24,6 @@ import com.microsoft.azure.oidc.configuration.ConfigurationFactory;
 import com.microsoft.azure.oidc.configuration.ConfigurationLoader;
 import com.microsoft.azure.oidc.configuration.endpoint.EndPoint;
 import com.microsoft.azure.oidc.configuration.key.Key;
-import com.microsoft.azure.oidc.future.FutureHelper;
-import com.microsoft.azure.oidc.future.impl.SimpleFutureHelper;
 import com.microsoft.azure.oidc.openid.keystore.KeyStoreLoader;
 import com.microsoft.azure.oidc.openid.keystore.KeyStoreParser;
 import com.microsoft.azure.oidc.openid.keystore.impl.SimpleKeyStoreLoader;
@@ -49,8 +47,6 @@ public final class SimpleConfigurationLoader implements ConfigurationLoader {
 
     private final ConfigurationFactory configurationFactory = SimpleConfigurationFactory.getInstance();
 
-    private final FutureHelper futureHelper = SimpleFutureHelper.getInstance();
-
     @Override
     public Future<Configuration> loadAsync() {
         final ExecutorService executorService = Executors.newSingleThreadExecutor();
@@ -63,9 +59,10 @@ public final class SimpleConfigurationLoader implements ConfigurationLoader {
         return future;
     }
 
+    @Override
     public Configuration load() {
         try {
-            final JsonNode wellKnownNode = futureHelper.getResult(wellKnownLoader.loadAsync());
+            final JsonNode wellKnownNode = wellKnownLoader.load();
             if (wellKnownNode == null) {
                 LOGGER.error("Error loading metadata");
                 return null;
@@ -75,7 +72,7 @@ public final class SimpleConfigurationLoader implements ConfigurationLoader {
             final EndPoint keyStoreEndPoint = wellKnownParser.getKeyStoreEndPoint(wellKnownNode);
             final EndPoint logoutEndPoint = wellKnownParser.getLogoutEndPoint(wellKnownNode);
             final Issuer issuer = wellKnownParser.getIssuer(wellKnownNode);
-            final JsonNode keyStoreNode = futureHelper.getResult(keyStoreLoader.loadAsync(keyStoreEndPoint));
+            final JsonNode keyStoreNode = keyStoreLoader.load(keyStoreEndPoint);
             if (keyStoreNode == null) {
                 LOGGER.error("Error loading keystore");
                 return null;
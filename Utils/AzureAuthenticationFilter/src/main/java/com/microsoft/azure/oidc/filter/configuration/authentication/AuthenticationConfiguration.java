@@ -21,4 +21,8 @@ public interface AuthenticationConfiguration {
 
     Map<String, List<String>> getAuthorisationRoleMap();
 
+    Boolean isExcluded(String uri);
+
+    List<String> getAuthorisationRoles(String uri);
+
 }
@@ -20,6 +20,9 @@ final class SimpleAuthenticationConfiguration implements AuthenticationConfigura
     private List<Pattern> exclusionRegexPatternList;
     private List<Pattern> authorisationRegexPatternList;
 
+    private UriPatternMatcher exclusionMatcher;
+    private UriPatternMatcher authorisationMatcher;
+
     public SimpleAuthenticationConfiguration(final List<String> exclusionUriPatternList,
             final List<String> authorisationUriPatternList, final Map<String, List<String>> authorisationRoleMap) {
         setExclusionUriPatternList(exclusionUriPatternList);
@@ -28,47 +31,40 @@ final class SimpleAuthenticationConfiguration implements AuthenticationConfigura
     }
 
     private void setExclusionUriPatternList(List<String> exclusionUriPatternList) {
-        this.exclusionUriPatternList = exclusionUriPatternList;
-        exclusionRegexPatternList = new ArrayList<Pattern>();
-        exclusionRegexPatternList.add(Pattern.compile(
-                "/javax.faces.resource/*".replaceAll("([^a-zA-Z0-9\\*])", "\\\\$1").replaceAll("\\*", "(\\.\\*)")));
-        if (exclusionRegexPatternList == null) {
-            return;
-        }
-        for (final String pattern : exclusionUriPatternList) {
-            final String localPattern = pattern.trim();
-            if (localPattern.endsWith("*")) {
-                exclusionRegexPatternList.add(Pattern
-                        .compile(localPattern.replaceAll("([^a-zA-Z0-9\\*])", "\\\\$1").replaceAll("\\*", "(\\.\\*)")));
-            } else if (localPattern.startsWith("/")) {
-                exclusionRegexPatternList.add(Pattern.compile(
-                        localPattern.replaceAll("([^a-zA-Z0-9\\*])", "\\\\$1").replaceAll("\\*", "(\\\\w\\*)")));
-            } else {
-                exclusionRegexPatternList.add(Pattern
-                        .compile(localPattern.replaceAll("([^a-zA-Z0-9\\*])", "\\\\$1").replaceAll("\\*", "(\\.\\*)")));
-            }
+        final List<String> uriPatternList = new ArrayList<String>();
+        uriPatternList.add("/javax.faces.resource/*");
+        if (exclusionUriPatternList != null) {
+            uriPatternList.addAll(exclusionUriPatternList);
         }
+        this.exclusionUriPatternList = exclusionUriPatternList;
+        exclusionRegexPatternList = compile(uriPatternList);
+        exclusionMatcher = new UriPatternMatcher(uriPatternList, exclusionRegexPatternList);
     }
 
     private void setAuthorisationUriPatternList(List<String> authorisationUriPatternList) {
+        final List<String> uriPatternList = authorisationUriPatternList == null ? new ArrayList<String>()
+                : authorisationUriPatternList;
         this.authorisationUriPatternList = authorisationUriPatternList;
-        authorisationRegexPatternList = new ArrayList<Pattern>();
-        if (authorisationUriPatternList == null) {
-            return;
-        }
-        for (final String pattern : authorisationUriPatternList) {
+        authorisationRegexPatternList = compile(uriPatternList);
+        authorisationMatcher = new UriPatternMatcher(uriPatternList, authorisationRegexPatternList);
+    }
+
+    static List<Pattern> compile(final List<String> uriPatternList) {
+        final List<Pattern> regexPatternList = new ArrayList<Pattern>();
+        for (final String pattern : uriPatternList) {
             final String localPattern = pattern.trim();
             if (localPattern.endsWith("*")) {
-                authorisationRegexPatternList.add(Pattern
+                regexPatternList.add(Pattern
                         .compile(localPattern.replaceAll("([^a-zA-Z0-9\\*])", "\\\\$1").replaceAll("\\*", "(\\.\\*)")));
             } else if (localPattern.startsWith("/")) {
-                authorisationRegexPatternList.add(Pattern.compile(
+                regexPatternList.add(Pattern.compile(
                         localPattern.replaceAll("([^a-zA-Z0-9\\*])", "\\\\$1").replaceAll("\\*", "(\\\\w\\*)")));
             } else {
-                authorisationRegexPatternList.add(Pattern
+                regexPatternList.add(Pattern
                         .compile(localPattern.replaceAll("([^a-zA-Z0-9\\*])", "\\\\$1").replaceAll("\\*", "(\\.\\*)")));
             }
         }
+        return regexPatternList;
     }
 
     private void setAuthorisationRoleMap(Map<String, List<String>> authorisationRoleMap) {
@@ -99,4 +95,18 @@ final class SimpleAuthenticationConfiguration implements AuthenticationConfigura
     public Map<String, List<String>> getAuthorisationRoleMap() {
         return authorisationRoleMap;
     }
+
+    @Override
+    public Boolean isExcluded(final String uri) {
+        return exclusionMatcher.indexOf(uri) >= 0;
+    }
+
+    @Override
+    public List<String> getAuthorisationRoles(final String uri) {
+        final int index = authorisationMatcher.indexOf(uri);
+        if (index < 0) {
+            return null;
+        }
+        return authorisationRoleMap.get(authorisationUriPatternList.get(index));
+    }
 }
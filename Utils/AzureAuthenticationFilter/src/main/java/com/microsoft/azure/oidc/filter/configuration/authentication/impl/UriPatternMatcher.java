@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.oidc.filter.configuration.authentication.impl;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Finds the first of an ordered list of URI patterns that matches a request URI. Literal patterns are looked up in a
+ * hash map and "prefix*" patterns in a character trie; only the remaining patterns fall back to one combined regular
+ * expression, whose leftmost matching alternative is the earliest of them in list order.
+ */
+final class UriPatternMatcher {
+    private static final int NO_MATCH = -1;
+
+    private final Map<String, Integer> literals = new HashMap<String, Integer>();
+    private final TrieNode prefixes = new TrieNode();
+    private final Pattern fallbackPattern;
+    private final int[] fallbackGroups;
+    private final int[] fallbackIndexes;
+
+    UriPatternMatcher(final List<String> patterns, final List<Pattern> regexPatterns) {
+        final StringBuilder fallback = new StringBuilder();
+        final List<Integer> groups = new ArrayList<Integer>();
+        final List<Integer> indexes = new ArrayList<Integer>();
+        int group = 1;
+        for (int index = 0; index < patterns.size(); index++) {
+            final String pattern = patterns.get(index).trim();
+            final int wildcard = pattern.indexOf('*');
+            if (wildcard < 0) {
+                if (!literals.containsKey(pattern)) {
+                    literals.put(pattern, index);
+                }
+            } else if (wildcard == pattern.length() - 1) {
+                addPrefix(pattern.substring(0, wildcard), index);
+            } else {
+                final Pattern regexPattern = regexPatterns.get(index);
+                if (fallback.length() > 0) {
+                    fallback.append('|');
+                }
+                fallback.append('(').append(regexPattern.pattern()).append(')');
+                groups.add(group);
+                indexes.add(index);
+                group += 1 + regexPattern.matcher("").groupCount();
+            }
+        }
+        this.fallbackPattern = fallback.length() == 0 ? null : Pattern.compile(fallback.toString());
+        this.fallbackGroups = toArray(groups);
+        this.fallbackIndexes = toArray(indexes);
+    }
+
+    int indexOf(final String uri) {
+        final Integer literal = literals.get(uri);
+        int best = literal == null ? Integer.MAX_VALUE : literal;
+        TrieNode node = prefixes;
+        for (int i = 0; node != null; i++) {
+            if (node.index != NO_MATCH && node.index < best) {
+                best = node.index;
+            }
+            if (i == uri.length()) {
+                break;
+            }
+            node = node.children.get(uri.charAt(i));
+        }
+        if (fallbackPattern != null && fallbackIndexes[0] < best) {
+            final Matcher matcher = fallbackPattern.matcher(uri);
+            if (matcher.matches()) {
+                for (int i = 0; i < fallbackGroups.length; i++) {
+                    if (matcher.start(fallbackGroups[i]) != -1) {
+                        best = Math.min(best, fallbackIndexes[i]);
+                        break;
+                    }
+                }
+            }
+        }
+        return best == Integer.MAX_VALUE ? NO_MATCH : best;
+    }
+
+    private void addPrefix(final String prefix, final int index) {
+        TrieNode node = prefixes;
+        for (int i = 0; i < prefix.length(); i++) {
+            TrieNode child = node.children.get(prefix.charAt(i));
+            if (child == null) {
+                child = new TrieNode();
+                node.children.put(prefix.charAt(i), child);
+            }
+            node = child;
+        }
+        if (node.index == NO_MATCH) {
+            node.index = index;
+        }
+    }
+
+    private static int[] toArray(final List<Integer> values) {
+        final int[] result = new int[values.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = values.get(i);
+        }
+        return result;
+    }
+
+    private static final class TrieNode {
+        private final Map<Character, TrieNode> children = new HashMap<Character, TrieNode>();
+        private int index = NO_MATCH;
+    }
+}
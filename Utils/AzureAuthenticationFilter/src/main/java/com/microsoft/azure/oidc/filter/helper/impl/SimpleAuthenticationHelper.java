@@ -9,8 +9,6 @@ import java.io.IOException;
 import java.net.URLEncoder;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 import javax.servlet.FilterChain;
 import javax.servlet.ServletException;
@@ -210,14 +208,7 @@ public final class SimpleAuthenticationHelper implements AuthenticationHelper {
             final int length = httpRequest.getRequestURI().length();
             uriString = httpRequest.getRequestURI().substring(length);
         }
-        for (final Pattern pattern : authenticationConfigurationService.get().getExclusionRegexPatternList()) {
-            final Matcher matcher = pattern.matcher(uriString);
-            final Boolean isMatchFound = matcher.matches();
-            if (isMatchFound) {
-                return Boolean.TRUE;
-            }
-        }
-        return Boolean.FALSE;
+        return authenticationConfigurationService.get().isExcluded(uriString);
     }
 
     private Boolean isAuthorised(final HttpServletRequest httpRequest, final Token token) {
@@ -229,25 +220,18 @@ public final class SimpleAuthenticationHelper implements AuthenticationHelper {
             final int length = httpRequest.getRequestURI().length();
             uriString = httpRequest.getRequestURI().substring(length);
         }
-        int index = 0;
-        for (final String urlPattern : authenticationConfigurationService.get().getAuthorisationUriPatternList()) {
-            final Pattern pattern = authenticationConfigurationService.get().getAuthorisationRegexPatternList()
-                    .get(index++);
-            final Matcher matcher = pattern.matcher(uriString);
-            final Boolean isMatchFound = matcher.matches();
-            if (isMatchFound) {
-                final HttpServletRequest authRequest = getAuthenticationWrapper(httpRequest, token);
-                for (final String roleName : authenticationConfigurationService.get().getAuthorisationRoleMap()
-                        .get(urlPattern)) {
-                    final Boolean isUserInRole = authRequest.isUserInRole(roleName);
-                    if (isUserInRole) {
-                        return Boolean.TRUE;
-                    }
-                }
-                return Boolean.FALSE;
+        final List<String> roleNames = authenticationConfigurationService.get().getAuthorisationRoles(uriString);
+        if (roleNames == null) {
+            return Boolean.TRUE;
+        }
+        final HttpServletRequest authRequest = getAuthenticationWrapper(httpRequest, token);
+        for (final String roleName : roleNames) {
+            final Boolean isUserInRole = authRequest.isUserInRole(roleName);
+            if (isUserInRole) {
+                return Boolean.TRUE;
             }
         }
-        return Boolean.TRUE;
+        return Boolean.FALSE;
     }
 
     private String addCookie(final HttpServletRequest httpRequest, final HttpServletResponse httpResponse,
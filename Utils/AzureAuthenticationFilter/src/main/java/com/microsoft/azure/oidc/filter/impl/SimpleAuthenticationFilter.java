@@ -16,9 +16,11 @@ import javax.servlet.ServletResponse;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
+import com.microsoft.azure.oidc.common.timestamp.TimeStamp;
 import com.microsoft.azure.oidc.concurrent.cache.ConcurrentCacheService;
 import com.microsoft.azure.oidc.concurrent.cache.impl.SimpleConcurrentCacheService;
-import com.microsoft.azure.oidc.configuration.Configuration;
+import com.microsoft.azure.oidc.configuration.ConfigurationCache;
+import com.microsoft.azure.oidc.configuration.impl.SimpleConfigurationCache;
 import com.microsoft.azure.oidc.exception.GeneralException;
 import com.microsoft.azure.oidc.exception.PreconditionException;
 import com.microsoft.azure.oidc.filter.configuration.algorithm.AlgorithmConfigurationService;
@@ -48,9 +50,12 @@ public final class SimpleAuthenticationFilter implements Filter {
 
     private final ConcurrentCacheService concurrentCacheService = SimpleConcurrentCacheService.getInstance();
 
+    private final ConfigurationCache configurationCache = SimpleConfigurationCache.getInstance();
+
     @Override
     public void destroy() {
         concurrentCacheService.shutdownNow();
+        configurationCache.shutdownNow();
     }
 
     @Override
@@ -87,13 +92,12 @@ public final class SimpleAuthenticationFilter implements Filter {
     @Override
     public void init(final FilterConfig filterConfig) throws ServletException {
         final String securityCacheSizeString = filterConfig.getInitParameter("securityCacheSize");
-        if (securityCacheSizeString == null) {
-            concurrentCacheService.createCache(Boolean.class, "roleCache", 30L, 1000L);
-        } else {
-            concurrentCacheService.createCache(Boolean.class, "roleCache", 30L,
-                    Long.parseLong(securityCacheSizeString));
-        }
-        concurrentCacheService.createCache(Configuration.class, "configurationCache", 60L, 1L);
+        final Long securityCacheSize = securityCacheSizeString == null ? 1000L
+                : Long.parseLong(securityCacheSizeString);
+        concurrentCacheService.createCache(Boolean.class, "roleCache", 30L, securityCacheSize);
+        concurrentCacheService.createCache(TimeStamp.class, "tokenCache", 60L, securityCacheSize);
+        concurrentCacheService.createCache(String[].class, "memberGroupCache", 30L, securityCacheSize);
+        concurrentCacheService.createCache(String.class, "groupCache", 1440L, 1000L);
         authenticationConfigurationService.initialise(filterConfig, AUTHENTICATION_CONFIGURATION);
         algorithmConfigurationService.initialise(filterConfig, ALGORITHM_CONFIGURATION);
     }
@@ -5,6 +5,7 @@
 
 package com.microsoft.azure.oidc.future.impl;
 
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 
@@ -24,13 +25,13 @@ public class SimpleFutureHelper implements FutureHelper {
             throw new PreconditionException("Required parameter is null");
         }
         try {
-            while (!future.isDone() && !future.isCancelled()) {
-                Thread.sleep(10);
-            }
-            if (!future.isCancelled()) {
-                return future.get();
-            }
-        } catch (InterruptedException | ExecutionException e) {
+            return future.get();
+        } catch (CancellationException e) {
+            LOGGER.error(e.getMessage(), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            LOGGER.error(e.getMessage(), e);
+        } catch (ExecutionException e) {
             LOGGER.error(e.getMessage(), e);
         }
         return null;
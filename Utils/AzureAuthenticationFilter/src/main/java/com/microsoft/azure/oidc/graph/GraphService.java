@@ -11,4 +11,8 @@ public interface GraphService {
 
     Future<Boolean> isUserInRoleAsync(String userID, String role);
 
+    String getGroupID(String group);
+
+    String[] getMemberGroups(String userID);
+
 }
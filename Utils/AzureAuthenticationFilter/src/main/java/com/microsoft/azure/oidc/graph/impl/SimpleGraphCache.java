@@ -5,6 +5,12 @@
 
 package com.microsoft.azure.oidc.graph.impl;
 
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.FutureTask;
+
 import com.microsoft.azure.oidc.concurrent.cache.ConcurrentCacheService;
 import com.microsoft.azure.oidc.concurrent.cache.impl.SimpleConcurrentCacheService;
 import com.microsoft.azure.oidc.future.FutureHelper;
@@ -15,12 +21,22 @@ import com.microsoft.azure.oidc.graph.GraphService;
 public class SimpleGraphCache implements GraphCache {
     private static final GraphCache INSTANCE = new SimpleGraphCache();
 
-    private final GraphService springGraphService = SimpleGraphService.getInstance();
+    private final GraphService springGraphService;
 
     private final FutureHelper futureHelper = SimpleFutureHelper.getInstance();
 
     private final ConcurrentCacheService concurrentCacheService = SimpleConcurrentCacheService.getInstance();
 
+    private final ConcurrentMap<String, FutureTask<String[]>> pendingMemberGroups = new ConcurrentHashMap<String, FutureTask<String[]>>();
+
+    private SimpleGraphCache() {
+        this(SimpleGraphService.getInstance());
+    }
+
+    SimpleGraphCache(final GraphService graphService) {
+        this.springGraphService = graphService;
+    }
+
     @Override
     public Boolean isUserInRole(String userID, String role) {
         final String key = String.format("%s:%s", userID, role);
@@ -28,14 +44,47 @@ public class SimpleGraphCache implements GraphCache {
         if (entry != null) {
             return entry;
         }
-        final Boolean result = futureHelper.getResult(springGraphService.isUserInRoleAsync(userID, role));
-        if (result == null) {
-            return result;
+        final String groupID = springGraphService.getGroupID(role);
+        if (groupID == null) {
+            return Boolean.FALSE;
+        }
+        final String[] groups = getMemberGroups(userID);
+        if (groups == null) {
+            return Boolean.FALSE;
         }
+        final Boolean result = Arrays.binarySearch(groups, groupID) >= 0;
         concurrentCacheService.getCache(Boolean.class, "roleCache").putIfAbsent(key, result);
         return result;
     }
 
+    // all roles of a user are answered from one getMemberGroups response; concurrent lookups for the same user share it.
+    private String[] getMemberGroups(final String userID) {
+        final String[] entry = concurrentCacheService.getCache(String[].class, "memberGroupCache").get(userID);
+        if (entry != null) {
+            return entry;
+        }
+        final FutureTask<String[]> task = new FutureTask<String[]>(new Callable<String[]>() {
+            @Override
+            public String[] call() throws Exception {
+                return springGraphService.getMemberGroups(userID);
+            }
+        });
+        final FutureTask<String[]> pending = pendingMemberGroups.putIfAbsent(userID, task);
+        if (pending != null) {
+            return futureHelper.getResult(pending);
+        }
+        try {
+            task.run();
+            final String[] result = futureHelper.getResult(task);
+            if (result != null) {
+                concurrentCacheService.getCache(String[].class, "memberGroupCache").putIfAbsent(userID, result);
+            }
+            return result;
+        } finally {
+            pendingMemberGroups.remove(userID, task);
+        }
+    }
+
     public static GraphCache getInstance() {
         return INSTANCE;
     }
@@ -8,14 +8,17 @@ package com.microsoft.azure.oidc.graph.impl;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.net.HttpURLConnection;
 import java.net.URL;
 import java.net.URLEncoder;
+import java.util.Arrays;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
-
-import javax.net.ssl.HttpsURLConnection;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -28,98 +31,143 @@ import com.microsoft.azure.oidc.application.settings.Secret;
 import com.microsoft.azure.oidc.application.settings.Tenant;
 import com.microsoft.azure.oidc.application.settings.impl.SimpleApplicationSettingsLoader;
 import com.microsoft.azure.oidc.common.id.ID;
-import com.microsoft.azure.oidc.exception.GeneralException;
+import com.microsoft.azure.oidc.concurrent.cache.ConcurrentCacheService;
+import com.microsoft.azure.oidc.concurrent.cache.impl.SimpleConcurrentCacheService;
+import com.microsoft.azure.oidc.future.FutureHelper;
+import com.microsoft.azure.oidc.future.impl.SimpleFutureHelper;
 import com.microsoft.azure.oidc.graph.GraphService;
 
 public final class SimpleGraphService implements GraphService {
     private static final GraphService INSTANCE = new SimpleGraphService();
     private static final Logger LOGGER = LoggerFactory.getLogger(SimpleGraphService.class);
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final long TOKEN_EXPIRY_MARGIN_MILLIS = 60000L;
+    private static final String GRAPH_ENDPOINT = "https://graph.windows.net";
+    private static final String LOGIN_ENDPOINT = "https://login.microsoftonline.com";
+
+    private final ApplicationSettingsLoader applicationSettingsLoader;
+
+    private final String graphEndpoint;
+
+    private final String loginEndpoint;
+
+    private final FutureHelper futureHelper = SimpleFutureHelper.getInstance();
+
+    private final ConcurrentCacheService concurrentCacheService = SimpleConcurrentCacheService.getInstance();
+
+    private final ExecutorService executorService = Executors.newCachedThreadPool(new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable runnable) {
+            final Thread thread = new Thread(runnable, "oidc-graph");
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+
+    private volatile BearerToken bearerToken;
 
-    private final ApplicationSettingsLoader applicationSettingsLoader = SimpleApplicationSettingsLoader.getInstance();
+    // the token fetch in flight, shared by the lookups waiting for a new token
+    private final AtomicReference<FutureTask<BearerToken>> pendingBearerToken = new AtomicReference<FutureTask<BearerToken>>();
+
+    private SimpleGraphService() {
+        this(SimpleApplicationSettingsLoader.getInstance(), GRAPH_ENDPOINT, LOGIN_ENDPOINT);
+    }
+
+    // the endpoints are only replaced by tests, to point at a local stub
+    SimpleGraphService(final ApplicationSettingsLoader applicationSettingsLoader, final String graphEndpoint,
+            final String loginEndpoint) {
+        this.applicationSettingsLoader = applicationSettingsLoader;
+        this.graphEndpoint = graphEndpoint;
+        this.loginEndpoint = loginEndpoint;
+    }
 
     @Override
     public Future<Boolean> isUserInRoleAsync(final String userID, final String role) {
-        final ExecutorService executorService = Executors.newSingleThreadExecutor();
-        final Future<Boolean> future = executorService.submit(new Callable<Boolean>() {
+        return executorService.submit(new Callable<Boolean>() {
             public Boolean call() throws Exception {
                 return isUserInRole(userID, role);
             }
         });
-        executorService.shutdown();
-        return future;
     }
 
-    private Boolean isUserInRole(final String userID, final String role) {
-        try {
-            final ApplicationSettings applicationSettings = applicationSettingsLoader.load();
-            final String bearerToken = getBearerToken(applicationSettings.getTenant(),
-                    applicationSettings.getPrincipalId(), applicationSettings.getPrincipalSecret());
-            final String roleID = getGroupID(applicationSettings.getTenant(), role, bearerToken);
-            if (roleID == null) {
-                return Boolean.FALSE;
-            }
-            return isUserInGroup(applicationSettings.getTenant(), userID, roleID, bearerToken);
-        } catch (GeneralException e) {
-            LOGGER.error("General Exception", e);
-            return Boolean.FALSE;
-        } catch (RuntimeException e) {
-            LOGGER.error(e.getMessage(), e);
-            return Boolean.FALSE;
+    @Override
+    public String getGroupID(final String group) {
+        final String entry = concurrentCacheService.getCache(String.class, "groupCache").get(group);
+        if (entry != null) {
+            return entry;
         }
+        final String result = loadGroupID(group);
+        if (result == null) {
+            return result;
+        }
+        concurrentCacheService.getCache(String.class, "groupCache").putIfAbsent(group, result);
+        return result;
     }
 
-    private Boolean isUserInGroup(final Tenant tenant, final String userID, final String groupID,
-            final String bearerToken) {
+    @Override
+    public String[] getMemberGroups(final String userID) {
         try {
-            final String urlString = String.format("https://graph.windows.net/%s/isMemberOf?api-version=1.6",
-                    tenant.getName());
-            final String payload = String.format("{\"groupId\":\"%s\",\"memberId\":\"%s\"}", groupID, userID);
+            final ApplicationSettings applicationSettings = applicationSettingsLoader.load();
+            final String token = getBearerToken();
+            if (token == null) {
+                return null;
+            }
+            final String urlString = String.format("%s/%s/users/%s/getMemberGroups?api-version=1.6", graphEndpoint,
+                    applicationSettings.getTenant().getName(), URLEncoder.encode(userID, "UTF-8"));
             final URL url = new URL(urlString);
-            final HttpsURLConnection connection = (HttpsURLConnection) url.openConnection();
-            connection.setRequestProperty("Host", "graph.windows.net");
+            final HttpURLConnection connection = (HttpURLConnection) url.openConnection();
             connection.setRequestProperty("Content-Type", "application/json");
             connection.setRequestProperty("Accept", "application/json");
-            connection.setRequestProperty("Authorization", "Bearer " + bearerToken);
+            connection.setRequestProperty("Authorization", "Bearer " + token);
             connection.setRequestMethod("POST");
             connection.setDoOutput(true);
-            connection.getOutputStream().write(payload.getBytes());
+            connection.getOutputStream().write("{\"securityEnabledOnly\":false}".getBytes());
             connection.getOutputStream().flush();
-            final StringBuilder result = new StringBuilder();
-            try (final BufferedReader in = new BufferedReader(new InputStreamReader(connection.getInputStream()))) {
-                for (String line = in.readLine(); line != null; line = in.readLine()) {
-                    result.append(line);
-                }
+            final JsonNode node = readResponse(connection);
+            final JsonNode value = node.get("value");
+            final String[] groups = new String[value.size()];
+            int index = 0;
+            for (final JsonNode groupNode : value) {
+                groups[index++] = groupNode.asText();
             }
-            final ObjectMapper mapper = new ObjectMapper();
-            final JsonNode node = mapper.readValue(result.toString().getBytes(), JsonNode.class);
-            return node.get("value").asBoolean();
+            Arrays.sort(groups);
+            return groups;
         } catch (IOException e) {
             LOGGER.error("IO Exception", e);
-            return Boolean.FALSE;
+            return null;
         } catch (RuntimeException e) {
             LOGGER.error(e.getMessage(), e);
+            return null;
+        }
+    }
+
+    private Boolean isUserInRole(final String userID, final String role) {
+        final String groupID = getGroupID(role);
+        if (groupID == null) {
+            return Boolean.FALSE;
+        }
+        final String[] groups = getMemberGroups(userID);
+        if (groups == null) {
             return Boolean.FALSE;
         }
+        return Arrays.binarySearch(groups, groupID) >= 0;
     }
 
-    private String getGroupID(final Tenant tenant, final String group, final String bearerToken) {
+    private String loadGroupID(final String group) {
         try {
+            final ApplicationSettings applicationSettings = applicationSettingsLoader.load();
+            final String token = getBearerToken();
+            if (token == null) {
+                return null;
+            }
             final String urlString = String.format(
-                    "https://graph.windows.net/%s/groups?$filter=displayName%%20eq%%20'%s'&api-version=1.6",
-                    tenant.getName(), URLEncoder.encode(group, "UTF-8"));
+                    "%s/%s/groups?$filter=displayName%%20eq%%20'%s'&api-version=1.6", graphEndpoint,
+                    applicationSettings.getTenant().getName(), URLEncoder.encode(group, "UTF-8"));
             final URL url = new URL(urlString);
-            final HttpsURLConnection connection = (HttpsURLConnection) url.openConnection();
-            connection.setRequestProperty("Host", "graph.windows.net");
+            final HttpURLConnection connection = (HttpURLConnection) url.openConnection();
             connection.setRequestProperty("Accept", "application/json");
-            connection.setRequestProperty("Authorization", "Bearer " + bearerToken);
-            final StringBuilder result = new StringBuilder();
-            try (final BufferedReader in = new BufferedReader(new InputStreamReader(connection.getInputStream()))) {
-                for (String line = in.readLine(); line != null; line = in.readLine()) {
-                    result.append(line);
-                }
-            }
-            final ObjectMapper mapper = new ObjectMapper();
-            final JsonNode node = mapper.readValue(result.toString().getBytes(), JsonNode.class);
+            connection.setRequestProperty("Authorization", "Bearer " + token);
+            final JsonNode node = readResponse(connection);
             for (final JsonNode groupNode : node.get("value")) {
                 return groupNode.get("objectId").asText();
             }
@@ -133,31 +181,67 @@ public final class SimpleGraphService implements GraphService {
         }
     }
 
-    private String getBearerToken(final Tenant tenant, final ID principal, final Secret secret) {
+    // no lock is held while the token is fetched, so the lookups with a valid token never wait for it.
+    private String getBearerToken() {
+        while (true) {
+            final BearerToken current = bearerToken;
+            if (current != null && current.isValid()) {
+                return current.value;
+            }
+            final FutureTask<BearerToken> task = new FutureTask<BearerToken>(new Callable<BearerToken>() {
+                @Override
+                public BearerToken call() throws Exception {
+                    return refreshBearerToken();
+                }
+            });
+            if (pendingBearerToken.compareAndSet(null, task)) {
+                try {
+                    task.run();
+                } finally {
+                    pendingBearerToken.compareAndSet(task, null);
+                }
+                return getValue(futureHelper.getResult(task));
+            }
+            final FutureTask<BearerToken> pending = pendingBearerToken.get();
+            if (pending != null) {
+                return getValue(futureHelper.getResult(pending));
+            }
+            // the fetch in flight has just finished, check the token it published
+        }
+    }
+
+    private BearerToken refreshBearerToken() {
+        final ApplicationSettings applicationSettings = applicationSettingsLoader.load();
+        final JsonNode node = loadBearerToken(applicationSettings.getTenant(), applicationSettings.getPrincipalId(),
+                applicationSettings.getPrincipalSecret());
+        if (node == null || node.get("access_token") == null) {
+            return null;
+        }
+        final BearerToken result = new BearerToken(node.get("access_token").asText(),
+                System.currentTimeMillis() + node.path("expires_in").asLong(0L) * 1000);
+        bearerToken = result;
+        return result;
+    }
+
+    private static String getValue(final BearerToken token) {
+        return token == null ? null : token.value;
+    }
+
+    private JsonNode loadBearerToken(final Tenant tenant, final ID principal, final Secret secret) {
         try {
             final String payload = String.format(
                     "grant_type=client_credentials&client_id=%s&client_secret=%s&resource=%s", principal.getValue(),
                     URLEncoder.encode(secret.getValue(), "UTF-8"),
-                    URLEncoder.encode("https://graph.windows.net", "UTF-8"));
-            final URL url = new URL(
-                    String.format("https://login.microsoftonline.com/%s/oauth2/token", tenant.getName()));
-            final HttpsURLConnection connection = (HttpsURLConnection) url.openConnection();
+                    URLEncoder.encode(GRAPH_ENDPOINT, "UTF-8"));
+            final URL url = new URL(String.format("%s/%s/oauth2/token", loginEndpoint, tenant.getName()));
+            final HttpURLConnection connection = (HttpURLConnection) url.openConnection();
             connection.setRequestMethod("POST");
-            connection.setRequestProperty("Host", "login.microsoftonline.com");
             connection.setRequestProperty("Content-Type", "application/x-www-form-urlencoded");
             connection.setRequestProperty("Accept", "application/json");
             connection.setDoOutput(true);
             connection.getOutputStream().write(payload.getBytes());
             connection.getOutputStream().flush();
-            final StringBuilder result = new StringBuilder();
-            try (final BufferedReader in = new BufferedReader(new InputStreamReader(connection.getInputStream()))) {
-                for (String line = in.readLine(); line != null; line = in.readLine()) {
-                    result.append(line);
-                }
-            }
-            final ObjectMapper mapper = new ObjectMapper();
-            final JsonNode node = mapper.readValue(result.toString().getBytes(), JsonNode.class);
-            return node.get("access_token").asText();
+            return readResponse(connection);
         } catch (IOException e) {
             LOGGER.error("IO Exception", e);
             return null;
@@ -167,7 +251,31 @@ public final class SimpleGraphService implements GraphService {
         }
     }
 
+    private JsonNode readResponse(final HttpURLConnection connection) throws IOException {
+        final StringBuilder result = new StringBuilder();
+        try (final BufferedReader in = new BufferedReader(new InputStreamReader(connection.getInputStream()))) {
+            for (String line = in.readLine(); line != null; line = in.readLine()) {
+                result.append(line);
+            }
+        }
+        return MAPPER.readValue(result.toString().getBytes(), JsonNode.class);
+    }
+
     public static GraphService getInstance() {
         return INSTANCE;
     }
+
+    private static final class BearerToken {
+        private final String value;
+        private final long expiresAt;
+
+        private BearerToken(final String value, final long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+
+        private boolean isValid() {
+            return System.currentTimeMillis() < expiresAt - TOKEN_EXPIRY_MARGIN_MILLIS;
+        }
+    }
 }
@@ -43,6 +43,7 @@ public final class SimpleKeyStoreLoader implements KeyStoreLoader {
         return future;
     }
 
+    @Override
     public JsonNode load(final EndPoint endPoint) {
         if (endPoint == null) {
             throw new PreconditionException("Required parameter is null");
@@ -13,4 +13,6 @@ public interface WellKnownLoader {
 
     Future<JsonNode> loadAsync();
 
+    JsonNode load();
+
 }
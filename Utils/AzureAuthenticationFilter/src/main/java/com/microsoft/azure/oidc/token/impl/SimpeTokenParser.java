@@ -46,6 +46,7 @@ import com.microsoft.azure.oidc.token.signature.impl.SimpleSignatureFactory;
 
 public final class SimpeTokenParser implements TokenParser {
     private static final TokenParser INSTANCE = new SimpeTokenParser();
+    private static final ObjectMapper MAPPER = new ObjectMapper();
 
     private final SignatureFactory signatureFactory = SimpleSignatureFactory.getInstance();
 
@@ -168,8 +169,7 @@ public final class SimpeTokenParser implements TokenParser {
             throw new PreconditionException("Required parameter is null");
         }
         try {
-            final ObjectMapper mapper = new ObjectMapper();
-            return mapper.readValue(part, JsonNode.class);
+            return MAPPER.readValue(part, JsonNode.class);
         } catch (IOException e) {
             throw new GeneralException("IO Exception", e);
         }
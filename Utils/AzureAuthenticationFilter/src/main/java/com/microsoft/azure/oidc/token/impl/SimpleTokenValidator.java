@@ -14,20 +14,28 @@ import java.security.Signature;
 import java.security.SignatureException;
 import java.security.spec.InvalidKeySpecException;
 import java.security.spec.RSAPublicKeySpec;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.apache.commons.codec.binary.Base64;
+import org.apache.commons.codec.digest.DigestUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.microsoft.azure.oidc.application.settings.ApplicationSettings;
 import com.microsoft.azure.oidc.application.settings.ApplicationSettingsLoader;
 import com.microsoft.azure.oidc.application.settings.impl.SimpleApplicationSettingsLoader;
+import com.microsoft.azure.oidc.common.name.Name;
 import com.microsoft.azure.oidc.common.timestamp.TimeStamp;
 import com.microsoft.azure.oidc.common.timestamp.TimeStampFactory;
 import com.microsoft.azure.oidc.common.timestamp.impl.SimpleTimeStampFactory;
+import com.microsoft.azure.oidc.concurrent.cache.ConcurrentCache;
+import com.microsoft.azure.oidc.concurrent.cache.ConcurrentCacheService;
+import com.microsoft.azure.oidc.concurrent.cache.impl.SimpleConcurrentCacheService;
 import com.microsoft.azure.oidc.configuration.Configuration;
 import com.microsoft.azure.oidc.configuration.ConfigurationCache;
 import com.microsoft.azure.oidc.configuration.impl.SimpleConfigurationCache;
+import com.microsoft.azure.oidc.configuration.key.Key;
 import com.microsoft.azure.oidc.exception.GeneralException;
 import com.microsoft.azure.oidc.exception.PreconditionException;
 import com.microsoft.azure.oidc.filter.configuration.algorithm.AlgorithmConfigurationService;
@@ -39,13 +47,32 @@ public class SimpleTokenValidator implements TokenValidator {
     private static final TokenValidator INSTANCE = new SimpleTokenValidator();
     private static final Logger LOGGER = LoggerFactory.getLogger(SimpleTokenValidator.class);
 
-    private final ApplicationSettingsLoader applicationSettingsLoader = SimpleApplicationSettingsLoader.getInstance();
+    private final ApplicationSettingsLoader applicationSettingsLoader;
 
-    private final ConfigurationCache configurationCache = SimpleConfigurationCache.getInstance();
+    private final ConfigurationCache configurationCache;
 
     private final TimeStampFactory timeStampFactory = SimpleTimeStampFactory.getInstance();
 
-    private final AlgorithmConfigurationService algorithmConfigurationService = SimpleAlgorithmConfigurationService.getInstance();
+    private final AlgorithmConfigurationService algorithmConfigurationService;
+
+    private final ConcurrentCacheService concurrentCacheService;
+
+    private volatile PublicKeyStore publicKeyStore = new PublicKeyStore(null);
+
+    private SimpleTokenValidator() {
+        this(SimpleApplicationSettingsLoader.getInstance(), SimpleConfigurationCache.getInstance(),
+                SimpleAlgorithmConfigurationService.getInstance(), SimpleConcurrentCacheService.getInstance());
+    }
+
+    SimpleTokenValidator(final ApplicationSettingsLoader applicationSettingsLoader,
+            final ConfigurationCache configurationCache,
+            final AlgorithmConfigurationService algorithmConfigurationService,
+            final ConcurrentCacheService concurrentCacheService) {
+        this.applicationSettingsLoader = applicationSettingsLoader;
+        this.configurationCache = configurationCache;
+        this.algorithmConfigurationService = algorithmConfigurationService;
+        this.concurrentCacheService = concurrentCacheService;
+    }
 
     @Override
     public Boolean validateSignature(final Token token) {
@@ -60,19 +87,17 @@ public class SimpleTokenValidator implements TokenValidator {
             throw new GeneralException("Error loading configuration");
         }
         try {
+            if (configuration.getKey(token.getKeyName()) == null) {
+                LOGGER.warn("Unknown key {}, refreshing configuration", token.getKeyName());
+                configurationCache.refresh();
+                return Boolean.FALSE;
+            }
             final TimeStamp now = timeStampFactory.createTimeStamp(System.currentTimeMillis() / 1000);
             if (configuration.getKey(token.getKeyName()).getNotBefore().compareTo(now) > 0) {
                 return Boolean.FALSE;
             }
             final Base64 decoder = new Base64();
-            final BigInteger exponent = new BigInteger(1,
-                    decoder.decode(configuration.getKey(token.getKeyName()).getExponent().getValue()));
-            final BigInteger modulus = new BigInteger(1,
-                    decoder.decode(configuration.getKey(token.getKeyName()).getSecret().getValue()));
-            final RSAPublicKeySpec pubKeySpec = new RSAPublicKeySpec(modulus, exponent);
-            final KeyFactory keyFactory = KeyFactory
-                    .getInstance(algorithmConfigurationService.get().getAlgorithmClassMap().get(token.getAlgorithm().getName()));
-            final PublicKey pubKey = keyFactory.generatePublic(pubKeySpec);
+            final PublicKey pubKey = getPublicKey(configuration, token);
             final Signature sig = Signature
                     .getInstance(algorithmConfigurationService.get().getAlgorithmMap().get(token.getAlgorithm().getName()));
             sig.initVerify(pubKey);
@@ -152,6 +177,16 @@ public class SimpleTokenValidator implements TokenValidator {
         if (token == null) {
             throw new PreconditionException("Required parameter is null");
         }
+        final ConcurrentCache<String, TimeStamp> tokenCache = concurrentCacheService.getCache(TimeStamp.class,
+                "tokenCache");
+        final String tokenKey = tokenCache == null ? null : DigestUtils.sha256Hex(token.getValue());
+        if (tokenCache != null) {
+            final TimeStamp verifiedUntil = tokenCache.get(tokenKey);
+            final TimeStamp now = timeStampFactory.createTimeStamp(System.currentTimeMillis() / 1000);
+            if (verifiedUntil != null && verifiedUntil.compareTo(now) > 0) {
+                return Boolean.TRUE;
+            }
+        }
         if (!validateAudience(token)) {
             return Boolean.FALSE;
         }
@@ -167,10 +202,46 @@ public class SimpleTokenValidator implements TokenValidator {
         if (!validateSignature(token)) {
             return Boolean.FALSE;
         }
+        if (tokenCache != null) {
+            tokenCache.putIfAbsent(tokenKey, token.getExpiration());
+        }
         return Boolean.TRUE;
     }
 
+    private PublicKey getPublicKey(final Configuration configuration, final Token token)
+            throws NoSuchAlgorithmException, InvalidKeySpecException {
+        PublicKeyStore store = publicKeyStore;
+        if (store.configuration != configuration) {
+            store = new PublicKeyStore(configuration);
+            publicKeyStore = store;
+        }
+        final PublicKey cached = store.publicKeys.get(token.getKeyName());
+        if (cached != null) {
+            return cached;
+        }
+        final Key key = configuration.getKey(token.getKeyName());
+        final Base64 decoder = new Base64();
+        final BigInteger exponent = new BigInteger(1, decoder.decode(key.getExponent().getValue()));
+        final BigInteger modulus = new BigInteger(1, decoder.decode(key.getSecret().getValue()));
+        final RSAPublicKeySpec pubKeySpec = new RSAPublicKeySpec(modulus, exponent);
+        final KeyFactory keyFactory = KeyFactory
+                .getInstance(algorithmConfigurationService.get().getAlgorithmClassMap().get(token.getAlgorithm().getName()));
+        final PublicKey pubKey = keyFactory.generatePublic(pubKeySpec);
+        final PublicKey existing = store.publicKeys.putIfAbsent(token.getKeyName(), pubKey);
+        return existing == null ? pubKey : existing;
+    }
+
     public static TokenValidator getInstance() {
         return INSTANCE;
     }
+
+    // public keys decoded from one configuration; replaced as a whole when the configuration is refreshed.
+    private static final class PublicKeyStore {
+        private final Configuration configuration;
+        private final ConcurrentMap<Name, PublicKey> publicKeys = new ConcurrentHashMap<Name, PublicKey>();
+
+        private PublicKeyStore(final Configuration configuration) {
+            this.configuration = configuration;
+        }
+    }
 }
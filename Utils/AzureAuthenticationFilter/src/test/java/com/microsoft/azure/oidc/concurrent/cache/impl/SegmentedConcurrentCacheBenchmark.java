@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.oidc.concurrent.cache.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.microsoft.azure.oidc.concurrent.cache.ConcurrentCache;
+
+/**
+ * Compare the throughput of TTLConcurrentCache and SegmentedConcurrentCache under concurrent reads and puts.
+ *
+ * Run it with the main method, the thread counts can be given as the arguments, 1, 8 and 64 threads by default. Both
+ * caches are run with each thread count, sharing the same number of operations per iteration among the threads. Like
+ * JMH, each cache is run for some warm-up iterations before the measured ones, and the values read are consumed to
+ * avoid dead codes.
+ */
+public class SegmentedConcurrentCacheBenchmark {
+    private static final int WARM_UP_ITERATIONS = 2;
+    private static final int MEASURED_ITERATIONS = 5;
+    private static final int[] DEFAULT_THREADS = { 1, 8, 64 };
+    private static final int OPERATIONS_PER_ITERATION = 1000000;
+    private static final int KEYS = 20000;
+    private static final Long MAX_SIZE = 10000L;
+    private static final Long TTL_MINUTES = 60L;
+    // One put in every ten operations, the others are reads
+    private static final int PUT_RATIO = 10;
+
+    public static void main(String[] args) throws Exception {
+        final int[] threadCounts = new int[args.length > 0 ? args.length : DEFAULT_THREADS.length];
+        for (int i = 0; i < threadCounts.length; i++) {
+            threadCounts[i] = args.length > 0 ? Integer.parseInt(args[i]) : DEFAULT_THREADS[i];
+        }
+
+        for (final int threads : threadCounts) {
+            final ExecutorService executor = Executors.newFixedThreadPool(threads);
+            try {
+                run("TTLConcurrentCache", executor, threads, new CacheCreator() {
+                    @Override
+                    public ConcurrentCache<Integer, String> create() {
+                        return new TTLConcurrentCache<Integer, String>(TTL_MINUTES, MAX_SIZE);
+                    }
+                });
+                run("SegmentedConcurrentCache", executor, threads, new CacheCreator() {
+                    @Override
+                    public ConcurrentCache<Integer, String> create() {
+                        return new SegmentedConcurrentCache<Integer, String>(TTL_MINUTES, MAX_SIZE);
+                    }
+                });
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+    }
+
+    private interface CacheCreator {
+        ConcurrentCache<Integer, String> create();
+    }
+
+    private static void run(final String name, final ExecutorService executor, final int threads,
+            final CacheCreator creator) throws Exception {
+        for (int i = 0; i < WARM_UP_ITERATIONS; i++) {
+            runOnce(executor, threads, creator);
+        }
+
+        long totalNanos = 0;
+        long consumed = 0;
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            final long start = System.nanoTime();
+            consumed += runOnce(executor, threads, creator);
+            totalNanos += System.nanoTime() - start;
+        }
+
+        final double operations = (double) threads * operationsPerThread(threads) * MEASURED_ITERATIONS;
+        System.out.printf("%-26s %3d threads: %8.2f Mops/s (consumed %d)%n",
+                name, threads, operations / totalNanos * 1000, consumed);
+    }
+
+    private static long runOnce(final ExecutorService executor, final int threads, final CacheCreator creator)
+            throws Exception {
+        final ConcurrentCache<Integer, String> cache = creator.create();
+        final List<String> values = new ArrayList<String>(KEYS);
+        for (int key = 0; key < KEYS; key++) {
+            values.add(String.valueOf(key));
+        }
+
+        try {
+            final int operations = operationsPerThread(threads);
+            final List<Future<Long>> results = new ArrayList<Future<Long>>();
+            for (int thread = 0; thread < threads; thread++) {
+                final Random random = new Random(thread);
+                results.add(executor.submit(new Callable<Long>() {
+                    @Override
+                    public Long call() {
+                        long found = 0;
+                        for (int i = 0; i < operations; i++) {
+                            final int key = random.nextInt(KEYS);
+                            if (i % PUT_RATIO == 0) {
+                                cache.putIfAbsent(key, values.get(key));
+                            } else if (cache.get(key) != null) {
+                                found++;
+                            }
+                        }
+                        return found;
+                    }
+                }));
+            }
+
+            long found = 0;
+            for (final Future<Long> result : results) {
+                found += result.get();
+            }
+            return found;
+        } finally {
+            cache.shutdownNow();
+        }
+    }
+
+    private static int operationsPerThread(final int threads) {
+        return OPERATIONS_PER_ITERATION / threads;
+    }
+}
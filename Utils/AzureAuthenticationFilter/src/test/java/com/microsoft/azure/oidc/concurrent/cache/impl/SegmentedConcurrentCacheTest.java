@@ -0,0 +1,144 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.oidc.concurrent.cache.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Test;
+
+public class SegmentedConcurrentCacheTest {
+    // 16 segments of 2 entries, the integer keys 0, 16, 32... are all in the first segment
+    private static final Long MAX_SIZE = 32L;
+    private static final Long TTL_MINUTES = 60L;
+
+    private SegmentedConcurrentCache<Integer, String> cache;
+
+    @After
+    public void tearDown() {
+        if (cache != null) {
+            cache.shutdownNow();
+        }
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsedEntry() {
+        cache = new SegmentedConcurrentCache<Integer, String>(TTL_MINUTES, MAX_SIZE);
+        cache.putIfAbsent(0, "0");
+        cache.putIfAbsent(16, "16");
+
+        // The hit makes the first entry put the most recently used one
+        assertEquals("0", cache.get(0));
+        cache.putIfAbsent(32, "32");
+
+        assertEquals("0", cache.get(0));
+        assertNull(cache.get(16));
+        assertEquals("32", cache.get(32));
+        assertEquals(1, cache.getEvictionCount());
+    }
+
+    @Test
+    public void evictsOldestEntryWithoutHits() {
+        cache = new SegmentedConcurrentCache<Integer, String>(TTL_MINUTES, MAX_SIZE);
+        cache.putIfAbsent(0, "0");
+        cache.putIfAbsent(16, "16");
+        cache.putIfAbsent(32, "32");
+
+        assertNull(cache.get(0));
+        assertEquals("16", cache.get(16));
+        assertEquals("32", cache.get(32));
+    }
+
+    @Test
+    public void evictsOnlyInFullSegment() {
+        cache = new SegmentedConcurrentCache<Integer, String>(TTL_MINUTES, MAX_SIZE);
+        for (int key = 0; key < 16; key++) {
+            cache.putIfAbsent(key, String.valueOf(key));
+        }
+
+        cache.putIfAbsent(16, "16");
+        cache.putIfAbsent(32, "32");
+
+        assertNull(cache.get(0));
+        for (int key = 1; key < 16; key++) {
+            assertEquals(String.valueOf(key), cache.get(key));
+        }
+    }
+
+    @Test
+    public void keepsExistingValue() {
+        cache = new SegmentedConcurrentCache<Integer, String>(TTL_MINUTES, MAX_SIZE);
+
+        assertNull(cache.putIfAbsent(1, "first"));
+        assertEquals("first", cache.putIfAbsent(1, "second"));
+        assertEquals("first", cache.get(1));
+    }
+
+    @Test
+    public void expiresEntryAfterTtlEvenIfUsed() throws InterruptedException {
+        cache = new SegmentedConcurrentCache<Integer, String>(0L, MAX_SIZE);
+        cache.putIfAbsent(1, "1");
+        TimeUnit.MILLISECONDS.sleep(5);
+
+        assertNull(cache.get(1));
+        assertNull(cache.putIfAbsent(1, "2"));
+    }
+
+    @Test
+    public void countsHitsAndMissesUnderConcurrentAccess() throws Exception {
+        final int threads = 8;
+        final int operations = 20000;
+        final int keys = 64;
+        cache = new SegmentedConcurrentCache<Integer, String>(TTL_MINUTES, MAX_SIZE);
+
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            final List<Future<Integer>> results = new ArrayList<Future<Integer>>();
+            for (int thread = 0; thread < threads; thread++) {
+                final Random random = new Random(thread);
+                results.add(executor.submit(new Callable<Integer>() {
+                    @Override
+                    public Integer call() {
+                        int gets = 0;
+                        for (int i = 0; i < operations; i++) {
+                            final int key = random.nextInt(keys);
+                            final String value = cache.get(key);
+                            gets++;
+                            if (value == null) {
+                                cache.putIfAbsent(key, String.valueOf(key));
+                            } else if (!value.equals(String.valueOf(key))) {
+                                throw new IllegalStateException("Got " + value + " for key " + key);
+                            }
+                        }
+                        return gets;
+                    }
+                }));
+            }
+
+            long gets = 0;
+            for (final Future<Integer> result : results) {
+                gets += result.get();
+            }
+
+            assertEquals(gets, cache.getHitCount() + cache.getMissCount());
+            assertTrue(cache.getHitCount() > 0);
+            assertTrue(cache.getEvictionCount() > 0);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
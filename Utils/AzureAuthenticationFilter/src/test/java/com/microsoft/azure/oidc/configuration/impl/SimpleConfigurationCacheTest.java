@@ -0,0 +1,249 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.oidc.configuration.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.microsoft.azure.oidc.common.algorithm.Algorithm;
+import com.microsoft.azure.oidc.common.issuer.Issuer;
+import com.microsoft.azure.oidc.common.name.Name;
+import com.microsoft.azure.oidc.configuration.Configuration;
+import com.microsoft.azure.oidc.configuration.ConfigurationLoader;
+import com.microsoft.azure.oidc.configuration.endpoint.EndPoint;
+import com.microsoft.azure.oidc.configuration.key.Key;
+import com.microsoft.azure.oidc.future.impl.SimpleFutureHelper;
+
+/**
+ * Test the loads and refreshes of the configuration cache against a loader which can be held in the middle of a load.
+ */
+public class SimpleConfigurationCacheTest {
+    private static final long MIN_EARLY_REFRESH_INTERVAL_MILLIS = 300L;
+    private static final int THREADS = 8;
+
+    private final Configuration first = new StubConfiguration();
+    private final Configuration second = new StubConfiguration();
+    private final StubConfigurationLoader configurationLoader = new StubConfigurationLoader();
+
+    private SimpleConfigurationCache configurationCache;
+    private ExecutorService executor;
+
+    @Before
+    public void setUp() {
+        configurationCache = new SimpleConfigurationCache(configurationLoader, SimpleFutureHelper.getInstance(),
+                MIN_EARLY_REFRESH_INTERVAL_MILLIS);
+        executor = Executors.newFixedThreadPool(THREADS);
+    }
+
+    @After
+    public void tearDown() {
+        configurationCache.shutdownNow();
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void concurrentMissesShareOneLoad() throws Exception {
+        configurationLoader.next = first;
+        configurationLoader.gate = new CountDownLatch(1);
+
+        final CountDownLatch ready = new CountDownLatch(THREADS);
+        final List<Future<Configuration>> results = new ArrayList<Future<Configuration>>();
+        for (int i = 0; i < THREADS; i++) {
+            results.add(executor.submit(new Callable<Configuration>() {
+                @Override
+                public Configuration call() {
+                    ready.countDown();
+                    return configurationCache.load();
+                }
+            }));
+        }
+        assertTrue(ready.await(5, TimeUnit.SECONDS));
+        awaitLoads(1);
+        // Let the other threads miss the configuration while the first load is held
+        Thread.sleep(100);
+        configurationLoader.gate.countDown();
+
+        for (final Future<Configuration> result : results) {
+            assertSame(first, result.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, configurationLoader.loads.get());
+    }
+
+    @Test
+    public void unknownKeyRefreshesEarlyAtMostOncePerInterval() throws Exception {
+        configurationLoader.next = first;
+        assertSame(first, configurationCache.load());
+
+        // Just loaded, so the refreshes for the unknown keys are ignored
+        refreshTimes(5);
+        Thread.sleep(100);
+        assertEquals(1, configurationLoader.loads.get());
+
+        Thread.sleep(MIN_EARLY_REFRESH_INTERVAL_MILLIS);
+        configurationLoader.next = second;
+        refreshTimes(5);
+        awaitLoads(2);
+        refreshTimes(5);
+        Thread.sleep(100);
+
+        assertEquals(2, configurationLoader.loads.get());
+        assertSame(second, configurationCache.load());
+    }
+
+    @Test
+    public void lastGoodConfigurationIsServedWhileRefreshing() throws Exception {
+        configurationLoader.next = first;
+        assertSame(first, configurationCache.load());
+
+        configurationLoader.next = second;
+        configurationLoader.gate = new CountDownLatch(1);
+        Thread.sleep(MIN_EARLY_REFRESH_INTERVAL_MILLIS);
+        configurationCache.refresh();
+        awaitLoads(2);
+
+        // The refresh is held, the configuration loaded before is served without waiting for it
+        final Future<Configuration> served = executor.submit(new Callable<Configuration>() {
+            @Override
+            public Configuration call() {
+                return configurationCache.load();
+            }
+        });
+        assertSame(first, served.get(1, TimeUnit.SECONDS));
+
+        configurationLoader.gate.countDown();
+        awaitConfiguration(second);
+
+        // A failed refresh keeps the last good configuration
+        configurationLoader.gate = null;
+        configurationLoader.next = null;
+        Thread.sleep(MIN_EARLY_REFRESH_INTERVAL_MILLIS);
+        configurationCache.refresh();
+        awaitLoads(3);
+        Thread.sleep(100);
+        assertSame(second, configurationCache.load());
+    }
+
+    @Test
+    public void refresherRestartsAfterShutdownNow() throws Exception {
+        configurationLoader.next = first;
+        assertSame(first, configurationCache.load());
+
+        // The filter is destroyed and initialised again, the configuration loaded before is still served
+        configurationCache.shutdownNow();
+        assertSame(first, configurationCache.load());
+
+        configurationLoader.next = second;
+        Thread.sleep(MIN_EARLY_REFRESH_INTERVAL_MILLIS);
+        configurationCache.refresh();
+        awaitLoads(2);
+        awaitConfiguration(second);
+    }
+
+    @Test
+    public void firstLoadAfterShutdownNowLoads() {
+        configurationCache.shutdownNow();
+        configurationLoader.next = first;
+
+        assertSame(first, configurationCache.load());
+        assertEquals(1, configurationLoader.loads.get());
+    }
+
+    private void refreshTimes(final int times) {
+        for (int i = 0; i < times; i++) {
+            configurationCache.refresh();
+        }
+    }
+
+    private void awaitLoads(final int loads) throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + 5000;
+        while (configurationLoader.loads.get() < loads && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(loads, configurationLoader.loads.get());
+    }
+
+    private void awaitConfiguration(final Configuration expected) throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + 5000;
+        while (configurationCache.load() != expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertSame(expected, configurationCache.load());
+    }
+
+    private static final class StubConfigurationLoader implements ConfigurationLoader {
+        private final AtomicInteger loads = new AtomicInteger();
+        private volatile Configuration next;
+        // Holds the loads until it's counted down, if it's set
+        private volatile CountDownLatch gate;
+
+        @Override
+        public Future<Configuration> loadAsync() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Configuration load() {
+            loads.incrementAndGet();
+            final CountDownLatch held = gate;
+            if (held != null) {
+                try {
+                    held.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return next;
+        }
+    }
+
+    private static final class StubConfiguration implements Configuration {
+        @Override
+        public List<Algorithm> getAlgorithms() {
+            return null;
+        }
+
+        @Override
+        public Map<Name, Key> getKeys() {
+            return null;
+        }
+
+        @Override
+        public Key getKey(final Name name) {
+            return null;
+        }
+
+        @Override
+        public Issuer getIssuer() {
+            return null;
+        }
+
+        @Override
+        public EndPoint getAuthenticationEndPoint() {
+            return null;
+        }
+
+        @Override
+        public EndPoint getLogoutEndPoint() {
+            return null;
+        }
+    }
+}
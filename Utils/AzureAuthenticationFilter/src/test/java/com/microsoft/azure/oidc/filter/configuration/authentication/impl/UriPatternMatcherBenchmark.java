@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.oidc.filter.configuration.authentication.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Pattern;
+
+/**
+ * Compare the first matching pattern lookup of UriPatternMatcher with the scan of the regular expressions in order.
+ *
+ * Run it with the main method, the pattern count can be given as the first argument. The patterns are a mix of
+ * literal, prefix and inner wildcard ones, and the URIs looked up a mix of matching and not matching ones.
+ */
+public class UriPatternMatcherBenchmark {
+    private static final int WARM_UP_ITERATIONS = 3;
+    private static final int MEASURED_ITERATIONS = 5;
+    private static final int LOOKUPS = 200000;
+    private static final int URIS = 1000;
+
+    public static void main(String[] args) {
+        final int patternCount = args.length > 0 ? Integer.parseInt(args[0]) : 100;
+        final List<String> patterns = new ArrayList<String>();
+        for (int i = 0; i < patternCount; i++) {
+            switch (i % 3) {
+            case 0:
+                patterns.add("/page" + i);
+                break;
+            case 1:
+                patterns.add("/static" + i + "/*");
+                break;
+            default:
+                patterns.add("/api" + i + "/*/items");
+                break;
+            }
+        }
+        final List<Pattern> regexPatterns = SimpleAuthenticationConfiguration.compile(patterns);
+        final UriPatternMatcher matcher = new UriPatternMatcher(patterns, regexPatterns);
+
+        final Random random = new Random(0);
+        final String[] uris = new String[URIS];
+        for (int i = 0; i < URIS; i++) {
+            final int index = random.nextInt(patternCount * 2);
+            switch (index % 3) {
+            case 0:
+                uris[i] = "/page" + index;
+                break;
+            case 1:
+                uris[i] = "/static" + index + "/app.js";
+                break;
+            default:
+                uris[i] = "/api" + index + "/v1/items";
+                break;
+            }
+        }
+
+        run("Regex scan", uris, new Lookup() {
+            @Override
+            public int indexOf(final String uri) {
+                for (int index = 0; index < regexPatterns.size(); index++) {
+                    if (regexPatterns.get(index).matcher(uri).matches()) {
+                        return index;
+                    }
+                }
+                return -1;
+            }
+        }, patternCount);
+        run("UriPatternMatcher", uris, new Lookup() {
+            @Override
+            public int indexOf(final String uri) {
+                return matcher.indexOf(uri);
+            }
+        }, patternCount);
+    }
+
+    private interface Lookup {
+        int indexOf(String uri);
+    }
+
+    private static void run(final String name, final String[] uris, final Lookup lookup, final int patternCount) {
+        for (int i = 0; i < WARM_UP_ITERATIONS; i++) {
+            runOnce(uris, lookup);
+        }
+
+        long totalNanos = 0;
+        long consumed = 0;
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            final long start = System.nanoTime();
+            consumed += runOnce(uris, lookup);
+            totalNanos += System.nanoTime() - start;
+        }
+
+        System.out.printf("%-18s %10.1f ns/lookup (%d patterns, consumed %d)%n",
+                name, (double) totalNanos / LOOKUPS / MEASURED_ITERATIONS, patternCount, consumed);
+    }
+
+    private static long runOnce(final String[] uris, final Lookup lookup) {
+        long sum = 0;
+        for (int i = 0; i < LOOKUPS; i++) {
+            sum += lookup.indexOf(uris[i % uris.length]);
+        }
+        return sum;
+    }
+}
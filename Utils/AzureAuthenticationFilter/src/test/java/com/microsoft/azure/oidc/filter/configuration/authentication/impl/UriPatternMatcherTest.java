@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.oidc.filter.configuration.authentication.impl;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import org.junit.Test;
+
+public class UriPatternMatcherTest {
+    @Test
+    public void matchesLiteralPattern() {
+        final UriPatternMatcher matcher = create("/login", "/logout");
+
+        assertEquals(0, matcher.indexOf("/login"));
+        assertEquals(1, matcher.indexOf("/logout"));
+        assertEquals(-1, matcher.indexOf("/log"));
+        assertEquals(-1, matcher.indexOf("/login/"));
+    }
+
+    @Test
+    public void matchesPrefixPattern() {
+        final UriPatternMatcher matcher = create("/static/*", "/*");
+
+        assertEquals(0, matcher.indexOf("/static/app.js"));
+        assertEquals(0, matcher.indexOf("/static/"));
+        assertEquals(1, matcher.indexOf("/static"));
+        assertEquals(1, matcher.indexOf("/"));
+        assertEquals(-1, matcher.indexOf(""));
+    }
+
+    @Test
+    public void matchesFallbackPattern() {
+        final UriPatternMatcher matcher = create("/api/*/status", "/*.css");
+
+        assertEquals(0, matcher.indexOf("/api/v1/status"));
+        assertEquals(1, matcher.indexOf("/main.css"));
+        assertEquals(-1, matcher.indexOf("/api/v1/health"));
+        // The inner wildcards of the paths only match word characters
+        assertEquals(-1, matcher.indexOf("/api/v1/v2/status"));
+        assertEquals(-1, matcher.indexOf("/theme/main.css"));
+    }
+
+    @Test
+    public void returnsEarliestMatchingPattern() {
+        final UriPatternMatcher matcher = create("/static/*/main.css", "/static/*", "/static/app/main.css", "/*");
+
+        assertEquals(0, matcher.indexOf("/static/app/main.css"));
+        assertEquals(1, matcher.indexOf("/static/app/main.js"));
+        assertEquals(3, matcher.indexOf("/index.html"));
+    }
+
+    @Test
+    public void returnsEarliestOfSeveralMatchingFallbackPatterns() {
+        final UriPatternMatcher matcher = create("/a/*/c", "/*/b/*", "/a/b/*");
+
+        assertEquals(0, matcher.indexOf("/a/b/c"));
+        assertEquals(1, matcher.indexOf("/x/b/c"));
+        assertEquals(1, matcher.indexOf("/a/b/d"));
+    }
+
+    @Test
+    public void keepsFirstOfDuplicatedPatterns() {
+        final UriPatternMatcher matcher = create("/home", "/docs/*", "/home", "/docs/*");
+
+        assertEquals(0, matcher.indexOf("/home"));
+        assertEquals(1, matcher.indexOf("/docs/index.html"));
+    }
+
+    @Test
+    public void trimsPatterns() {
+        final UriPatternMatcher matcher = create(" /home ", "/docs/* ");
+
+        assertEquals(0, matcher.indexOf("/home"));
+        assertEquals(1, matcher.indexOf("/docs/index.html"));
+    }
+
+    @Test
+    public void matchesSameAsRegexScan() {
+        final List<String> patterns = Arrays.asList("/public", "/static/*", "/*/images/*", "/api/v*/users", "/api/*",
+                "/*.ico", "/");
+        final List<String> uris = Arrays.asList("/public", "/public/", "/static/x.js", "/a/images/b.png",
+                "/api/v2/users", "/api/v2/groups", "/favicon.ico", "/", "/other", "");
+        final List<Pattern> regexPatterns = toRegexPatterns(patterns);
+        final UriPatternMatcher matcher = new UriPatternMatcher(patterns, regexPatterns);
+
+        for (final String uri : uris) {
+            int expected = -1;
+            for (int index = 0; index < regexPatterns.size(); index++) {
+                if (regexPatterns.get(index).matcher(uri).matches()) {
+                    expected = index;
+                    break;
+                }
+            }
+            assertEquals(uri, expected, matcher.indexOf(uri));
+        }
+    }
+
+    private static UriPatternMatcher create(final String... patterns) {
+        final List<String> patternList = Arrays.asList(patterns);
+        return new UriPatternMatcher(patternList, toRegexPatterns(patternList));
+    }
+
+    private static List<Pattern> toRegexPatterns(final List<String> patterns) {
+        return SimpleAuthenticationConfiguration.compile(patterns);
+    }
+}
@@ -0,0 +1,314 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.oidc.graph.impl;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.microsoft.azure.oidc.application.settings.ApplicationSettings;
+import com.microsoft.azure.oidc.application.settings.ApplicationSettingsLoader;
+import com.microsoft.azure.oidc.application.settings.Policy;
+import com.microsoft.azure.oidc.application.settings.RedirectURL;
+import com.microsoft.azure.oidc.application.settings.Secret;
+import com.microsoft.azure.oidc.application.settings.Tenant;
+import com.microsoft.azure.oidc.common.id.ID;
+import com.microsoft.azure.oidc.concurrent.cache.ConcurrentCacheService;
+import com.microsoft.azure.oidc.concurrent.cache.impl.SimpleConcurrentCacheService;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Test the Graph lookups against a local HTTP stub standing in for the Graph and the login endpoints.
+ */
+public class SimpleGraphServiceTest {
+    private static final String TENANT = "tenant";
+    private static final String TOKEN = "token";
+    private static final int THREADS = 8;
+
+    private final ConcurrentCacheService concurrentCacheService = SimpleConcurrentCacheService.getInstance();
+
+    private final AtomicInteger tokenRequests = new AtomicInteger();
+    private final AtomicInteger groupRequests = new AtomicInteger();
+    private final AtomicInteger memberGroupsRequests = new AtomicInteger();
+
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private SimpleGraphService graphService;
+    private volatile long tokenExpiresInSeconds = 3600;
+    private volatile CountDownLatch tokenRelease = new CountDownLatch(0);
+    private volatile CountDownLatch memberGroupsRelease = new CountDownLatch(0);
+
+    @Before
+    public void setUp() throws IOException {
+        concurrentCacheService.createCache(Boolean.class, "roleCache", 30L, 1000L);
+        concurrentCacheService.createCache(String[].class, "memberGroupCache", 30L, 1000L);
+        concurrentCacheService.createCache(String.class, "groupCache", 1440L, 1000L);
+
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        serverExecutor = Executors.newCachedThreadPool();
+        server.setExecutor(serverExecutor);
+        server.createContext("/" + TENANT + "/oauth2/token", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                tokenRequests.incrementAndGet();
+                await(tokenRelease);
+                respond(exchange, 200, String.format("{\"access_token\":\"%s\",\"expires_in\":%d}", TOKEN,
+                        tokenExpiresInSeconds));
+            }
+        });
+        server.createContext("/" + TENANT + "/groups", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                groupRequests.incrementAndGet();
+                if (!isAuthorized(exchange)) {
+                    respond(exchange, 401, "{}");
+                    return;
+                }
+                final boolean isKnownGroup = exchange.getRequestURI().getQuery().contains("'admins'");
+                respond(exchange, 200, isKnownGroup ? "{\"value\":[{\"objectId\":\"g2\"}]}" : "{\"value\":[]}");
+            }
+        });
+        server.createContext("/" + TENANT + "/users/", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                memberGroupsRequests.incrementAndGet();
+                await(memberGroupsRelease);
+                if (!isAuthorized(exchange) || !exchange.getRequestMethod().equals("POST")) {
+                    respond(exchange, 401, "{}");
+                    return;
+                }
+                respond(exchange, 200, "{\"value\":[\"g3\",\"g1\",\"g2\"]}");
+            }
+        });
+        server.start();
+
+        final String endpoint = "http://127.0.0.1:" + server.getAddress().getPort();
+        graphService = new SimpleGraphService(new StubApplicationSettingsLoader(), endpoint, endpoint);
+    }
+
+    @After
+    public void tearDown() {
+        server.stop(0);
+        serverExecutor.shutdownNow();
+        concurrentCacheService.shutdownNow();
+    }
+
+    @Test
+    public void getMemberGroupsReturnsSortedGroups() {
+        assertArrayEquals(new String[] { "g1", "g2", "g3" }, graphService.getMemberGroups("user@contoso.com"));
+    }
+
+    @Test
+    public void bearerTokenIsReusedUntilItExpires() {
+        graphService.getMemberGroups("user1");
+        graphService.getMemberGroups("user2");
+        graphService.getGroupID("admins");
+
+        assertEquals(1, tokenRequests.get());
+        assertEquals(2, memberGroupsRequests.get());
+    }
+
+    @Test
+    public void bearerTokenIsFetchedAgainOnceExpired() {
+        // within the expiry margin, so the token is never reused
+        tokenExpiresInSeconds = 30;
+        graphService.getMemberGroups("user1");
+        graphService.getMemberGroups("user2");
+
+        assertEquals(2, tokenRequests.get());
+    }
+
+    @Test
+    public void concurrentLookupsShareOneTokenFetch() throws Exception {
+        tokenRelease = new CountDownLatch(1);
+        final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            final List<Future<String[]>> results = new ArrayList<Future<String[]>>();
+            for (int i = 0; i < THREADS; i++) {
+                final String userID = "user" + i;
+                results.add(executor.submit(new Callable<String[]>() {
+                    @Override
+                    public String[] call() {
+                        return graphService.getMemberGroups(userID);
+                    }
+                }));
+            }
+            waitFor(tokenRequests, 1);
+            // give the other lookups the time to join the fetch in flight
+            TimeUnit.MILLISECONDS.sleep(200);
+            tokenRelease.countDown();
+
+            for (final Future<String[]> result : results) {
+                assertArrayEquals(new String[] { "g1", "g2", "g3" }, result.get(10, TimeUnit.SECONDS));
+            }
+            assertEquals(1, tokenRequests.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void groupIdIsCached() {
+        assertEquals("g2", graphService.getGroupID("admins"));
+        assertEquals("g2", graphService.getGroupID("admins"));
+        assertNull(graphService.getGroupID("unknown"));
+
+        assertEquals(2, groupRequests.get());
+    }
+
+    @Test
+    public void rolesOfOneUserAreAnsweredFromOneMemberGroupsCall() throws Exception {
+        final SimpleGraphCache graphCache = new SimpleGraphCache(graphService);
+        memberGroupsRelease = new CountDownLatch(1);
+        final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            final List<Future<Boolean>> results = new ArrayList<Future<Boolean>>();
+            for (int i = 0; i < THREADS; i++) {
+                final String role = i % 2 == 0 ? "admins" : "unknown";
+                results.add(executor.submit(new Callable<Boolean>() {
+                    @Override
+                    public Boolean call() {
+                        return graphCache.isUserInRole("user", role);
+                    }
+                }));
+            }
+            waitFor(memberGroupsRequests, 1);
+            TimeUnit.MILLISECONDS.sleep(200);
+            memberGroupsRelease.countDown();
+
+            for (int i = 0; i < THREADS; i++) {
+                final boolean isInRole = results.get(i).get(10, TimeUnit.SECONDS);
+                if (i % 2 == 0) {
+                    assertTrue(isInRole);
+                } else {
+                    assertFalse(isInRole);
+                }
+            }
+            assertEquals(1, memberGroupsRequests.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static boolean isAuthorized(final HttpExchange exchange) {
+        return ("Bearer " + TOKEN).equals(exchange.getRequestHeaders().getFirst("Authorization"));
+    }
+
+    private static void respond(final HttpExchange exchange, final int code, final String body) throws IOException {
+        final InputStream request = exchange.getRequestBody();
+        while (request.read() != -1) {
+            // drain the request
+        }
+        final byte[] bytes = body.getBytes("UTF-8");
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(code, bytes.length);
+        try (final OutputStream response = exchange.getResponseBody()) {
+            response.write(bytes);
+        }
+    }
+
+    private static void await(final CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void waitFor(final AtomicInteger counter, final int count) throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + 10000;
+        while (counter.get() < count && System.currentTimeMillis() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(10);
+        }
+    }
+
+    private static final class StubApplicationSettingsLoader implements ApplicationSettingsLoader {
+        @Override
+        public ApplicationSettings load() {
+            return new ApplicationSettings() {
+                @Override
+                public Tenant getTenant() {
+                    return new Tenant() {
+                        @Override
+                        public String getName() {
+                            return TENANT;
+                        }
+                    };
+                }
+
+                @Override
+                public ID getApplicationId() {
+                    return id("application");
+                }
+
+                @Override
+                public Secret getApplicationSecret() {
+                    return secret("application-secret");
+                }
+
+                @Override
+                public ID getPrincipalId() {
+                    return id("principal");
+                }
+
+                @Override
+                public Secret getPrincipalSecret() {
+                    return secret("principal-secret");
+                }
+
+                @Override
+                public RedirectURL getRedirectURL() {
+                    return null;
+                }
+
+                @Override
+                public Policy getOIDCPolicy() {
+                    return null;
+                }
+            };
+        }
+
+        private static ID id(final String value) {
+            return new ID() {
+                @Override
+                public String getValue() {
+                    return value;
+                }
+            };
+        }
+
+        private static Secret secret(final String value) {
+            return new Secret() {
+                @Override
+                public String getValue() {
+                    return value;
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.oidc.token.impl;
+
+import java.security.KeyPair;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.microsoft.azure.oidc.common.timestamp.TimeStamp;
+import com.microsoft.azure.oidc.concurrent.cache.ConcurrentCacheService;
+import com.microsoft.azure.oidc.concurrent.cache.impl.SimpleConcurrentCacheService;
+import com.microsoft.azure.oidc.token.Token;
+
+/**
+ * Compare the requests per second the authentication filter can check with and without the cache of the verified
+ * tokens. Each request goes through the token steps of SimpleAuthenticationFilter.doFilter for an authenticated
+ * request: the token got from the cookie is parsed, validated and checked to be active. The filter itself isn't run,
+ * as its singletons load the OpenID configuration from the network, so the validator is given the stubs of
+ * SimpleTokenValidatorTest instead.
+ *
+ * Run it with the main method, the thread count can be given as the first argument and the count of distinct tokens,
+ * like the users signed in, as the second one. Like JMH, each path is run for some warm-up iterations before the
+ * measured ones, and the accepted requests are counted to avoid dead codes.
+ */
+public class SimpleTokenValidatorBenchmark {
+    private static final int WARM_UP_ITERATIONS = 2;
+    private static final int MEASURED_ITERATIONS = 5;
+    private static final int REQUESTS_PER_ITERATION = 20000;
+
+    public static void main(String[] args) throws Exception {
+        final int threads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        final int tokenCount = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+
+        final KeyPair keyPair = SimpleTokenValidatorTest.generateKeyPair();
+        final String[] tokens = new String[tokenCount];
+        for (int i = 0; i < tokenCount; i++) {
+            tokens[i] = SimpleTokenValidatorTest.createToken(keyPair, SimpleTokenValidatorTest.ISSUER,
+                    SimpleTokenValidatorTest.expiresIn(3600 + i)).getValue();
+        }
+        final SimpleTokenValidatorTest.StubConfigurationCache configurationCache =
+                new SimpleTokenValidatorTest.StubConfigurationCache();
+        configurationCache.configuration = SimpleTokenValidatorTest.createConfiguration(keyPair);
+
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            run("without token cache", executor, threads, tokens, configurationCache, false);
+            run("with token cache", executor, threads, tokens, configurationCache, true);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void run(final String name, final ExecutorService executor, final int threads,
+            final String[] tokens, final SimpleTokenValidatorTest.StubConfigurationCache configurationCache,
+            final boolean isTokenCached) throws Exception {
+        final ConcurrentCacheService concurrentCacheService = new SimpleConcurrentCacheService();
+        if (isTokenCached) {
+            concurrentCacheService.createCache(TimeStamp.class, "tokenCache", 60L, 1000L);
+        }
+        final SimpleTokenValidator tokenValidator = new SimpleTokenValidator(
+                new SimpleTokenValidatorTest.StubApplicationSettingsLoader(), configurationCache,
+                new SimpleTokenValidatorTest.StubAlgorithmConfigurationService(), concurrentCacheService);
+
+        try {
+            for (int i = 0; i < WARM_UP_ITERATIONS; i++) {
+                runOnce(executor, threads, tokens, tokenValidator);
+            }
+
+            long totalNanos = 0;
+            long accepted = 0;
+            for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+                final long start = System.nanoTime();
+                accepted += runOnce(executor, threads, tokens, tokenValidator);
+                totalNanos += System.nanoTime() - start;
+            }
+
+            final double requests = (double) REQUESTS_PER_ITERATION * MEASURED_ITERATIONS;
+            System.out.printf("%-20s %10.0f requests/s (%d threads, %d tokens, %d accepted)%n",
+                    name, requests / totalNanos * 1e9, threads, tokens.length, accepted);
+        } finally {
+            concurrentCacheService.shutdownNow();
+        }
+    }
+
+    private static long runOnce(final ExecutorService executor, final int threads, final String[] tokens,
+            final SimpleTokenValidator tokenValidator) throws Exception {
+        final List<Future<Long>> results = new ArrayList<Future<Long>>();
+        for (int thread = 0; thread < threads; thread++) {
+            final int first = thread;
+            results.add(executor.submit(new Callable<Long>() {
+                @Override
+                public Long call() {
+                    long accepted = 0;
+                    for (int i = first; i < REQUESTS_PER_ITERATION; i += threads) {
+                        final Token token = SimpeTokenParser.getInstance().getToken(tokens[i % tokens.length]);
+                        if (tokenValidator.validateCommon(token) && tokenValidator.validateExpiration(token)) {
+                            accepted++;
+                        }
+                    }
+                    return accepted;
+                }
+            }));
+        }
+
+        long accepted = 0;
+        for (final Future<Long> result : results) {
+            accepted += result.get();
+        }
+        return accepted;
+    }
+}
@@ -0,0 +1,306 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.oidc.token.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.Signature;
+import java.security.interfaces.RSAPublicKey;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.servlet.FilterConfig;
+
+import org.apache.commons.codec.binary.Base64;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.microsoft.azure.oidc.application.settings.ApplicationSettings;
+import com.microsoft.azure.oidc.application.settings.ApplicationSettingsLoader;
+import com.microsoft.azure.oidc.application.settings.Policy;
+import com.microsoft.azure.oidc.application.settings.RedirectURL;
+import com.microsoft.azure.oidc.application.settings.Secret;
+import com.microsoft.azure.oidc.application.settings.Tenant;
+import com.microsoft.azure.oidc.common.algorithm.Algorithm;
+import com.microsoft.azure.oidc.common.id.ID;
+import com.microsoft.azure.oidc.common.id.impl.SimpleIDFactory;
+import com.microsoft.azure.oidc.common.issuer.Issuer;
+import com.microsoft.azure.oidc.common.issuer.impl.SimpleIssuerFactory;
+import com.microsoft.azure.oidc.common.name.Name;
+import com.microsoft.azure.oidc.common.name.impl.SimpleNameFactory;
+import com.microsoft.azure.oidc.common.timestamp.TimeStamp;
+import com.microsoft.azure.oidc.common.timestamp.impl.SimpleTimeStampFactory;
+import com.microsoft.azure.oidc.concurrent.cache.ConcurrentCacheService;
+import com.microsoft.azure.oidc.concurrent.cache.impl.SimpleConcurrentCacheService;
+import com.microsoft.azure.oidc.configuration.Configuration;
+import com.microsoft.azure.oidc.configuration.ConfigurationCache;
+import com.microsoft.azure.oidc.configuration.endpoint.EndPoint;
+import com.microsoft.azure.oidc.configuration.key.Key;
+import com.microsoft.azure.oidc.configuration.key.exponent.impl.SimpleExponentFactory;
+import com.microsoft.azure.oidc.configuration.key.impl.SimpleKeyFactory;
+import com.microsoft.azure.oidc.configuration.key.modulus.impl.SimpleModulusFactory;
+import com.microsoft.azure.oidc.filter.configuration.algorithm.AlgorithmConfiguration;
+import com.microsoft.azure.oidc.filter.configuration.algorithm.AlgorithmConfigurationService;
+import com.microsoft.azure.oidc.token.Token;
+
+/**
+ * Test the validation of RS256 tokens signed with generated keys, and the caches of the verified tokens and of the
+ * decoded public keys. The tokens and stubs are shared with SimpleTokenValidatorBenchmark.
+ */
+public class SimpleTokenValidatorTest {
+    private static final String KEY_NAME = "key1";
+    static final String ISSUER = "https://login.example.com/tenant/v2.0/";
+    private static final String AUDIENCE = "application";
+
+    private final ConcurrentCacheService concurrentCacheService = SimpleConcurrentCacheService.getInstance();
+    private final StubConfigurationCache configurationCache = new StubConfigurationCache();
+
+    private KeyPair keyPair;
+    private SimpleTokenValidator tokenValidator;
+
+    @Before
+    public void setUp() throws GeneralSecurityException {
+        concurrentCacheService.createCache(TimeStamp.class, "tokenCache", 60L, 1000L);
+        keyPair = generateKeyPair();
+        configurationCache.configuration = createConfiguration(keyPair);
+        tokenValidator = new SimpleTokenValidator(new StubApplicationSettingsLoader(), configurationCache,
+                new StubAlgorithmConfigurationService(), concurrentCacheService);
+    }
+
+    @After
+    public void tearDown() {
+        concurrentCacheService.shutdownNow();
+    }
+
+    @Test
+    public void validTokenIsAccepted() throws GeneralSecurityException {
+        assertTrue(tokenValidator.validateCommon(createToken(keyPair, ISSUER, expiresIn(3600))));
+    }
+
+    @Test
+    public void tokenSignedWithOtherKeyIsRejected() throws GeneralSecurityException {
+        assertFalse(tokenValidator.validateCommon(createToken(generateKeyPair(), ISSUER, expiresIn(3600))));
+    }
+
+    @Test
+    public void tokenOfOtherIssuerIsRejected() throws GeneralSecurityException {
+        assertFalse(tokenValidator.validateCommon(createToken(keyPair, "https://other/", expiresIn(3600))));
+    }
+
+    @Test
+    public void verifiedTokenIsAnsweredFromCache() throws GeneralSecurityException {
+        final Token token = createToken(keyPair, ISSUER, expiresIn(3600));
+        assertTrue(tokenValidator.validateCommon(token));
+        final int loads = configurationCache.loads.get();
+
+        assertTrue(tokenValidator.validateCommon(token));
+        assertEquals(loads, configurationCache.loads.get());
+    }
+
+    @Test
+    public void rejectedTokenIsNotCached() throws GeneralSecurityException {
+        final Token token = createToken(generateKeyPair(), ISSUER, expiresIn(3600));
+        assertFalse(tokenValidator.validateCommon(token));
+        final int loads = configurationCache.loads.get();
+
+        assertFalse(tokenValidator.validateCommon(token));
+        assertEquals(2 * loads, configurationCache.loads.get());
+    }
+
+    @Test
+    public void expiredTokenIsValidatedAgain() throws GeneralSecurityException {
+        final Token token = createToken(keyPair, ISSUER, expiresIn(-10));
+        tokenValidator.validateCommon(token);
+        final int loads = configurationCache.loads.get();
+
+        tokenValidator.validateCommon(token);
+        assertEquals(2 * loads, configurationCache.loads.get());
+    }
+
+    @Test
+    public void publicKeysAreDecodedAgainAfterRefresh() throws GeneralSecurityException {
+        assertTrue(tokenValidator.validateSignature(createToken(keyPair, ISSUER, expiresIn(3600))));
+
+        // The key is rotated under the same name, the one decoded from the former configuration must not be used
+        final KeyPair rotatedKeyPair = generateKeyPair();
+        configurationCache.configuration = createConfiguration(rotatedKeyPair);
+
+        assertTrue(tokenValidator.validateSignature(createToken(rotatedKeyPair, ISSUER, expiresIn(3600))));
+        assertFalse(tokenValidator.validateSignature(createToken(keyPair, ISSUER, expiresIn(3600))));
+    }
+
+    @Test
+    public void unknownKeyRefreshesConfiguration() throws GeneralSecurityException {
+        configurationCache.configuration = createConfiguration(null);
+
+        assertFalse(tokenValidator.validateSignature(createToken(keyPair, ISSUER, expiresIn(3600))));
+        assertEquals(1, configurationCache.refreshes.get());
+    }
+
+    static long expiresIn(final long seconds) {
+        return System.currentTimeMillis() / 1000 + seconds;
+    }
+
+    static KeyPair generateKeyPair() throws GeneralSecurityException {
+        final KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        return generator.generateKeyPair();
+    }
+
+    static Token createToken(final KeyPair keyPair, final String issuer, final long expiration)
+            throws GeneralSecurityException {
+        final long now = System.currentTimeMillis() / 1000;
+        final String header = encode(String.format("{\"alg\":\"RS256\",\"kid\":\"%s\"}", KEY_NAME).getBytes());
+        final String body = encode(String.format("{\"iss\":\"%s\",\"aud\":\"%s\",\"iat\":%d,\"nbf\":%d,\"exp\":%d,"
+                + "\"oid\":\"user\",\"emails\":[\"user@contoso.com\"]}",
+                issuer, AUDIENCE, now - 60, now - 60, expiration).getBytes());
+        final Signature signature = Signature.getInstance("SHA256withRSA");
+        signature.initSign(keyPair.getPrivate());
+        signature.update((header + "." + body).getBytes());
+        return SimpeTokenParser.getInstance().getToken(header + "." + body + "." + encode(signature.sign()));
+    }
+
+    private static String encode(final byte[] value) {
+        return Base64.encodeBase64URLSafeString(value);
+    }
+
+    static Configuration createConfiguration(final KeyPair keyPair) {
+        final Map<Name, Key> keys = new HashMap<Name, Key>();
+        if (keyPair != null) {
+            final RSAPublicKey publicKey = (RSAPublicKey) keyPair.getPublic();
+            keys.put(SimpleNameFactory.getInstance().createKeyName(KEY_NAME), SimpleKeyFactory.getInstance().createKey(
+                    SimpleTimeStampFactory.getInstance().createTimeStamp(0L),
+                    SimpleModulusFactory.getInstance().createKeyValue(encode(publicKey.getModulus().toByteArray())),
+                    SimpleExponentFactory.getInstance()
+                            .createKeyExponent(encode(publicKey.getPublicExponent().toByteArray()))));
+        }
+        final Issuer issuer = SimpleIssuerFactory.getInstance().createIssuer(ISSUER);
+        return new Configuration() {
+            @Override
+            public List<Algorithm> getAlgorithms() {
+                return Collections.emptyList();
+            }
+
+            @Override
+            public Map<Name, Key> getKeys() {
+                return keys;
+            }
+
+            @Override
+            public Key getKey(final Name name) {
+                return keys.get(name);
+            }
+
+            @Override
+            public Issuer getIssuer() {
+                return issuer;
+            }
+
+            @Override
+            public EndPoint getAuthenticationEndPoint() {
+                return null;
+            }
+
+            @Override
+            public EndPoint getLogoutEndPoint() {
+                return null;
+            }
+        };
+    }
+
+    static final class StubConfigurationCache implements ConfigurationCache {
+        private final AtomicInteger loads = new AtomicInteger();
+        private final AtomicInteger refreshes = new AtomicInteger();
+        volatile Configuration configuration;
+
+        @Override
+        public Configuration load() {
+            loads.incrementAndGet();
+            return configuration;
+        }
+
+        @Override
+        public void refresh() {
+            refreshes.incrementAndGet();
+        }
+
+        @Override
+        public void shutdownNow() {
+        }
+    }
+
+    static final class StubAlgorithmConfigurationService implements AlgorithmConfigurationService {
+        @Override
+        public void initialise(final FilterConfig filterConfig, final String parameterName) {
+        }
+
+        @Override
+        public AlgorithmConfiguration get() {
+            return new AlgorithmConfiguration() {
+                @Override
+                public Map<String, String> getAlgorithmMap() {
+                    return Collections.singletonMap("RS256", "SHA256withRSA");
+                }
+
+                @Override
+                public Map<String, String> getAlgorithmClassMap() {
+                    return Collections.singletonMap("RS256", "RSA");
+                }
+            };
+        }
+    }
+
+    static final class StubApplicationSettingsLoader implements ApplicationSettingsLoader {
+        @Override
+        public ApplicationSettings load() {
+            return new ApplicationSettings() {
+                @Override
+                public Tenant getTenant() {
+                    return null;
+                }
+
+                @Override
+                public ID getApplicationId() {
+                    return SimpleIDFactory.getInstance().createID(AUDIENCE);
+                }
+
+                @Override
+                public Secret getApplicationSecret() {
+                    return null;
+                }
+
+                @Override
+                public ID getPrincipalId() {
+                    return null;
+                }
+
+                @Override
+                public Secret getPrincipalSecret() {
+                    return null;
+                }
+
+                @Override
+                public RedirectURL getRedirectURL() {
+                    return null;
+                }
+
+                @Override
+                public Policy getOIDCPolicy() {
+                    return null;
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,418 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.tooling.msservices.helpers.azure.sdk;
+
+import com.microsoft.azure.storage.AccessCondition;
+import com.microsoft.azure.storage.StorageException;
+import com.microsoft.azure.storage.blob.BlockEntry;
+import com.microsoft.azure.storage.blob.BlockListingFilter;
+import com.microsoft.azure.storage.blob.BlockSearchMode;
+import com.microsoft.azure.storage.blob.CloudBlob;
+import com.microsoft.azure.storage.blob.CloudBlobContainer;
+import com.microsoft.azure.storage.blob.CloudBlockBlob;
+import com.microsoft.azure.storage.core.Base64;
+import com.microsoft.azuretools.authmanage.CommonSettings;
+import com.microsoft.azuretools.azurecommons.helpers.NotNull;
+import com.microsoft.azuretools.azurecommons.helpers.Nullable;
+import com.microsoft.tooling.msservices.helpers.CallableSingleArg;
+import org.apache.commons.lang3.StringUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Transfers a local file to or from a blob in ranges, with bounded concurrency.
+ *
+ * The ranges are read or written at their positions through a {@link FileChannel}, so no range depends on another.
+ * A failed range is retried with backoff. Every range done is recorded in a small journal under the per-user settings
+ * directory, so an interrupted transfer of the same file and blob resumes with the ranges left. The journal is removed
+ * once the transfer completes. A failed download keeps its partial file only if the journal has ranges to resume from.
+ */
+final class BlobFileTransfer {
+    private static final long MIN_BLOCK_SIZE = 1024 * 1024;            // 1MB
+    private static final long MAX_BLOCK_SIZE = 100 * 1024 * 1024;      // 100MB, the max block size of block blob
+    private static final int MAX_BLOCK_COUNT = 50000;                  // The max block count of block blob
+    private static final int TARGET_BLOCKS_PER_WORKER = 16;
+    private static final int MAX_CONCURRENCY = 4;
+    private static final int MAX_RANGE_RETRIES = 3;
+    // The delay before the first retry of a range, doubled for each next retry
+    private static final long RANGE_RETRY_DELAY_MS = 1000;
+
+    private static final ExecutorService EXECUTOR = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "azure-blob-transfer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private BlobFileTransfer() {
+    }
+
+    static void upload(@NotNull CloudBlobContainer container,
+                       @NotNull String blobPath,
+                       @NotNull File file,
+                       @Nullable CallableSingleArg<Void, Long> processBlock) throws Exception {
+        final long length = file.length();
+        final Journal journal = Journal.open(String.join("|",
+                "upload", container.getUri().toString(), blobPath, file.getAbsolutePath(),
+                String.valueOf(length), String.valueOf(file.lastModified())));
+        final long blockSize = journal.getRangeSize() > 0 ? journal.getRangeSize() : chooseRangeSize(length);
+        final int blockCount = (int) ((length + blockSize - 1) / blockSize);
+        journal.setRangeSize(blockSize);
+
+        // Only the blocks still uncommitted on server can be skipped
+        final Set<Integer> completed = new HashSet<>();
+        if (!journal.getCompleted().isEmpty()) {
+            final Set<String> uncommittedBlockIds = getUncommittedBlockIds(container.getBlockBlobReference(blobPath));
+            for (int index : journal.getCompleted()) {
+                if (index < blockCount && uncommittedBlockIds.contains(getBlockId(index))) {
+                    completed.add(index);
+                }
+            }
+        }
+
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            transfer(blockCount, blockSize, length, completed, journal, processBlock, index -> {
+                final long position = index * blockSize;
+                final ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(blockSize, length - position));
+                while (buffer.hasRemaining()) {
+                    if (channel.read(buffer, position + buffer.position()) < 0) {
+                        throw new IOException("Unexpected end of file " + file + " at " + (position + buffer.position()));
+                    }
+                }
+
+                container.getBlockBlobReference(blobPath).uploadBlock(
+                        getBlockId(index), new ByteArrayInputStream(buffer.array()), buffer.capacity());
+            });
+        }
+
+        final List<BlockEntry> blockEntries = new ArrayList<>(blockCount);
+        for (int index = 0; index < blockCount; index++) {
+            blockEntries.add(new BlockEntry(getBlockId(index), BlockSearchMode.UNCOMMITTED));
+        }
+
+        container.getBlockBlobReference(blobPath).commitBlockList(blockEntries);
+        journal.delete();
+    }
+
+    static void download(@NotNull Callable<CloudBlob> blobReference,
+                         @NotNull File targetFile,
+                         @Nullable CallableSingleArg<Void, Long> processBlock) throws Exception {
+        final CloudBlob blob = blobReference.call();
+        blob.downloadAttributes();
+
+        final long length = blob.getProperties().getLength();
+        final String etag = blob.getProperties().getEtag();
+        final Journal journal = Journal.open(String.join("|",
+                "download", blob.getUri().toString(), String.valueOf(etag), targetFile.getAbsolutePath()));
+        final long rangeSize = journal.getRangeSize() > 0 ? journal.getRangeSize() : chooseRangeSize(length);
+        final int rangeCount = (int) ((length + rangeSize - 1) / rangeSize);
+        journal.setRangeSize(rangeSize);
+
+        // The ranges downloaded before are only valid when the target file is still there
+        final Set<Integer> completed = new HashSet<>();
+        if (targetFile.isFile()) {
+            completed.addAll(journal.getCompleted());
+        }
+
+        boolean isTargetOpened = false;
+        try (FileChannel channel = FileChannel.open(targetFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            isTargetOpened = true;
+            if (completed.isEmpty()) {
+                channel.truncate(0);
+            }
+
+            transfer(rangeCount, rangeSize, length, completed, journal, processBlock, index -> {
+                final long position = index * rangeSize;
+                final byte[] buffer = new byte[(int) Math.min(rangeSize, length - position)];
+                blobReference.call().downloadRangeToByteArray(
+                        position, (long) buffer.length, buffer, 0,
+                        AccessCondition.generateIfMatchCondition(etag), null, null);
+
+                final ByteBuffer data = ByteBuffer.wrap(buffer);
+                while (data.hasRemaining()) {
+                    channel.write(data, position + data.position());
+                }
+            });
+
+            channel.truncate(length);
+        } catch (Exception e) {
+            // The partial file is only useful to resume from the ranges recorded by the journal
+            if (isTargetOpened && !journal.isResumable()) {
+                targetFile.delete();
+            }
+
+            throw e;
+        }
+
+        journal.delete();
+    }
+
+    /**
+     * Choose the range size by the file length, to have enough ranges to keep all workers busy
+     */
+    static long chooseRangeSize(long length) {
+        final long mb = 1024 * 1024;
+        long size = length / (MAX_CONCURRENCY * TARGET_BLOCKS_PER_WORKER);
+        size = Math.max(size, (length + MAX_BLOCK_COUNT - 1) / MAX_BLOCK_COUNT);
+        size = (size + mb - 1) / mb * mb;
+
+        return Math.max(MIN_BLOCK_SIZE, Math.min(MAX_BLOCK_SIZE, size));
+    }
+
+    @NotNull
+    private static String getBlockId(long index) {
+        // All block IDs of a blob must be in the same length
+        return Base64.encode(String.format("block-%08d", index).getBytes(StandardCharsets.UTF_8));
+    }
+
+    @NotNull
+    private static Set<String> getUncommittedBlockIds(@NotNull CloudBlockBlob blob) throws StorageException {
+        final Set<String> blockIds = new HashSet<>();
+
+        try {
+            for (BlockEntry entry : blob.downloadBlockList(BlockListingFilter.UNCOMMITTED, null, null, null)) {
+                blockIds.add(entry.getId());
+            }
+        } catch (StorageException e) {
+            // The blob without any block isn't there yet
+            if (e.getHttpStatusCode() != 404) {
+                throw e;
+            }
+        }
+
+        return blockIds;
+    }
+
+    private interface RangeTask {
+        void run(long index) throws Exception;
+    }
+
+    private static void transfer(int rangeCount,
+                                 long rangeSize,
+                                 long length,
+                                 @NotNull Set<Integer> completed,
+                                 @NotNull Journal journal,
+                                 @Nullable CallableSingleArg<Void, Long> processBlock,
+                                 @NotNull RangeTask task) throws Exception {
+        final CompletionService<Integer> completionService = new ExecutorCompletionService<>(EXECUTOR);
+        // Once set, the ranges not started yet are skipped and the running ones aren't retried
+        final AtomicBoolean isAborted = new AtomicBoolean(false);
+        long transferred = 0;
+        for (int index : completed) {
+            transferred += Math.min(rangeSize, length - index * rangeSize);
+        }
+
+        int next = 0;
+        int running = 0;
+
+        try {
+            if (processBlock != null) {
+                processBlock.call(transferred);
+            }
+
+            while (true) {
+                while (running < MAX_CONCURRENCY && next < rangeCount) {
+                    final int index = next++;
+                    if (completed.contains(index)) {
+                        continue;
+                    }
+
+                    completionService.submit(() -> {
+                        for (int retry = 1; ; retry++) {
+                            if (isAborted.get()) {
+                                throw new CancellationException("The transfer is aborted");
+                            }
+
+                            try {
+                                task.run(index);
+                                return index;
+                            } catch (IOException | StorageException e) {
+                                if (retry >= MAX_RANGE_RETRIES || isAborted.get()) {
+                                    throw e;
+                                }
+                            }
+
+                            Thread.sleep(RANGE_RETRY_DELAY_MS << (retry - 1));
+                        }
+                    });
+                    running++;
+                }
+
+                if (running == 0) {
+                    break;
+                }
+
+                final Future<Integer> done = completionService.take();
+                running--;
+
+                final int index = done.get();
+                journal.markCompleted(index);
+                transferred += Math.min(rangeSize, length - (long) index * rangeSize);
+                if (processBlock != null) {
+                    processBlock.call(transferred);
+                }
+            }
+        } catch (Exception e) {
+            isAborted.set(true);
+            // The running ranges still use the file channel, which the caller closes once this returns
+            awaitRunning(completionService, running);
+
+            throw e instanceof ExecutionException && e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+        }
+    }
+
+    /**
+     * Wait for the running ranges to end, whatever they end with. The wait isn't interruptible, the interruption is
+     * kept for the caller.
+     */
+    private static void awaitRunning(@NotNull CompletionService<Integer> completionService, int running) {
+        boolean isInterrupted = Thread.interrupted();
+
+        while (running > 0) {
+            try {
+                completionService.take();
+                running--;
+            } catch (InterruptedException e) {
+                isInterrupted = true;
+            }
+        }
+
+        if (isInterrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * The ranges done of a transfer, saved in the per-user settings directory and keyed by the transfer source and
+     * target
+     */
+    private static class Journal {
+        private static final String RANGE_SIZE_KEY = "rangeSize";
+        private static final String COMPLETED_KEY = "completed";
+
+        @NotNull
+        private final File file;
+
+        @NotNull
+        private final Set<Integer> completed = new HashSet<>();
+
+        private long rangeSize = 0;
+
+        private Journal(@NotNull File file) {
+            this.file = file;
+        }
+
+        @NotNull
+        static Journal open(@NotNull String transferKey) {
+            final File dir = getJournalDir();
+            final String name = UUID.nameUUIDFromBytes(transferKey.getBytes(StandardCharsets.UTF_8)) + ".journal";
+            final Journal journal = new Journal(new File(dir, name));
+
+            if (journal.file.isFile()) {
+                final Properties properties = new Properties();
+                try (InputStream in = new FileInputStream(journal.file)) {
+                    properties.load(in);
+                    journal.rangeSize = Long.parseLong(properties.getProperty(RANGE_SIZE_KEY, "0"));
+                    for (String index : properties.getProperty(COMPLETED_KEY, "").split(",")) {
+                        if (!index.isEmpty()) {
+                            journal.completed.add(Integer.parseInt(index));
+                        }
+                    }
+                } catch (IOException | NumberFormatException ignored) {
+                    // Start over with a broken journal
+                    journal.rangeSize = 0;
+                    journal.completed.clear();
+                }
+            }
+
+            return journal;
+        }
+
+        /**
+         * The journal directory of the current user, rather than the temporary directory shared by all users
+         */
+        @NotNull
+        private static File getJournalDir() {
+            final String settingsDir = CommonSettings.getSettingsBaseDir();
+
+            return StringUtils.isNotEmpty(settingsDir)
+                   ? new File(settingsDir, "blob-transfers")
+                   : new File(System.getProperty("user.home"), ".azure-blob-transfers");
+        }
+
+        long getRangeSize() {
+            return rangeSize;
+        }
+
+        void setRangeSize(long rangeSize) {
+            if (this.rangeSize != rangeSize) {
+                this.rangeSize = rangeSize;
+                this.completed.clear();
+            }
+        }
+
+        @NotNull
+        Set<Integer> getCompleted() {
+            return completed;
+        }
+
+        void markCompleted(int index) {
+            completed.add(index);
+
+            final Properties properties = new Properties();
+            properties.setProperty(RANGE_SIZE_KEY, String.valueOf(rangeSize));
+            properties.setProperty(COMPLETED_KEY, completed.stream()
+                                                           .map(String::valueOf)
+                                                           .reduce((a, b) -> a + "," + b)
+                                                           .orElse(""));
+
+            // The journal is only a hint for resuming, failing to save it doesn't fail the transfer
+            if (file.getParentFile().isDirectory() || file.getParentFile().mkdirs()) {
+                try (OutputStream out = new FileOutputStream(file)) {
+                    properties.store(out, null);
+                } catch (IOException ignored) {
+                }
+            }
+        }
+
+        /**
+         * Whether the journal is saved with some ranges done to resume from
+         */
+        boolean isResumable() {
+            return !completed.isEmpty() && file.isFile();
+        }
+
+        void delete() {
+            if (file.exists()) {
+                file.delete();
+            }
+        }
+    }
+}
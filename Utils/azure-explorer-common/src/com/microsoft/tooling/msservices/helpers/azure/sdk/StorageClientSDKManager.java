@@ -6,7 +6,12 @@
 package com.microsoft.tooling.msservices.helpers.azure.sdk;
 
 import com.google.common.base.Strings;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.microsoft.azure.storage.CloudStorageAccount;
+import com.microsoft.azure.storage.ResultContinuation;
+import com.microsoft.azure.storage.ResultContinuationType;
+import com.microsoft.azure.storage.ResultSegment;
 import com.microsoft.azure.storage.StorageException;
 import com.microsoft.azure.storage.blob.*;
 import com.microsoft.azure.storage.core.Base64;
@@ -21,6 +26,7 @@ import com.microsoft.tooling.msservices.model.storage.BlobContainer;
 import com.microsoft.tooling.msservices.model.storage.BlobDirectory;
 import com.microsoft.tooling.msservices.model.storage.BlobFile;
 import com.microsoft.tooling.msservices.model.storage.BlobItem;
+import com.microsoft.tooling.msservices.model.storage.BlobItemPage;
 import com.microsoft.tooling.msservices.model.storage.ClientStorageAccount;
 import com.microsoft.tooling.msservices.model.storage.Queue;
 import com.microsoft.tooling.msservices.model.storage.QueueMessage;
@@ -34,16 +40,25 @@ import com.microsoft.azuretools.azurecommons.helpers.Nullable;
 import com.microsoft.azuretools.utils.StorageAccoutUtils;
 
 import java.io.ByteArrayInputStream;
+import java.io.File;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.URISyntaxException;
 import java.security.InvalidKeyException;
 import java.util.*;
 import java.util.Map.Entry;
+import java.util.concurrent.TimeUnit;
 
 public class StorageClientSDKManager {
+    public static final int MAX_BLOB_ITEM_PAGE_SIZE = 5000;
+
     private static StorageClientSDKManager apiManager;
 
+    private final Cache<String, BlobItemPage> blobItemPageCache = CacheBuilder.newBuilder()
+            .maximumSize(256)
+            .expireAfterWrite(1, TimeUnit.MINUTES)
+            .build();
+
     private StorageClientSDKManager() {
     }
 
@@ -187,6 +202,7 @@ public class StorageClientSDKManager {
 
             CloudBlobContainer container = client.getContainerReference(blobContainer.getName());
             container.deleteIfExists();
+            invalidateBlobItemPages(container);
         } catch (Throwable t) {
             throw new AzureCmdException("Error deleting the Blob Container", t);
         }
@@ -216,62 +232,17 @@ public class StorageClientSDKManager {
 
         try {
             CloudBlobClient client = getCloudBlobClient(connectionString);
-            String containerName = blobDirectory.getContainerName();
-            String delimiter = client.getDirectoryDelimiter();
+            CloudBlobContainer container = client.getContainerReference(blobDirectory.getContainerName());
+            String continuationToken = null;
 
-            CloudBlobContainer container = client.getContainerReference(containerName);
-            CloudBlobDirectory directory = container.getDirectoryReference(blobDirectory.getPath());
-
-            for (ListBlobItem item : directory.listBlobs()) {
-                String uri = item.getUri() != null ? item.getUri().toString() : "";
-
-                if (item instanceof CloudBlobDirectory) {
-                    CloudBlobDirectory subDirectory = (CloudBlobDirectory) item;
-
-                    String name = extractBlobItemName(subDirectory.getPrefix(), delimiter);
-                    String path = Strings.nullToEmpty(subDirectory.getPrefix());
-
-                    biList.add(new BlobDirectory(name, uri, containerName, path));
-                } else if (item instanceof CloudBlob) {
-                    CloudBlob blob = (CloudBlob) item;
-
-                    String name = extractBlobItemName(blob.getName(), delimiter);
-                    String path = Strings.nullToEmpty(blob.getName());
-                    String type = "";
-                    String cacheControlHeader = "";
-                    String contentEncoding = "";
-                    String contentLanguage = "";
-                    String contentType = "";
-                    String contentMD5Header = "";
-                    String eTag = "";
-                    Calendar lastModified = new GregorianCalendar();
-                    long size = 0;
-
-                    BlobProperties properties = blob.getProperties();
-
-                    if (properties != null) {
-                        if (properties.getBlobType() != null) {
-                            type = properties.getBlobType().toString();
-                        }
-
-                        cacheControlHeader = Strings.nullToEmpty(properties.getCacheControl());
-                        contentEncoding = Strings.nullToEmpty(properties.getContentEncoding());
-                        contentLanguage = Strings.nullToEmpty(properties.getContentLanguage());
-                        contentType = Strings.nullToEmpty(properties.getContentType());
-                        contentMD5Header = Strings.nullToEmpty(properties.getContentMD5());
-                        eTag = Strings.nullToEmpty(properties.getEtag());
-
-                        if (properties.getLastModified() != null) {
-                            lastModified.setTime(properties.getLastModified());
-                        }
-
-                        size = properties.getLength();
-                    }
+            do {
+                BlobItemPage page = listBlobItemPage(container.getDirectoryReference(blobDirectory.getPath()),
+                        blobDirectory.getContainerName(), client.getDirectoryDelimiter(), null, continuationToken,
+                        MAX_BLOB_ITEM_PAGE_SIZE);
 
-                    biList.add(new BlobFile(name, uri, containerName, path, type, cacheControlHeader, contentEncoding,
-                            contentLanguage, contentType, contentMD5Header, eTag, lastModified, size));
-                }
-            }
+                biList.addAll(page.getItems());
+                continuationToken = page.getContinuationToken();
+            } while (continuationToken != null);
 
             return biList;
         } catch (Throwable t) {
@@ -279,6 +250,154 @@ public class StorageClientSDKManager {
         }
     }
 
+    /**
+     * Get a page of the blob items under a directory. The pages got are cached for a short while per container,
+     * directory, prefix and continuation token, and the cache of a container is dropped when its blobs are changed through
+     * this manager, or by {@link #invalidateBlobItemPages(String, BlobContainer)}. The items of the cached pages are
+     * mutable, so every caller gets its own copies of them.
+     *
+     * @param prefix the prefix of the item names to list, listed by the service, or null for all items
+     * @param continuationToken the token of the page to get, or null for the first page
+     * @param maxResults the max count of items in the page, up to 5000
+     */
+    @NotNull
+    public BlobItemPage getBlobItemPage(@NotNull String connectionString,
+                                        @NotNull BlobDirectory blobDirectory,
+                                        @Nullable String prefix,
+                                        @Nullable String continuationToken,
+                                        int maxResults)
+            throws AzureCmdException {
+        try {
+            CloudBlobClient client = getCloudBlobClient(connectionString);
+            CloudBlobContainer container = client.getContainerReference(blobDirectory.getContainerName());
+            String key = getBlobItemPageCacheKey(container) + blobDirectory.getPath() + "\n" +
+                    Strings.nullToEmpty(prefix) + "\n" + Strings.nullToEmpty(continuationToken) + "\n" + maxResults;
+
+            return blobItemPageCache.get(key, () -> listBlobItemPage(
+                    container.getDirectoryReference(blobDirectory.getPath()), blobDirectory.getContainerName(),
+                    client.getDirectoryDelimiter(), prefix, continuationToken, maxResults))
+                    .copy();
+        } catch (Throwable t) {
+            throw new AzureCmdException("Error retrieving the Blob Item list", t);
+        }
+    }
+
+    /**
+     * Drop the cached blob item pages of a container, to get the changes not made through this manager
+     */
+    public void invalidateBlobItemPages(@NotNull String connectionString, @NotNull BlobContainer blobContainer)
+            throws AzureCmdException {
+        try {
+            CloudBlobClient client = getCloudBlobClient(connectionString);
+
+            invalidateBlobItemPages(client.getContainerReference(blobContainer.getName()));
+        } catch (Throwable t) {
+            throw new AzureCmdException("Error invalidating the Blob Item list", t);
+        }
+    }
+
+    private void invalidateBlobItemPages(@NotNull CloudBlobContainer container) {
+        String keyPrefix = getBlobItemPageCacheKey(container);
+
+        blobItemPageCache.asMap().keySet().removeIf(key -> key.startsWith(keyPrefix));
+    }
+
+    @NotNull
+    private static String getBlobItemPageCacheKey(@NotNull CloudBlobContainer container) {
+        return container.getUri() + "\n";
+    }
+
+    @NotNull
+    static BlobItemPage listBlobItemPage(@NotNull CloudBlobDirectory directory,
+                                         @NotNull String containerName,
+                                         @Nullable String delimiter,
+                                         @Nullable String prefix,
+                                         @Nullable String continuationToken,
+                                         int maxResults)
+            throws URISyntaxException, StorageException {
+        ResultContinuation continuation = null;
+        if (continuationToken != null) {
+            continuation = new ResultContinuation();
+            continuation.setContinuationType(ResultContinuationType.BLOB);
+            continuation.setNextMarker(continuationToken);
+        }
+
+        // The prefix is relative to the directory, so the service filters the items before paging them
+        ResultSegment<ListBlobItem> segment = directory.listBlobsSegmented(
+                Strings.emptyToNull(prefix), false, EnumSet.noneOf(BlobListingDetails.class), maxResults, continuation, null, null);
+
+        List<BlobItem> biList = new ArrayList<BlobItem>(segment.getResults().size());
+        for (ListBlobItem item : segment.getResults()) {
+            BlobItem blobItem = toBlobItem(item, containerName, delimiter);
+
+            if (blobItem != null) {
+                biList.add(blobItem);
+            }
+        }
+
+        String nextToken = segment.getHasMoreResults() && segment.getContinuationToken() != null
+                ? segment.getContinuationToken().getNextMarker()
+                : null;
+
+        return new BlobItemPage(biList, Strings.emptyToNull(nextToken));
+    }
+
+    @Nullable
+    private static BlobItem toBlobItem(@NotNull ListBlobItem item,
+                                       @NotNull String containerName,
+                                       @Nullable String delimiter) {
+        String uri = item.getUri() != null ? item.getUri().toString() : "";
+
+        if (item instanceof CloudBlobDirectory) {
+            CloudBlobDirectory subDirectory = (CloudBlobDirectory) item;
+
+            String name = extractBlobItemName(subDirectory.getPrefix(), delimiter);
+            String path = Strings.nullToEmpty(subDirectory.getPrefix());
+
+            return new BlobDirectory(name, uri, containerName, path);
+        } else if (item instanceof CloudBlob) {
+            CloudBlob blob = (CloudBlob) item;
+
+            String name = extractBlobItemName(blob.getName(), delimiter);
+            String path = Strings.nullToEmpty(blob.getName());
+            String type = "";
+            String cacheControlHeader = "";
+            String contentEncoding = "";
+            String contentLanguage = "";
+            String contentType = "";
+            String contentMD5Header = "";
+            String eTag = "";
+            long lastModifiedTime = System.currentTimeMillis();
+            long size = 0;
+
+            BlobProperties properties = blob.getProperties();
+
+            if (properties != null) {
+                if (properties.getBlobType() != null) {
+                    type = properties.getBlobType().toString();
+                }
+
+                cacheControlHeader = Strings.nullToEmpty(properties.getCacheControl());
+                contentEncoding = Strings.nullToEmpty(properties.getContentEncoding());
+                contentLanguage = Strings.nullToEmpty(properties.getContentLanguage());
+                contentType = Strings.nullToEmpty(properties.getContentType());
+                contentMD5Header = Strings.nullToEmpty(properties.getContentMD5());
+                eTag = Strings.nullToEmpty(properties.getEtag());
+
+                if (properties.getLastModified() != null) {
+                    lastModifiedTime = properties.getLastModified().getTime();
+                }
+
+                size = properties.getLength();
+            }
+
+            return new BlobFile(name, uri, containerName, path, type, cacheControlHeader, contentEncoding,
+                    contentLanguage, contentType, contentMD5Header, eTag, lastModifiedTime, size);
+        }
+
+        return null;
+    }
+
     @NotNull
     public BlobDirectory createBlobDirectory(@NotNull StorageAccount storageAccount,
                                              @NotNull BlobDirectory parentBlobDirectory,
@@ -320,6 +439,7 @@ public class StorageClientSDKManager {
             CloudBlob blob = getCloudBlob(parentDirectory, blobFile);
 
             blob.upload(new ByteArrayInputStream(new byte[0]), 0);
+            invalidateBlobItemPages(container);
 
             return reloadBlob(blob, containerName, blobFile);
         } catch (Throwable t) {
@@ -338,6 +458,7 @@ public class StorageClientSDKManager {
             CloudBlob blob = getCloudBlob(container, blobFile);
 
             blob.deleteIfExists();
+            invalidateBlobItemPages(container);
         } catch (Throwable t) {
             throw new AzureCmdException("Error deleting the Blob File", t);
         }
@@ -382,12 +503,57 @@ public class StorageClientSDKManager {
             }
 
             blob.commitBlockList(blockEntries);
+            invalidateBlobItemPages(container);
 
         } catch (Throwable t) {
             throw new AzureCmdException("Error uploading the Blob File content", t);
         }
     }
 
+    /**
+     * Upload a local file as a block blob, in blocks sent concurrently. An interrupted upload of the same file to the
+     * same blob is resumed with the blocks left.
+     *
+     * @param processBlock the progress callback with the bytes uploaded
+     */
+    public void uploadBlobFile(@NotNull String connectionString,
+                               @NotNull BlobContainer blobContainer,
+                               @NotNull String filePath,
+                               @NotNull File file,
+                               @Nullable CallableSingleArg<Void, Long> processBlock)
+            throws AzureCmdException {
+        try {
+            CloudBlobClient client = getCloudBlobClient(connectionString);
+            CloudBlobContainer container = client.getContainerReference(blobContainer.getName());
+
+            BlobFileTransfer.upload(container, filePath, file, processBlock);
+            invalidateBlobItemPages(container);
+        } catch (Throwable t) {
+            throw new AzureCmdException("Error uploading the Blob File content", t);
+        }
+    }
+
+    /**
+     * Download a blob into a local file, in ranges fetched concurrently. An interrupted download of the same blob
+     * version to the same file is resumed with the ranges left.
+     *
+     * @param processBlock the progress callback with the bytes downloaded
+     */
+    public void downloadBlobFile(@NotNull String connectionString,
+                                 @NotNull BlobFile blobFile,
+                                 @NotNull File targetFile,
+                                 @Nullable CallableSingleArg<Void, Long> processBlock)
+            throws AzureCmdException {
+        try {
+            CloudBlobClient client = getCloudBlobClient(connectionString);
+            CloudBlobContainer container = client.getContainerReference(blobFile.getContainerName());
+
+            BlobFileTransfer.download(() -> getCloudBlob(container, blobFile), targetFile, processBlock);
+        } catch (Throwable t) {
+            throw new AzureCmdException("Error downloading the Blob File content", t);
+        }
+    }
+
     public void downloadBlobFileContent(@NotNull String connectionString,
                                         @NotNull BlobFile blobFile,
                                         @NotNull OutputStream content)
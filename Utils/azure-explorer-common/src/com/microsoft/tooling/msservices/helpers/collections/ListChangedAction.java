@@ -7,5 +7,7 @@ package com.microsoft.tooling.msservices.helpers.collections;
 
 public enum ListChangedAction {
     add,
-    remove
+    remove,
+    // both old items removed and new items added
+    replace
 }
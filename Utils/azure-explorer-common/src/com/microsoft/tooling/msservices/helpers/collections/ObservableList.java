@@ -10,12 +10,14 @@ import com.google.common.collect.ForwardingList;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Set;
 
 public class ObservableList<E> extends ForwardingList<E> {
     private final List<E> delegate = new ArrayList<E>();
     protected List<ListChangeListener> changeListeners = new ArrayList<ListChangeListener>();
-    private boolean freezeEvents = false;
 
     @Override
     protected List<E> delegate() {
@@ -29,10 +31,8 @@ public class ObservableList<E> extends ForwardingList<E> {
 
     @Override
     public boolean addAll(Collection<? extends E> c) {
-        freezeEvents = true;
-        boolean changed = standardAddAll(c);
+        boolean changed = delegate.addAll(c);
         if (changed) {
-            freezeEvents = false;
             fireChangeListenerEvent(ListChangedAction.add, c, null);
         }
 
@@ -41,10 +41,8 @@ public class ObservableList<E> extends ForwardingList<E> {
 
     @Override
     public boolean addAll(int index, Collection<? extends E> c) {
-        freezeEvents = true;
-        boolean changed = standardAddAll(index, c);
+        boolean changed = delegate.addAll(index, c);
         if (changed) {
-            freezeEvents = false;
             fireChangeListenerEvent(ListChangedAction.add, c, null);
         }
 
@@ -72,14 +70,77 @@ public class ObservableList<E> extends ForwardingList<E> {
 
     @Override
     public boolean removeAll(Collection<?> c) {
-        freezeEvents = true;
-        boolean changed = standardRemoveAll(c);
+        boolean changed = delegate.removeAll(c);
         if (changed) {
-            freezeEvents = false;
             fireChangeListenerEvent(ListChangedAction.remove, null, c);
         }
 
-        return standardRemoveAll(c);
+        return changed;
+    }
+
+    /**
+     * Remove and add items as one change, which fires only one event to the listeners, rather than one event for
+     * each item. The items to remove are matched by identity, and the items to add are appended.
+     *
+     * @param removedItems the items to remove
+     * @param addedItems the items to add
+     */
+    public void applyChanges(Collection<? extends E> removedItems, Collection<? extends E> addedItems) {
+        List<E> removed = new ArrayList<E>();
+        if (!removedItems.isEmpty()) {
+            Set<Object> itemsToRemove = Collections.newSetFromMap(new IdentityHashMap<Object, Boolean>());
+            itemsToRemove.addAll(removedItems);
+            delegate.removeIf(item -> itemsToRemove.contains(item) && removed.add(item));
+        }
+
+        List<E> added = new ArrayList<E>(addedItems);
+        delegate.addAll(added);
+
+        if (removed.isEmpty() && added.isEmpty()) {
+            return;
+        }
+
+        ListChangedAction action = removed.isEmpty() ? ListChangedAction.add
+                : added.isEmpty() ? ListChangedAction.remove : ListChangedAction.replace;
+        fireChangeListenerEvent(action, added.isEmpty() ? null : added, removed.isEmpty() ? null : removed);
+    }
+
+    /**
+     * Replace the items with the given ones in their order as one change, which fires only one event to the
+     * listeners. The items both in the list and given are matched by identity, and are neither removed nor added.
+     *
+     * @param items the items to list
+     */
+    public void setAll(Collection<? extends E> items) {
+        Set<Object> newItems = Collections.newSetFromMap(new IdentityHashMap<Object, Boolean>());
+        newItems.addAll(items);
+        Set<Object> oldItems = Collections.newSetFromMap(new IdentityHashMap<Object, Boolean>());
+        oldItems.addAll(delegate);
+
+        List<E> removed = new ArrayList<E>();
+        for (E item : delegate) {
+            if (!newItems.contains(item)) {
+                removed.add(item);
+            }
+        }
+
+        List<E> added = new ArrayList<E>();
+        for (E item : items) {
+            if (!oldItems.contains(item)) {
+                added.add(item);
+            }
+        }
+
+        delegate.clear();
+        delegate.addAll(items);
+
+        if (removed.isEmpty() && added.isEmpty()) {
+            return;
+        }
+
+        ListChangedAction action = removed.isEmpty() ? ListChangedAction.add
+                : added.isEmpty() ? ListChangedAction.remove : ListChangedAction.replace;
+        fireChangeListenerEvent(action, added.isEmpty() ? null : added, removed.isEmpty() ? null : removed);
     }
 
     @Override
@@ -98,7 +159,7 @@ public class ObservableList<E> extends ForwardingList<E> {
     private void fireChangeListenerEvent(ListChangedAction action,
                                          Collection<?> newItems,
                                          Collection<?> oldItems) {
-        if (!changeListeners.isEmpty() && !freezeEvents) {
+        if (!changeListeners.isEmpty()) {
             ListChangedEvent listChangedEvent = new ListChangedEvent(
                     this,
                     action,
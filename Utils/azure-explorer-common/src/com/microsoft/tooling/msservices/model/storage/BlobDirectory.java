@@ -26,6 +26,14 @@ public class BlobDirectory implements ServiceTreeItem, BlobItem {
         this.path = path;
     }
 
+    /**
+     * Copy the blob directory, so that the copy can be changed without changing the original one
+     */
+    public BlobDirectory(@NotNull BlobDirectory other) {
+        this(other.name, other.uri, other.containerName, other.path);
+        this.loading = other.loading;
+    }
+
     @Override
     public boolean isLoading() {
         return loading;
@@ -9,6 +9,7 @@ import com.microsoft.azuretools.azurecommons.helpers.NotNull;
 import com.microsoft.tooling.msservices.model.ServiceTreeItem;
 
 import java.util.Calendar;
+import java.util.GregorianCalendar;
 
 public class BlobFile implements ServiceTreeItem, BlobItem {
     private boolean loading;
@@ -23,7 +24,8 @@ public class BlobFile implements ServiceTreeItem, BlobItem {
     private String contentType;
     private String contentMD5Header;
     private String eTag;
-    private Calendar lastModified;
+    // Keep the epoch milliseconds rather than a Calendar, which costs hundreds of bytes for each blob listed
+    private long lastModifiedTime;
     private long size;
 
     public BlobFile(@NotNull String name,
@@ -39,6 +41,23 @@ public class BlobFile implements ServiceTreeItem, BlobItem {
                     @NotNull String eTag,
                     @NotNull Calendar lastModified,
                     @NotNull long size) {
+        this(name, uri, containerName, path, type, cacheControlHeader, contentEncoding, contentLanguage, contentType,
+                contentMD5Header, eTag, lastModified.getTimeInMillis(), size);
+    }
+
+    public BlobFile(@NotNull String name,
+                    @NotNull String uri,
+                    @NotNull String containerName,
+                    @NotNull String path,
+                    @NotNull String type,
+                    @NotNull String cacheControlHeader,
+                    @NotNull String contentEncoding,
+                    @NotNull String contentLanguage,
+                    @NotNull String contentType,
+                    @NotNull String contentMD5Header,
+                    @NotNull String eTag,
+                    long lastModifiedTime,
+                    long size) {
         this.name = name;
         this.uri = uri;
         this.containerName = containerName;
@@ -50,10 +69,20 @@ public class BlobFile implements ServiceTreeItem, BlobItem {
         this.contentType = contentType;
         this.contentMD5Header = contentMD5Header;
         this.eTag = eTag;
-        this.lastModified = lastModified;
+        this.lastModifiedTime = lastModifiedTime;
         this.size = size;
     }
 
+    /**
+     * Copy the blob file, so that the copy can be changed without changing the original one
+     */
+    public BlobFile(@NotNull BlobFile other) {
+        this(other.name, other.uri, other.containerName, other.path, other.type, other.cacheControlHeader,
+                other.contentEncoding, other.contentLanguage, other.contentType, other.contentMD5Header, other.eTag,
+                other.lastModifiedTime, other.size);
+        this.loading = other.loading;
+    }
+
     @Override
     public boolean isLoading() {
         return loading;
@@ -169,11 +198,18 @@ public class BlobFile implements ServiceTreeItem, BlobItem {
 
     @NotNull
     public Calendar getLastModified() {
+        Calendar lastModified = new GregorianCalendar();
+        lastModified.setTimeInMillis(lastModifiedTime);
+
         return lastModified;
     }
 
     public void setLastModified(@NotNull Calendar lastModified) {
-        this.lastModified = lastModified;
+        this.lastModifiedTime = lastModified.getTimeInMillis();
+    }
+
+    public long getLastModifiedTime() {
+        return lastModifiedTime;
     }
 
     public long getSize() {
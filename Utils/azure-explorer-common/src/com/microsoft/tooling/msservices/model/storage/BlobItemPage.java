@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.tooling.msservices.model.storage;
+
+import com.microsoft.azuretools.azurecommons.helpers.NotNull;
+import com.microsoft.azuretools.azurecommons.helpers.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * One page of the blob items listed under a blob directory, with the continuation token to get the next page.
+ */
+public class BlobItemPage {
+    private final List<BlobItem> items;
+    private final String continuationToken;
+
+    public BlobItemPage(@NotNull List<BlobItem> items, @Nullable String continuationToken) {
+        this.items = Collections.unmodifiableList(items);
+        this.continuationToken = continuationToken;
+    }
+
+    @NotNull
+    public List<BlobItem> getItems() {
+        return items;
+    }
+
+    /**
+     * @return the token to get the next page, or null for the last page
+     */
+    @Nullable
+    public String getContinuationToken() {
+        return continuationToken;
+    }
+
+    public boolean hasNextPage() {
+        return continuationToken != null;
+    }
+
+    /**
+     * Copy the page with copies of its items, since the items are mutable and the page may be shared
+     */
+    @NotNull
+    public BlobItemPage copy() {
+        final List<BlobItem> copiedItems = new ArrayList<>(items.size());
+        for (BlobItem item : items) {
+            if (item instanceof BlobFile) {
+                copiedItems.add(new BlobFile((BlobFile) item));
+            } else if (item instanceof BlobDirectory) {
+                copiedItems.add(new BlobDirectory((BlobDirectory) item));
+            } else {
+                copiedItems.add(item);
+            }
+        }
+
+        return new BlobItemPage(copiedItems, continuationToken);
+    }
+}
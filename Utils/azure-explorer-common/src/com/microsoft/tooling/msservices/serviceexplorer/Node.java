@@ -30,9 +30,13 @@ import java.beans.PropertyChangeSupport;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 
 public class Node implements MvpView, BasicTelemetryProperty, Sortable {
     private static final String CLICK_ACTION = "click";
@@ -181,20 +185,85 @@ public class Node implements MvpView, BasicTelemetryProperty, Sortable {
     }
 
     public void removeAllChildNodes() {
-        while (!childNodes.isEmpty()) {
-            Node node = childNodes.get(0);
-
+        final List<Node> nodes = new ArrayList<>(childNodes);
+        for (final Node node : nodes) {
             // sometimes node can be null if multiple threads access this method; safer to check than make it synchronized
             if (node != null) {
                 // remove this node's child nodes (so they get an
                 // opportunity to clean up after them)
                 node.removeAllChildNodes();
             }
+        }
 
-            // this remove call should cause the NodeListChangeListener object
-            // registered on it's child nodes to fire
-            childNodes.remove(0);
+        // this remove call should cause the NodeListChangeListener object
+        // registered on it's child nodes to fire once for all nodes
+        childNodes.applyChanges(nodes, Collections.emptyList());
+    }
+
+    /**
+     * Update the child nodes to the refreshed ones by node id. A child node which is unchanged or takes the state of
+     * its refreshed node is kept, so its tree node, expanding state and loaded children are kept as well. The others
+     * are removed or replaced by the refreshed ones, and the child nodes are listed in the refreshed order, all in one
+     * change of the child node list.
+     *
+     * @param refreshedNodes the child nodes got by refreshing
+     */
+    protected void reconcileChildNodes(List<Node> refreshedNodes) {
+        final List<Node> existingNodes = new ArrayList<>(childNodes);
+        final Map<String, Node> existingNodesByKey = new HashMap<>();
+        for (final Node node : existingNodes) {
+            if (node != null && node.getId() != null) {
+                existingNodesByKey.putIfAbsent(getReconcileKey(node), node);
+            }
         }
+
+        final Set<Node> keptNodes = Collections.newSetFromMap(new IdentityHashMap<>());
+        final List<Node> reconciledNodes = new ArrayList<>(refreshedNodes.size());
+        for (final Node refreshed : refreshedNodes) {
+            final Node existing = refreshed.getId() == null ? null : existingNodesByKey.get(getReconcileKey(refreshed));
+            if (existing != null && !keptNodes.contains(existing)
+                    && (existing == refreshed || existing.updateFrom(refreshed))) {
+                keptNodes.add(existing);
+                reconciledNodes.add(existing);
+            } else {
+                reconciledNodes.add(refreshed);
+            }
+        }
+
+        for (final Node node : existingNodes) {
+            if (node != null && !keptNodes.contains(node)) {
+                node.removeAllChildNodes();
+            }
+        }
+
+        childNodes.setAll(reconciledNodes);
+    }
+
+    /**
+     * Take the state of the refreshed node of the same class and id, so this node can be kept in place of the
+     * refreshed one. By default this node is kept only when it shows the same name and icon as the refreshed one, as
+     * the backing model of a node is not known here. Sub-classes which can take the backing model of the refreshed
+     * node override this method, take it with {@link #updateViewFrom(Node)} and return true.
+     *
+     * @param refreshed the refreshed node of the same class and id
+     * @return whether this node is kept in place of the refreshed one
+     */
+    protected boolean updateFrom(Node refreshed) {
+        return Objects.equals(getName(), refreshed.getName())
+                && Objects.equals(getIconPath(), refreshed.getIconPath())
+                && Objects.equals(getIconSymbol(), refreshed.getIconSymbol());
+    }
+
+    /**
+     * Show the name and icon of the refreshed node, for sub-classes taking its state in {@link #updateFrom(Node)}.
+     */
+    protected void updateViewFrom(Node refreshed) {
+        setName(refreshed.getName());
+        setIconPath(refreshed.getIconPath());
+    }
+
+    private static String getReconcileKey(Node node) {
+        return node.getClass().getName() + "/" + node.getId();
     }
 
     /**
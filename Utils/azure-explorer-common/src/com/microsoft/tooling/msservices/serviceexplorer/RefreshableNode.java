@@ -22,6 +22,7 @@ import com.microsoft.tooling.msservices.components.DefaultLoader;
 import com.microsoft.tooling.msservices.serviceexplorer.azure.AzureModule;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 
@@ -31,6 +32,9 @@ public abstract class RefreshableNode extends Node {
     public static String REFRESH_ICON_DARK = "RefreshDark_16.png";
     private static final String REFRESH = "Refresh";
 
+    // The child nodes added while refreshing, which are reconciled with the existing ones after refreshing
+    private volatile List<Node> refreshedChildNodes;
+
     public RefreshableNode(String id, String name, Node parent) {
         super(id, name, parent);
     }
@@ -81,12 +85,18 @@ public abstract class RefreshableNode extends Node {
         if (!loading) {
             setLoading(true);
             try {
-                removeAllChildNodes();
-                if (AuthMethodManager.getInstance().isSignedIn() || this instanceof AzureModule) {
-                    if (forceRefresh) {
-                        refreshFromAzure();
+                refreshedChildNodes = Collections.synchronizedList(new ArrayList<>());
+                try {
+                    if (AuthMethodManager.getInstance().isSignedIn() || this instanceof AzureModule) {
+                        if (forceRefresh) {
+                            refreshFromAzure();
+                        }
+                        refreshItems();
                     }
-                    refreshItems();
+                } finally {
+                    final List<Node> refreshed = refreshedChildNodes;
+                    refreshedChildNodes = null;
+                    reconcileChildNodes(new ArrayList<>(refreshed));
                 }
 
                 future.set(getChildNodes());
@@ -101,6 +111,22 @@ public abstract class RefreshableNode extends Node {
     protected void refreshFromAzure() throws Exception {
     }
 
+    @Override
+    public void addChildNode(Node child) {
+        final List<Node> refreshed = refreshedChildNodes;
+        if (refreshed != null) {
+            refreshed.add(child);
+        } else {
+            super.addChildNode(child);
+        }
+    }
+
+    @Override
+    public boolean isDirectChild(Node node) {
+        final List<Node> refreshed = refreshedChildNodes;
+        return refreshed != null ? refreshed.contains(node) : super.isDirectChild(node);
+    }
+
     // Add update node name support after refresh the node
     protected void updateNodeNameAfterLoading() {
     }
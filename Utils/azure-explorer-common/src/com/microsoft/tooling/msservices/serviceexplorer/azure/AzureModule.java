@@ -15,6 +15,7 @@ import com.microsoft.azuretools.azurecommons.helpers.Nullable;
 import com.microsoft.azuretools.enums.ErrorEnum;
 import com.microsoft.azuretools.exception.AzureRuntimeException;
 import com.microsoft.azuretools.sdkmanage.AzureManager;
+import com.microsoft.azuretools.sdkmanage.AzureManagerBase;
 import com.microsoft.tooling.msservices.components.DefaultLoader;
 import com.microsoft.tooling.msservices.serviceexplorer.AzureIconSymbol;
 import com.microsoft.tooling.msservices.serviceexplorer.AzureRefreshableNode;
@@ -103,7 +104,11 @@ public class AzureModule extends AzureRefreshableNode {
         try {
             AzureManager azureManager = AuthMethodManager.getInstance().getAzureManager();
             if (AuthMethodManager.getInstance().isRestoringSignIn()) {
-                return BASE_MODULE_NAME + " (Signing In...)";
+                // show the subscriptions found last time until the sign-in is restored
+                final List<SubscriptionDetail> lastKnownSubscriptions = AzureManagerBase.getLastKnownSubscriptionDetails()
+                        .stream().filter(SubscriptionDetail::isSelected).distinct().collect(Collectors.toList());
+                return lastKnownSubscriptions.isEmpty() ? BASE_MODULE_NAME + " (Signing In...)" :
+                        String.format("%s (%s)", BASE_MODULE_NAME, getAccountDescription(lastKnownSubscriptions));
             }
             // not signed in
             if (azureManager == null) {
@@ -11,6 +11,8 @@ import com.microsoft.tooling.msservices.serviceexplorer.RefreshableNode;
 import org.apache.commons.collections4.CollectionUtils;
 
 import javax.annotation.Nonnull;
+import java.util.List;
+import java.util.stream.Collectors;
 
 public class FunctionsNode extends RefreshableNode {
 
@@ -29,10 +31,11 @@ public class FunctionsNode extends RefreshableNode {
     @Override
     @AzureOperation(name = "function.refresh_funcs", type = AzureOperation.Type.ACTION)
     protected void refreshItems() {
-        functionApp.listFunctions(true).stream()
+        final List<FunctionNode> functionNodes = functionApp.listFunctions(true).stream()
                 .map(envelope -> new FunctionNode(envelope, functionApp, this))
-                .forEach(this::addChildNode);
-        setName(CollectionUtils.isEmpty(childNodes) ? NAME + EMPTY_POSTFIX : NAME);
+                .collect(Collectors.toList());
+        functionNodes.forEach(this::addChildNode);
+        setName(CollectionUtils.isEmpty(functionNodes) ? NAME + EMPTY_POSTFIX : NAME);
     }
 
     @Override
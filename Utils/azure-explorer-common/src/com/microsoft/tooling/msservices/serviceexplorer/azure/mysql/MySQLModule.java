@@ -53,7 +53,6 @@ public class MySQLModule extends AzureRefreshableNode implements MySQLModuleView
     @Override
     protected void refreshItems() {
         final List<MySqlServer> server = Azure.az(AzureMySql.class).list();
-        this.removeAllChildNodes();
         this.renderChildren(server);
     }
 
@@ -11,7 +11,7 @@ import com.microsoft.azuretools.azurecommons.helpers.RedisKeyType;
 import com.microsoft.azuretools.core.mvp.model.rediscache.RedisConnectionPools;
 import com.microsoft.azuretools.core.mvp.model.rediscache.RedisExplorerMvpModel;
 import com.microsoft.azuretools.core.mvp.ui.base.MvpPresenter;
-import com.microsoft.azuretools.core.mvp.ui.rediscache.RedisScanResult;
+import com.microsoft.azuretools.core.mvp.ui.rediscache.RedisKeyInfo;
 import com.microsoft.azuretools.core.mvp.ui.rediscache.RedisValueData;
 import com.microsoft.azuretools.telemetry.TelemetryConstants;
 import com.microsoft.azuretools.telemetrywrapper.ErrorType;
@@ -21,12 +21,15 @@ import com.microsoft.azuretools.telemetrywrapper.TelemetryManager;
 import com.microsoft.tooling.msservices.components.DefaultLoader;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 
 import redis.clients.jedis.ScanResult;
 import redis.clients.jedis.Tuple;
+import redis.clients.jedis.exceptions.JedisDataException;
 import rx.Observable;
 
 public class RedisExplorerPresenter<V extends RedisExplorerMvpView> extends MvpPresenter<V> {
@@ -34,6 +37,10 @@ public class RedisExplorerPresenter<V extends RedisExplorerMvpView> extends MvpP
     private String sid;
     private String id;
 
+    // The key types got with the scanned keys, to save the TYPE command when a key is selected
+    private final Map<String, String> scannedKeyTypes = new HashMap<>();
+    private int scannedKeyTypesDb = -1;
+
     private static final String DEFAULT_SCAN_PATTERN = "*";
 
     private static final String CANNOT_GET_REDIS_INFO = "Cannot get Redis Cache's information.";
@@ -95,15 +102,16 @@ public class RedisExplorerPresenter<V extends RedisExplorerMvpView> extends MvpP
         Operation operation = TelemetryManager.createOperation(TelemetryConstants.REDIS, TelemetryConstants.REDIS_SCAN);
         operation.start();
         Observable.fromCallable(() -> {
-            return RedisExplorerMvpModel.getInstance().scanKeys(sid, id, db, cursor, pattern);
+            return RedisExplorerMvpModel.getInstance().scanKeyPage(sid, id, db, cursor, pattern);
         })
         .subscribeOn(getSchedulerProvider().io())
         .subscribe(result -> {
+            rememberKeyTypes(db, cursor, result.getKeyInfos());
             DefaultLoader.getIdeHelper().invokeLater(() -> {
                 if (isViewDetached()) {
                     return;
                 }
-                getMvpView().showScanResult(new RedisScanResult(result));
+                getMvpView().showScanResult(result);
                 operation.complete();
             });
         }, e -> {
@@ -193,8 +201,43 @@ public class RedisExplorerPresenter<V extends RedisExplorerMvpView> extends MvpP
         this.id = id;
     }
 
+    private synchronized void rememberKeyTypes(int db, String cursor, List<RedisKeyInfo> keyInfos) {
+        // Only keep the types of the keys scanned since the last scan from start
+        if (db != scannedKeyTypesDb || SCAN_POINTER_START.equals(cursor)) {
+            scannedKeyTypes.clear();
+            scannedKeyTypesDb = db;
+        }
+        for (RedisKeyInfo keyInfo : keyInfos) {
+            if (!keyInfo.getType().isEmpty()) {
+                scannedKeyTypes.put(keyInfo.getKey(), keyInfo.getType());
+            }
+        }
+    }
+
+    private synchronized String getScannedKeyType(int db, String key) {
+        return db == scannedKeyTypesDb ? scannedKeyTypes.get(key) : null;
+    }
+
+    private synchronized void forgetScannedKeyType(String key) {
+        scannedKeyTypes.remove(key);
+    }
+
     private RedisValueData getValueByKey(int db, String key) throws Exception {
+        String scannedType = getScannedKeyType(db, key);
+        if (scannedType != null) {
+            try {
+                return getValueByKey(db, key, scannedType);
+            } catch (JedisDataException e) {
+                // The key has been changed to another type since scanned
+                forgetScannedKeyType(key);
+            }
+        }
+
         String type = RedisExplorerMvpModel.getInstance().getKeyType(sid, id, db, key).toUpperCase();
+        return getValueByKey(db, key, type);
+    }
+
+    private RedisValueData getValueByKey(int db, String key, String type) throws Exception {
         ArrayList<String[]> columnData = new ArrayList<String[]>();
         switch (RedisKeyType.valueOf(type)) {
             case STRING:
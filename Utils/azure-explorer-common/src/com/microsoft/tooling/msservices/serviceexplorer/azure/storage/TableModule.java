@@ -28,8 +28,6 @@ public class TableModule extends RefreshableNode {
     @Override
     protected void refreshItems()
             throws AzureCmdException {
-        removeAllChildNodes();
-
         final List<Table> tables = StorageClientSDKManager.getManager().getTables(storageAccount);
 
         for (Table table : tables) {
@@ -124,6 +124,15 @@ public class VMNode extends RefreshableNode implements TelemetryProperties {
         refreshItemsInternal();
     }
 
+    @Override
+    protected boolean updateFrom(Node refreshed) {
+        final VMNode refreshedVM = (VMNode) refreshed;
+        this.virtualMachine = refreshedVM.virtualMachine;
+        this.subscriptionId = refreshedVM.subscriptionId;
+        updateViewFrom(refreshed);
+        return true;
+    }
+
     private void refreshItemsInternal() {
         // update vm name and status icon
         setName(virtualMachine.name());
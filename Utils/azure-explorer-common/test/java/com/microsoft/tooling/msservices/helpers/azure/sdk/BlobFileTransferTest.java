@@ -0,0 +1,298 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.tooling.msservices.helpers.azure.sdk;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.powermock.api.mockito.PowerMockito;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import com.microsoft.azure.storage.blob.BlobProperties;
+import com.microsoft.azure.storage.blob.CloudBlob;
+import com.microsoft.azuretools.authmanage.CommonSettings;
+import com.microsoft.tooling.msservices.helpers.CallableSingleArg;
+
+@RunWith(PowerMockRunner.class)
+@PrepareForTest({
+    CloudBlob.class,
+    BlobProperties.class,
+})
+public class BlobFileTransferTest {
+    private static final int MB = 1024 * 1024;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private String originalSettingsBaseDir;
+    private File journalDir;
+    private File targetFile;
+
+    private byte[] content;
+    private CloudBlob blob;
+    private final Map<Long, AtomicInteger> rangeRequests = new ConcurrentHashMap<>();
+    private volatile RangeHook rangeHook = offset -> { };
+    private final List<Long> progress = Collections.synchronizedList(new ArrayList<>());
+    private volatile ProgressListener progressListener = transferred -> { };
+
+    private interface RangeHook {
+        void beforeRange(long offset) throws Exception;
+    }
+
+    private interface ProgressListener {
+        void onProgress(long transferred);
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        originalSettingsBaseDir = CommonSettings.getSettingsBaseDir();
+        final File settingsDir = folder.newFolder("settings");
+        CommonSettings.setUpEnvironment(settingsDir.getAbsolutePath());
+        journalDir = new File(settingsDir, "blob-transfers");
+        targetFile = new File(folder.getRoot(), "target.bin");
+    }
+
+    @After
+    public void tearDown() {
+        if (originalSettingsBaseDir != null) {
+            CommonSettings.setUpEnvironment(originalSettingsBaseDir);
+        }
+    }
+
+    @Test
+    public void testChooseRangeSize() {
+        assertEquals(MB, BlobFileTransfer.chooseRangeSize(0));
+        assertEquals(MB, BlobFileTransfer.chooseRangeSize(10L * MB));
+        // 64 ranges to keep 4 workers busy, rounded up to MB
+        assertEquals(10L * MB, BlobFileTransfer.chooseRangeSize(640L * MB));
+        assertEquals(2L * MB, BlobFileTransfer.chooseRangeSize(100L * MB + 1));
+        // No larger than the max block size of block blob
+        assertEquals(100L * MB, BlobFileTransfer.chooseRangeSize(1024L * 1024 * MB));
+    }
+
+    @Test
+    public void testDownloadInRanges() throws Exception {
+        mockBlob(3 * MB + MB / 2);
+
+        BlobFileTransfer.download(() -> blob, targetFile, progressRecorder());
+
+        assertArrayEquals(content, Files.readAllBytes(targetFile.toPath()));
+        assertEquals(Arrays.asList(0L, 1L * MB, 2L * MB, 3L * MB), requestedOffsets());
+        assertEquals(Long.valueOf(content.length), progress.get(progress.size() - 1));
+        assertNull(getJournalFile());
+    }
+
+    @Test
+    public void testResumeDownloadAfterPartialTransfer() throws Exception {
+        mockBlob(3 * MB + MB / 2);
+        failLastRangeAfterOthers();
+
+        try {
+            BlobFileTransfer.download(() -> blob, targetFile, progressRecorder());
+            fail("The download should fail");
+        } catch (IllegalStateException expected) {
+        }
+
+        // The partial file is kept with the journal of the ranges done
+        assertTrue(targetFile.isFile());
+        final File journalFile = getJournalFile();
+        final Properties journal = loadJournal(journalFile);
+        assertEquals(String.valueOf(MB), journal.getProperty("rangeSize"));
+        assertEquals(Arrays.asList("0", "1", "2"), sorted(journal.getProperty("completed").split(",")));
+
+        rangeRequests.clear();
+        progress.clear();
+        rangeHook = offset -> { };
+        BlobFileTransfer.download(() -> blob, targetFile, progressRecorder());
+
+        assertArrayEquals(content, Files.readAllBytes(targetFile.toPath()));
+        assertEquals(Collections.singletonList(3L * MB), requestedOffsets());
+        assertEquals(Arrays.asList(3L * MB, (long) content.length), progress);
+        assertFalse(journalFile.exists());
+    }
+
+    @Test
+    public void testDownloadStartsOverWithBrokenJournal() throws Exception {
+        mockBlob(3 * MB + MB / 2);
+        failLastRangeAfterOthers();
+
+        try {
+            BlobFileTransfer.download(() -> blob, targetFile, progressRecorder());
+            fail("The download should fail");
+        } catch (IllegalStateException expected) {
+        }
+
+        Files.write(getJournalFile().toPath(), "rangeSize=broken".getBytes(StandardCharsets.UTF_8));
+
+        rangeRequests.clear();
+        rangeHook = offset -> { };
+        BlobFileTransfer.download(() -> blob, targetFile, null);
+
+        assertArrayEquals(content, Files.readAllBytes(targetFile.toPath()));
+        assertEquals(Arrays.asList(0L, 1L * MB, 2L * MB, 3L * MB), requestedOffsets());
+    }
+
+    @Test
+    public void testAbortAwaitsRunningRanges() throws Exception {
+        mockBlob(7 * MB + MB / 2);
+        final CountDownLatch othersStarted = new CountDownLatch(3);
+        final AtomicInteger othersEnded = new AtomicInteger();
+        final IllegalStateException failure = new IllegalStateException("range 0 failed");
+        rangeHook = offset -> {
+            if (offset == 0) {
+                othersStarted.await(10, TimeUnit.SECONDS);
+                throw failure;
+            }
+
+            othersStarted.countDown();
+            try {
+                Thread.sleep(500);
+                // Failed after the transfer is aborted, not to be retried
+                throw new IOException("range " + offset / MB + " failed");
+            } finally {
+                othersEnded.incrementAndGet();
+            }
+        };
+
+        try {
+            BlobFileTransfer.download(() -> blob, targetFile, null);
+            fail("The download should fail");
+        } catch (IllegalStateException e) {
+            assertSame(failure, e);
+        }
+
+        // The running ranges end before the download returns, and the ranges not started are skipped
+        assertEquals(3, othersEnded.get());
+        assertEquals(Arrays.asList(0L, 1L * MB, 2L * MB, 3L * MB), requestedOffsets());
+        for (AtomicInteger requests : rangeRequests.values()) {
+            assertEquals(1, requests.get());
+        }
+
+        // Nothing to resume from, so the partial file is removed
+        assertFalse(targetFile.exists());
+        assertNull(getJournalFile());
+    }
+
+    private void mockBlob(int length) throws Exception {
+        content = new byte[length];
+        for (int i = 0; i < length; i++) {
+            content[i] = (byte) (i % 251);
+        }
+
+        final BlobProperties properties = PowerMockito.mock(BlobProperties.class);
+        PowerMockito.when(properties.getLength()).thenReturn((long) length);
+        PowerMockito.when(properties.getEtag()).thenReturn("\"etag\"");
+
+        blob = PowerMockito.mock(CloudBlob.class);
+        PowerMockito.when(blob.getProperties()).thenReturn(properties);
+        PowerMockito.when(blob.getUri()).thenReturn(new URI("https://account.blob.core.windows.net/container/blob"));
+        PowerMockito.when(blob.downloadRangeToByteArray(
+                anyLong(), any(), any(), anyInt(), any(), any(), any())).thenAnswer(invocation -> {
+                    final long offset = invocation.getArgument(0);
+                    final Long rangeLength = invocation.getArgument(1);
+                    final byte[] buffer = invocation.getArgument(2);
+                    final int bufferOffset = invocation.getArgument(3);
+
+                    rangeRequests.computeIfAbsent(offset, key -> new AtomicInteger()).incrementAndGet();
+                    rangeHook.beforeRange(offset);
+                    System.arraycopy(content, (int) offset, buffer, bufferOffset, rangeLength.intValue());
+
+                    return rangeLength.intValue();
+                });
+    }
+
+    /**
+     * Fail the last one of 4 ranges once the others are reported done
+     */
+    private void failLastRangeAfterOthers() {
+        final CountDownLatch othersDone = new CountDownLatch(1);
+        rangeHook = offset -> {
+            if (offset == 3L * MB) {
+                assertTrue(othersDone.await(10, TimeUnit.SECONDS));
+                throw new IllegalStateException("range 3 failed");
+            }
+        };
+
+        progressListener = transferred -> {
+            if (transferred == 3L * MB) {
+                othersDone.countDown();
+            }
+        };
+    }
+
+    private CallableSingleArg<Void, Long> progressRecorder() {
+        return new CallableSingleArg<Void, Long>() {
+            @Override
+            public Void call(Long transferred) {
+                progress.add(transferred);
+                progressListener.onProgress(transferred);
+                return null;
+            }
+        };
+    }
+
+    private List<Long> requestedOffsets() {
+        final List<Long> offsets = new ArrayList<>(rangeRequests.keySet());
+        Collections.sort(offsets);
+
+        return offsets;
+    }
+
+    private File getJournalFile() {
+        final File[] files = journalDir.listFiles();
+        if (files == null || files.length == 0) {
+            return null;
+        }
+
+        assertEquals(1, files.length);
+        return files[0];
+    }
+
+    private static Properties loadJournal(File journalFile) throws IOException {
+        final Properties properties = new Properties();
+        properties.load(Files.newInputStream(journalFile.toPath()));
+
+        return properties;
+    }
+
+    private static List<String> sorted(String[] values) {
+        final List<String> list = new ArrayList<>(Arrays.asList(values));
+        Collections.sort(list);
+
+        return list;
+    }
+}
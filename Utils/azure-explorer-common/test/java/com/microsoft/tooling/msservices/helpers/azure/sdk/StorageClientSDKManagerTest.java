@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.tooling.msservices.helpers.azure.sdk;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.Mockito.verify;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.powermock.api.mockito.PowerMockito;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import com.microsoft.azure.storage.ResultContinuation;
+import com.microsoft.azure.storage.ResultContinuationType;
+import com.microsoft.azure.storage.ResultSegment;
+import com.microsoft.azure.storage.blob.CloudBlob;
+import com.microsoft.azure.storage.blob.CloudBlobDirectory;
+import com.microsoft.azure.storage.blob.CloudBlockBlob;
+import com.microsoft.azure.storage.blob.ListBlobItem;
+import com.microsoft.tooling.msservices.model.storage.BlobDirectory;
+import com.microsoft.tooling.msservices.model.storage.BlobFile;
+import com.microsoft.tooling.msservices.model.storage.BlobItemPage;
+
+@RunWith(PowerMockRunner.class)
+@PrepareForTest({
+    CloudBlob.class,
+    CloudBlockBlob.class,
+    CloudBlobDirectory.class,
+})
+public class StorageClientSDKManagerTest {
+    private static final String CONTAINER_URI = "https://account.blob.core.windows.net/container/";
+
+    private CloudBlobDirectory directory;
+    private ArrayList<ListBlobItem> items;
+
+    @Before
+    public void setUp() throws Exception {
+        directory = PowerMockito.mock(CloudBlobDirectory.class);
+
+        final CloudBlobDirectory subDirectory = PowerMockito.mock(CloudBlobDirectory.class);
+        PowerMockito.when(subDirectory.getPrefix()).thenReturn("logs/2021/");
+        PowerMockito.when(subDirectory.getUri()).thenReturn(new URI(CONTAINER_URI + "logs/2021/"));
+
+        final CloudBlockBlob blob = PowerMockito.mock(CloudBlockBlob.class);
+        PowerMockito.when(blob.getName()).thenReturn("logs/2021.log");
+        PowerMockito.when(blob.getUri()).thenReturn(new URI(CONTAINER_URI + "logs/2021.log"));
+
+        items = new ArrayList<>(Arrays.asList(subDirectory, blob));
+    }
+
+    @Test
+    public void testListFirstPageWithPrefix() throws Exception {
+        final ResultContinuation next = new ResultContinuation();
+        next.setContinuationType(ResultContinuationType.BLOB);
+        next.setNextMarker("marker-2");
+        mockSegment(new ResultSegment<>(items, 2, next));
+
+        final BlobItemPage page = StorageClientSDKManager.listBlobItemPage(
+                directory, "container", "/", "2021", null, 2);
+
+        final ArgumentCaptor<String> prefix = ArgumentCaptor.forClass(String.class);
+        final ArgumentCaptor<ResultContinuation> continuation = ArgumentCaptor.forClass(ResultContinuation.class);
+        verify(directory).listBlobsSegmented(
+                prefix.capture(), anyBoolean(), any(), any(), continuation.capture(), any(), any());
+        // The prefix is passed to the service rather than filtering the page got
+        assertEquals("2021", prefix.getValue());
+        assertNull(continuation.getValue());
+
+        assertEquals(2, page.getItems().size());
+        final BlobDirectory subDirectory = (BlobDirectory) page.getItems().get(0);
+        assertEquals("2021", subDirectory.getName());
+        assertEquals("logs/2021/", subDirectory.getPath());
+        final BlobFile file = (BlobFile) page.getItems().get(1);
+        assertEquals("2021.log", file.getName());
+        assertEquals("logs/2021.log", file.getPath());
+
+        assertTrue(page.hasNextPage());
+        assertEquals("marker-2", page.getContinuationToken());
+    }
+
+    @Test
+    public void testListLastPageWithContinuationToken() throws Exception {
+        mockSegment(new ResultSegment<>(items, 2, null));
+
+        final BlobItemPage page = StorageClientSDKManager.listBlobItemPage(
+                directory, "container", "/", "", "marker-2", 2);
+
+        final ArgumentCaptor<String> prefix = ArgumentCaptor.forClass(String.class);
+        final ArgumentCaptor<ResultContinuation> continuation = ArgumentCaptor.forClass(ResultContinuation.class);
+        verify(directory).listBlobsSegmented(
+                prefix.capture(), anyBoolean(), any(), any(), continuation.capture(), any(), any());
+        assertNull(prefix.getValue());
+        assertEquals("marker-2", continuation.getValue().getNextMarker());
+        assertEquals(ResultContinuationType.BLOB, continuation.getValue().getContinuationType());
+
+        assertEquals(2, page.getItems().size());
+        assertFalse(page.hasNextPage());
+        assertNull(page.getContinuationToken());
+    }
+
+    private void mockSegment(ResultSegment<ListBlobItem> segment) throws Exception {
+        PowerMockito.when(directory.listBlobsSegmented(
+                any(), anyBoolean(), any(), any(), any(), any(), any())).thenReturn(segment);
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.tooling.msservices.helpers.collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class ObservableListTest {
+
+    private ObservableList<String> list;
+    private List<ListChangedEvent> events;
+
+    @Before
+    public void setUp() {
+        list = new ObservableList<>();
+        events = new ArrayList<>();
+        list.addChangeListener(events::add);
+    }
+
+    @Test
+    public void testApplyChangesFiresOneEvent() {
+        List<String> items = new ArrayList<>();
+        for (int i = 0; i < 10000; i++) {
+            items.add("node" + i);
+        }
+
+        list.applyChanges(Collections.emptyList(), items);
+
+        assertEquals(1, events.size());
+        assertSame(ListChangedAction.add, events.get(0).getAction());
+        assertEquals(10000, list.size());
+
+        List<String> replaced = new ArrayList<>(items.subList(0, 5000));
+        List<String> added = Collections.singletonList("new");
+        list.applyChanges(replaced, added);
+
+        assertEquals(2, events.size());
+        assertSame(ListChangedAction.replace, events.get(1).getAction());
+        assertEquals(5000, events.get(1).getOldItems().size());
+        assertEquals(added, new ArrayList<>(events.get(1).getNewItems()));
+        assertEquals(5001, list.size());
+    }
+
+    @Test
+    public void testApplyChangesRemovesByIdentity() {
+        String item = new String("node");
+        list.add(item);
+        events.clear();
+
+        list.applyChanges(Collections.singletonList(new String("node")), Collections.emptyList());
+
+        assertEquals(0, events.size());
+        assertEquals(1, list.size());
+
+        list.applyChanges(Collections.singletonList(item), Collections.emptyList());
+
+        assertEquals(1, events.size());
+        assertSame(ListChangedAction.remove, events.get(0).getAction());
+        assertEquals(0, list.size());
+    }
+
+    @Test
+    public void testAddAllAfterRemoveAllFiresEvents() {
+        list.addAll(Collections.singletonList("a"));
+        list.removeAll(Collections.singletonList("a"));
+        list.addAll(Collections.singletonList("b"));
+
+        assertEquals(3, events.size());
+        assertEquals(Collections.singletonList("b"), list);
+    }
+}
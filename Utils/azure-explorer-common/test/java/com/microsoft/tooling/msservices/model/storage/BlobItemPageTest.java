@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.tooling.msservices.model.storage;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+public class BlobItemPageTest {
+
+    @Test
+    public void testNextPage() {
+        assertTrue(new BlobItemPage(Collections.emptyList(), "marker").hasNextPage());
+        assertEquals("marker", new BlobItemPage(Collections.emptyList(), "marker").getContinuationToken());
+
+        final BlobItemPage lastPage = new BlobItemPage(Collections.emptyList(), null);
+        assertFalse(lastPage.hasNextPage());
+        assertNull(lastPage.getContinuationToken());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testItemsUnmodifiable() {
+        final List<BlobItem> items = new ArrayList<>();
+        items.add(newBlobFile("a.txt"));
+
+        new BlobItemPage(items, null).getItems().add(newBlobFile("b.txt"));
+    }
+
+    @Test
+    public void testCopyItems() {
+        final BlobDirectory directory = new BlobDirectory("dir", "https://account/container/dir/", "container", "dir/");
+        final BlobFile file = newBlobFile("a.txt");
+        file.setLoading(true);
+        final BlobItemPage page = new BlobItemPage(Arrays.asList(directory, file), "marker");
+
+        final BlobItemPage copy = page.copy();
+        assertEquals("marker", copy.getContinuationToken());
+        assertEquals(2, copy.getItems().size());
+
+        final BlobDirectory copiedDirectory = (BlobDirectory) copy.getItems().get(0);
+        assertNotSame(directory, copiedDirectory);
+        assertEquals("dir/", copiedDirectory.getPath());
+
+        final BlobFile copiedFile = (BlobFile) copy.getItems().get(1);
+        assertNotSame(file, copiedFile);
+        assertEquals("a.txt", copiedFile.getName());
+        assertEquals(42, copiedFile.getSize());
+        assertTrue(copiedFile.isLoading());
+
+        // Changing a copy doesn't change the cached page
+        copiedFile.setContentType("text/plain");
+        assertEquals("application/octet-stream", file.getContentType());
+    }
+
+    private static BlobFile newBlobFile(String name) {
+        return new BlobFile(name, "https://account/container/" + name, "container", name, "BLOCK_BLOB", "", "", "",
+                "application/octet-stream", "", "etag", 0, 42);
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.tooling.msservices.serviceexplorer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compare refreshing 10k child nodes by default, reconciled with the existing ones by node id, with rebuilding them
+ * all as the nodes were refreshed before. Every other node is gone and as many new ones are listed in each refresh.
+ *
+ * Run it with the main method, the child node count can be given as the first argument. Like JMH, each path is run
+ * for some warm-up iterations before the measured ones, and the list change events fired are counted as well.
+ */
+public class NodeReconcileBenchmark {
+    private static final int WARM_UP_ITERATIONS = 5;
+    private static final int MEASURED_ITERATIONS = 20;
+
+    private interface Refresher {
+        void refresh(Node parent, List<Node> refreshedNodes);
+    }
+
+    public static void main(String[] args) {
+        final int count = args.length > 0 ? Integer.parseInt(args[0]) : 10000;
+
+        run("reconcile", count, Node::reconcileChildNodes);
+        run("rebuild", count, (parent, refreshedNodes) -> {
+            parent.removeAllChildNodes();
+            parent.getChildNodes().addAll(refreshedNodes);
+        });
+    }
+
+    private static void run(String name, int count, Refresher refresher) {
+        for (int i = 0; i < WARM_UP_ITERATIONS; i++) {
+            refreshOnce(count, refresher, new int[1]);
+        }
+
+        long totalNanos = 0;
+        final int[] events = new int[1];
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            totalNanos += refreshOnce(count, refresher, events);
+        }
+
+        System.out.printf("%s: %d child nodes, %.2f ms/op, %.1f events/op%n",
+                name, count, totalNanos / 1e6 / MEASURED_ITERATIONS, (double) events[0] / MEASURED_ITERATIONS);
+    }
+
+    private static long refreshOnce(int count, Refresher refresher, int[] events) {
+        final Node parent = new Node("parent", "parent", null, true);
+        final List<Node> existing = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            existing.add(new Node(String.valueOf(i), "node-" + i, parent, true));
+        }
+        parent.reconcileChildNodes(existing);
+
+        final List<Node> refreshed = new ArrayList<>(count);
+        for (int i = 0; i < count; i += 2) {
+            refreshed.add(new Node(String.valueOf(i), "node-" + i, parent, true));
+        }
+        for (int i = count; i < count + count / 2; i++) {
+            refreshed.add(new Node(String.valueOf(i), "node-" + i, parent, true));
+        }
+        parent.getChildNodes().addChangeListener(e -> events[0]++);
+
+        final long start = System.nanoTime();
+        refresher.refresh(parent, refreshed);
+        return System.nanoTime() - start;
+    }
+}
@@ -0,0 +1,217 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.tooling.msservices.serviceexplorer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.microsoft.tooling.msservices.helpers.collections.ListChangedAction;
+import com.microsoft.tooling.msservices.helpers.collections.ListChangedEvent;
+
+public class NodeTest {
+
+    private Node parent;
+    private List<ListChangedEvent> events;
+
+    @Before
+    public void setUp() {
+        parent = new Node("parent", "parent", null, true);
+        events = new ArrayList<>();
+    }
+
+    @Test
+    public void testReconcileAddsNewNodes() {
+        final ModelNode first = new ModelNode("1", "model-1");
+        final ModelNode second = new ModelNode("2", "model-2");
+
+        reconcile(first, second);
+
+        assertEquals(Arrays.asList(first, second), parent.getChildNodes());
+        assertEquals(1, events.size());
+        assertSame(ListChangedAction.add, events.get(0).getAction());
+    }
+
+    @Test
+    public void testReconcileRemovesMissingNodes() {
+        final ModelNode kept = new ModelNode("1", "model-1");
+        final ModelNode removed = new ModelNode("2", "model-2");
+        removed.addChildNode(new Node("child", "child", removed, true));
+        parent.reconcileChildNodes(Arrays.asList(kept, removed));
+
+        reconcile(new ModelNode("1", "model-1"));
+
+        assertEquals(Collections.singletonList(kept), parent.getChildNodes());
+        assertTrue(removed.getChildNodes().isEmpty());
+        assertEquals(1, events.size());
+        assertSame(ListChangedAction.remove, events.get(0).getAction());
+    }
+
+    @Test
+    public void testReconcileKeepsSameNode() {
+        final Node module = new Node("module", "module", parent, true);
+        parent.reconcileChildNodes(Collections.singletonList(module));
+
+        reconcile(module);
+
+        assertEquals(Collections.singletonList(module), parent.getChildNodes());
+        assertTrue(events.isEmpty());
+    }
+
+    @Test
+    public void testReconcileUpdatesKeptNodeFromRefreshedNode() {
+        final ModelNode existing = new ModelNode("1", "model-1");
+        final Node child = new Node("child", "child", existing, true);
+        existing.addChildNode(child);
+        parent.reconcileChildNodes(Collections.singletonList(existing));
+
+        final ModelNode refreshed = new ModelNode("1", "model-1-updated");
+        refreshed.setName("renamed");
+        refreshed.setIconPath("running.png");
+        reconcile(refreshed);
+
+        assertEquals(Collections.singletonList(existing), parent.getChildNodes());
+        assertEquals("model-1-updated", existing.model);
+        assertEquals("renamed", existing.getName());
+        assertEquals("running.png", existing.getIconPath());
+        assertEquals(Collections.singletonList(child), existing.getChildNodes());
+        assertTrue(events.isEmpty());
+    }
+
+    @Test
+    public void testReconcileKeepsUnchangedNode() {
+        final Node existing = new Node("1", "node-1", parent, true);
+        final Node child = new Node("child", "child", existing, true);
+        existing.addChildNode(child);
+        parent.reconcileChildNodes(Collections.singletonList(existing));
+
+        reconcile(new Node("1", "node-1", parent, true));
+
+        assertEquals(Collections.singletonList(existing), parent.getChildNodes());
+        assertEquals(Collections.singletonList(child), existing.getChildNodes());
+        assertTrue(events.isEmpty());
+    }
+
+    @Test
+    public void testReconcileReplacesChangedNodeAtRefreshedPosition() {
+        final Node first = new Node("1", "node-1", parent, true);
+        final Node second = new Node("2", "node-2", parent, true);
+        final Node third = new Node("3", "node-3", parent, true);
+        parent.reconcileChildNodes(Arrays.asList(first, second, third));
+
+        final Node renamed = new Node("2", "node-2-renamed", parent, true);
+        reconcile(new Node("1", "node-1", parent, true), renamed, new Node("3", "node-3", parent, true));
+
+        assertEquals(Arrays.asList(first, renamed, third), parent.getChildNodes());
+        assertEquals(1, events.size());
+        assertSame(ListChangedAction.replace, events.get(0).getAction());
+        assertEquals(Collections.singletonList(renamed), new ArrayList<>(events.get(0).getNewItems()));
+        assertEquals(Collections.singletonList(second), new ArrayList<>(events.get(0).getOldItems()));
+    }
+
+    @Test
+    public void testReconcileReplacesNodeWithChangedIcon() {
+        final Node existing = new Node("1", "node-1", parent, "stopped.png", true);
+        parent.reconcileChildNodes(Collections.singletonList(existing));
+
+        final Node refreshed = new Node("1", "node-1", parent, "running.png", true);
+        reconcile(refreshed);
+
+        assertEquals(Collections.singletonList(refreshed), parent.getChildNodes());
+        assertEquals(1, events.size());
+        assertSame(ListChangedAction.replace, events.get(0).getAction());
+    }
+
+    @Test
+    public void testReconcileListsNodesInRefreshedOrder() {
+        final ModelNode first = new ModelNode("1", "model-1");
+        final ModelNode third = new ModelNode("3", "model-3");
+        parent.reconcileChildNodes(Arrays.asList(first, third));
+
+        final ModelNode second = new ModelNode("2", "model-2");
+        reconcile(new ModelNode("3", "model-3"), second, new ModelNode("1", "model-1"));
+
+        assertEquals(Arrays.asList(third, second, first), parent.getChildNodes());
+        assertEquals(1, events.size());
+        assertSame(ListChangedAction.add, events.get(0).getAction());
+        assertEquals(Collections.singletonList(second), new ArrayList<>(events.get(0).getNewItems()));
+    }
+
+    @Test
+    public void testReconcileNodesOfDifferentClassesWithSameId() {
+        final Node plain = new Node("1", "node-1", parent, true);
+        final ModelNode model = new ModelNode("1", "model-1");
+        parent.reconcileChildNodes(Arrays.asList(plain, model));
+
+        reconcile(new ModelNode("1", "model-1-updated"));
+
+        assertEquals(Collections.singletonList(model), parent.getChildNodes());
+        assertEquals("model-1-updated", model.model);
+        assertEquals(1, events.size());
+        assertSame(ListChangedAction.remove, events.get(0).getAction());
+        assertNull(events.get(0).getNewItems());
+    }
+
+    @Test
+    public void testReconcileLargeRefreshInOneChange() {
+        final int count = 10000;
+        final List<Node> existing = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            existing.add(new ModelNode(String.valueOf(i), "model-" + i));
+        }
+        parent.reconcileChildNodes(existing);
+
+        // Every other node is gone and as many new ones are listed, the rest are kept.
+        final List<Node> refreshed = new ArrayList<>();
+        for (int i = 0; i < count; i += 2) {
+            refreshed.add(new ModelNode(String.valueOf(i), "model-" + i + "-updated"));
+        }
+        for (int i = count; i < count + count / 2; i++) {
+            refreshed.add(new ModelNode(String.valueOf(i), "model-" + i));
+        }
+
+        reconcile(refreshed.toArray(new Node[0]));
+
+        assertEquals(count, parent.getChildNodes().size());
+        assertSame(existing.get(0), parent.getChildNodes().get(0));
+        assertEquals("model-0-updated", ((ModelNode) parent.getChildNodes().get(0)).model);
+        assertEquals(1, events.size());
+        assertSame(ListChangedAction.replace, events.get(0).getAction());
+        assertEquals(count / 2, events.get(0).getNewItems().size());
+        assertEquals(count / 2, events.get(0).getOldItems().size());
+        assertSame(refreshed.get(count / 2), parent.getChildNodes().get(count / 2));
+    }
+
+    private void reconcile(Node... refreshedNodes) {
+        parent.getChildNodes().addChangeListener(events::add);
+        parent.reconcileChildNodes(Arrays.asList(refreshedNodes));
+    }
+
+    private class ModelNode extends Node {
+        private String model;
+
+        ModelNode(String id, String model) {
+            super(id, id, parent, true);
+            this.model = model;
+        }
+
+        @Override
+        protected boolean updateFrom(Node refreshed) {
+            this.model = ((ModelNode) refreshed).model;
+            updateViewFrom(refreshed);
+            return true;
+        }
+    }
+}
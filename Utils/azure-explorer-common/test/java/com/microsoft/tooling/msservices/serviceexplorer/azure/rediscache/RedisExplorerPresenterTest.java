@@ -9,6 +9,7 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Map.Entry;
 
@@ -26,6 +27,7 @@ import com.microsoft.azuretools.core.mvp.model.rediscache.RedisConnectionPools;
 import com.microsoft.azuretools.core.mvp.model.rediscache.RedisExplorerMvpModel;
 import com.microsoft.azuretools.core.mvp.ui.base.SchedulerProviderFactory;
 import com.microsoft.azuretools.core.mvp.ui.base.TestSchedulerProvider;
+import com.microsoft.azuretools.core.mvp.ui.rediscache.RedisKeyInfo;
 import com.microsoft.azuretools.core.mvp.ui.rediscache.RedisScanResult;
 import com.microsoft.azuretools.core.mvp.ui.rediscache.RedisValueData;
 import com.microsoft.tooling.msservices.components.DefaultLoader;
@@ -102,9 +104,8 @@ public class RedisExplorerPresenterTest {
 
     @Test
     public void testOnDbSelect() throws Exception {
-        when(redisExplorerMvpModelMock.scanKeys(MOCK_SUBSCRIPTION, MOCK_ID, MOCK_DB, MOCK_CURSOR, MOCK_PATTERN)).thenReturn(stringScanResultMock);
+        when(redisExplorerMvpModelMock.scanKeyPage(MOCK_SUBSCRIPTION, MOCK_ID, MOCK_DB, MOCK_CURSOR, MOCK_PATTERN)).thenReturn(redisScanResultMock);
         redisExplorerPresenter.onDbSelect(MOCK_DB);
-        PowerMockito.whenNew(RedisScanResult.class).withAnyArguments().thenReturn(redisScanResultMock);
 
         testSchedulerProvider.triggerActions();
         verify(redisExplorerMvpViewMock).showScanResult(Mockito.any(RedisScanResult.class));
@@ -112,9 +113,8 @@ public class RedisExplorerPresenterTest {
 
     @Test
     public void testOnKeyList() throws Exception {
-        when(redisExplorerMvpModelMock.scanKeys(MOCK_SUBSCRIPTION, MOCK_ID, MOCK_DB, MOCK_CURSOR, MOCK_PATTERN)).thenReturn(stringScanResultMock);
+        when(redisExplorerMvpModelMock.scanKeyPage(MOCK_SUBSCRIPTION, MOCK_ID, MOCK_DB, MOCK_CURSOR, MOCK_PATTERN)).thenReturn(redisScanResultMock);
         redisExplorerPresenter.onKeyList(MOCK_DB, MOCK_CURSOR, MOCK_PATTERN);
-        PowerMockito.whenNew(RedisScanResult.class).withAnyArguments().thenReturn(redisScanResultMock);
 
         testSchedulerProvider.triggerActions();
         verify(redisExplorerMvpViewMock).showScanResult(Mockito.any(RedisScanResult.class));
@@ -170,6 +170,21 @@ public class RedisExplorerPresenterTest {
         verify(redisExplorerMvpViewMock).showContent(Mockito.any(RedisValueData.class));
     }
 
+    @Test
+    public void testOnkeySelectWithScannedKeyType() throws Exception {
+        when(redisScanResultMock.getKeyInfos()).thenReturn(
+                Collections.singletonList(new RedisKeyInfo(MOCK_KEY, TYPE_STRING.toUpperCase(), -1, null)));
+        when(redisExplorerMvpModelMock.scanKeyPage(MOCK_SUBSCRIPTION, MOCK_ID, MOCK_DB, MOCK_CURSOR, MOCK_PATTERN)).thenReturn(redisScanResultMock);
+        when(redisExplorerMvpModelMock.getStringValue(MOCK_SUBSCRIPTION, MOCK_ID, MOCK_DB, MOCK_KEY)).thenReturn("");
+
+        redisExplorerPresenter.onKeyList(MOCK_DB, MOCK_CURSOR, MOCK_PATTERN);
+        testSchedulerProvider.triggerActions();
+        redisExplorerPresenter.onkeySelect(MOCK_DB, MOCK_KEY);
+        testSchedulerProvider.triggerActions();
+        verify(redisExplorerMvpModelMock, Mockito.never()).getKeyType(MOCK_SUBSCRIPTION, MOCK_ID, MOCK_DB, MOCK_KEY);
+        verify(redisExplorerMvpViewMock).showContent(Mockito.any(RedisValueData.class));
+    }
+
     @Test
     public void testOnGetKeyAndValue() throws Exception {
         when(redisExplorerMvpModelMock.checkKeyExistance(MOCK_SUBSCRIPTION, MOCK_ID, MOCK_DB, MOCK_KEY)).thenReturn(true);
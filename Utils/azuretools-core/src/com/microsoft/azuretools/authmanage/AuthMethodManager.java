@@ -267,6 +267,8 @@ public class AuthMethodManager {
                 };
                 EventUtil.logEvent(EventType.info, operation, telemetryProperties);
                 notifySignInEventListener();
+                // the last known subscriptions may be shown while restoring, check them against the current ones
+                identityAzureManager.revalidateSubscriptionsInBackground();
             } catch (RuntimeException exception) {
                 initFuture.complete(true);
                 EventUtil.logError(operation, ErrorType.systemError, exception, null, null);
@@ -8,22 +8,28 @@ package com.microsoft.azuretools.core.mvp.model.rediscache;
 import com.microsoft.azure.management.redis.RedisCache;
 
 import java.io.IOException;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
+import java.util.Map;
 
 import redis.clients.jedis.Jedis;
 import redis.clients.jedis.JedisPool;
 import redis.clients.jedis.JedisPoolConfig;
+import redis.clients.jedis.exceptions.JedisException;
 
 public class RedisConnectionPools {
 
-    private static final int TIMEOUT = 500;
-    private static final int MAX_CONNECTIONS = 1;
+    private static final int TIMEOUT = 3000;
+    private static final int MAX_POOLS = 8;
+    private static final int MAX_CONNECTIONS_PER_POOL = 4;
+    private static final long MIN_EVICTABLE_IDLE_TIME_MILLIS = 5 * 60 * 1000;
     private static final String GANNOT_GET_RESID = "Cannot get Redis Cache from Azure.";
 
     private LinkedHashMap<String, JedisPool> pools;
 
     private RedisConnectionPools() {
-        this.pools = new LinkedHashMap<String, JedisPool>(MAX_CONNECTIONS);
+        // Keep the pools of the caches recently used, in the access order
+        this.pools = new LinkedHashMap<>(MAX_POOLS, 0.75f, true);
     }
 
     private static final class RedisConnectionFactoryHolder {
@@ -44,14 +50,18 @@ public class RedisConnectionPools {
      * @return jedis connection
      * @throws IOException Error getting the Redis Cache
      */
-    public synchronized Jedis getJedis(String sid, String id) throws Exception  {
-        if (pools.get(id) == null) {
-            if (pools.size() == MAX_CONNECTIONS) {
-                releasePool(pools.keySet().iterator().next());
+    public Jedis getJedis(String sid, String id) throws Exception  {
+        // Wait for the connection outside of the lock, so an exhausted pool doesn't block the other caches. The pool
+        // may be evicted or released meanwhile, then get the connection from the pool taking its place
+        JedisPool pool = getPool(sid, id);
+        try {
+            return pool.getResource();
+        } catch (JedisException e) {
+            if (!pool.isClosed()) {
+                throw e;
             }
-            connect(sid, id);
+            return getPool(sid, id).getResource();
         }
-        return pools.get(id).getResource();
     }
 
     /**
@@ -70,7 +80,15 @@ public class RedisConnectionPools {
         }
     }
 
-    private void connect(String sid, String id) throws Exception {
+    private synchronized JedisPool getPool(String sid, String id) throws Exception {
+        JedisPool pool = pools.get(id);
+        if (pool == null) {
+            pool = connect(sid, id);
+        }
+        return pool;
+    }
+
+    private JedisPool connect(String sid, String id) throws Exception {
         RedisCache redisCache = AzureRedisMvpModel.getInstance().getRedisCache(sid, id);
 
         if (redisCache == null) {
@@ -83,7 +101,40 @@ public class RedisConnectionPools {
         int port = redisCache.sslPort();
 
         // create connection pool according to redis setting
-        JedisPool pool = new JedisPool(new JedisPoolConfig(), hostName, port, TIMEOUT, password, true);
+        JedisPool pool = new JedisPool(createPoolConfig(), hostName, port, TIMEOUT, password, true);
         pools.put(id, pool);
+        evictIdlePools(id);
+        return pool;
+    }
+
+    /**
+     * Destroy the least recently used pools over {@link #MAX_POOLS}. A pool with connections in use isn't destroyed
+     * under its borrowers, it's kept until it's idle at a later eviction.
+     */
+    private void evictIdlePools(String newId) {
+        Iterator<Map.Entry<String, JedisPool>> iterator = pools.entrySet().iterator();
+        while (pools.size() > MAX_POOLS && iterator.hasNext()) {
+            Map.Entry<String, JedisPool> entry = iterator.next();
+            JedisPool pool = entry.getValue();
+            if (entry.getKey().equals(newId) || (pool != null && pool.getNumActive() > 0)) {
+                continue;
+            }
+
+            if (pool != null) {
+                pool.destroy();
+            }
+            iterator.remove();
+        }
+    }
+
+    private static JedisPoolConfig createPoolConfig() {
+        // A few connections for the explorer and the background prefetching, which are closed after idle a while
+        JedisPoolConfig config = new JedisPoolConfig();
+        config.setMaxTotal(MAX_CONNECTIONS_PER_POOL);
+        config.setMaxIdle(MAX_CONNECTIONS_PER_POOL);
+        config.setMinIdle(0);
+        config.setMaxWaitMillis(TIMEOUT);
+        config.setMinEvictableIdleTimeMillis(MIN_EVICTABLE_IDLE_TIME_MILLIS);
+        return config;
     }
 }
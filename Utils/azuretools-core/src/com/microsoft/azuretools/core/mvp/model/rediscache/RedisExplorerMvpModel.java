@@ -5,11 +5,28 @@
 
 package com.microsoft.azuretools.core.mvp.model.rediscache;
 
+import static redis.clients.jedis.ScanParams.SCAN_POINTER_START;
+
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import com.microsoft.azuretools.core.mvp.ui.rediscache.RedisKeyInfo;
+import com.microsoft.azuretools.core.mvp.ui.rediscache.RedisScanResult;
 
 import redis.clients.jedis.Jedis;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.Protocol;
+import redis.clients.jedis.Response;
 import redis.clients.jedis.ScanParams;
 import redis.clients.jedis.ScanResult;
 import redis.clients.jedis.Tuple;
@@ -22,6 +39,16 @@ public class RedisExplorerMvpModel {
     private static final int DEFAULT_KEY_COUNT = 50;
     private static final long DEFAULT_RANGE_START = 0;
     private static final int DEFAULT_VAL_COUNT = 500;
+    private static final String MEMORY_USAGE = "USAGE";
+    private static final long PREFETCHED_PAGE_EXPIRY_SECONDS = 30;
+
+    // The next scan page of each Redis Cache, fetched in the background while the current page is shown
+    private final Map<String, PrefetchedPage> prefetchedPages = new ConcurrentHashMap<>();
+    private final ExecutorService prefetchExecutor = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "redis-explorer-prefetch");
+        thread.setDaemon(true);
+        return thread;
+    });
 
     private RedisExplorerMvpModel() {
     }
@@ -100,6 +127,99 @@ public class RedisExplorerMvpModel {
         }
     }
 
+    /**
+     * Scan a page of keys, with each key's type, TTL and memory usage got in one pipelined round trip. The next page
+     * is fetched in the background, so scanning more with the returned cursor is answered without waiting. A page
+     * prefetched more than {@link #PREFETCHED_PAGE_EXPIRY_SECONDS} ago is scanned again.
+     *
+     * @param sid
+     *            subscription id of Redis Cache
+     * @param id
+     *            resource id of Redis Cache
+     * @param db
+     *            index of Redis Cache database
+     * @param cursor
+     *            cursor for Redis Scan command
+     * @param pattern
+     *            pattern for Redis Scan Param
+     * @return Scan Result with the key information
+     * @throws Exception
+     *
+     */
+    public RedisScanResult scanKeyPage(String sid, String id, int db, String cursor, String pattern)
+            throws Exception {
+        RedisScanResult result = null;
+        PrefetchedPage prefetched = prefetchedPages.remove(id);
+        if (prefetched != null && prefetched.isFor(db, cursor, pattern)) {
+            try {
+                result = prefetched.page.get();
+            } catch (ExecutionException e) {
+                // Scan again in the foreground to report the error
+            }
+        } else if (prefetched != null) {
+            prefetched.page.cancel(true);
+        }
+
+        if (result == null) {
+            result = fetchKeyPage(sid, id, db, cursor, pattern);
+        }
+
+        String nextCursor = result.getNextCursor();
+        if (!SCAN_POINTER_START.equals(nextCursor)) {
+            prefetchedPages.put(id, new PrefetchedPage(db, nextCursor, pattern,
+                    prefetchExecutor.submit(() -> fetchKeyPage(sid, id, db, nextCursor, pattern))));
+        }
+
+        return result;
+    }
+
+    private RedisScanResult fetchKeyPage(String sid, String id, int db, String cursor, String pattern)
+            throws Exception {
+        try (Jedis jedis = RedisConnectionPools.getInstance().getJedis(sid, id)) {
+            jedis.select(db);
+            ScanResult<String> scanResult = jedis.scan(cursor,
+                    new ScanParams().match(pattern).count(DEFAULT_KEY_COUNT));
+            return new RedisScanResult(scanResult, getKeyInfos(jedis, scanResult.getResult()));
+        }
+    }
+
+    private static List<RedisKeyInfo> getKeyInfos(Jedis jedis, List<String> keys) {
+        List<RedisKeyInfo> keyInfos = new ArrayList<>(keys.size());
+        if (keys.isEmpty()) {
+            return keyInfos;
+        }
+
+        Pipeline pipeline = jedis.pipelined();
+        List<Response<String>> types = new ArrayList<>(keys.size());
+        List<Response<Long>> ttls = new ArrayList<>(keys.size());
+        List<Response<Object>> memoryUsages = new ArrayList<>(keys.size());
+        for (String key : keys) {
+            types.add(pipeline.type(key));
+            ttls.add(pipeline.ttl(key));
+            memoryUsages.add(pipeline.sendCommand(Protocol.Command.MEMORY, MEMORY_USAGE, key));
+        }
+        pipeline.sync();
+
+        for (int i = 0; i < keys.size(); i++) {
+            String type = getQuietly(types.get(i));
+            Long ttl = getQuietly(ttls.get(i));
+            Object memoryUsage = getQuietly(memoryUsages.get(i));
+            keyInfos.add(new RedisKeyInfo(keys.get(i), type == null ? "" : type.toUpperCase(),
+                    ttl == null ? -1 : ttl, memoryUsage instanceof Long ? (Long) memoryUsage : null));
+        }
+
+        return keyInfos;
+    }
+
+    private static <T> T getQuietly(Response<T> response) {
+        try {
+            return response == null ? null : response.get();
+        } catch (JedisException e) {
+            // Such as MEMORY command isn't supported by the server
+            return null;
+        }
+    }
+
     /**
      * Get the type of the given key.
      *
@@ -235,6 +355,27 @@ public class RedisExplorerMvpModel {
         }
     }
 
+    private static class PrefetchedPage {
+        private final int db;
+        private final String cursor;
+        private final String pattern;
+        private final Future<RedisScanResult> page;
+        private final long prefetchedAt = System.nanoTime();
+
+        PrefetchedPage(int db, String cursor, String pattern, Future<RedisScanResult> page) {
+            this.db = db;
+            this.cursor = cursor;
+            this.pattern = pattern;
+            this.page = page;
+        }
+
+        boolean isFor(int db, String cursor, String pattern) {
+            // An old page may miss the keys changed since, scan it again then
+            return this.db == db && Objects.equals(this.cursor, cursor) && Objects.equals(this.pattern, pattern)
+                    && System.nanoTime() - prefetchedAt < TimeUnit.SECONDS.toNanos(PREFETCHED_PAGE_EXPIRY_SECONDS);
+        }
+    }
+
     private boolean canConnect(Jedis jedis, int index) {
         try {
             jedis.select(index);
@@ -0,0 +1,49 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azuretools.core.mvp.ui.rediscache;
+
+public class RedisKeyInfo {
+
+    private String key;
+    private String type;
+    private long ttl;
+    private Long memoryUsage;
+
+    /**
+     * Constructor for RedisKeyInfo class.
+     *
+     * @param key
+     *            name of the key
+     * @param type
+     *            the Redis Cache's key type, in upper case
+     * @param ttl
+     *            the seconds to live, -1 for the key without expiration
+     * @param memoryUsage
+     *            the bytes the key and its value take, null if the server can't tell
+     */
+    public RedisKeyInfo(String key, String type, long ttl, Long memoryUsage) {
+        this.key = key;
+        this.type = type;
+        this.ttl = ttl;
+        this.memoryUsage = memoryUsage;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public long getTtl() {
+        return ttl;
+    }
+
+    public Long getMemoryUsage() {
+        return memoryUsage;
+    }
+}
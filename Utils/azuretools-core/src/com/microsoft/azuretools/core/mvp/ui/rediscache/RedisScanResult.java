@@ -5,6 +5,7 @@
 
 package com.microsoft.azuretools.core.mvp.ui.rediscache;
 
+import java.util.Collections;
 import java.util.List;
 
 import redis.clients.jedis.ScanResult;
@@ -13,11 +14,17 @@ public class RedisScanResult {
 
     private List<String> keys;
     private String nextCursor;
+    private List<RedisKeyInfo> keyInfos;
 
 
     public RedisScanResult(ScanResult<String> result) {
+        this(result, Collections.emptyList());
+    }
+
+    public RedisScanResult(ScanResult<String> result, List<RedisKeyInfo> keyInfos) {
         this.keys = result.getResult();
         this.nextCursor = result.getCursor();
+        this.keyInfos = keyInfos;
     }
 
     public String getNextCursor() {
@@ -27,4 +34,8 @@ public class RedisScanResult {
     public List<String> getKeys() {
         return keys;
     }
+
+    public List<RedisKeyInfo> getKeyInfos() {
+        return keyInfos;
+    }
 }
@@ -15,11 +15,14 @@ import com.microsoft.azure.toolkit.lib.AzureConfiguration;
 import com.microsoft.azure.toolkit.lib.auth.AzureAccount;
 import com.microsoft.azure.toolkit.lib.common.model.Subscription;
 import com.microsoft.azure.toolkit.lib.common.operation.AzureOperation;
+import com.microsoft.azuretools.adauth.JsonHelper;
 import com.microsoft.azuretools.authmanage.CommonSettings;
 import com.microsoft.azuretools.authmanage.Environment;
+import com.microsoft.azuretools.authmanage.FileStorage;
 import com.microsoft.azuretools.authmanage.RefreshableTokenCredentials;
 import com.microsoft.azuretools.authmanage.SubscriptionManager;
 import com.microsoft.azuretools.authmanage.interact.INotification;
+import com.microsoft.azuretools.authmanage.models.SubscriptionDetail;
 import com.microsoft.azuretools.azurecommons.helpers.Nullable;
 import com.microsoft.azuretools.telemetry.TelemetryInterceptor;
 import com.microsoft.azuretools.utils.AzureRegisterProviderNamespaces;
@@ -29,15 +32,29 @@ import okhttp3.Credentials;
 import okhttp3.internal.http2.Settings;
 import org.apache.commons.lang3.StringUtils;
 
+import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.net.Proxy;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
-import java.util.LinkedList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
@@ -60,10 +77,17 @@ public abstract class AzureManagerBase implements AzureManager {
 
     private static final Logger LOGGER = Logger.getLogger(AzureManagerBase.class.getName());
     private static final String MICROSOFT_INSIGHTS_NAMESPACE = "microsoft.insights";
+    private static final String FILE_NAME_SUBSCRIPTION_TENANTS = "subscriptionTenantsDetails.json";
+    private static final int MAX_TENANT_DISCOVERY_THREADS = 8;
+    private static final long TENANT_DISCOVERY_TIMEOUT_SECONDS = 30;
+    private static final long DISCOVERY_THREAD_KEEP_ALIVE_SECONDS = 60;
+    // Shared by the tenant discoveries and the revalidations, its threads end once idle a while
+    private static final ExecutorService DISCOVERY_EXECUTOR = createDiscoveryExecutor();
 
     protected Map<String, Azure> sidToAzureMap = new ConcurrentHashMap<>();
     protected Map<String, InsightsManager> sidToInsightsManagerMap = new ConcurrentHashMap<>();
     protected final SubscriptionManager subscriptionManager;
+    private final AtomicBoolean isRevalidatingSubscriptions = new AtomicBoolean(false);
     protected static final Settings settings = new Settings();
 
     protected AzureManagerBase() {
@@ -111,31 +135,167 @@ public abstract class AzureManagerBase implements AzureManager {
     @Override
     @AzureOperation(name = "account.list_tenant_subscriptions", type = AzureOperation.Type.SERVICE)
     public List<Pair<Subscription, Tenant>> getSubscriptionsWithTenant() {
-        final List<Pair<Subscription, Tenant>> subscriptions = new LinkedList<>();
+        return discoverSubscriptionsWithTenant(true);
+    }
+
+    private List<Pair<Subscription, Tenant>> discoverSubscriptionsWithTenant(boolean notifyFailedTenants) {
         final Azure.Authenticated authentication = authTenant(getCurrentTenantId());
         // could be multi tenant - return all subscriptions for the current account
         final List<Tenant> tenants = getTenants(authentication);
         final List<String> failedTenantIds = new ArrayList<>();
-        for (final Tenant tenant : tenants) {
+        final List<Pair<Subscription, Tenant>> subscriptions = getSubscriptionsOfTenants(tenants, failedTenantIds);
+        if (!failedTenantIds.isEmpty() && notifyFailedTenants) {
+            final INotification nw = CommonSettings.getUiFactory().getNotificationWindow();
+            nw.deliver("Lack permission for some tenants", "You don't have permission on the tenant(s): " + StringUtils.join(failedTenantIds, ","));
+        }
+
+        saveLastKnownSubscriptionDetails(toSubscriptionDetails(subscriptions));
+        return subscriptions;
+    }
+
+    private List<Pair<Subscription, Tenant>> getSubscriptionsOfTenants(List<Tenant> tenants, List<String> failedTenantIds) {
+        final Map<String, Tenant> tenantsById = tenants.stream()
+            .collect(Collectors.toMap(Tenant::tenantId, tenant -> tenant, (first, second) -> first, LinkedHashMap::new));
+        final Map<String, List<Subscription>> subscriptionsOfTenants = listSubscriptionsOfTenants(
+            new ArrayList<>(tenantsById.keySet()), tenantId -> getSubscriptions(authTenant(tenantId)),
+            TENANT_DISCOVERY_TIMEOUT_SECONDS, TimeUnit.SECONDS, failedTenantIds);
+
+        final List<Pair<Subscription, Tenant>> subscriptions = new ArrayList<>();
+        subscriptionsOfTenants.forEach((tenantId, tenantSubscriptions) -> tenantSubscriptions
+            .forEach(subscription -> subscriptions.add(new Pair<>(subscription, tenantsById.get(tenantId)))));
+        return subscriptions;
+    }
+
+    /**
+     * List the subscriptions of the tenants concurrently, with at most {@link #MAX_TENANT_DISCOVERY_THREADS} tenants
+     * in flight. The results are waited for at most the timeout in all, counted from one deadline for all tenants, then
+     * the tenants not done yet are taken as failed.
+     *
+     * @return the subscriptions by the tenants which succeeded, in the tenants order
+     */
+    static <T> Map<String, List<T>> listSubscriptionsOfTenants(List<String> tenantIds,
+                                                               Function<String, List<T>> listSubscriptions,
+                                                               long timeout, TimeUnit unit,
+                                                               List<String> failedTenantIds) {
+        final Map<String, List<T>> subscriptions = new LinkedHashMap<>();
+        final List<Future<List<T>>> futures = new ArrayList<>();
+        for (final String tenantId : tenantIds) {
+            futures.add(DISCOVERY_EXECUTOR.submit(() -> listSubscriptions.apply(tenantId)));
+        }
+
+        final long deadline = System.nanoTime() + unit.toNanos(timeout);
+        for (int i = 0; i < tenantIds.size(); i++) {
+            final String tenantId = tenantIds.get(i);
+            final Future<List<T>> future = futures.get(i);
             try {
-                final Azure.Authenticated tenantAuthentication = authTenant(tenant.tenantId());
-                final List<Subscription> tenantSubscriptions = getSubscriptions(tenantAuthentication);
-                for (final Subscription subscription : tenantSubscriptions) {
-                    subscriptions.add(new Pair<>(subscription, tenant));
-                }
-            } catch (final Exception e) {
+                final long remaining = Math.max(0, deadline - System.nanoTime());
+                subscriptions.put(tenantId, future.get(remaining, TimeUnit.NANOSECONDS));
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                future.cancel(true);
+                failedTenantIds.add(tenantId);
+            } catch (final ExecutionException | TimeoutException e) {
                 // just skip for cases user failing to get subscriptions of tenants he/she has no permission to get access token.
-                LOGGER.log(Level.WARNING, e.getMessage(), e);
-                failedTenantIds.add(tenant.tenantId());
+                future.cancel(true);
+                LOGGER.log(Level.WARNING, "Failed to get subscriptions of tenant " + tenantId, e);
+                failedTenantIds.add(tenantId);
+            }
+        }
 
+        return subscriptions;
+    }
+
+    /**
+     * Get the subscriptions and tenants found by the last discovery, which are kept across IDE sessions, so they can be
+     * shown before the sign-in is restored. They are for display only, since they may be stale or belong to tenants
+     * which aren't authenticated yet, use {@link IdentityAzureManager#getSubscriptionDetails()} for anything else.
+     *
+     * @return the last known subscriptions, or empty list if there are none
+     */
+    public static List<SubscriptionDetail> getLastKnownSubscriptionDetails() {
+        try {
+            final FileStorage file = new FileStorage(FILE_NAME_SUBSCRIPTION_TENANTS, CommonSettings.getSettingsBaseDir());
+            final String json = new String(file.read(), StandardCharsets.UTF_8);
+            if (StringUtils.isBlank(json)) {
+                return Collections.emptyList();
             }
+            return new ArrayList<>(Arrays.asList(JsonHelper.deserialize(SubscriptionDetail[].class, json)));
+        } catch (final IOException | RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Failed to load the last known subscriptions", e);
+            return Collections.emptyList();
         }
-        if (!failedTenantIds.isEmpty()) {
-            final INotification nw = CommonSettings.getUiFactory().getNotificationWindow();
-            nw.deliver("Lack permission for some tenants", "You don't have permission on the tenant(s): " + StringUtils.join(failedTenantIds, ","));
+    }
+
+    /**
+     * Discover the subscriptions again in background, and notify the subscription listeners if they're different
+     * from the last known ones. It does nothing if a revalidation is running already. The tenants failing here have
+     * been notified to the user already by the sign-in, so they're only logged.
+     */
+    public void revalidateSubscriptionsInBackground() {
+        if (!isSignedIn() || !isRevalidatingSubscriptions.compareAndSet(false, true)) {
+            return;
         }
 
-        return subscriptions;
+        DISCOVERY_EXECUTOR.execute(() -> {
+            try {
+                final List<SubscriptionDetail> lastKnown = getLastKnownSubscriptionDetails();
+                final List<SubscriptionDetail> discovered = toSubscriptionDetails(discoverSubscriptionsWithTenant(false));
+                if (isSubscriptionListChanged(lastKnown, discovered)) {
+                    subscriptionManager.notifySubscriptionListChanged();
+                }
+            } catch (final RuntimeException e) {
+                LOGGER.log(Level.WARNING, "Failed to revalidate the subscriptions", e);
+            } finally {
+                isRevalidatingSubscriptions.set(false);
+            }
+        });
+    }
+
+    private static ExecutorService createDiscoveryExecutor() {
+        final ThreadPoolExecutor executor = new ThreadPoolExecutor(MAX_TENANT_DISCOVERY_THREADS,
+            MAX_TENANT_DISCOVERY_THREADS, DISCOVERY_THREAD_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(), runnable -> {
+                final Thread thread = new Thread(runnable, "azure-subscription-discovery");
+                thread.setDaemon(true);
+                return thread;
+            });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    static void saveLastKnownSubscriptionDetails(List<SubscriptionDetail> subscriptionDetails) {
+        try {
+            final FileStorage file = new FileStorage(FILE_NAME_SUBSCRIPTION_TENANTS, CommonSettings.getSettingsBaseDir());
+            file.write(JsonHelper.serialize(subscriptionDetails).getBytes(StandardCharsets.UTF_8));
+        } catch (final IOException e) {
+            LOGGER.log(Level.WARNING, "Failed to save the last known subscriptions", e);
+        }
+    }
+
+    static void removeLastKnownSubscriptionDetails() {
+        try {
+            new FileStorage(FILE_NAME_SUBSCRIPTION_TENANTS, CommonSettings.getSettingsBaseDir()).removeFile();
+        } catch (final IOException e) {
+            LOGGER.log(Level.WARNING, "Failed to remove the last known subscriptions", e);
+        }
+    }
+
+    private static List<SubscriptionDetail> toSubscriptionDetails(List<Pair<Subscription, Tenant>> subscriptions) {
+        return subscriptions.stream()
+            .map(pair -> new SubscriptionDetail(
+                pair.first().getId(), pair.first().getName(), pair.second().tenantId(), pair.first().isSelected()))
+            .collect(Collectors.toList());
+    }
+
+    static boolean isSubscriptionListChanged(List<SubscriptionDetail> lastKnown, List<SubscriptionDetail> discovered) {
+        return !getSubscriptionKeys(lastKnown).equals(getSubscriptionKeys(discovered));
+    }
+
+    private static Set<String> getSubscriptionKeys(List<SubscriptionDetail> subscriptionDetails) {
+        return subscriptionDetails.stream()
+            .map(detail -> StringUtils.joinWith("/", StringUtils.lowerCase(detail.getTenantId()),
+                StringUtils.lowerCase(detail.getSubscriptionId()), detail.getSubscriptionName(), detail.isSelected()))
+            .collect(Collectors.toSet());
     }
 
     @Override
@@ -201,6 +361,7 @@ public abstract class AzureManagerBase implements AzureManager {
     public void drop() {
         LOGGER.log(Level.INFO, "ServicePrincipalAzureManager.drop()");
         this.subscriptionManager.cleanSubscriptions();
+        removeLastKnownSubscriptionDetails();
     }
 
     protected abstract String getCurrentTenantId();
@@ -223,7 +384,18 @@ public abstract class AzureManagerBase implements AzureManager {
 
     @AzureOperation(name = "account.list_subscriptions.tenant", params = {"authentication.tenantId()"}, type = AzureOperation.Type.TASK)
     private List<Subscription> getSubscriptions(Azure.Authenticated authentication) {
-        return az(AzureAccount.class).account().getSubscriptions();
+        // list the subscriptions the tenant gives access to, as the ones the account has loaded with their selection
+        final Map<String, Subscription> accountSubscriptions = az(AzureAccount.class).account().getSubscriptions().stream()
+            .collect(Collectors.toMap(subscription -> StringUtils.lowerCase(subscription.getId()), subscription -> subscription,
+                (first, second) -> first));
+        return authentication.subscriptions().listAsync()
+            .toList()
+            .toBlocking()
+            .singleOrDefault(Collections.emptyList())
+            .stream()
+            .map(subscription -> accountSubscriptions.get(StringUtils.lowerCase(subscription.subscriptionId())))
+            .filter(Objects::nonNull)
+            .collect(Collectors.toList());
     }
 
     @AzureOperation(name = "account.list_tenants.authorized", type = AzureOperation.Type.TASK)
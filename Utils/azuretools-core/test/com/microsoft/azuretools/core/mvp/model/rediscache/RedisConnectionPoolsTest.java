@@ -51,6 +51,7 @@ public class RedisConnectionPoolsTest {
     private static final String MOCK_REDIS_ID = "test-id";
     private static final String MOCK_RETURN_STRING = "RedisTest";
     private static final int MOCK_PORT = 6380;
+    private static final int MAX_POOLS = 8;
 
     @Before
     public void setUp() throws Exception {
@@ -84,6 +85,38 @@ public class RedisConnectionPoolsTest {
         verify(jedisPoolMock, times(1)).destroy();
     }
 
+    @Test
+    public void testReleaseLeastRecentlyUsedPool() throws Exception {
+        for (int i = 0; i <= MAX_POOLS; i++) {
+            RedisConnectionPools.getInstance().getJedis(MOCK_SUBSCRIPTION, MOCK_REDIS_ID + i);
+        }
+        verify(jedisPoolMock, times(1)).destroy();
+
+        for (int i = 0; i <= MAX_POOLS; i++) {
+            RedisConnectionPools.getInstance().releasePool(MOCK_REDIS_ID + i);
+        }
+        verify(jedisPoolMock, times(MAX_POOLS + 1)).destroy();
+    }
+
+    @Test
+    public void testKeepLeastRecentlyUsedPoolInUse() throws Exception {
+        when(jedisPoolMock.getNumActive()).thenReturn(1);
+        for (int i = 0; i <= MAX_POOLS; i++) {
+            RedisConnectionPools.getInstance().getJedis(MOCK_SUBSCRIPTION, MOCK_REDIS_ID + i);
+        }
+        verify(jedisPoolMock, times(0)).destroy();
+
+        // Evicted once its connections are returned
+        when(jedisPoolMock.getNumActive()).thenReturn(0);
+        RedisConnectionPools.getInstance().getJedis(MOCK_SUBSCRIPTION, MOCK_REDIS_ID + (MAX_POOLS + 1));
+        verify(jedisPoolMock, times(2)).destroy();
+
+        for (int i = 0; i <= MAX_POOLS + 1; i++) {
+            RedisConnectionPools.getInstance().releasePool(MOCK_REDIS_ID + i);
+        }
+        verify(jedisPoolMock, times(MAX_POOLS + 2)).destroy();
+    }
+
     @Test
     public void testReleaseNonExistedJedis() {
         // Just release without getJedis
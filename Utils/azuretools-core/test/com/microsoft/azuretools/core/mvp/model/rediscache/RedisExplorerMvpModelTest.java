@@ -5,11 +5,14 @@
 
 package com.microsoft.azuretools.core.mvp.model.rediscache;
 
+import static org.junit.Assert.assertEquals;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.util.Collections;
+
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -20,8 +23,12 @@ import org.powermock.api.mockito.PowerMockito;
 import org.powermock.core.classloader.annotations.PrepareForTest;
 import org.powermock.modules.junit4.PowerMockRunner;
 
+import com.microsoft.azuretools.core.mvp.ui.rediscache.RedisScanResult;
+
 import redis.clients.jedis.Jedis;
+import redis.clients.jedis.Pipeline;
 import redis.clients.jedis.ScanParams;
+import redis.clients.jedis.ScanResult;
 
 @RunWith(PowerMockRunner.class)
 @PrepareForTest({
@@ -35,6 +42,9 @@ public class RedisExplorerMvpModelTest {
     @Mock
     private Jedis jedisMock;
 
+    @Mock
+    private Pipeline pipelineMock;
+
     private static final String MOCK_SUBSCRIPTION = "00000000-0000-0000-0000-000000000000";
     private static final String MOCK_REDIS_ID = "test-id";
     private static final int MOCK_DB = 0;
@@ -71,6 +81,22 @@ public class RedisExplorerMvpModelTest {
         verify(jedisMock, times(1)).scan(Mockito.eq(MOCK_CURSOR), Mockito.any(ScanParams.class));
     }
 
+    @Test
+    public void testScanKeyPage() throws Exception {
+        when(jedisMock.scan(Mockito.eq(MOCK_CURSOR), Mockito.any(ScanParams.class)))
+                .thenReturn(new ScanResult<String>(MOCK_CURSOR, Collections.singletonList(MOCK_KEY)));
+        when(jedisMock.pipelined()).thenReturn(pipelineMock);
+
+        RedisScanResult result = RedisExplorerMvpModel.getInstance()
+                .scanKeyPage(MOCK_SUBSCRIPTION, MOCK_REDIS_ID, MOCK_DB, MOCK_CURSOR, MOCK_PATTERN);
+        verify(jedisMock, times(1)).select(Mockito.eq(MOCK_DB));
+        verify(pipelineMock, times(1)).type(Mockito.eq(MOCK_KEY));
+        verify(pipelineMock, times(1)).ttl(Mockito.eq(MOCK_KEY));
+        verify(pipelineMock, times(1)).sync();
+        assertEquals(1, result.getKeyInfos().size());
+        assertEquals(MOCK_KEY, result.getKeyInfos().get(0).getKey());
+    }
+
     @Test
     public void testGetKeyType() throws Exception {
         RedisExplorerMvpModel.getInstance().getKeyType(MOCK_SUBSCRIPTION, MOCK_REDIS_ID, MOCK_DB, MOCK_KEY);
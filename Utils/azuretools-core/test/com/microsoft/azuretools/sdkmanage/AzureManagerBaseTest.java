@@ -0,0 +1,164 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azuretools.sdkmanage;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.microsoft.azuretools.authmanage.CommonSettings;
+import com.microsoft.azuretools.authmanage.models.SubscriptionDetail;
+
+public class AzureManagerBaseTest {
+
+    @Rule
+    public TemporaryFolder settingsFolder = new TemporaryFolder();
+
+    private String originalSettingsBaseDir;
+
+    private final CountDownLatch slowTenantLatch = new CountDownLatch(1);
+
+    @Before
+    public void setUp() {
+        originalSettingsBaseDir = CommonSettings.getSettingsBaseDir();
+        CommonSettings.setUpEnvironment(settingsFolder.getRoot().getAbsolutePath());
+    }
+
+    @After
+    public void tearDown() {
+        slowTenantLatch.countDown();
+        if (originalSettingsBaseDir != null) {
+            CommonSettings.setUpEnvironment(originalSettingsBaseDir);
+        }
+    }
+
+    @Test
+    public void testListSubscriptionsOfTenantsInTenantsOrder() {
+        final List<String> failedTenantIds = new ArrayList<>();
+        final Map<String, List<String>> subscriptions = AzureManagerBase.listSubscriptionsOfTenants(
+            Arrays.asList("tenant-b", "tenant-a", "tenant-c"),
+            tenantId -> Arrays.asList(tenantId + "/sub-1", tenantId + "/sub-2"),
+            5, TimeUnit.SECONDS, failedTenantIds);
+
+        assertEquals(Arrays.asList("tenant-b", "tenant-a", "tenant-c"), new ArrayList<>(subscriptions.keySet()));
+        assertEquals(Arrays.asList("tenant-a/sub-1", "tenant-a/sub-2"), subscriptions.get("tenant-a"));
+        assertTrue(failedTenantIds.isEmpty());
+    }
+
+    @Test
+    public void testListSubscriptionsOfTenantsSkipsFailedTenant() {
+        final List<String> failedTenantIds = new ArrayList<>();
+        final Map<String, List<String>> subscriptions = AzureManagerBase.listSubscriptionsOfTenants(
+            Arrays.asList("tenant-a", "tenant-denied", "tenant-c"),
+            tenantId -> {
+                if (tenantId.equals("tenant-denied")) {
+                    throw new IllegalStateException("no permission");
+                }
+                return Collections.singletonList(tenantId + "/sub");
+            },
+            5, TimeUnit.SECONDS, failedTenantIds);
+
+        assertEquals(Arrays.asList("tenant-a", "tenant-c"), new ArrayList<>(subscriptions.keySet()));
+        assertEquals(Collections.singletonList("tenant-denied"), failedTenantIds);
+    }
+
+    @Test
+    public void testListSubscriptionsOfTenantsTimesOutSlowTenant() {
+        final List<String> failedTenantIds = new ArrayList<>();
+        final long start = System.nanoTime();
+        final Map<String, List<String>> subscriptions = AzureManagerBase.listSubscriptionsOfTenants(
+            Arrays.asList("tenant-slow", "tenant-a"),
+            tenantId -> {
+                if (tenantId.equals("tenant-slow")) {
+                    try {
+                        slowTenantLatch.await();
+                    } catch (final InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                return Collections.singletonList(tenantId + "/sub");
+            },
+            200, TimeUnit.MILLISECONDS, failedTenantIds);
+
+        assertTrue(TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start) < 5);
+        assertEquals(Collections.singletonList("tenant-a"), new ArrayList<>(subscriptions.keySet()));
+        assertEquals(Collections.singletonList("tenant-slow"), failedTenantIds);
+    }
+
+    @Test
+    public void testListSubscriptionsOfTenantsWaitsOneTimeoutForAllSlowTenants() {
+        final List<String> failedTenantIds = new ArrayList<>();
+        final long start = System.nanoTime();
+        final Map<String, List<String>> subscriptions = AzureManagerBase.listSubscriptionsOfTenants(
+            Arrays.asList("tenant-slow-1", "tenant-slow-2", "tenant-slow-3", "tenant-a"),
+            tenantId -> {
+                if (tenantId.startsWith("tenant-slow")) {
+                    try {
+                        slowTenantLatch.await();
+                    } catch (final InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                return Collections.singletonList(tenantId + "/sub");
+            },
+            500, TimeUnit.MILLISECONDS, failedTenantIds);
+
+        // Waited for each slow tenant in turn, it would take 1500 ms at least
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 1000);
+        assertEquals(Collections.singletonList("tenant-a"), new ArrayList<>(subscriptions.keySet()));
+        assertEquals(Arrays.asList("tenant-slow-1", "tenant-slow-2", "tenant-slow-3"), failedTenantIds);
+    }
+
+    @Test
+    public void testLastKnownSubscriptionsPersisted() {
+        final List<SubscriptionDetail> details = Arrays.asList(
+            new SubscriptionDetail("sub-1", "Subscription 1", "tenant-a", true),
+            new SubscriptionDetail("sub-2", "Subscription 2", "tenant-b", false));
+        AzureManagerBase.saveLastKnownSubscriptionDetails(details);
+
+        final List<SubscriptionDetail> loaded = AzureManagerBase.getLastKnownSubscriptionDetails();
+        assertEquals(2, loaded.size());
+        assertEquals("sub-1", loaded.get(0).getSubscriptionId());
+        assertEquals("Subscription 1", loaded.get(0).getSubscriptionName());
+        assertEquals("tenant-a", loaded.get(0).getTenantId());
+        assertTrue(loaded.get(0).isSelected());
+        assertFalse(loaded.get(1).isSelected());
+        assertFalse(AzureManagerBase.isSubscriptionListChanged(details, loaded));
+
+        AzureManagerBase.removeLastKnownSubscriptionDetails();
+        assertTrue(AzureManagerBase.getLastKnownSubscriptionDetails().isEmpty());
+    }
+
+    @Test
+    public void testSubscriptionListChanged() {
+        final List<SubscriptionDetail> lastKnown = Arrays.asList(
+            new SubscriptionDetail("SUB-1", "Subscription 1", "TENANT-A", true),
+            new SubscriptionDetail("sub-2", "Subscription 2", "tenant-b", false));
+
+        assertFalse(AzureManagerBase.isSubscriptionListChanged(lastKnown, Arrays.asList(
+            new SubscriptionDetail("sub-2", "Subscription 2", "tenant-b", false),
+            new SubscriptionDetail("sub-1", "Subscription 1", "tenant-a", true))));
+        assertTrue(AzureManagerBase.isSubscriptionListChanged(lastKnown, Arrays.asList(
+            new SubscriptionDetail("sub-1", "Subscription 1", "tenant-a", true),
+            new SubscriptionDetail("sub-2", "Subscription 2", "tenant-b", true))));
+        assertTrue(AzureManagerBase.isSubscriptionListChanged(lastKnown, Collections.singletonList(
+            new SubscriptionDetail("sub-1", "Subscription 1", "tenant-a", true))));
+    }
+}
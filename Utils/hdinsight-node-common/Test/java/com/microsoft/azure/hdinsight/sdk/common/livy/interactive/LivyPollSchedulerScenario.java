@@ -0,0 +1,193 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.hdinsight.sdk.common.livy.interactive;
+
+import com.github.tomakehurst.wiremock.client.WireMock;
+import com.github.tomakehurst.wiremock.stubbing.Scenario;
+import com.github.tomakehurst.wiremock.stubbing.ServeEvent;
+import com.microsoft.azure.hdinsight.spark.common.MockHttpService;
+import cucumber.api.java.After;
+import cucumber.api.java.Before;
+import cucumber.api.java.en.Given;
+import cucumber.api.java.en.Then;
+import cucumber.api.java.en.When;
+import rx.Subscription;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class LivyPollSchedulerScenario {
+    private static final String SESSION_RESPONSE =
+            "{\"id\":%d,\"appId\":null,\"owner\":null,\"proxyUser\":null,\"state\":\"%s\",\"kind\":\"spark\"," +
+            "\"appInfo\":{\"driverLogUrl\":null,\"sparkUiUrl\":null},\"log\":[]}";
+
+    private MockHttpService httpServerMock;
+    private Session session;
+    private long pollsIssuedBefore;
+    private long pollsSavedBefore;
+    private final Map<Integer, List<Object>> statementPolls = new ConcurrentHashMap<>();
+    private final List<Subscription> statementWaits = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        httpServerMock = new MockHttpService();
+    }
+
+    @After
+    public void cleanUp() {
+        statementWaits.forEach(Subscription::unsubscribe);
+        httpServerMock.getLivyServerMock().stop();
+    }
+
+    @Given("^a livy session (\\d+) whose state polls return '(.+)' in turn$")
+    public void mockSessionStates(int sessionId, String states) {
+        createSession(sessionId);
+
+        // Go through the states with the polls, the last state is returned for all polls after
+        final String[] turns = states.split(",");
+        for (int i = 0; i < turns.length; i++) {
+            final String turn = i == 0 ? Scenario.STARTED : "poll " + i;
+            httpServerMock.getLivyServerMock().stubFor(WireMock.get(WireMock.urlEqualTo("/sessions/" + sessionId))
+                    .inScenario("session state")
+                    .whenScenarioStateIs(turn)
+                    .willSetStateTo(i == turns.length - 1 ? turn : "poll " + (i + 1))
+                    .willReturn(WireMock.aResponse()
+                            .withStatus(200)
+                            .withBody(String.format(SESSION_RESPONSE, sessionId, turns[i].trim()))));
+        }
+    }
+
+    @Given("^a livy session (\\d+) whose statements polled from (\\d+) are:$")
+    public void mockStatements(int sessionId, int from, List<Map<String, String>> statements) {
+        createSession(sessionId);
+
+        httpServerMock.getLivyServerMock().stubFor(WireMock.get(WireMock.urlEqualTo(
+                String.format("/sessions/%d/statements?from=%d", sessionId, from)))
+                .willReturn(WireMock.aResponse()
+                        .withStatus(200)
+                        .withBody(statements.stream()
+                                .map(statement -> String.format("{\"id\":%s,\"state\":\"%s\",\"output\":null}",
+                                                                statement.get("id"), statement.get("state")))
+                                .collect(Collectors.joining(",", "{\"statements\":[", "]}")))));
+    }
+
+    @When("^poll the livy session state for (\\d+) ms$")
+    public void pollSessionState(long millis) throws InterruptedException {
+        final Subscription poll = session.getPollScheduler()
+                .poll(session.get(), Session::getLastState, null)
+                .subscribe(any -> {}, err -> {});
+
+        Thread.sleep(millis);
+        poll.unsubscribe();
+    }
+
+    @When("^wait for the statement (\\d+) of the livy session$")
+    public void waitForStatement(int statementId) {
+        final List<Object> polls = statementPolls.computeIfAbsent(statementId, id -> new CopyOnWriteArrayList<>());
+
+        statementWaits.add(session.getPollScheduler()
+                .pollStatement(session, statementId)
+                .subscribe(polls::add, err -> {}));
+    }
+
+    @When("^wait (\\d+) ms$")
+    public void waitFor(long millis) throws InterruptedException {
+        Thread.sleep(millis);
+    }
+
+    @When("^end all statement waits$")
+    public void endStatementWaits() {
+        statementWaits.forEach(Subscription::unsubscribe);
+        statementWaits.clear();
+    }
+
+    @Then("^the intervals between the state polls should grow until the state changes at the poll (\\d+) and start over after it$")
+    public void checkBackoff(int changedPoll) {
+        final List<Long> polledAt = getServeEvents("/sessions/" + session.getId()).stream()
+                .map(event -> event.getRequest().getLoggedDate().getTime())
+                .sorted()
+                .collect(Collectors.toList());
+        assertThat(polledAt.size()).isGreaterThan(changedPoll);
+
+        final List<Long> intervals = new ArrayList<>();
+        for (int i = 1; i < polledAt.size(); i++) {
+            intervals.add(polledAt.get(i) - polledAt.get(i - 1));
+        }
+
+        // The intervals are doubled with at most 20% jitter, the poll after the changed state is delayed as the first
+        for (int i = 1; i < changedPoll - 1; i++) {
+            assertThat(intervals.get(i)).as("interval %d of %s", i, intervals).isGreaterThan(intervals.get(i - 1));
+        }
+        final long afterChanged = intervals.get(changedPoll - 1);
+        assertThat(afterChanged).as("interval after the change of %s", intervals)
+                .isLessThan(intervals.get(changedPoll - 2))
+                .isLessThanOrEqualTo(intervals.get(0) * 2);
+    }
+
+    @Then("^the statements of the livy session should be polled (\\d+) times?$")
+    public void checkStatementsPolled(int times) throws InterruptedException {
+        final String url = "/sessions/" + session.getId() + "/statements";
+
+        // The polls are sent on the timer threads, give the one just due some time to arrive
+        final long deadline = System.currentTimeMillis() + 200;
+        while (getServeEvents(url).size() < times && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+
+        assertThat(getServeEvents(url)).hasSize(times);
+        httpServerMock.getLivyServerMock().verify(times, WireMock.getRequestedFor(WireMock.urlEqualTo(url + "?from=0")));
+    }
+
+    @Then("^the wait for the statement (\\d+) should get (\\d+) polls?$")
+    public void checkStatementPolls(int statementId, int times) {
+        assertThat(statementPolls.get(statementId)).hasSize(times);
+    }
+
+    @Then("^the poll scheduler should count (\\d+) polls issued and (\\d+) polls saved$")
+    public void checkPollCounters(long issued, long saved) {
+        final LivyPollScheduler scheduler = session.getPollScheduler();
+
+        assertThat(scheduler.getPollsIssued() - pollsIssuedBefore).isEqualTo(issued);
+        assertThat(scheduler.getPollsIssued() - pollsIssuedBefore)
+                .isEqualTo(httpServerMock.getLivyServerMock().getAllServeEvents().size());
+        assertThat(scheduler.getPollsSaved() - pollsSavedBefore).isEqualTo(saved);
+    }
+
+    @Then("^the poll scheduler should count (\\d+) polls issued$")
+    public void checkPollsIssued(long issued) {
+        assertThat(session.getPollScheduler().getPollsIssued() - pollsIssuedBefore).isEqualTo(issued);
+        assertThat(session.getPollScheduler().getPollsIssued() - pollsIssuedBefore)
+                .isEqualTo(httpServerMock.getLivyServerMock().getAllServeEvents().size());
+    }
+
+    private void createSession(int sessionId) {
+        if (session != null) {
+            return;
+        }
+
+        session = new SparkSession("testPollScheduler", URI.create(httpServerMock.completeUrl("/")));
+        session.setId(sessionId);
+
+        // The schedulers are kept by the URL, which a mock server of a former scenario could have had
+        pollsIssuedBefore = session.getPollScheduler().getPollsIssued();
+        pollsSavedBefore = session.getPollScheduler().getPollsSaved();
+    }
+
+    private List<ServeEvent> getServeEvents(String urlPath) {
+        return httpServerMock.getLivyServerMock().getAllServeEvents().stream()
+                .filter(event -> event.getRequest().getUrl().split("\\?")[0].equals(urlPath))
+                .sorted(Comparator.comparing(event -> event.getRequest().getLoggedDate()))
+                .collect(Collectors.toList());
+    }
+}
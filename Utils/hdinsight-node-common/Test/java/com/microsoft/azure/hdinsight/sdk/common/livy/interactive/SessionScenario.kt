@@ -25,6 +25,7 @@ package com.microsoft.azure.hdinsight.sdk.common.livy.interactive
 import com.github.tomakehurst.wiremock.client.WireMock
 import com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo
 import com.microsoft.azure.hdinsight.sdk.common.errorresponse.BadRequestHttpErrorStatus
+import com.microsoft.azure.hdinsight.sdk.io.spark.ClusterFileChunkedOutputStream
 import com.microsoft.azure.hdinsight.spark.common.MockHttpService
 import cucumber.api.java.Before
 import cucumber.api.java.en.And
@@ -32,6 +33,7 @@ import cucumber.api.java.en.Given
 import cucumber.api.java.en.Then
 import org.assertj.core.api.Assertions.assertThat
 import rx.subjects.PublishSubject
+import java.io.IOException
 import java.net.URI
 import kotlin.test.fail
 
@@ -41,6 +43,7 @@ class SessionScenario {
     var code: String = ""
     var result: Map<String, String>? = null
     var userAgent: String? = null
+    var uploadError: IOException? = null
 
     @Before
     fun setUp() {
@@ -107,6 +110,12 @@ class SessionScenario {
         WireMock.verify(WireMock.deleteRequestedFor(urlEqualTo(urlExpect)))
     }
 
+    @Then("^check the get operation request sent to '(.*)' when waiting for the statement$")
+    fun checkStatementsPolled(urlExpect: String) {
+        WireMock.verify(WireMock.getRequestedFor(urlEqualTo(urlExpect)))
+        assertThat(sessionMock!!.pollScheduler.pollsIssued).isGreaterThan(0)
+    }
+
     @And("^run the following codes in livy Spark interactive session$")
     fun prepareStatementCode(codes: List<String>) {
         code = codes.joinToString("\n")
@@ -122,6 +131,31 @@ class SessionScenario {
                 .containsExactlyElementsOf(outputExpect)
     }
 
+    @And("^upload the bytes '(.*)' to '(.+)' through the livy Spark interactive session$")
+    fun uploadThroughSession(content: String, destination: String) {
+        uploadError = try {
+            ClusterFileChunkedOutputStream(sessionMock!!, URI.create(destination)).use {
+                it.write(content.toByteArray())
+            }
+
+            null
+        } catch (err: IOException) {
+            err
+        }
+    }
+
+    @Then("^check the upload through the livy Spark interactive session should succeed$")
+    fun checkUploadSucceeded() {
+        assertThat(uploadError).isNull()
+    }
+
+    @Then("^check the upload through the livy Spark interactive session should fail after the page is sent (\\d+) times$")
+    fun checkUploadFailed(timesExpect: Int) {
+        assertThat(uploadError).isNotNull()
+        WireMock.verify(timesExpect, WireMock.postRequestedFor(urlEqualTo("/sessions/6/statements"))
+                .withRequestBody(WireMock.containing("writePage(")))
+    }
+
     @Then("^those request headers UA fields are different$")
     fun checkHeaderUaBeDifferent() {
         val uas = httpServerMock!!.livyServerMock.allServeEvents
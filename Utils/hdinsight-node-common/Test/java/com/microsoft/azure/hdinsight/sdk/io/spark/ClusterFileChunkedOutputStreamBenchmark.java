@@ -0,0 +1,271 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.hdinsight.sdk.io.spark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.client.ResponseDefinitionBuilder;
+import com.github.tomakehurst.wiremock.client.WireMock;
+import com.github.tomakehurst.wiremock.common.FileSource;
+import com.github.tomakehurst.wiremock.extension.Parameters;
+import com.github.tomakehurst.wiremock.extension.ResponseDefinitionTransformer;
+import com.github.tomakehurst.wiremock.http.Request;
+import com.github.tomakehurst.wiremock.http.RequestMethod;
+import com.github.tomakehurst.wiremock.http.ResponseDefinition;
+import com.microsoft.azure.hdinsight.sdk.common.livy.interactive.Session;
+import com.microsoft.azure.hdinsight.sdk.common.livy.interactive.SparkSession;
+import org.apache.commons.codec.binary.Base64;
+import org.apache.commons.codec.binary.Base64OutputStream;
+import org.apache.commons.codec.binary.Hex;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.wireMockConfig;
+
+/**
+ * Compare the upload throughput of ClusterFileChunkedOutputStream with ClusterFileBase64BufferedOutputStream, which
+ * waits for each 32KB page, against a WireMock fake of Livy. It serves the session stubs of SessionScenario.feature,
+ * and runs the posted statements one by one in the submitting order, as Livy does. Each statement takes
+ * {@link #STATEMENT_OVERHEAD_MS} plus the time to write its bytes at {@link #CLUSTER_WRITE_BYTES_PER_MS}. The fake
+ * keeps the written offset and MD5 checksum, so the pages and the verification at closing are checked for real.
+ *
+ * Run it with the main method, the upload size in MB can be given as the first argument. Like JMH, each stream is run
+ * for some warm-up iterations before the measured ones. The statements polls go through the real poll scheduler, so
+ * the results include its backoff delays.
+ */
+public class ClusterFileChunkedOutputStreamBenchmark {
+    private static final int WARM_UP_ITERATIONS = 1;
+    private static final int MEASURED_ITERATIONS = 3;
+    private static final long STATEMENT_OVERHEAD_MS = 50;
+    private static final long CLUSTER_WRITE_BYTES_PER_MS = 20 * 1024;      // 20MB/s
+    private static final String DESTINATION = "/tmp/upload.jar";
+
+    private static final String SESSION_CREATED_RESPONSE = "{\"id\":6,\"appId\":null,\"owner\":null,\"proxyUser\":null,"
+            + "\"state\":\"starting\",\"kind\":\"spark\",\"appInfo\":{\"driverLogUrl\":null,\"sparkUiUrl\":null},\"log\":[]}";
+    private static final String SESSION_IDLE_RESPONSE = "{\"id\":6,\"appId\":\"application_1517029729598_0086\","
+            + "\"owner\":null,\"proxyUser\":null,\"state\":\"idle\",\"kind\":\"spark\","
+            + "\"appInfo\":{\"driverLogUrl\":null,\"sparkUiUrl\":null},\"log\":[]}";
+
+    private interface Uploader {
+        OutputStream open(Session session) throws IOException;
+    }
+
+    public static void main(String[] args) throws Exception {
+        final int sizeMB = args.length > 0 ? Integer.parseInt(args[0]) : 2;
+        final byte[] content = new byte[sizeMB * 1024 * 1024];
+        new Random(0).nextBytes(content);
+
+        final FakeLivyStatements statements = new FakeLivyStatements();
+        final WireMockServer livyServer = new WireMockServer(wireMockConfig().dynamicPort().extensions(statements));
+        livyServer.start();
+        try {
+            livyServer.stubFor(WireMock.post(WireMock.urlEqualTo("/sessions"))
+                    .willReturn(WireMock.aResponse().withStatus(200).withBody(SESSION_CREATED_RESPONSE)));
+            livyServer.stubFor(WireMock.get(WireMock.urlEqualTo("/sessions/6"))
+                    .willReturn(WireMock.aResponse().withStatus(200).withBody(SESSION_IDLE_RESPONSE)));
+            livyServer.stubFor(WireMock.delete(WireMock.urlEqualTo("/sessions/6"))
+                    .willReturn(WireMock.aResponse().withStatus(200).withBody("{}")));
+            livyServer.stubFor(WireMock.any(WireMock.urlPathEqualTo("/sessions/6/statements"))
+                    .willReturn(WireMock.aResponse().withTransformers(FakeLivyStatements.NAME)));
+
+            final URI livyUri = URI.create("http://localhost:" + livyServer.port() + "/");
+            System.out.printf("Upload: %d MB, statement overhead %d ms, cluster write %d KB/ms%n",
+                    sizeMB, STATEMENT_OVERHEAD_MS, CLUSTER_WRITE_BYTES_PER_MS / 1024);
+
+            // Encoded into the Base64 codes for the base64 stream, as JobUtils did before
+            run("base64 32KB pages", livyUri, statements, content, session -> new Base64OutputStream(
+                    new ClusterFileBase64BufferedOutputStream(session, URI.create(DESTINATION)), true));
+            run("chunked pipelined pages", livyUri, statements, content,
+                    session -> new ClusterFileChunkedOutputStream(session, URI.create(DESTINATION)));
+        } finally {
+            livyServer.stop();
+        }
+    }
+
+    private static void run(String name,
+                            URI livyUri,
+                            FakeLivyStatements statements,
+                            byte[] content,
+                            Uploader uploader) throws IOException {
+        for (int i = 0; i < WARM_UP_ITERATIONS; i++) {
+            upload(livyUri, content, uploader);
+        }
+
+        long totalNanos = 0;
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            final long start = System.nanoTime();
+            upload(livyUri, content, uploader);
+            final long nanos = System.nanoTime() - start;
+            totalNanos += nanos;
+
+            if (statements.getWritten() != content.length) {
+                throw new IllegalStateException(String.format("%s wrote %d bytes of %d",
+                        name, statements.getWritten(), content.length));
+            }
+
+            System.out.printf("%s iteration %d: %d ms, %.2f MB/s, %d statements%n",
+                    name, i, nanos / 1_000_000, content.length / 1024.0 / 1024.0 / (nanos / 1e9),
+                    statements.getStatementCount());
+        }
+
+        System.out.printf("%s: %.2f MB/s%n",
+                name, content.length / 1024.0 / 1024.0 * MEASURED_ITERATIONS / (totalNanos / 1e9));
+    }
+
+    private static void upload(URI livyUri, byte[] content, Uploader uploader) throws IOException {
+        // The base64 stream kills the session at closing, so each upload gets a new one
+        final Session session = new SparkSession("benchmarkUpload", livyUri).create().toBlocking().single();
+
+        try (OutputStream out = uploader.open(session)) {
+            out.write(content);
+        }
+    }
+
+    /**
+     * The statements of the fake Livy session. The codes of both upload streams are interpreted, the statement is
+     * available once the statements before it are done and its own run time is passed.
+     */
+    private static class FakeLivyStatements extends ResponseDefinitionTransformer {
+        static final String NAME = "fake-livy-statements";
+
+        private static final Pattern PAGE_OFFSET_PATTERN = Pattern.compile("^writePage\\((\\d+)L,");
+        private static final Pattern LITERAL_PATTERN = Pattern.compile("\"([A-Za-z0-9+/=]*)\"");
+
+        private final ObjectMapper mapper = new ObjectMapper();
+        private final List<Long> availableAtMs = new ArrayList<>();
+        private final List<String> outputs = new ArrayList<>();
+        private MessageDigest digest;
+        private long written;
+
+        @Override
+        public String getName() {
+            return NAME;
+        }
+
+        @Override
+        public boolean applyGlobally() {
+            return false;
+        }
+
+        synchronized long getWritten() {
+            return written;
+        }
+
+        synchronized int getStatementCount() {
+            return outputs.size();
+        }
+
+        @Override
+        public synchronized ResponseDefinition transform(Request request,
+                                                         ResponseDefinition responseDefinition,
+                                                         FileSource files,
+                                                         Parameters parameters) {
+            try {
+                return request.getMethod() == RequestMethod.POST ? submit(request) : poll(request);
+            } catch (IOException e) {
+                return new ResponseDefinitionBuilder().withStatus(500).withBody(e.getMessage()).build();
+            }
+        }
+
+        private ResponseDefinition submit(Request request) throws IOException {
+            final String codes = mapper.readTree(request.getBodyAsString()).get("code").asText();
+            long bytes = 0;
+            final String output;
+
+            if (codes.contains("def writePage(")) {
+                reset();
+                output = "";
+            } else if (codes.startsWith("writePage(")) {
+                final StringBuilder encoded = new StringBuilder();
+                final Matcher literal = LITERAL_PATTERN.matcher(codes);
+                while (literal.find()) {
+                    encoded.append(literal.group(1));
+                }
+
+                final Matcher offset = PAGE_OFFSET_PATTERN.matcher(codes);
+                if (!offset.find() || Long.parseLong(offset.group(1)) == written) {
+                    final byte[] page = Base64.decodeBase64(encoded.toString());
+                    digest.update(page);
+                    written += page.length;
+                    bytes = page.length;
+                }
+                output = "written=" + written;
+            } else if (codes.equals("uploadState()")) {
+                output = "written=" + written;
+            } else if (codes.equals("finishUpload()")) {
+                output = "written=" + written + ",md5=" + Hex.encodeHexString(digest.digest());
+            } else {
+                output = "";
+            }
+
+            // Run one by one in the submitting order
+            final long now = System.currentTimeMillis();
+            final long lastAvailableAtMs = availableAtMs.isEmpty() ? now : availableAtMs.get(availableAtMs.size() - 1);
+            availableAtMs.add(Math.max(now, lastAvailableAtMs) + STATEMENT_OVERHEAD_MS + bytes / CLUSTER_WRITE_BYTES_PER_MS);
+            outputs.add(output);
+
+            return new ResponseDefinitionBuilder()
+                    .withStatus(200)
+                    .withBody(String.format("{\"id\":%d,\"state\":\"waiting\",\"output\":null}", outputs.size() - 1))
+                    .build();
+        }
+
+        private ResponseDefinition poll(Request request) throws IOException {
+            final String from = request.queryParameter("from").isPresent()
+                                ? request.queryParameter("from").firstValue()
+                                : "0";
+            final long now = System.currentTimeMillis();
+            final List<Object> statements = new ArrayList<>();
+
+            for (int id = Integer.parseInt(from); id < outputs.size(); id++) {
+                final boolean isAvailable = now >= availableAtMs.get(id);
+                final Map<String, Object> statement = new LinkedHashMap<>();
+                statement.put("id", id);
+                statement.put("state", isAvailable ? "available" : "running");
+
+                if (isAvailable) {
+                    final Map<String, Object> output = new LinkedHashMap<>();
+                    output.put("status", "ok");
+                    output.put("execution_count", id);
+                    output.put("data", Collections.singletonMap("text/plain", outputs.get(id)));
+                    statement.put("output", output);
+                } else {
+                    statement.put("output", null);
+                }
+
+                statements.add(statement);
+            }
+
+            return new ResponseDefinitionBuilder()
+                    .withStatus(200)
+                    .withBody(mapper.writeValueAsString(Collections.singletonMap("statements", statements)))
+                    .build();
+        }
+
+        private void reset() {
+            try {
+                digest = MessageDigest.getInstance("MD5");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+            written = 0;
+            availableAtMs.clear();
+            outputs.clear();
+        }
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.hdinsight.sdk.rest;
+
+import com.microsoft.azure.hdinsight.common.StreamUtil;
+import com.microsoft.azure.hdinsight.sdk.rest.spark.task.Task;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Compare decoding a Spark task list response of 50k tasks by default, read into a String and then parsed as a
+ * whole, with parsing its elements one by one from the response stream.
+ *
+ * Run it with the main method, the task count can be given as the first argument. Like JMH, each path is run for
+ * some warm-up iterations before the measured ones, and the tasks decoded are counted to avoid dead codes. The bytes
+ * allocated by each path are measured on the running thread.
+ */
+public class ObjectConvertUtilsBenchmark {
+    private static final int WARM_UP_ITERATIONS = 3;
+    private static final int MEASURED_ITERATIONS = 10;
+
+    private interface Decoder {
+        long decode(byte[] response) throws IOException;
+    }
+
+    public static void main(String[] args) throws IOException {
+        final int taskCount = args.length > 0 ? Integer.parseInt(args[0]) : 50000;
+        final byte[] response = generateTaskList(taskCount);
+        System.out.printf("Task list response: %d tasks, %.1f MB%n", taskCount, response.length / 1024.0 / 1024.0);
+
+        run("string", response, ObjectConvertUtilsBenchmark::decodeAsString);
+        run("stream", response, ObjectConvertUtilsBenchmark::decodeAsStream);
+    }
+
+    private static byte[] generateTaskList(int taskCount) {
+        final StringBuilder body = new StringBuilder("[");
+        for (int i = 0; i < taskCount; i++) {
+            body.append(i == 0 ? "" : ",")
+                .append(String.format("{\"taskId\":\"%d\",\"index\":\"%d\",\"attempt\":\"0\","
+                                + "\"launchTime\":\"2021-03-01T12:00:%02d.000GMT\",\"executorId\":\"%d\","
+                                + "\"host\":\"wn%d-spark.internal.cloudapp.net\",\"taskLocality\":\"PROCESS_LOCAL\","
+                                + "\"speculative\":\"false\",\"accumulatorUpdates\":[],"
+                                + "\"taskMetrics\":{\"executorDeserializeTime\":%d,\"executorRunTime\":%d,"
+                                + "\"resultSize\":%d,\"jvmGcTime\":%d,\"resultSerializationTime\":0,"
+                                + "\"memoryBytesSpilled\":0,\"diskBytesSpilled\":0}}",
+                        i, i, i % 60, i % 16, i % 8, i % 100, i % 5000, 1000 + i % 1000, i % 50));
+        }
+
+        return body.append("]").toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Read the whole response into a String and then parse it, as the responses were decoded before
+     */
+    private static long decodeAsString(byte[] response) throws IOException {
+        final String body = StreamUtil.getResultFromInputStream(new ByteArrayInputStream(response));
+        final List<Task> tasks = ObjectConvertUtils.convertJsonToList(body, Task.class).orElseThrow(IllegalStateException::new);
+
+        return tasks.size();
+    }
+
+    /**
+     * Parse the tasks one by one from the response stream
+     */
+    private static long decodeAsStream(byte[] response) {
+        final long[] count = { 0 };
+        ObjectConvertUtils.convertJsonStreamToObservable(new ByteArrayInputStream(response), Task.class)
+                          .toBlocking()
+                          .forEach(task -> count[0]++);
+
+        return count[0];
+    }
+
+    private static void run(String name, byte[] response, Decoder decoder) throws IOException {
+        for (int i = 0; i < WARM_UP_ITERATIONS; i++) {
+            decoder.decode(response);
+        }
+
+        final com.sun.management.ThreadMXBean threadMXBean =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        final long threadId = Thread.currentThread().getId();
+
+        long totalNanos = 0;
+        long totalAllocated = 0;
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            final long allocatedBefore = threadMXBean.getThreadAllocatedBytes(threadId);
+            final long start = System.nanoTime();
+            final long decoded = decoder.decode(response);
+            final long nanos = System.nanoTime() - start;
+            final long allocated = threadMXBean.getThreadAllocatedBytes(threadId) - allocatedBefore;
+            totalNanos += nanos;
+            totalAllocated += allocated;
+
+            System.out.printf("%s iteration %d: %d ms, %.1f MB allocated, %d tasks decoded%n",
+                    name, i, nanos / 1_000_000, allocated / 1024.0 / 1024.0, decoded);
+        }
+
+        System.out.printf("%s: %.1f ms/op, %.1f MB allocated/op%n",
+                name, totalNanos / 1e6 / MEASURED_ITERATIONS, totalAllocated / 1024.0 / 1024.0 / MEASURED_ITERATIONS);
+    }
+}
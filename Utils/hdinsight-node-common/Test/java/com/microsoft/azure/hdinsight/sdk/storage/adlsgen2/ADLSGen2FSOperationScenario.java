@@ -0,0 +1,243 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.hdinsight.sdk.storage.adlsgen2;
+
+import com.github.tomakehurst.wiremock.client.MappingBuilder;
+import com.github.tomakehurst.wiremock.http.HttpHeader;
+import com.github.tomakehurst.wiremock.stubbing.Scenario;
+import com.github.tomakehurst.wiremock.verification.LoggedRequest;
+import com.microsoft.azure.hdinsight.sdk.common.SharedKeyHttpObservable;
+import com.microsoft.azure.hdinsight.sdk.common.errorresponse.HttpErrorStatus;
+import com.microsoft.azure.hdinsight.spark.common.MockHttpService;
+import cucumber.api.java.After;
+import cucumber.api.java.Before;
+import cucumber.api.java.en.Given;
+import cucumber.api.java.en.Then;
+import org.apache.http.NameValuePair;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.client.utils.URLEncodedUtils;
+import org.apache.http.message.BasicHeader;
+import org.apache.http.message.HeaderGroup;
+
+import java.io.File;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.equalTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.patch;
+import static com.github.tomakehurst.wiremock.client.WireMock.patchRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathMatching;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ADLSGen2FSOperationScenario {
+    private static final String ACCOUNT_KEY =
+            Base64.getEncoder().encodeToString("mock account key".getBytes(StandardCharsets.UTF_8));
+
+    private MockHttpService httpServerMock;
+    private String accountName;
+    private ADLSGen2FSOperation operation;
+    private File localFile;
+    private byte[] localContent;
+
+    @Before
+    public void setUp() {
+        httpServerMock = new MockHttpService();
+    }
+
+    @After
+    public void cleanUp() {
+        httpServerMock.getLivyServerMock().stop();
+
+        if (localFile != null) {
+            localFile.delete();
+        }
+    }
+
+    @Given("^an ADLS Gen2 account '(.+)' accessed with its shared key$")
+    public void createOperation(String accountName) {
+        this.accountName = accountName;
+        this.operation = new ADLSGen2FSOperation(new SharedKeyHttpObservable(accountName, ACCOUNT_KEY));
+    }
+
+    @Given("^a local file of (\\d+) bytes to upload to ADLS Gen2$")
+    public void createLocalFile(int size) throws Throwable {
+        localContent = new byte[size];
+        new Random(size).nextBytes(localContent);
+
+        localFile = File.createTempFile("adlsgen2-upload", ".jar");
+        Files.write(localFile.toPath(), localContent);
+    }
+
+    @Given("^the ADLS Gen2 append at position (\\d+) responds (\\d+) after (\\d+) ms$")
+    public void mockDelayedAppend(long position, int statusCode, int delayMs) {
+        httpServerMock.getLivyServerMock().stubFor(appendAt(position)
+                .atPriority(1)
+                .willReturn(aResponse().withStatus(statusCode).withFixedDelay(delayMs)));
+    }
+
+    @Given("^the ADLS Gen2 append at position (\\d+) responds (\\d+) once and then (\\d+)$")
+    public void mockFailedAppendOnce(long position, int failedStatusCode, int statusCode) {
+        final String scenario = "append at " + position;
+
+        httpServerMock.getLivyServerMock().stubFor(appendAt(position)
+                .atPriority(1)
+                .inScenario(scenario)
+                .whenScenarioStateIs(Scenario.STARTED)
+                .willSetStateTo("failed")
+                .willReturn(aResponse().withStatus(failedStatusCode)
+                                       .withBody("{\"error\":{\"code\":\"Mock\",\"message\":\"mock error\"}}")));
+        httpServerMock.getLivyServerMock().stubFor(appendAt(position)
+                .atPriority(1)
+                .inScenario(scenario)
+                .whenScenarioStateIs("failed")
+                .willReturn(aResponse().withStatus(statusCode)));
+    }
+
+    @Given("^the ADLS Gen2 appends at the other positions respond (\\d+)$")
+    public void mockOtherAppends(int statusCode) {
+        httpServerMock.getLivyServerMock().stubFor(patch(urlPathMatching("/.*"))
+                .withQueryParam("action", equalTo("append"))
+                .atPriority(5)
+                .willReturn(aResponse().withStatus(statusCode)));
+    }
+
+    @Given("^the ADLS Gen2 flush responds (\\d+)$")
+    public void mockFlush(int statusCode) {
+        httpServerMock.getLivyServerMock().stubFor(patch(urlPathMatching("/.*"))
+                .withQueryParam("action", equalTo("flush"))
+                .willReturn(aResponse().withStatus(statusCode)));
+    }
+
+    @Then("^uploading the local file to ADLS Gen2 path '(.+)' should succeed$")
+    public void checkUploadSucceeded(String path) {
+        final Boolean uploaded = operation.uploadData(httpServerMock.completeUrl(path), localFile)
+                .toBlocking()
+                .single();
+
+        assertThat(uploaded).isTrue();
+        assertThat(httpServerMock.getLivyServerMock().findAllUnmatchedRequests()).isEmpty();
+    }
+
+    @Then("^uploading the local file to ADLS Gen2 path '(.+)' should fail with status (\\d+)$")
+    public void checkUploadFailed(String path, int statusCode) {
+        final Throwable error = operation.uploadData(httpServerMock.completeUrl(path), localFile)
+                .map(uploaded -> (Throwable) null)
+                .onErrorReturn(err -> err)
+                .toBlocking()
+                .single();
+
+        assertThat(error).isInstanceOf(HttpErrorStatus.class);
+        assertThat(((HttpErrorStatus) error).getStatusCode()).isEqualTo(statusCode);
+    }
+
+    @Then("^the ADLS Gen2 appends should be requested at positions '(.+)'$")
+    public void checkAppendPositions(String positions) {
+        final List<Long> positionsRequested = getRequests("append").stream()
+                .map(ADLSGen2FSOperationScenario::getPosition)
+                .sorted()
+                .collect(Collectors.toList());
+
+        assertThat(positionsRequested).containsExactlyElementsOf(Arrays.stream(positions.split(","))
+                                                                       .map(Long::valueOf)
+                                                                       .collect(Collectors.toList()));
+    }
+
+    @Then("^the ADLS Gen2 append at position (\\d+) should be requested (\\d+) times$")
+    public void checkAppendRequested(long position, int times) {
+        httpServerMock.getLivyServerMock().verify(times, patchRequestedFor(urlPathMatching("/.*"))
+                .withQueryParam("action", equalTo("append"))
+                .withQueryParam("position", equalTo(String.valueOf(position))));
+    }
+
+    @Then("^each ADLS Gen2 append should carry the file range at its position$")
+    public void checkAppendContent() {
+        for (LoggedRequest append : getRequests("append")) {
+            final int position = (int) getPosition(append);
+            final byte[] range = Arrays.copyOfRange(
+                    localContent,
+                    position,
+                    Math.min(position + ADLSGen2FSOperation.APPEND_RANGE_SIZE, localContent.length));
+
+            assertThat(append.getBody()).isEqualTo(range);
+        }
+    }
+
+    @Then("^each ADLS Gen2 request should carry the shared key signed for it$")
+    public void checkSharedKeys() {
+        final SharedKeyCredential credential = new SharedKeyCredential(accountName, ACCOUNT_KEY);
+
+        for (LoggedRequest request : httpServerMock.getLivyServerMock().findAll(patchRequestedFor(urlPathMatching("/.*")))) {
+            // Sign the request as sent, the shared key signed for another concurrent request doesn't match
+            final HeaderGroup signedHeaders = new HeaderGroup();
+            for (HttpHeader header : request.getHeaders().all()) {
+                if (header.key().startsWith("x-ms-")
+                        || header.key().equalsIgnoreCase("Content-Type")
+                        || (header.key().equalsIgnoreCase("Content-Length") && request.getBody().length > 0)) {
+                    signedHeaders.addHeader(new BasicHeader(header.key(), header.firstValue()));
+                }
+            }
+
+            final URI uri = URI.create(request.getAbsoluteUrl());
+            final List<NameValuePair> parameters = URLEncodedUtils.parse(uri, StandardCharsets.UTF_8);
+            final HttpRequestBase signedRequest = new HttpRequestBase() {
+                @Override
+                public String getMethod() {
+                    return request.getMethod().getName();
+                }
+            };
+            signedRequest.setURI(uri);
+
+            assertThat(request.getHeader("Authorization"))
+                    .as("Authorization of %s", request.getUrl())
+                    .isEqualTo(credential.generateSharedKey(signedRequest, signedHeaders, parameters));
+        }
+    }
+
+    @Then("^the ADLS Gen2 flush should be requested once at position (\\d+) after the append at position (\\d+)$")
+    public void checkFlush(long length, long lastPosition) {
+        final List<LoggedRequest> flushes = getRequests("flush");
+        assertThat(flushes).hasSize(1);
+        assertThat(getPosition(flushes.get(0))).isEqualTo(length);
+
+        // The flush is the last request, sent once the slowest append is responded
+        final LoggedRequest lastAppend = getRequests("append").stream()
+                .filter(append -> getPosition(append) == lastPosition)
+                .max(Comparator.comparing(LoggedRequest::getLoggedDate))
+                .orElseThrow(() -> new AssertionError("No append at position " + lastPosition));
+        assertThat(flushes.get(0).getLoggedDate()).isAfterOrEqualsTo(lastAppend.getLoggedDate());
+        assertThat(httpServerMock.getLivyServerMock().getAllServeEvents().get(0).getRequest()
+                                 .queryParameter("action").firstValue())
+                .isEqualTo("flush");
+    }
+
+    @Then("^the ADLS Gen2 flush should not be requested$")
+    public void checkNoFlush() {
+        assertThat(getRequests("flush")).isEmpty();
+    }
+
+    private static MappingBuilder appendAt(long position) {
+        return patch(urlPathMatching("/.*"))
+                .withQueryParam("action", equalTo("append"))
+                .withQueryParam("position", equalTo(String.valueOf(position)));
+    }
+
+    private List<LoggedRequest> getRequests(String action) {
+        return httpServerMock.getLivyServerMock().findAll(patchRequestedFor(urlPathMatching("/.*"))
+                .withQueryParam("action", equalTo(action)));
+    }
+
+    private static long getPosition(LoggedRequest request) {
+        return Long.parseLong(request.queryParameter("position").firstValue());
+    }
+}
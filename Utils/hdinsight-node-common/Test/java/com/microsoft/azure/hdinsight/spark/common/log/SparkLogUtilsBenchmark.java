@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.hdinsight.spark.common.log;
+
+import org.apache.log4j.Level;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Function;
+
+/**
+ * Compare the log4j level classifying by regex and by scanner over a synthetic driver log, which is 1 GB by default.
+ *
+ * Run it with the main method, the log size in MB can be given as the first argument. Like JMH, each path is run
+ * for some warm-up iterations before the measured ones, and the levels found are consumed to avoid dead codes.
+ */
+public class SparkLogUtilsBenchmark {
+    private static final int WARM_UP_ITERATIONS = 2;
+    private static final int MEASURED_ITERATIONS = 5;
+    private static final int DISTINCT_LINES = 4096;
+
+    private static final String[] LEVELS = { "INFO", "INFO", "INFO", "WARN", "ERROR", "DEBUG" };
+    private static final String[] CLASSES = {
+            "SparkContext", "DAGScheduler", "TaskSetManager", "BlockManagerInfo", "YarnClusterScheduler" };
+
+    public static void main(String[] args) {
+        final long logSize = (args.length > 0 ? Long.parseLong(args[0]) : 1024) * 1024 * 1024;
+        final List<String> lines = generateLines();
+
+        run("regex", lines, logSize, SparkLogUtils::findLog4jLevelByRegex);
+        run("scanner", lines, logSize, SparkLogUtils::findLog4jLevel);
+    }
+
+    private static List<String> generateLines() {
+        final Random random = new Random(0);
+        final List<String> lines = new ArrayList<>(DISTINCT_LINES);
+        for (int i = 0; i < DISTINCT_LINES; i++) {
+            if (random.nextInt(10) == 0) {
+                // The stack trace lines without level
+                lines.add("\tat org.apache.spark.scheduler.Task.run(Task.scala:" + random.nextInt(500) + ")");
+            } else {
+                lines.add(String.format("21/03/%02d 12:%02d:%02d %s %s: Finished task %d.0 in stage %d.0 (TID %d) in %d ms",
+                        random.nextInt(28) + 1, random.nextInt(60), random.nextInt(60),
+                        LEVELS[random.nextInt(LEVELS.length)], CLASSES[random.nextInt(CLASSES.length)],
+                        random.nextInt(200), random.nextInt(20), random.nextInt(5000), random.nextInt(10000)));
+            }
+        }
+
+        return lines;
+    }
+
+    private static void run(String name, List<String> lines, long logSize, Function<CharSequence, Level> classifier) {
+        for (int i = 0; i < WARM_UP_ITERATIONS; i++) {
+            classify(lines, logSize, classifier);
+        }
+
+        long totalNanos = 0;
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            final long start = System.nanoTime();
+            final long found = classify(lines, logSize, classifier);
+            final long nanos = System.nanoTime() - start;
+            totalNanos += nanos;
+
+            System.out.printf("%s iteration %d: %d ms, %d levels found%n", name, i, nanos / 1_000_000, found);
+        }
+
+        final double seconds = totalNanos / 1e9 / MEASURED_ITERATIONS;
+        System.out.printf("%s: %.3f s/op, %.1f MB/s%n", name, seconds, logSize / 1024.0 / 1024.0 / seconds);
+    }
+
+    private static long classify(List<String> lines, long logSize, Function<CharSequence, Level> classifier) {
+        long size = 0;
+        long found = 0;
+        for (int i = 0; size < logSize; i = (i + 1) % lines.size()) {
+            final String line = lines.get(i);
+            if (classifier.apply(line) != null) {
+                found++;
+            }
+
+            // Count the line separator in
+            size += line.length() + 1;
+        }
+
+        return found;
+    }
+}
@@ -0,0 +1,25 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.hdinsight.spark.common.log;
+
+import cucumber.api.java.en.Then;
+import org.apache.log4j.Level;
+
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+
+public class SparkLogUtilsScenario {
+    @Then("^the log4j level found in the following log lines should be$")
+    public void checkLog4jLevels(Map<String, String> expectedLevels) throws Throwable {
+        expectedLevels.forEach((line, expected) -> {
+            final Level level = SparkLogUtils.findLog4jLevel(line);
+
+            assertEquals(line, expected, level == null ? "NONE" : level.toString());
+            assertEquals(line, SparkLogUtils.findLog4jLevelByRegex(line), level);
+        });
+    }
+}
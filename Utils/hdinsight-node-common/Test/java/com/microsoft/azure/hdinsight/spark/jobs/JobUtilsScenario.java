@@ -5,25 +5,96 @@
 
 package com.microsoft.azure.hdinsight.spark.jobs;
 
+import com.github.tomakehurst.wiremock.client.WireMock;
+import com.microsoft.azure.hdinsight.sdk.cluster.IClusterDetail;
+import com.microsoft.azure.hdinsight.sdk.rest.ObjectConvertUtils;
+import com.microsoft.azure.hdinsight.sdk.rest.spark.task.Task;
 import com.microsoft.azure.hdinsight.spark.common.MockHttpService;
+import com.sun.net.httpserver.HttpServer;
+import cucumber.api.java.After;
 import cucumber.api.java.Before;
 import cucumber.api.java.en.Given;
 import cucumber.api.java.en.Then;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.input.CountingInputStream;
+import org.apache.commons.lang3.StringUtils;
 import org.apache.http.client.CredentialsProvider;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
 
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.zip.GZIPInputStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
 public class JobUtilsScenario {
     private MockHttpService httpServerMock;
+    private HttpServer responseServer;
+    private String responseBody;
+    private HttpURLConnection responseConnection;
+    private byte[] taskListBody;
+    private final AtomicInteger jobViewLoads = new AtomicInteger();
 
     @Before
     public void setUp() {
         httpServerMock = new MockHttpService();
     }
 
+    @After
+    public void cleanUp() {
+        if (responseServer != null) {
+            responseServer.stop(0);
+        }
+    }
+
+    @Given("^a job view server responding a body of (\\d+) '(.)' with ETag (.*)$")
+    public void startResponseServer(int size, String ch, String etag) throws Throwable {
+        responseBody = StringUtils.repeat(ch, size);
+        byte[] body = responseBody.getBytes(StandardCharsets.UTF_8);
+        String bodyETag = etag.equals("none") ? null : JobUtils.createETag(body);
+
+        responseServer = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        responseServer.createContext("/", httpExchange -> JobUtils.setResponse(httpExchange, 200, body, null, bodyETag));
+        responseServer.start();
+    }
+
+    @Then("^request the job view server with headers:$")
+    public void requestResponseServer(Map<String, String> headers) throws Throwable {
+        responseConnection = (HttpURLConnection) new URL(
+                "http://127.0.0.1:" + responseServer.getAddress().getPort() + "/").openConnection();
+        String bodyETag = JobUtils.createETag(responseBody.getBytes(StandardCharsets.UTF_8));
+        headers.forEach((name, value) -> responseConnection.setRequestProperty(name, value.replace("$etag", bodyETag)));
+    }
+
+    @Then("^the job view response should be (\\d+) with Content-Encoding '(.*)' and the body (sent|not sent)$")
+    public void checkResponse(int code, String encoding, String sent) throws Throwable {
+        assertThat(responseConnection.getResponseCode()).isEqualTo(code);
+        assertThat(StringUtils.defaultString(responseConnection.getHeaderField("Content-Encoding"))).isEqualTo(encoding);
+
+        if (sent.equals("sent")) {
+            InputStream stream = responseConnection.getInputStream();
+            byte[] content = IOUtils.toByteArray(encoding.equals("gzip") ? new GZIPInputStream(stream) : stream);
+            assertThat(new String(content, StandardCharsets.UTF_8)).isEqualTo(responseBody);
+        } else {
+            assertThat(responseConnection.getContentLengthLong()).isLessThanOrEqualTo(0);
+        }
+    }
+
     @Given("^mock a http service in JobUtilsScenario for (.+) request '(.+)' to return '(.+)' with status code (\\d+)$")
     public void mockHttpService(String action, String serviceUrl, String response, int statusCode) throws Throwable {
         httpServerMock.stub(action, serviceUrl, statusCode, response);
@@ -60,4 +131,101 @@ public class JobUtilsScenario {
 
         assertThat(actual).isEqualTo(expect);
     }
+
+    @Given("^mock a http service in JobUtilsScenario for GET request '(.+)' to return a list of (\\d+) tasks$")
+    public void mockTaskListService(String serviceUrl, int count) throws Throwable {
+        StringBuilder body = new StringBuilder("[");
+        for (int i = 0; i < count; i++) {
+            body.append(i == 0 ? "" : ",")
+                    .append(String.format("{\"taskId\":\"%d\",\"index\":\"%d\",\"attempt\":\"0\",\"executorId\":\"1\",\"host\":\"wn0\"}", i, i));
+        }
+        taskListBody = body.append("]").toString().getBytes(StandardCharsets.UTF_8);
+
+        httpServerMock.getLivyServerMock().stubFor(WireMock.get(WireMock.urlEqualTo(serviceUrl))
+                .willReturn(WireMock.aResponse()
+                        .withStatus(200)
+                        .withHeader("Content-Type", "application/json")
+                        .withBody(taskListBody)));
+    }
+
+    @Then("^the first (\\d+) tasks parsed from '(.+)' should be read from less than (\\d+)% of the response$")
+    public void checkFirstTasksParsed(int count, String serviceUrl, int percent) throws Throwable {
+        try (CloseableHttpClient client = HttpClients.createDefault();
+             CloseableHttpResponse response = client.execute(new HttpGet(httpServerMock.completeUrl(serviceUrl)))) {
+            CountingInputStream content = new CountingInputStream(response.getEntity().getContent());
+            List<String> taskIds = ObjectConvertUtils.convertJsonStreamToObservable(content, Task.class)
+                    .take(count)
+                    .map(Task::getTaskId)
+                    .toList()
+                    .toBlocking()
+                    .single();
+
+            assertThat(taskIds).containsExactlyElementsOf(
+                    IntStream.range(0, count).mapToObj(String::valueOf).collect(Collectors.toList()));
+            // Only the bytes parsed are counted, not the rest drained when the stream is closed
+            assertThat(content.getByteCount()).isLessThan((long) taskListBody.length * percent / 100);
+        }
+    }
+
+    @Then("^all the (\\d+) tasks parsed from '(.+)' should be emitted in order$")
+    public void checkAllTasksParsed(int count, String serviceUrl) throws Throwable {
+        try (CloseableHttpClient client = HttpClients.createDefault();
+             CloseableHttpResponse response = client.execute(new HttpGet(httpServerMock.completeUrl(serviceUrl)))) {
+            int[] next = { 0 };
+            ObjectConvertUtils.convertEntityToObservable(response.getEntity(), Task.class)
+                    .toBlocking()
+                    .forEach(task -> assertThat(task.getTaskId()).isEqualTo(String.valueOf(next[0]++)));
+
+            assertThat(next[0]).isEqualTo(count);
+        }
+    }
+
+    @Given("^a job view server responding the jobs of the Yarn application '(.+)' in state '(.+)' through the response cache$")
+    public void startCachedResponseServer(String appId, String state) throws Throwable {
+        // The Yarn REST path is formatted after a slash of its own, so the requested URL has a doubled one
+        httpServerMock.getLivyServerMock().stubFor(WireMock.get(WireMock.urlMatching("/yarnui/ws/v1/cluster/+apps/" + appId))
+                .willReturn(WireMock.aResponse()
+                        .withStatus(200)
+                        .withHeader("Content-Type", "application/json")
+                        .withBody(String.format("{\"app\":{\"id\":\"%s\",\"state\":\"%s\"}}", appId, state))));
+
+        IClusterDetail cluster = mock(IClusterDetail.class);
+        when(cluster.getName()).thenReturn("jobViewCacheCluster");
+        when(cluster.getConnectionUrl()).thenReturn("http://localhost:" + httpServerMock.getPort());
+        when(cluster.getHttpUserName()).thenReturn("user");
+        when(cluster.getHttpPassword()).thenReturn("password");
+        ApplicationKey key = new ApplicationKey(cluster, appId);
+
+        responseServer = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        responseServer.createContext("/", httpExchange -> {
+            try {
+                JobViewResponseCache.respond(httpExchange, key, "jobs", () -> {
+                    jobViewLoads.incrementAndGet();
+                    return Collections.singletonList(appId);
+                });
+            } catch (Exception e) {
+                JobUtils.setResponse(httpExchange, String.valueOf(e.getMessage()), 500);
+            }
+        });
+        responseServer.start();
+    }
+
+    @Then("^request the jobs of the job view server (\\d+) times$")
+    public void requestCachedResponseServer(int times) throws Throwable {
+        for (int i = 0; i < times; i++) {
+            HttpURLConnection connection = (HttpURLConnection) new URL(
+                    "http://127.0.0.1:" + responseServer.getAddress().getPort() + "/").openConnection();
+            try {
+                assertThat(connection.getResponseCode()).isEqualTo(200);
+                assertThat(IOUtils.toString(connection.getInputStream(), StandardCharsets.UTF_8)).contains("application_");
+            } finally {
+                connection.disconnect();
+            }
+        }
+    }
+
+    @Then("^the jobs should be loaded from the cluster (\\d+) times?$")
+    public void checkJobViewLoads(int times) throws Throwable {
+        assertThat(jobViewLoads.get()).isEqualTo(times);
+    }
 }
@@ -0,0 +1,170 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.hdinsight.spark.jobs;
+
+import com.github.tomakehurst.wiremock.client.WireMock;
+import com.microsoft.azure.hdinsight.common.JobViewManager;
+import com.microsoft.azure.hdinsight.sdk.cluster.IClusterDetail;
+import com.microsoft.azure.hdinsight.sdk.rest.spark.task.Task;
+import com.microsoft.azure.hdinsight.spark.common.MockHttpService;
+import cucumber.api.java.After;
+import cucumber.api.java.Before;
+import cucumber.api.java.en.Given;
+import cucumber.api.java.en.Then;
+import cucumber.api.java.en.When;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class JobViewCacheManagerScenario {
+    private static final String SPARK_HISTORY_PATH = "/sparkhistory/api/v1/applications/";
+
+    private MockHttpService httpServerMock;
+    private IClusterDetail cluster;
+    private String appId;
+    private final List<String> stagesTaskIds = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        httpServerMock = new MockHttpService();
+    }
+
+    @After
+    public void cleanUp() {
+        httpServerMock.getLivyServerMock().stop();
+    }
+
+    @Given("^a Spark application '(.+)' on the cluster '(.+)' with the stages:$")
+    public void mockSparkApplication(String appId, String clusterName, List<Map<String, String>> stages) {
+        this.appId = appId;
+        this.cluster = mock(IClusterDetail.class);
+        when(cluster.getName()).thenReturn(clusterName);
+        when(cluster.getConnectionUrl()).thenReturn("http://localhost:" + httpServerMock.getPort());
+        when(cluster.getHttpUserName()).thenReturn("user");
+        when(cluster.getHttpPassword()).thenReturn("password");
+        // The Spark applications list is loaded for the cluster registered by its name
+        JobViewManager.registerJovViewNode(clusterName, cluster);
+
+        stubJson(SPARK_HISTORY_PATH,
+                 String.format("[{\"id\":\"%s\",\"attempts\":[{\"attemptId\":\"1\",\"completed\":\"false\"}]}]", appId),
+                 0);
+
+        // The Spark REST paths are formatted after a slash of their own, so the requested URLs have a doubled one
+        stubJson(SPARK_HISTORY_PATH + "+" + appId + "/1/stages",
+                 stages.stream()
+                       .map(stage -> String.format("{\"stageId\":%s,\"attemptId\":%s,\"status\":\"%s\"}",
+                                                   stage.get("stageId"), stage.get("attemptId"), stage.get("status")))
+                       .collect(Collectors.joining(",", "[", "]")),
+                 0);
+
+        for (Map<String, String> stage : stages) {
+            final int stageId = Integer.parseInt(stage.get("stageId"));
+            final List<String> taskIds = new ArrayList<>();
+            for (int i = 0; i < Integer.parseInt(stage.get("tasks")); i++) {
+                taskIds.add(String.valueOf(stageId * 10000 + i));
+            }
+            stagesTaskIds.addAll(taskIds);
+
+            stubJson(String.format("%s+%s/1/stages/%d/%s/taskList", SPARK_HISTORY_PATH, appId, stageId, stage.get("attemptId")),
+                     taskIds.stream()
+                            .map(taskId -> String.format(
+                                    "{\"taskId\":\"%s\",\"index\":\"%s\",\"attempt\":\"0\",\"executorId\":\"1\",\"host\":\"wn0\"}",
+                                    taskId, taskId))
+                            .collect(Collectors.joining(",", "[", "]")),
+                     Integer.parseInt(stage.get("delay")));
+        }
+    }
+
+    @Then("^getting the tasks of the application should return the tasks of the stages in order within (\\d+) ms$")
+    public void checkGetTasks(long maxMillis) throws Throwable {
+        // Look up with a new key each time, as the job view handlers do for every request
+        final ApplicationKey key = new ApplicationKey(cluster, appId.toUpperCase());
+
+        final long start = System.currentTimeMillis();
+        final List<Task> tasks = JobViewCacheManager.getTasks(key);
+        final long elapsed = System.currentTimeMillis() - start;
+
+        assertThat(tasks.stream().map(Task::getTaskId).collect(Collectors.toList()))
+                .containsExactlyElementsOf(stagesTaskIds);
+        assertThat(elapsed).isLessThan(maxMillis);
+    }
+
+    @Then("^the task list of the stage (\\d+) attempt (\\d+) should be requested (\\d+) times?$")
+    public void checkTaskListRequested(int stageId, int attemptId, int times) {
+        httpServerMock.getLivyServerMock().verify(times, WireMock.getRequestedFor(WireMock.urlMatching(
+                String.format("%s+%s/1/stages/%d/%d/taskList", SPARK_HISTORY_PATH, appId, stageId, attemptId))));
+    }
+
+    @Then("^the stages of the application should be requested (\\d+) times?$")
+    public void checkStagesRequested(int times) {
+        httpServerMock.getLivyServerMock().verify(times, WireMock.getRequestedFor(WireMock.urlMatching(
+                SPARK_HISTORY_PATH + "+" + appId + "/1/stages")));
+    }
+
+    @Given("^the Yarn application state is '(.+)'$")
+    public void mockYarnApplicationState(String state) {
+        stubJson("/yarnui/ws/v1/cluster/+apps/" + appId,
+                 String.format("{\"app\":{\"id\":\"%s\",\"state\":\"%s\"}}", appId, state),
+                 0);
+    }
+
+    @When("^the Spark attempt of the application is completed$")
+    public void completeSparkAttempt() {
+        stubJson(SPARK_HISTORY_PATH,
+                 String.format("[{\"id\":\"%s\",\"attempts\":[{\"attemptId\":\"1\",\"completed\":\"true\"}]}]", appId),
+                 0);
+
+        // As the applications list cached is expired
+        JobViewCacheManager.invalidateSparkApplications(cluster);
+    }
+
+    @When("^get the stages of the application$")
+    public void getStages() throws Throwable {
+        JobViewCacheManager.getStages(new ApplicationKey(cluster, appId));
+    }
+
+    @Then("^the responses of the application should (not )?be final$")
+    public void checkFinished(String not) throws Throwable {
+        assertThat(JobViewResponseCache.isFinished(new ApplicationKey(cluster, appId))).isEqualTo(not == null);
+    }
+
+    @Then("^the application keys should be equal or not as the following:$")
+    public void checkApplicationKeys(List<Map<String, String>> keys) {
+        for (Map<String, String> row : keys) {
+            final ApplicationKey key = new ApplicationKey(mockCluster(row.get("connection")), row.get("appId"));
+            final ApplicationKey other = new ApplicationKey(mockCluster(row.get("otherConnection")), row.get("otherAppId"));
+            final boolean isEqual = Boolean.parseBoolean(row.get("equal"));
+
+            assertThat(key.equals(other)).as("%s equals %s", row, isEqual).isEqualTo(isEqual);
+            assertThat(other.equals(key)).as("%s equals %s", row, isEqual).isEqualTo(isEqual);
+            if (isEqual) {
+                assertThat(key.hashCode()).isEqualTo(other.hashCode());
+            }
+        }
+    }
+
+    private void stubJson(String urlRegex, String body, int delayMillis) {
+        httpServerMock.getLivyServerMock().stubFor(WireMock.get(WireMock.urlMatching(urlRegex))
+                .willReturn(WireMock.aResponse()
+                        .withStatus(200)
+                        .withHeader("Content-Type", "application/json")
+                        .withFixedDelay(delayMillis)
+                        .withBody(body)));
+    }
+
+    private static IClusterDetail mockCluster(String connectionUrl) {
+        final IClusterDetail clusterDetail = mock(IClusterDetail.class);
+        when(clusterDetail.getConnectionUrl()).thenReturn(connectionUrl);
+
+        return clusterDetail;
+    }
+}
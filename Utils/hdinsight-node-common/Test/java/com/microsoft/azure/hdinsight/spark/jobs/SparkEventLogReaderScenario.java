@@ -0,0 +1,161 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.hdinsight.spark.jobs;
+
+import com.microsoft.azure.hdinsight.sdk.common.HDIException;
+import com.microsoft.azure.hdinsight.sdk.rest.spark.event.JobStartEventLog;
+import cucumber.api.java.After;
+import cucumber.api.java.en.Given;
+import cucumber.api.java.en.Then;
+import org.apache.commons.io.FileUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class SparkEventLogReaderScenario {
+    private byte[] eventLogsZip;
+    private File indexFolder;
+
+    @After
+    public void cleanUp() throws Throwable {
+        if (indexFolder != null) {
+            FileUtils.deleteDirectory(indexFolder);
+        }
+    }
+
+    @Then("^the following event log lines should be checked as SparkListenerJobStart events$")
+    public void checkEventLines(Map<String, String> expectedResults) throws Throwable {
+        expectedResults.forEach((line, expected) ->
+                assertEquals(line, Boolean.parseBoolean(expected),
+                        SparkEventLogReader.isEvent(line, "SparkListenerJobStart")));
+    }
+
+    @Given("^the Spark event logs zip with the following entries$")
+    public void createEventLogsZip(Map<String, String> entries) throws Throwable {
+        eventLogsZip = zip(entries);
+    }
+
+    @Given("^the Spark event logs zip with (\\d+) job start events in entry '(.+)' truncated to half$")
+    public void createTruncatedEventLogsZip(int count, String entryName) throws Throwable {
+        String events = IntStream.range(0, count)
+                .mapToObj(jobId -> String.format("{\"Event\":\"SparkListenerJobStart\",\"Job ID\":%d}", jobId))
+                .collect(Collectors.joining("\n"));
+        byte[] zip = zip(Collections.singletonMap(entryName, events));
+
+        eventLogsZip = Arrays.copyOf(zip, zip.length / 2);
+    }
+
+    @Given("^the Spark event logs which isn't a zip$")
+    public void createNotZipEventLogs() throws Throwable {
+        eventLogsZip = "<html>Not Found</html>".getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Then("^the job start events read from the event logs entry '(.+)' should be '(.+)'$")
+    public void checkJobStartEvents(String entryName, String expectedJobIds) throws Throwable {
+        List<JobStartEventLog> events = SparkEventLogReader
+                .readEvents(new ByteArrayInputStream(eventLogsZip), entryName, "SparkListenerJobStart",
+                        JobStartEventLog.class)
+                .toList()
+                .toBlocking()
+                .single();
+
+        assertEquals(expectedJobIds, toJobIds(events));
+    }
+
+    @Then("^reading the event logs entry '(.+)' should fail with '(.+)'$")
+    public void checkReadingFailure(String entryName, String expectedError) throws Throwable {
+        try {
+            SparkEventLogReader
+                    .readEvents(new ByteArrayInputStream(eventLogsZip), entryName, "SparkListenerJobStart",
+                            JobStartEventLog.class)
+                    .toList()
+                    .toBlocking()
+                    .single();
+
+            fail("Reading the event logs entry " + entryName + " should fail");
+        } catch (RuntimeException e) {
+            Class<?> expectedErrorClass = expectedError.equals("IOException") ? IOException.class : HDIException.class;
+            assertTrue(String.valueOf(e.getCause()), expectedErrorClass.isInstance(e.getCause()));
+        }
+    }
+
+    @Given("^the job start events index of '(.+)' is corrupt$")
+    public void corruptIndex(String entityName) throws Throwable {
+        FileUtils.writeStringToFile(getIndexFile(entityName), "[{\"Event\":\"SparkListenerJobSt", StandardCharsets.UTF_8);
+    }
+
+    @Then("^getting the job start events of '(.+)' twice with completed '(.+)' should be '(.+)' and open the event logs (\\d+) times$")
+    public void checkJobStartEventsIndex(String entityName,
+                                         String isCompleted,
+                                         String expectedJobIds,
+                                         int expectedOpenTimes) throws Throwable {
+        AtomicInteger openTimes = new AtomicInteger();
+        SparkRestUtil.EventLogsOpener eventLogsOpener = () -> {
+            openTimes.incrementAndGet();
+            return new ByteArrayInputStream(eventLogsZip);
+        };
+
+        for (int i = 0; i < 2; i++) {
+            List<JobStartEventLog> events = SparkRestUtil.getJobStartEvents("application_01", entityName,
+                    Boolean.parseBoolean(isCompleted), getIndexFile(entityName), eventLogsOpener);
+
+            assertEquals(expectedJobIds, toJobIds(events));
+        }
+
+        assertEquals(expectedOpenTimes, openTimes.get());
+    }
+
+    @Then("^the job start events index folder should only hold the index of '(.+)'$")
+    public void checkIndexFolder(String entityName) throws Throwable {
+        // The index is written to a temporary file first, which must be moved in place
+        assertEquals(Collections.singletonList(getIndexFile(entityName).getName()),
+                     Arrays.asList(indexFolder.list()));
+    }
+
+    private File getIndexFile(String entityName) throws IOException {
+        if (indexFolder == null) {
+            indexFolder = Files.createTempDirectory("SparkEventLogs").toFile();
+        }
+
+        return new File(indexFolder, entityName + ".jobStartEvents.json");
+    }
+
+    private static byte[] zip(Map<String, String> entries) throws IOException {
+        ByteArrayOutputStream zipBytes = new ByteArrayOutputStream();
+        try (ZipOutputStream zipOutputStream = new ZipOutputStream(zipBytes)) {
+            for (Map.Entry<String, String> entry : entries.entrySet()) {
+                zipOutputStream.putNextEntry(new ZipEntry(entry.getKey()));
+                zipOutputStream.write(entry.getValue().replace("\\n", "\n").getBytes(StandardCharsets.UTF_8));
+                zipOutputStream.closeEntry();
+            }
+        }
+
+        return zipBytes.toByteArray();
+    }
+
+    private static String toJobIds(List<JobStartEventLog> events) {
+        return events.stream()
+                .map(event -> String.valueOf(event.getJobId()))
+                .collect(Collectors.joining(","));
+    }
+}
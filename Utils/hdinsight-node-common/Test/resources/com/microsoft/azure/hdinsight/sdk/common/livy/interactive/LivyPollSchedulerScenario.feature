@@ -0,0 +1,38 @@
+Feature: Livy poll scheduler
+
+  Scenario: The session state polls back off and start over once the state changes
+    Given a livy session 6 whose state polls return 'starting,starting,starting,idle' in turn
+    When poll the livy session state for 2600 ms
+    Then the intervals between the state polls should grow until the state changes at the poll 4 and start over after it
+
+  Scenario: The waits for two statements of a session share one statements poll
+    Given a livy session 6 whose statements polled from 0 are:
+      | id | state   |
+      | 0  | running |
+      | 1  | running |
+    When wait for the statement 0 of the livy session
+    And wait for the statement 1 of the livy session
+    And wait 900 ms
+    And end all statement waits
+    Then the statements of the livy session should be polled 3 times
+    And the wait for the statement 0 should get 3 polls
+    And the wait for the statement 1 should get 2 polls
+    And the poll scheduler should count 3 polls issued
+
+  Scenario: A statement joining the statements poll wakes it up from its backoff delay
+    Given a livy session 6 whose statements polled from 0 are:
+      | id | state   |
+      | 0  | running |
+      | 1  | running |
+    When wait for the statement 0 of the livy session
+    And wait 1100 ms
+    Then the statements of the livy session should be polled 3 times
+    When wait for the statement 1 of the livy session
+    Then the statements of the livy session should be polled 4 times
+    And the wait for the statement 1 should get 1 poll
+    When end all statement waits
+
+  Scenario: The poll scheduler counts the polls issued and the polls saved against the fixed delay
+    Given a livy session 6 whose state polls return 'starting' in turn
+    When poll the livy session state for 5000 ms
+    Then the poll scheduler should count 5 polls issued and 1 polls saved
@@ -39,11 +39,36 @@ Feature: Livy Interactive Session Tests
     Then check the returned livy interactive session after creating should be
       | id        | 6 |
     Given setup a mock livy interactive service for POST request '/sessions/6/statements' to return '{"id":0,"state":"waiting","output":null}' with status code 200
-    And setup a mock livy interactive service for GET request '/sessions/6/statements/0' to return '{"id":0,"state":"available","output":{"status":"ok","execution_count":0,"data":{"text/plain":"Hello World!"}}}' with status code 200
+    And setup a mock livy interactive service for GET request '/sessions/6/statements?from=0' to return '{"statements":[{"id":0,"state":"available","output":{"status":"ok","execution_count":0,"data":{"text/plain":"Hello World!"}}}]}' with status code 200
     And run the following codes in livy Spark interactive session
       | println("Hello World!") |
     Then check Spark interactive session statement run result stdout should be
       | Hello World! |
+    And check the get operation request sent to '/sessions/6/statements?from=0' when waiting for the statement
+
+  Scenario: ClusterFileChunkedOutputStream uploads through the livy interactive session with mocked http server
+    Given setup a mock livy interactive service for POST request '/sessions' to return '{"id":6,"appId":null,"owner":null,"proxyUser":null,"state":"starting","kind":"spark","appInfo":{"driverLogUrl":null,"sparkUiUrl":null},"log":[]}' with status code 200
+    And setup a mock livy interactive service for GET request '/sessions/6' to return '{"id":6,"appId":"application_1517029729598_0086","owner":null,"proxyUser":null,"state":"idle","kind":"spark","appInfo":{"driverLogUrl":"https://zhwe-spkdbg.azurehdinsight.net/yarnui/10.0.0.8/node/containerlogs/container_e04_1517029729598_0086_01_000001/livy","sparkUiUrl":"https://zhwe-spkdbg.azurehdinsight.net/yarnui/hn/proxy/application_1517029729598_0086/"},"log":[]}' with status code 200
+    And create a livy Spark interactive session instance with name 'testSparkREPL'
+    And create the Spark interactive session, and save the response
+    Then check the returned livy interactive session after creating should be
+      | id        | 6 |
+    Given setup a mock livy interactive service for POST request '/sessions/6/statements' to return '{"id":0,"state":"waiting","output":null}' with status code 200
+    And setup a mock livy interactive service for GET request '/sessions/6/statements?from=0' to return '{"statements":[{"id":0,"state":"available","output":{"status":"ok","execution_count":0,"data":{"text/plain":"written=10,md5=781e5e245d69b566979b86e28d23f2c7"}}}]}' with status code 200
+    And upload the bytes '0123456789' to '/tmp/upload.jar' through the livy Spark interactive session
+    Then check the upload through the livy Spark interactive session should succeed
+
+  Scenario: ClusterFileChunkedOutputStream gives up a page that keeps failing with mocked http server
+    Given setup a mock livy interactive service for POST request '/sessions' to return '{"id":6,"appId":null,"owner":null,"proxyUser":null,"state":"starting","kind":"spark","appInfo":{"driverLogUrl":null,"sparkUiUrl":null},"log":[]}' with status code 200
+    And setup a mock livy interactive service for GET request '/sessions/6' to return '{"id":6,"appId":"application_1517029729598_0086","owner":null,"proxyUser":null,"state":"idle","kind":"spark","appInfo":{"driverLogUrl":"https://zhwe-spkdbg.azurehdinsight.net/yarnui/10.0.0.8/node/containerlogs/container_e04_1517029729598_0086_01_000001/livy","sparkUiUrl":"https://zhwe-spkdbg.azurehdinsight.net/yarnui/hn/proxy/application_1517029729598_0086/"},"log":[]}' with status code 200
+    And create a livy Spark interactive session instance with name 'testSparkREPL'
+    And create the Spark interactive session, and save the response
+    Then check the returned livy interactive session after creating should be
+      | id        | 6 |
+    Given setup a mock livy interactive service for POST request '/sessions/6/statements' to return '{"id":0,"state":"waiting","output":null}' with status code 200
+    And setup a mock livy interactive service for GET request '/sessions/6/statements?from=0' to return '{"statements":[{"id":0,"state":"available","output":{"status":"ok","execution_count":0,"data":{"text/plain":"written=0"}}}]}' with status code 200
+    And upload the bytes '0123456789' to '/tmp/upload.jar' through the livy Spark interactive session
+    Then check the upload through the livy Spark interactive session should fail after the page is sent 4 times
 
   Scenario: Session.create() UA with random UUID IT positive case with mocked http server
     Given setup a mock livy interactive service for POST request '/sessions' to return '{"id":6,"appId":null,"owner":null,"proxyUser":null,"state":"starting","kind":"spark","appInfo":{"driverLogUrl":null,"sparkUiUrl":null},"log":[]}' with status code 200
@@ -0,0 +1,42 @@
+Feature: ADLS Gen2 file uploading
+
+  Background:
+    Given an ADLS Gen2 account 'mockaccount' accessed with its shared key
+    Given a local file of 10485760 bytes to upload to ADLS Gen2
+
+  Scenario: Append the ranges concurrently, retry a failed range and flush once all are appended
+    Given the ADLS Gen2 append at position 0 responds 202 after 800 ms
+    Given the ADLS Gen2 append at position 4194304 responds 500 once and then 202
+    Given the ADLS Gen2 appends at the other positions respond 202
+    Given the ADLS Gen2 flush responds 200
+    Then uploading the local file to ADLS Gen2 path '/mockfs/dir/artifact.jar' should succeed
+    Then the ADLS Gen2 appends should be requested at positions '0,4194304,4194304,8388608'
+    Then each ADLS Gen2 append should carry the file range at its position
+    Then each ADLS Gen2 request should carry the shared key signed for it
+    Then the ADLS Gen2 flush should be requested once at position 10485760 after the append at position 0
+
+  Scenario Outline: Retry a range on the transient error
+    Given the ADLS Gen2 append at position 8388608 responds <status> once and then 202
+    Given the ADLS Gen2 appends at the other positions respond 202
+    Given the ADLS Gen2 flush responds 200
+    Then uploading the local file to ADLS Gen2 path '/mockfs/dir/artifact.jar' should succeed
+    Then the ADLS Gen2 appends should be requested at positions '0,4194304,8388608,8388608'
+    Then the ADLS Gen2 flush should be requested once at position 10485760 after the append at position 8388608
+
+    Examples:
+      | status |
+      | 429    |
+      | 503    |
+
+  Scenario Outline: Fail the upload without retrying a rejected range
+    Given the ADLS Gen2 append at position 4194304 responds <status> once and then 202
+    Given the ADLS Gen2 appends at the other positions respond 202
+    Given the ADLS Gen2 flush responds 200
+    Then uploading the local file to ADLS Gen2 path '/mockfs/dir/artifact.jar' should fail with status <status>
+    Then the ADLS Gen2 append at position 4194304 should be requested 1 times
+    Then the ADLS Gen2 flush should not be requested
+
+    Examples:
+      | status |
+      | 403    |
+      | 409    |
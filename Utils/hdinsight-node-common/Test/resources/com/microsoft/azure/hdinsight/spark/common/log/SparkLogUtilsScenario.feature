@@ -0,0 +1,13 @@
+Feature: Spark log level classifying
+
+  Scenario: Find the log4j level keyword as the regex does
+    Then the log4j level found in the following log lines should be
+      | 21/01/01 12:00:00 INFO SparkContext: Running Spark version 2.3.0 | INFO  |
+      | 21/01/01 12:00:00 WARN NativeCodeLoader: Unable to load library  | WARN  |
+      | 21/01/01 12:00:00 ERROR Executor: Exception in task 0.0          | ERROR |
+      | FATAL at the beginning                                           | FATAL |
+      | at the end DEBUG                                                 | DEBUG |
+      | TRACE_ID is not a level, but TRACE is                            | TRACE |
+      | WARNING and INFORMATION aren't levels                            | NONE  |
+      | xERROR and ERRORS aren't levels either, INFO is                  | INFO  |
+      | at org.apache.spark.SparkContext.<init>(SparkContext.scala:500)  | NONE  |
@@ -34,3 +34,56 @@ Feature: JobUtils Testing
   Scenario: getInformationFromYarnLogDom can read Spark 2.2 Yarn History server log format
     Given mock a http service in JobUtilsScenario for GET request '/yarnui/10.0.0.15/node/containerlogs/container_e02_1492415936046_0015_01_000001/livy/stderr?start=0' to return '<!DOCTYPE html PUBLIC "-//W3C//DTD HTML 4.01//EN" "http://www.w3.org/TR/html4/strict.dtd"> <html> <meta http-equiv="X-UA-Compatible" content="IE=8"> <meta http-equiv="Content-type" content="text/html; charset=UTF-8"> <title> Logs for container_e03_1492780173422_0013_02_000001 </title>   <table id="layout" class="ui-widget-content"> <thead> <tr> <td colspan="2"> <div id="header" class="ui-widget"> <div id="user"> Logged in as: dr.who </div> <div id="logo"> <img src="/yarnui/static/hadoop-st.png"> </div> <h1> Logs for container_e03_1492780173422_0013_02_000001 </h1> </div> </td> </tr> </thead> <tfoot> <tr> <td colspan="2"> <div id="footer" class="ui-widget"> </div> </td> </tr> </tfoot> <tbody> <tr> <td id="navcell"> <div id="nav"> <h3> ResourceManager </h3> <ul> <li> <a href="/yarnui/hn/">RM Home</a> </ul> <h3> NodeManager </h3> <ul> <li> <a href="/yarnui/10.0.0.15/node/node">Node Information</a> <li> <a href="/yarnui/10.0.0.15/node/allApplications">List of Applications</a> <li> <a href="/yarnui/10.0.0.15/node/allContainers">List of Containers</a> </ul> <h3> Tools </h3> <ul> <li> <a href="/yarnui/10.0.0.15/conf">Configuration</a> <li> <a href="/yarnui/10.0.0.15/logs">Local logs</a> <li> <a href="/yarnui/10.0.0.15/stacks">Server stacks</a> <li> <a href="/yarnui/10.0.0.15/jmx?qry=Hadoop:*">Server metrics</a> </ul> </div> </td> <td class="content"> <pre>\n\n</pre> <p> Log Type: stderr <pre>spark2.2stderr</pre> </td> </tr> </tbody> </table> </html>' with status code 200
     Then get YarnUI log 'stderr' from '/yarnui/10.0.0.15/node/containerlogs/container_e02_1492415936046_0015_01_000001/livy' should return 'spark2.2stderr'
+
+  Scenario: getInformationFromYarnLogDom reads the log of the type asked from Yarn History server log with two types
+    Given mock a http service in JobUtilsScenario for GET request '/yarnui/10.0.0.15/node/containerlogs/container_e02_1492415936046_0015_01_000001/livy/stderr?start=0' to return '<!DOCTYPE html PUBLIC "-//W3C//DTD HTML 4.01//EN" "http://www.w3.org/TR/html4/strict.dtd"> <html> <title> Logs for container_e03_1492780173422_0013_02_000001 </title> <table id="layout" class="ui-widget-content"> <tbody> <tr> <td id="navcell"> <div id="nav"> <h3> ResourceManager </h3> <ul> <li> <a href="/yarnui/hn/">RM Home</a> </ul> </div> </td> <td class="content"> <p> Log Type: stderr <p> Log Upload Time: Wed Apr 19 02:36:09 +0000 2017 <p> Log Length: 3 <pre>ERR</pre> <p> Log Type: stdout <p> Log Upload Time: Wed Apr 19 02:36:09 +0000 2017 <p> Log Length: 3 <pre>OUT</pre> </td> </tr> </tbody> </table> </html>' with status code 200
+    And mock a http service in JobUtilsScenario for GET request '/yarnui/10.0.0.15/node/containerlogs/container_e02_1492415936046_0015_01_000001/livy/stdout?start=0' to return '<!DOCTYPE html PUBLIC "-//W3C//DTD HTML 4.01//EN" "http://www.w3.org/TR/html4/strict.dtd"> <html> <title> Logs for container_e03_1492780173422_0013_02_000001 </title> <table id="layout" class="ui-widget-content"> <tbody> <tr> <td id="navcell"> <div id="nav"> <h3> ResourceManager </h3> <ul> <li> <a href="/yarnui/hn/">RM Home</a> </ul> </div> </td> <td class="content"> <p> Log Type: stderr <p> Log Upload Time: Wed Apr 19 02:36:09 +0000 2017 <p> Log Length: 3 <pre>ERR</pre> <p> Log Type: stdout <p> Log Upload Time: Wed Apr 19 02:36:09 +0000 2017 <p> Log Length: 3 <pre>OUT</pre> </td> </tr> </tbody> </table> </html>' with status code 200
+    Then get YarnUI log 'stderr' from '/yarnui/10.0.0.15/node/containerlogs/container_e02_1492415936046_0015_01_000001/livy' should return 'ERR'
+    Then get YarnUI log 'stdout' from '/yarnui/10.0.0.15/node/containerlogs/container_e02_1492415936046_0015_01_000001/livy' should return 'OUT'
+
+  Scenario: setResponse compresses the body with gzip when it's accepted
+    Given a job view server responding a body of 4096 'a' with ETag none
+    Then request the job view server with headers:
+      | Accept-Encoding | deflate, gzip |
+    Then the job view response should be 200 with Content-Encoding 'gzip' and the body sent
+
+  Scenario: setResponse doesn't compress the body when gzip is refused
+    Given a job view server responding a body of 4096 'a' with ETag none
+    Then request the job view server with headers:
+      | Accept-Encoding | gzip;q=0 |
+    Then the job view response should be 200 with Content-Encoding '' and the body sent
+
+  Scenario: setResponse doesn't compress the small body
+    Given a job view server responding a body of 10 'a' with ETag none
+    Then request the job view server with headers:
+      | Accept-Encoding | gzip |
+    Then the job view response should be 200 with Content-Encoding '' and the body sent
+
+  Scenario: setResponse responds Not Modified when the ETag is matched
+    Given a job view server responding a body of 4096 'a' with ETag strong
+    Then request the job view server with headers:
+      | Accept-Encoding | gzip          |
+      | If-None-Match   | "other", $etag |
+    Then the job view response should be 304 with Content-Encoding '' and the body not sent
+
+  Scenario: setResponse sends the body when the ETag is not matched
+    Given a job view server responding a body of 4096 'a' with ETag strong
+    Then request the job view server with headers:
+      | Accept-Encoding | gzip    |
+      | If-None-Match   | "other" |
+    Then the job view response should be 200 with Content-Encoding 'gzip' and the body sent
+
+  Scenario: a large Spark task list is parsed element by element from the response stream
+    Given mock a http service in JobUtilsScenario for GET request '/history/application_1/1/stages/2/0/taskList' to return a list of 20000 tasks
+    Then the first 10 tasks parsed from '/history/application_1/1/stages/2/0/taskList' should be read from less than 5% of the response
+    Then all the 20000 tasks parsed from '/history/application_1/1/stages/2/0/taskList' should be emitted in order
+
+  Scenario: JobViewResponseCache answers a finished application from the cache
+    Given a job view server responding the jobs of the Yarn application 'application_1_0001' in state 'FINISHED' through the response cache
+    Then request the jobs of the job view server 2 times
+    Then the jobs should be loaded from the cluster 1 time
+
+  Scenario: JobViewResponseCache loads a running application every time
+    Given a job view server responding the jobs of the Yarn application 'application_1_0002' in state 'RUNNING' through the response cache
+    Then request the jobs of the job view server 2 times
+    Then the jobs should be loaded from the cluster 2 times
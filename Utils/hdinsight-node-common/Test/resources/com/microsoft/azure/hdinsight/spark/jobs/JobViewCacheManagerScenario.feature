@@ -0,0 +1,54 @@
+Feature: Spark job view caching
+
+  Scenario: Load the task lists of the stages concurrently and keep the stage order
+    Given a Spark application 'application_3_0001' on the cluster 'jobViewTasksCluster' with the stages:
+      | stageId | attemptId | status   | tasks | delay |
+      | 0       | 0         | COMPLETE | 3     | 900   |
+      | 1       | 0         | FAILED   | 2     | 500   |
+      | 2       | 1         | COMPLETE | 4     | 500   |
+      | 3       | 0         | SKIPPED  | 0     | 500   |
+      | 4       | 0         | ACTIVE   | 2500  | 500   |
+      | 5       | 0         | PENDING  | 0     | 100   |
+    # Loaded one by one, the task lists would take 3000 ms at least
+    Then getting the tasks of the application should return the tasks of the stages in order within 2000 ms
+
+  Scenario: Serve the task lists of the finished stage attempts from the cache
+    Given a Spark application 'application_3_0002' on the cluster 'jobViewCachedTasksCluster' with the stages:
+      | stageId | attemptId | status   | tasks | delay |
+      | 0       | 0         | COMPLETE | 3     | 0     |
+      | 1       | 0         | FAILED   | 2     | 0     |
+      | 2       | 0         | SKIPPED  | 0     | 0     |
+      | 3       | 0         | ACTIVE   | 5     | 0     |
+      | 4       | 0         | PENDING  | 0     | 0     |
+    Then getting the tasks of the application should return the tasks of the stages in order within 5000 ms
+    Then getting the tasks of the application should return the tasks of the stages in order within 5000 ms
+    Then the stages of the application should be requested 1 time
+    Then the task list of the stage 0 attempt 0 should be requested 1 time
+    Then the task list of the stage 1 attempt 0 should be requested 1 time
+    Then the task list of the stage 2 attempt 0 should be requested 1 time
+    Then the task list of the stage 3 attempt 0 should be requested 2 times
+    Then the task list of the stage 4 attempt 0 should be requested 2 times
+
+  Scenario: Freeze the job view responses once the Spark attempt is completed, and drop the cached state once
+    Given a Spark application 'application_3_0003' on the cluster 'jobViewFinishedCluster' with the stages:
+      | stageId | attemptId | status   | tasks | delay |
+      | 0       | 0         | COMPLETE | 1     | 0     |
+    And the Yarn application state is 'FINISHED'
+    When get the stages of the application
+    # Yarn reports the application finished before the Spark history server completes the attempt
+    Then the responses of the application should not be final
+    When the Spark attempt of the application is completed
+    Then the responses of the application should be final
+    And the responses of the application should be final
+    When get the stages of the application
+    And get the stages of the application
+    Then the stages of the application should be requested 2 times
+
+  Scenario: Match the application keys of the same cluster and application ignoring the case
+    Then the application keys should be equal or not as the following:
+      | connection              | appId          | otherConnection         | otherAppId     | equal |
+      | https://a.example.net   | application_1  | https://a.example.net   | application_1  | true  |
+      | https://a.example.net   | application_1  | https://A.EXAMPLE.NET   | APPLICATION_1  | true  |
+      | https://a.example.net   | application_1  | https://a.example.net   | application_2  | false |
+      | https://a.example.net   | application_1  | https://b.example.net   | application_1  | false |
+      | https://a.example.net   | https://a.example.net | https://a.example.net | application_1 | false |
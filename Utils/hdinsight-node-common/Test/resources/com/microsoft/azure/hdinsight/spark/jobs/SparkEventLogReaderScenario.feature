@@ -0,0 +1,40 @@
+Feature: Spark event log reading
+
+  Scenario: Check the event type of the event log lines without parsing them
+    Then the following event log lines should be checked as SparkListenerJobStart events
+      | {"Event":"SparkListenerJobStart","Job ID":0}          | true  |
+      | {"Job ID":0,"Event":"SparkListenerJobStart"}          | true  |
+      | { "Event":"SparkListenerJobStart","Job ID":0}         | true  |
+      | {"Event":"sparklistenerjobstart","Job ID":0}          | true  |
+      | {"Event":"SparkListenerJobEnd","Job ID":0}            | false |
+      | {"Event":"SparkListenerJobStarted","Job ID":0}        | false |
+      | {"Event":"SparkListenerJobStart                       | false |
+      | {"Job ID":0,"Properties":{"SparkListenerJobStart":""}} | false |
+      | {"Job ID":0}                                          | false |
+
+  Scenario: Read the job start events of an attempt among several event logs
+    Given the Spark event logs zip with the following entries
+      | application_01_1 | {"Event":"SparkListenerJobStart","Job ID":1}\n{"Event":"SparkListenerJobEnd","Job ID":1}                                  |
+      | application_01_2 | {"Event":"SparkListenerJobStart","Job ID":2}\n{"Event":"SparkListenerTaskEnd","Stage ID":0}\n{"Job ID":3,"Event":"SparkListenerJobStart"} |
+      | application_02_1 | {"Event":"SparkListenerJobStart","Job ID":9}                                                                              |
+    Then the job start events read from the event logs entry 'application_01_2' should be '2,3'
+    Then the job start events read from the event logs entry 'application_02_1' should be '9'
+    Then reading the event logs entry 'application_03_1' should fail with 'HDIException'
+
+  Scenario: Skip the corrupt event log lines and fail on the truncated event logs
+    Given the Spark event logs zip with the following entries
+      | application_01_1 | {"Event":"SparkListenerJobStart","Job ID":1}\n{"Event":"SparkListenerJobStart","Job ID":\n{"Event":"SparkListenerJobStart","Job ID":2} |
+    Then the job start events read from the event logs entry 'application_01_1' should be '1,2'
+    Given the Spark event logs zip with 2000 job start events in entry 'application_01_1' truncated to half
+    Then reading the event logs entry 'application_01_1' should fail with 'IOException'
+    Given the Spark event logs which isn't a zip
+    Then reading the event logs entry 'application_01_1' should fail with 'HDIException'
+
+  Scenario: Reuse the job start events index of a completed attempt
+    Given the Spark event logs zip with the following entries
+      | application_01_1 | {"Event":"SparkListenerJobStart","Job ID":1}\n{"Event":"SparkListenerJobStart","Job ID":2} |
+    Then getting the job start events of 'application_01_1' twice with completed 'true' should be '1,2' and open the event logs 1 times
+    Then getting the job start events of 'application_01_1' twice with completed 'false' should be '1,2' and open the event logs 2 times
+    Given the job start events index of 'application_01_1' is corrupt
+    Then getting the job start events of 'application_01_1' twice with completed 'true' should be '1,2' and open the event logs 1 times
+    And the job start events index folder should only hold the index of 'application_01_1'
@@ -77,7 +77,7 @@ public class ClusterOperationNewAPIImpl extends ClusterOperationImpl implements
             entity.setContentType("application/json");
             return getHttp()
                     .withUuidUserAgent()
-                    .post(url, entity, null, null, ClusterConfiguration.class);
+                    .postStreaming(url, entity, null, null, ClusterConfiguration.class);
         } catch (IOException ex) {
             log().info("Cluster ID: " + clusterId);
             log().warn("Error getting Azure Manager when probe new HDInsight API. " + ExceptionUtils.getStackTrace(ex));
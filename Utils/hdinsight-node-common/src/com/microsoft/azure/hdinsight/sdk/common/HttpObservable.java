@@ -12,11 +12,9 @@ import com.microsoft.azure.hdinsight.sdk.common.errorresponse.*;
 import com.microsoft.azure.hdinsight.sdk.rest.ObjectConvertUtils;
 import com.microsoft.azuretools.azurecommons.helpers.NotNull;
 import com.microsoft.azuretools.azurecommons.helpers.Nullable;
-import com.microsoft.azuretools.service.ServiceManager;
 import com.microsoft.tooling.msservices.components.DefaultLoader;
 import org.apache.commons.codec.binary.Base64;
 import org.apache.commons.lang3.StringUtils;
-import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.apache.http.*;
 import org.apache.http.client.CookieStore;
 import org.apache.http.client.config.AuthSchemes;
@@ -25,9 +23,7 @@ import org.apache.http.client.config.RequestConfig;
 import org.apache.http.client.methods.*;
 import org.apache.http.client.protocol.HttpClientContext;
 import org.apache.http.client.utils.URIBuilder;
-import org.apache.http.conn.ssl.DefaultHostnameVerifier;
-import org.apache.http.conn.ssl.NoopHostnameVerifier;
-import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
+import org.apache.http.conn.HttpClientConnectionManager;
 import org.apache.http.impl.client.BasicCookieStore;
 import org.apache.http.impl.client.CloseableHttpClient;
 import org.apache.http.impl.client.HttpClients;
@@ -35,19 +31,12 @@ import org.apache.http.message.BasicHeader;
 import org.apache.http.message.HeaderGroup;
 import org.apache.http.protocol.BasicHttpContext;
 import org.apache.http.protocol.HttpContext;
-import org.apache.http.ssl.SSLContextBuilder;
-import org.apache.http.ssl.TrustStrategy;
 import org.apache.http.util.EntityUtils;
 import rx.Observable;
-import rx.exceptions.Exceptions;
 
-import javax.net.ssl.SSLContext;
 import java.io.IOException;
 import java.net.UnknownServiceException;
 import java.nio.charset.StandardCharsets;
-import java.security.KeyManagementException;
-import java.security.KeyStoreException;
-import java.security.NoSuchAlgorithmException;
 import java.util.*;
 
 import static rx.exceptions.Exceptions.propagate;
@@ -108,12 +97,7 @@ public class HttpObservable implements ILogger {
                 .setProxyPreferredAuthSchemes(Collections.singletonList(AuthSchemes.BASIC))
                 .build();
 
-        this.httpClient = HttpClients.custom()
-                .useSystemProperties()
-                .setDefaultCookieStore(getCookieStore())
-                .setDefaultRequestConfig(getDefaultRequestConfig())
-                .setSSLSocketFactory(createSSLSocketFactory())
-                .build();
+        this.httpClient = buildHttpClient();
     }
 
     /**
@@ -131,13 +115,6 @@ public class HttpObservable implements ILogger {
             setDefaultHeader(new BasicHeader(
                     HttpHeaders.AUTHORIZATION, String.format("%s %s", "Basic", new String(encodedAuth))));
         }
-
-        this.httpClient = HttpClients.custom()
-                .useSystemProperties()
-                .setDefaultCookieStore(getCookieStore())
-                .setDefaultRequestConfig(getDefaultRequestConfig())
-                .setSSLSocketFactory(createSSLSocketFactory())
-                .build();
     }
 
     /*
@@ -243,25 +220,41 @@ public class HttpObservable implements ILogger {
         }
     }
 
-    private SSLConnectionSocketFactory createSSLSocketFactory() {
-        TrustStrategy ts = ServiceManager.getServiceProvider(TrustStrategy.class);
-        SSLConnectionSocketFactory sslSocketFactory = null;
-
-        if (ts != null) {
-            try {
-                SSLContext sslContext = new SSLContextBuilder()
-                        .loadTrustMaterial(ts)
+    /**
+     * Build a HTTP client with this instance's cookie store and request configuration on top of the process-wide
+     * connection pool. Closing the client doesn't shut down the shared pool.
+     *
+     * The wait for a pooled connection is bounded by {@link SharedHttpConnectionManager#CONNECTION_REQUEST_TIMEOUT_MS}
+     * unless the request configuration sets its own timeout.
+     *
+     * @return the new HTTP client
+     */
+    @NotNull
+    protected CloseableHttpClient buildHttpClient() {
+        final RequestConfig requestConfig = getDefaultRequestConfig().getConnectionRequestTimeout() > 0
+                ? getDefaultRequestConfig()
+                : RequestConfig.copy(getDefaultRequestConfig())
+                        .setConnectionRequestTimeout(SharedHttpConnectionManager.CONNECTION_REQUEST_TIMEOUT_MS)
                         .build();
 
-                sslSocketFactory = new SSLConnectionSocketFactory(sslContext,
-                        HttpObservable.isSSLCertificateValidationDisabled()
-                                ? NoopHostnameVerifier.INSTANCE
-                                : new DefaultHostnameVerifier());
-            } catch (NoSuchAlgorithmException | KeyManagementException | KeyStoreException e) {
-                log().error("Prepare SSL Context for HTTPS failure. " + ExceptionUtils.getStackTrace(e));
-            }
-        }
-        return sslSocketFactory;
+        return HttpClients.custom()
+                .useSystemProperties()
+                .setConnectionManager(getSharedConnectionManager())
+                .setConnectionManagerShared(true)
+                .setDefaultCookieStore(getCookieStore())
+                .setDefaultRequestConfig(requestConfig)
+                .build();
+    }
+
+    /**
+     * Get the process-wide pool the HTTP client of this instance leases connections from, which trusts the IDE trust
+     * strategy and follows the SSL certificate validation setting
+     *
+     * @return the shared connection manager
+     */
+    @NotNull
+    protected HttpClientConnectionManager getSharedConnectionManager() {
+        return SharedHttpConnectionManager.getInstance().getConnectionManager();
     }
 
     @NotNull
@@ -316,14 +309,51 @@ public class HttpObservable implements ILogger {
                     }
                 },
                 // Resource dispose
+                HttpObservable::closeQuietly);
+    }
+
+    /**
+     * Helper to bind the closeable stream good Http response (2xx) to the specified type directly from the entity
+     * stream, without buffering the whole body as String.
+     * If the response is bad, propagate a HttpResponseException
+     *
+     * @param closeableHttpResponse the source closeable stream
+     * @param clazz the target type to convert
+     * @param <T> the target type
+     * @return Http Response body as the target type
+     */
+    public static <T> Observable<T> toObjectOnlyOkResponse(CloseableHttpResponse closeableHttpResponse,
+                                                           Class<T> clazz) {
+        return Observable.using(
+                () -> closeableHttpResponse,
                 streamResp -> {
                     try {
-                        streamResp.close();
-                    } catch (IOException ignore) {
-                        // The connection will be closed automatically after timeout,
-                        // the exception in closing can be ignored.
+                        if (streamResp.getStatusLine().getStatusCode() >= 300) {
+                            return Observable.error(classifyHttpError(streamResp));
+                        }
+
+                        return Observable.just(ObjectConvertUtils.convertJsonToObject(streamResp.getEntity().getContent(), clazz)
+                                .orElseThrow(() -> propagate(new HDIException("Empty HTTP server response"))));
+                    } catch (IOException e) {
+                        return Observable.error(e);
                     }
-                });
+                },
+                HttpObservable::closeQuietly);
+    }
+
+    /**
+     * Close the response to give its connection back to the shared pool, for the callers only checking the status
+     * or the headers
+     *
+     * @param streamResp the response to close
+     */
+    public static void closeQuietly(CloseableHttpResponse streamResp) {
+        try {
+            streamResp.close();
+        } catch (IOException ignore) {
+            // The connection will be closed automatically after timeout,
+            // the exception in closing can be ignored.
+        }
     }
 
     /**
@@ -406,6 +436,17 @@ public class HttpObservable implements ILogger {
                 .map(resp -> this.convertJsonResponseToObject(resp, clazz));
     }
 
+    /**
+     * GET a JSON resource and bind it directly from the response stream
+     */
+    public <T> Observable<T> getStreaming(@NotNull final String uri,
+                                          final List<NameValuePair> parameters,
+                                          final List<Header> addOrReplaceHeaders,
+                                          @NotNull final Class<T> clazz) {
+        return request(new HttpGet(uri), null, parameters, addOrReplaceHeaders)
+                .flatMap(resp -> toObjectOnlyOkResponse(resp, clazz));
+    }
+
     public <T> Observable<T> put(@NotNull final String uri,
                                  @Nullable final HttpEntity entity,
                                  final List<NameValuePair> parameters,
@@ -424,6 +465,18 @@ public class HttpObservable implements ILogger {
                 .map(resp -> this.convertJsonResponseToObject(resp, clazz));
     }
 
+    /**
+     * POST and bind the JSON response directly from the response stream
+     */
+    public <T> Observable<T> postStreaming(@NotNull final String uri,
+                                           @Nullable final HttpEntity entity,
+                                           final List<NameValuePair> parameters,
+                                           final List<Header> addOrReplaceHeaders,
+                                           @NotNull final Class<T> clazz) {
+        return request(new HttpPost(uri), entity, parameters, addOrReplaceHeaders)
+                .flatMap(resp -> toObjectOnlyOkResponse(resp, clazz));
+    }
+
     public Observable<HttpResponse> delete(@NotNull final String uri,
                                            final List<NameValuePair> parameters,
                                            final List<Header> addOrReplaceHeaders) {
@@ -445,13 +498,18 @@ public class HttpObservable implements ILogger {
                                                                       List<Header> addOrReplaceHeaders,
                                                                       int validStatueCode) {
         return request(httpRequest, entity, parameters, addOrReplaceHeaders)
-                .doOnNext(resp -> {
+                .flatMap(resp -> {
                     int statusCode = resp.getStatusLine().getStatusCode();
                     if (statusCode != validStatueCode) {
-                        Exceptions.propagate(new UnknownServiceException(
-                                String.format("Exceute request with unexpected code %s and resp %s", statusCode, resp)
-                        ));
+                        final String message = String.format(
+                                "Exceute request with unexpected code %s and resp %s", statusCode, resp);
+                        // Nobody gets the response to close, so give its connection back to the pool here
+                        closeQuietly(resp);
+
+                        return Observable.error(new UnknownServiceException(message));
                     }
+
+                    return Observable.just(resp);
                 });
     }
 }
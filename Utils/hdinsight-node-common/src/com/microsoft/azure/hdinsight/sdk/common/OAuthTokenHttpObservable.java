@@ -10,7 +10,7 @@ import com.microsoft.azuretools.azurecommons.helpers.Nullable;
 import org.apache.http.Header;
 import org.apache.http.client.config.CookieSpecs;
 import org.apache.http.client.config.RequestConfig;
-import org.apache.http.impl.client.HttpClients;
+import org.apache.http.conn.HttpClientConnectionManager;
 import org.apache.http.message.BasicHeader;
 
 import java.io.IOException;
@@ -38,11 +38,19 @@ public class OAuthTokenHttpObservable extends HttpObservable {
                 .setCookieSpec(CookieSpecs.DEFAULT)
                 .build());
 
-        setHttpClient(HttpClients.custom()
-                .useSystemProperties()
-                .setDefaultCookieStore(getCookieStore())
-                .setDefaultRequestConfig(getDefaultRequestConfig())
-                .build());
+        setHttpClient(buildHttpClient());
+    }
+
+    /**
+     * Bearer tokens are only sent over connections with the system trust and host name verification, the IDE trust
+     * strategy and the HDInsight SSL certificate validation setting don't apply to them
+     *
+     * @return the shared connection manager with system trust
+     */
+    @NotNull
+    @Override
+    protected HttpClientConnectionManager getSharedConnectionManager() {
+        return SharedHttpConnectionManager.getInstance().getSystemTrustConnectionManager();
     }
 
     @NotNull
@@ -0,0 +1,224 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.hdinsight.sdk.common;
+
+import com.microsoft.azure.hdinsight.common.logger.ILogger;
+import com.microsoft.azuretools.azurecommons.helpers.NotNull;
+import com.microsoft.azuretools.azurecommons.helpers.Nullable;
+import com.microsoft.azuretools.service.ServiceManager;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.apache.http.config.Registry;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.conn.HttpClientConnectionManager;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
+import org.apache.http.conn.ssl.DefaultHostnameVerifier;
+import org.apache.http.conn.ssl.NoopHostnameVerifier;
+import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
+import org.apache.http.ssl.SSLContextBuilder;
+import org.apache.http.ssl.SSLContexts;
+import org.apache.http.ssl.TrustStrategy;
+
+import javax.net.ssl.HostnameVerifier;
+import javax.net.ssl.SSLContext;
+import java.security.KeyManagementException;
+import java.security.KeyStoreException;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The process-wide pooled connection manager behind every {@link HttpObservable}.
+ *
+ * All HTTP clients built by {@link HttpObservable} lease connections from one pool that shares a single SSL context,
+ * so Livy, YARN, Spark history and ADLS Gen2 requests reuse kept-alive TLS connections instead of doing a new
+ * handshake per observable. Credentials, cookies and headers stay per client instance.
+ *
+ * The clients calling Azure Resource Manager and token endpoints lease from a separate pool,
+ * see {@link #getSystemTrustConnectionManager()}, so the IDE trust strategy and the HDInsight setting to disable SSL
+ * certificate validation never apply to them.
+ *
+ * Every response must be closed or its entity consumed to give its connection back to the pool, a leaked one keeps
+ * the connection leased and the later requests to the same route wait for it up to
+ * {@link #CONNECTION_REQUEST_TIMEOUT_MS}.
+ */
+public final class SharedHttpConnectionManager implements ILogger {
+    private static final int MAX_TOTAL_CONNECTIONS = 200;
+    private static final int MAX_CONNECTIONS_PER_ROUTE = 20;
+    private static final int VALIDATE_AFTER_INACTIVITY_MS = 2000;
+    private static final long IDLE_TIMEOUT_SECONDS = 30;
+    private static final long EVICTION_INTERVAL_SECONDS = 10;
+
+    /**
+     * The longest time to wait for a connection leased from the pool, so a route whose connections are all leased
+     * fails the request instead of blocking it forever
+     */
+    public static final int CONNECTION_REQUEST_TIMEOUT_MS = 60 * 1000;
+
+    // The key of the pool used when no trust strategy is provided
+    private static final Object SYSTEM_DEFAULT_TRUST = new Object();
+
+    // The pools by the trust strategy their SSL context is built with, since the strategy can be provided after
+    // the first client is built
+    @NotNull
+    private final ConcurrentMap<Object, PoolingHttpClientConnectionManager> connectionManagers =
+            new ConcurrentHashMap<>();
+
+    // The pool with the system trust and host name verification only, for the Azure and OAuth clients
+    @NotNull
+    private final PoolingHttpClientConnectionManager systemTrustConnectionManager =
+            createConnectionManager(createSystemSocketFactoryRegistry());
+
+    private SharedHttpConnectionManager() {
+        final ScheduledExecutorService evictor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "hdinsight-http-connection-evictor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        evictor.scheduleWithFixedDelay(() -> {
+            connectionManagers.values().forEach(SharedHttpConnectionManager::evictConnections);
+            evictConnections(systemTrustConnectionManager);
+        }, EVICTION_INTERVAL_SECONDS, EVICTION_INTERVAL_SECONDS, TimeUnit.SECONDS);
+    }
+
+    private static class LazyHolder {
+        static final SharedHttpConnectionManager INSTANCE = new SharedHttpConnectionManager();
+    }
+
+    @NotNull
+    public static SharedHttpConnectionManager getInstance() {
+        return LazyHolder.INSTANCE;
+    }
+
+    /**
+     * Get the pool for the trust strategy currently provided, which is built at the first call with that strategy
+     *
+     * @return the pooled connection manager
+     */
+    @NotNull
+    public HttpClientConnectionManager getConnectionManager() {
+        final TrustStrategy trustStrategy = ServiceManager.getServiceProvider(TrustStrategy.class);
+
+        return connectionManagers.computeIfAbsent(
+                trustStrategy != null ? trustStrategy : SYSTEM_DEFAULT_TRUST,
+                ignored -> createConnectionManager(createSocketFactoryRegistry(trustStrategy)));
+    }
+
+    /**
+     * Get the pool for the clients calling Azure Resource Manager and token endpoints with bearer tokens. Its SSL
+     * socket factory is the system one, with the system trust, the default host name verifier and the
+     * {@code https.protocols}, {@code https.cipherSuites} and {@code javax.net.ssl.*} system properties, whatever the
+     * IDE trust strategy or the SSL certificate validation setting is.
+     *
+     * @return the pooled connection manager with system trust
+     */
+    @NotNull
+    public HttpClientConnectionManager getSystemTrustConnectionManager() {
+        return systemTrustConnectionManager;
+    }
+
+    /**
+     * Get the pool statistics, with leased, pending, available and max connections over all routes and pools
+     *
+     * @return the pool statistics snapshot
+     */
+    @NotNull
+    public PoolStats getTotalStats() {
+        int leased = 0;
+        int pending = 0;
+        int available = 0;
+        int max = 0;
+        final List<PoolingHttpClientConnectionManager> pools = new ArrayList<>(connectionManagers.values());
+        pools.add(systemTrustConnectionManager);
+        for (final PoolingHttpClientConnectionManager connectionManager : pools) {
+            final PoolStats stats = connectionManager.getTotalStats();
+            leased += stats.getLeased();
+            pending += stats.getPending();
+            available += stats.getAvailable();
+            max += stats.getMax();
+        }
+
+        return new PoolStats(leased, pending, available, max);
+    }
+
+    private static void evictConnections(@NotNull PoolingHttpClientConnectionManager connectionManager) {
+        connectionManager.closeExpiredConnections();
+        connectionManager.closeIdleConnections(IDLE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    @NotNull
+    private static PoolingHttpClientConnectionManager createConnectionManager(
+            @NotNull Registry<ConnectionSocketFactory> socketFactoryRegistry) {
+        final PoolingHttpClientConnectionManager connectionManager =
+                new PoolingHttpClientConnectionManager(socketFactoryRegistry);
+        connectionManager.setMaxTotal(MAX_TOTAL_CONNECTIONS);
+        connectionManager.setDefaultMaxPerRoute(MAX_CONNECTIONS_PER_ROUTE);
+        connectionManager.setValidateAfterInactivity(VALIDATE_AFTER_INACTIVITY_MS);
+
+        return connectionManager;
+    }
+
+    @NotNull
+    private Registry<ConnectionSocketFactory> createSocketFactoryRegistry(@Nullable TrustStrategy trustStrategy) {
+        if (trustStrategy == null) {
+            return createSystemSocketFactoryRegistry();
+        }
+
+        // Decide the host name verification per connection, since the setting can be changed after the pool is built
+        final HostnameVerifier hostnameVerifier = (host, session) ->
+                HttpObservable.isSSLCertificateValidationDisabled()
+                        ? NoopHostnameVerifier.INSTANCE.verify(host, session)
+                        : new DefaultHostnameVerifier().verify(host, session);
+
+        return RegistryBuilder.<ConnectionSocketFactory>create()
+                .register("http", PlainConnectionSocketFactory.getSocketFactory())
+                .register("https", new SSLConnectionSocketFactory(
+                        createSSLContext(trustStrategy),
+                        splitSystemProperty("https.protocols"),
+                        splitSystemProperty("https.cipherSuites"),
+                        hostnameVerifier))
+                .build();
+    }
+
+    /**
+     * The same socket factories as the ones of a client built with system properties and without a connection manager
+     */
+    @NotNull
+    private static Registry<ConnectionSocketFactory> createSystemSocketFactoryRegistry() {
+        return RegistryBuilder.<ConnectionSocketFactory>create()
+                .register("http", PlainConnectionSocketFactory.getSocketFactory())
+                .register("https", SSLConnectionSocketFactory.getSystemSocketFactory())
+                .build();
+    }
+
+    @NotNull
+    private SSLContext createSSLContext(@NotNull TrustStrategy trustStrategy) {
+        try {
+            return new SSLContextBuilder()
+                    .loadTrustMaterial(trustStrategy)
+                    .build();
+        } catch (NoSuchAlgorithmException | KeyManagementException | KeyStoreException e) {
+            log().error("Prepare SSL Context for HTTPS failure. " + ExceptionUtils.getStackTrace(e));
+        }
+
+        return SSLContexts.createSystemDefault();
+    }
+
+    @Nullable
+    private static String[] splitSystemProperty(@NotNull String key) {
+        final String value = System.getProperty(key);
+
+        return StringUtils.isBlank(value) ? null : value.split(" *, *");
+    }
+}
@@ -236,7 +236,7 @@ public class AzureSparkServerlessAccount implements IClusterDetail, ClusterConta
 
         return new AzureDataLakeHttpObservable(subscription.getTenantId(), VERSION)
                 .withUuidUserAgent()
-                .get(url.toString(), parameters, null, JobInfoListResult.class);
+                .getStreaming(url.toString(), parameters, null, JobInfoListResult.class);
     }
 
     @NotNull
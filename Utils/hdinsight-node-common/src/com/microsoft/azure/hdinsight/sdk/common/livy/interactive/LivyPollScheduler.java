@@ -0,0 +1,256 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.hdinsight.sdk.common.livy.interactive;
+
+import com.microsoft.azure.hdinsight.sdk.rest.livy.interactive.api.session.GetStatementsResponse;
+import com.microsoft.azuretools.azurecommons.helpers.NotNull;
+import com.microsoft.azuretools.azurecommons.helpers.Nullable;
+import org.apache.http.NameValuePair;
+import org.apache.http.message.BasicNameValuePair;
+import rx.Observable;
+import rx.Scheduler;
+import rx.functions.Func1;
+import rx.schedulers.Schedulers;
+import rx.subjects.PublishSubject;
+import rx.subjects.Subject;
+
+import java.net.URI;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import static java.lang.Thread.sleep;
+
+/**
+ * The scheduler of all outstanding Livy session and statement waits of one cluster endpoint.
+ *
+ * The waits poll with exponential backoff and jitter, starting over from the shortest delay once the polled state
+ * changes. The waits for the statements of one session share one `GET /sessions/{id}/statements` poll, which only
+ * asks for the statements from the lowest one waited for.
+ */
+public class LivyPollScheduler {
+    private static final long INITIAL_DELAY_MS = 250;
+    private static final long MAX_DELAY_MS = 10_000;
+    private static final double BACKOFF_MULTIPLIER = 2;
+    private static final double JITTER_RATIO = 0.2;
+
+    // The fixed delay the polls used to have, each wait polled once at start and then every delay
+    private static final long BASELINE_DELAY_MS = 1000;
+
+    private static final Map<String, LivyPollScheduler> schedulers = new ConcurrentHashMap<>();
+
+    private final Map<String, StatementsPoll> statementsPolls = new ConcurrentHashMap<>();
+    private final AtomicLong pollsIssued = new AtomicLong();
+    private final AtomicLong pollsSaved = new AtomicLong();
+
+    @NotNull
+    public static LivyPollScheduler getInstance(@NotNull URI baseUrl) {
+        return schedulers.computeIfAbsent(baseUrl.toString(), url -> new LivyPollScheduler());
+    }
+
+    /**
+     * The count of the poll requests sent
+     */
+    public long getPollsIssued() {
+        return pollsIssued.get();
+    }
+
+    /**
+     * The count of the poll requests saved by the ended waits, compared to polling every wait each second. It's the
+     * count of the requests the waits would have sent at the fixed delay, less the requests they sent.
+     */
+    public long getPollsSaved() {
+        return pollsSaved.get();
+    }
+
+    /**
+     * Repeat the request with backoff until unsubscribed
+     *
+     * @param request the request to repeat, which is subscribed again for each poll
+     * @param stateOf the state of a response, the backoff is reset once it changes
+     * @param scheduler the scheduler to delay on by sleeping, or null to delay with timers
+     * @return all responses of the polls
+     */
+    @NotNull
+    public <T> Observable<T> poll(@NotNull Observable<T> request,
+                                  @NotNull Func1<? super T, ?> stateOf,
+                                  @Nullable Scheduler scheduler) {
+        return Observable.defer(() -> {
+            final Backoff backoff = new Backoff();
+            final long startMs = System.currentTimeMillis();
+            final AtomicLong requests = new AtomicLong();
+
+            return request
+                    .doOnSubscribe(() -> {
+                        pollsIssued.incrementAndGet();
+                        requests.incrementAndGet();
+                    })
+                    .doOnNext(response -> backoff.onState(stateOf.call(response)))
+                    .repeatWhen(ob -> scheduler != null ?
+                                      // Use specified scheduler to delay
+                                      ob.doOnNext(any -> {
+                                          try {
+                                              sleep(backoff.nextDelayMs());
+                                          } catch (InterruptedException ignored) {
+                                          }
+                                      }) :
+                                      ob.flatMap(any -> Observable.timer(backoff.nextDelayMs(), TimeUnit.MILLISECONDS)),
+                                scheduler != null ? scheduler : Schedulers.trampoline())
+                    .doOnUnsubscribe(() -> pollsSaved.addAndGet(getBaselinePolls(startMs) - requests.get()));
+        });
+    }
+
+    /**
+     * Poll the state of a statement until unsubscribed. The polls of the statements in one session are coalesced
+     * into one request for all statements.
+     *
+     * @return the statement responses of all polls
+     */
+    @NotNull
+    public Observable<com.microsoft.azure.hdinsight.sdk.rest.livy.interactive.Statement> pollStatement(
+            @NotNull Session session, int statementId) {
+        final String sessionUrl = session.getUri().toString();
+
+        return Observable.using(
+                () -> new StatementWait(statementsPolls.compute(sessionUrl, (url, poll) -> {
+                    final StatementsPoll joined = poll != null ? poll : new StatementsPoll(session);
+                    joined.waiters++;
+                    joined.waitingStatementIds.merge(statementId, 1, Integer::sum);
+                    return joined;
+                })),
+                wait -> Observable
+                        .merge(wait.poll.statements,
+                               // Check the joined statement at once if others are waiting for a delay
+                               Observable.<List<com.microsoft.azure.hdinsight.sdk.rest.livy.interactive.Statement>>empty()
+                                       .doOnCompleted(() -> {
+                                           if (wait.poll.waiters > 1) {
+                                               wait.poll.wakeUp();
+                                           }
+                                       }))
+                        .concatMap(Observable::from)
+                        .filter(statement -> statement.getId() == statementId),
+                wait -> statementsPolls.computeIfPresent(sessionUrl, (url, left) -> {
+                    left.waitingStatementIds.computeIfPresent(statementId, (id, count) -> count == 1 ? null : count - 1);
+                    left.baselinePolls += getBaselinePolls(wait.startMs);
+                    if (--left.waiters > 0) {
+                        return left;
+                    }
+
+                    // The waits of the shared poll are all ended
+                    pollsSaved.addAndGet(left.baselinePolls - left.requests.get());
+                    return null;
+                }));
+    }
+
+    private static long getBaselinePolls(long startMs) {
+        return 1 + (System.currentTimeMillis() - startMs) / BASELINE_DELAY_MS;
+    }
+
+    /**
+     * One wait for a statement in the shared poll
+     */
+    private static class StatementWait {
+        private final StatementsPoll poll;
+        private final long startMs = System.currentTimeMillis();
+
+        StatementWait(@NotNull StatementsPoll poll) {
+            this.poll = poll;
+        }
+    }
+
+    /**
+     * The shared poll of the statements in one session
+     */
+    private class StatementsPoll {
+        private final Observable<List<com.microsoft.azure.hdinsight.sdk.rest.livy.interactive.Statement>> statements;
+        // Wake up the poll waiting for its delay, to check the statement just joined
+        private final Subject<Object, Object> wakeUps = PublishSubject.create().toSerialized();
+        private final AtomicLong requests = new AtomicLong();
+        // The waiting statement IDs with the count of their waits, and the waiters count. Only changed in the map
+        // compute functions, which are atomic
+        private final ConcurrentSkipListMap<Integer, Integer> waitingStatementIds = new ConcurrentSkipListMap<>();
+        private volatile int waiters = 0;
+        // The requests the ended waits would have sent at the fixed delay
+        private long baselinePolls = 0;
+
+        StatementsPoll(@NotNull Session session) {
+            final Backoff backoff = new Backoff();
+            final URI uri = URI.create(session.getUri().toString() + "/" + Statement.REST_SEGMENT_STATEMENTS);
+
+            this.statements = Observable
+                    .defer(() -> session.getHttp()
+                            .setUserAgent(session.getUserAgent())
+                            .getStreaming(uri.toString(), getFromParameters(), null, GetStatementsResponse.class))
+                    .doOnSubscribe(() -> {
+                        pollsIssued.incrementAndGet();
+                        requests.incrementAndGet();
+                    })
+                    .map(response -> response.getStatements() == null
+                                     ? Collections.<com.microsoft.azure.hdinsight.sdk.rest.livy.interactive.Statement>emptyList()
+                                     : response.getStatements())
+                    .doOnNext(list -> {
+                        backoff.onState(list.stream()
+                                            .map(com.microsoft.azure.hdinsight.sdk.rest.livy.interactive.Statement::getState)
+                                            .collect(Collectors.toList()));
+                    })
+                    .repeatWhen(ob -> ob.flatMap(any -> Observable.amb(
+                            Observable.timer(backoff.nextDelayMs(), TimeUnit.MILLISECONDS),
+                            wakeUps.take(1).map(any -> 0L))))
+                    .share();
+        }
+
+        void wakeUp() {
+            wakeUps.onNext(this);
+        }
+
+        /**
+         * The `from` parameter to skip the statements before the lowest one waited for, the statement IDs are their
+         * indexes in the session
+         */
+        @Nullable
+        private List<NameValuePair> getFromParameters() {
+            final Map.Entry<Integer, Integer> lowest = waitingStatementIds.firstEntry();
+
+            return lowest == null
+                   ? null
+                   : Collections.singletonList(new BasicNameValuePair("from", String.valueOf(lowest.getKey())));
+        }
+    }
+
+    /**
+     * The exponential backoff with jitter of one poll
+     */
+    private class Backoff {
+        private long delayMs = INITIAL_DELAY_MS;
+        @Nullable
+        private Object lastState = null;
+        private boolean hasState = false;
+
+        synchronized void onState(@Nullable Object state) {
+            if (hasState && !Objects.equals(lastState, state)) {
+                delayMs = INITIAL_DELAY_MS;
+            }
+
+            lastState = state;
+            hasState = true;
+        }
+
+        synchronized long nextDelayMs() {
+            final double jitter = 1 + ThreadLocalRandom.current().nextDouble(-JITTER_RATIO, JITTER_RATIO);
+            final long next = (long) (delayMs * jitter);
+            delayMs = Math.min(MAX_DELAY_MS, (long) (delayMs * BACKOFF_MULTIPLIER));
+
+            return next;
+        }
+    }
+}
@@ -28,7 +28,6 @@ import org.apache.commons.lang3.tuple.ImmutablePair;
 import org.apache.http.entity.StringEntity;
 import rx.Observable;
 import rx.Scheduler;
-import rx.schedulers.Schedulers;
 import rx.subjects.PublishSubject;
 
 import java.io.ByteArrayInputStream;
@@ -46,7 +45,6 @@ import static com.microsoft.azure.hdinsight.common.MessageInfoType.Debug;
 import static com.microsoft.azure.hdinsight.common.MessageInfoType.Info;
 import static com.microsoft.azure.hdinsight.common.MessageInfoType.Warning;
 import static com.microsoft.azure.hdinsight.spark.common.log.SparkLogLine.TOOL;
-import static java.lang.Thread.sleep;
 import static rx.exceptions.Exceptions.propagate;
 
 public abstract class Session implements AutoCloseable, Closeable, ILogger {
@@ -365,8 +363,7 @@ public abstract class Session implements AutoCloseable, Closeable, ILogger {
     public Observable<String> getAppId() {
         return appId != null ?
                Observable.just(appId) :
-               this.get()
-                   .repeatWhen(ob -> ob.delay(1, TimeUnit.SECONDS))
+               getPollScheduler().poll(this.get(), session -> session.appId, null)
                    .takeUntil(session -> session.appId != null)
                    .filter(session -> session.appId != null)
                    .timeout(3, TimeUnit.MINUTES)
@@ -407,6 +404,10 @@ public abstract class Session implements AutoCloseable, Closeable, ILogger {
         return http;
     }
 
+    public LivyPollScheduler getPollScheduler() {
+        return LivyPollScheduler.getInstance(getBaseUrl());
+    }
+
     public SessionState getLastState() {
         return lastState;
     }
@@ -611,18 +612,7 @@ public abstract class Session implements AutoCloseable, Closeable, ILogger {
     }
 
     public Observable<Session> awaitReady(final @Nullable Scheduler scheduler) {
-        return get()
-                .repeatWhen(ob -> scheduler != null ?
-                                  // Use specified scheduler to delay
-                                  ob.doOnNext(any -> {
-                                      try {
-                                          sleep(1000);
-                                      } catch (InterruptedException ignored) {
-                                      }
-                                  }) :
-                                  // Use the default delay scheduler if scheduler not specified
-                                  ob.delay(1, TimeUnit.SECONDS),
-                            scheduler != null ? scheduler : Schedulers.trampoline())
+        return getPollScheduler().poll(get(), Session::getLastState, scheduler)
                 .takeUntil(Session::isStatementRunnable)
                 .reduce(new ImmutablePair<>(this, getLastLogs()), (sesLogsPair, ses) -> {
                     List<String> currentLogs = ses.getLastLogs();
@@ -654,6 +644,19 @@ public abstract class Session implements AutoCloseable, Closeable, ILogger {
         return runStatement(new Statement(this, new ByteArrayInputStream(codes.getBytes(StandardCharsets.UTF_8))));
     }
 
+    /**
+     * Submit the codes to run once the session is ready, without waiting for the result.
+     * The statements submitted are run by the session one by one in the submitting order.
+     *
+     * @param codes the codes to run
+     * @return the statement submitted
+     */
+    public Observable<Statement> submitCodes(final String codes) {
+        return awaitReady()
+                .flatMap(session -> new Statement(this, new ByteArrayInputStream(codes.getBytes(StandardCharsets.UTF_8)))
+                        .submit());
+    }
+
     public Observable<String> getLog() {
         throw new UnsupportedOperationException();
     }
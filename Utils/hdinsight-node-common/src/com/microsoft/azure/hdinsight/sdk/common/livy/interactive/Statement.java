@@ -22,7 +22,6 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
 import java.nio.charset.StandardCharsets;
-import java.util.concurrent.TimeUnit;
 
 public class Statement implements ILogger {
     public static final String REST_SEGMENT_STATEMENTS = "statements";
@@ -116,14 +115,37 @@ public class Statement implements ILogger {
      */
 
     public Observable<StatementOutput> run() {
+        return submit()
+                .flatMap(Statement::awaitOutput);
+    }
+
+    /**
+     * Post the statement to run, without waiting for the result
+     *
+     * @return the statement with the ID assigned by server
+     */
+    public Observable<Statement> submit() {
         return runStatementRequest()
+                .map(this::updateWithResponse);
+    }
+
+    /**
+     * Wait for the submitted statement done
+     *
+     * @return the statement output
+     */
+    public Observable<StatementOutput> awaitOutput() {
+        return Observable.defer(() -> {
+                    try {
+                        // The statements of the session are polled together by the scheduler
+                        return getSession().getPollScheduler().pollStatement(getSession(), getId());
+                    } catch (StatementNotStartException e) {
+                        return Observable.error(e);
+                    }
+                })
                 .map(this::updateWithResponse)
-                .flatMap(statement -> statement.get()                    // Get statement result
-                        .repeatWhen(ob -> ob.delay(1, TimeUnit.SECONDS)) // The unmet state won't trigger retries,
-                                                                         // which is handled by repeatWhen()
-                        .takeUntil(Statement::isDone)
-                        .filter(Statement::isDone)
-                )
+                .takeUntil(Statement::isDone)
+                .filter(Statement::isDone)
                 .map(Statement::getOutput);
     }
 
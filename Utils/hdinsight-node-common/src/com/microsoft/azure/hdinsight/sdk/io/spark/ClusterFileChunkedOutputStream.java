@@ -0,0 +1,382 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.hdinsight.sdk.io.spark;
+
+import com.microsoft.azure.hdinsight.common.logger.ILogger;
+import com.microsoft.azure.hdinsight.sdk.common.livy.interactive.Session;
+import com.microsoft.azure.hdinsight.sdk.common.livy.interactive.Statement;
+import com.microsoft.azure.hdinsight.sdk.rest.livy.interactive.StatementOutput;
+import com.microsoft.azuretools.azurecommons.helpers.NotNull;
+import com.microsoft.azuretools.azurecommons.helpers.Nullable;
+import org.apache.commons.codec.binary.Base64;
+import org.apache.commons.codec.binary.Hex;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The output stream to write a binary file into the cluster file system through a Livy interactive session.
+ *
+ * The data is sent in pages, each one a `writePage(offset, Array(...))` statement of Base64 encoded literals. Livy
+ * runs the statements of a session one by one in the submitting order, so several pages are kept in flight instead of
+ * waiting for every statement round trip. The page size grows while the pages are acknowledged fast and shrinks when they are slow.
+ *
+ * The cluster side only writes a page starting at the current written offset, and reports the offset back. When a
+ * page fails, the pages after the acknowledged offset are sent again, and the upload fails once a page is resumed for
+ * more than MAX_PAGE_RESUMES times. At closing, the total length and MD5 checksum written are verified.
+ */
+public class ClusterFileChunkedOutputStream extends OutputStream implements ILogger {
+    private static final int MIN_PAGE_SIZE = 64 * 1024;             // 64KB
+    private static final int INITIAL_PAGE_SIZE = 512 * 1024;        // 512KB
+    private static final int MAX_PAGE_SIZE = 2 * 1024 * 1024;       // 2MB
+    // JVM class file limits a string constant to 64KB, so the Base64 codes are split into several literals
+    private static final int MAX_LITERAL_LENGTH = 48 * 1024;
+    private static final int MAX_PAGES_IN_FLIGHT = 4;
+    // The retries of querying the upload state to resume from
+    private static final int MAX_RESUME_RETRIES = 3;
+    // The resumes of one page before giving up the upload
+    private static final int MAX_PAGE_RESUMES = 3;
+    private static final long FAST_ACK_MS = 2000;
+    private static final long SLOW_ACK_MS = 10000;
+
+    private static final Pattern UPLOAD_STATE_PATTERN = Pattern.compile("written=(\\d+)(?:,md5=([0-9a-f]+))?");
+
+    private static final String PRELOADED_CODES = String.join("\n",
+            "import java.io._",
+            "import java.security.MessageDigest",
+            "import java.util.Base64",
+            "",
+            "val jarOutput = \"%s\"",
+            "val fs = org.apache.hadoop.fs.FileSystem.get(sc.hadoopConfiguration)",
+            "val jarFileOutput = fs.create(new org.apache.hadoop.fs.Path(jarOutput), true)",
+            "val out = new DataOutputStream(new BufferedOutputStream(jarFileOutput))",
+            "val digest = MessageDigest.getInstance(\"MD5\")",
+            "var written = 0L",
+            "",
+            "def writePage(offset: Long, encodedBase64: Array[String]) = {",
+            "    if (offset == written) {",
+            "        val pageBytes = Base64.getDecoder.decode(encodedBase64.mkString)",
+            "",
+            "        out.write(pageBytes, 0, pageBytes.size)",
+            "        digest.update(pageBytes)",
+            "        written += pageBytes.size",
+            "    }",
+            "",
+            "    println(\"written=\" + written)",
+            "}",
+            "",
+            "def uploadState() = println(\"written=\" + written)",
+            "",
+            "def finishUpload() = {",
+            "    out.close()",
+            "    println(\"written=\" + written + \",md5=\" + digest.digest.map(\"%%02x\".format(_)).mkString)",
+            "}");
+
+    @NotNull
+    private final Session session;
+
+    @NotNull
+    private final MessageDigest digest;
+
+    @NotNull
+    private final Deque<Page> pagesInFlight = new ArrayDeque<>();
+
+    private byte[] buf = new byte[INITIAL_PAGE_SIZE];
+    private int bufPosition = 0;
+
+    // The file offset of the next page to send
+    private long offset = 0;
+
+    private boolean isClosed = false;
+
+    public ClusterFileChunkedOutputStream(@NotNull Session session, @NotNull URI destination) {
+        this.session = session;
+
+        try {
+            this.digest = MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("MD5 algorithm isn't supported", e);
+        }
+
+        // Pre-load
+        session.runCodes(String.format(PRELOADED_CODES, destination.toString()))
+                .toBlocking()
+                .singleOrDefault(null);
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        if (bufPosition == buf.length) {
+            sendPage();
+        }
+
+        buf[bufPosition++] = (byte) b;
+    }
+
+    @Override
+    public void write(@NotNull byte[] b, int off, int len) throws IOException {
+        while (len > 0) {
+            if (bufPosition == buf.length) {
+                sendPage();
+            }
+
+            int copied = Math.min(len, buf.length - bufPosition);
+            System.arraycopy(b, off, buf, bufPosition, copied);
+            bufPosition += copied;
+            off += copied;
+            len -= copied;
+        }
+    }
+
+    /**
+     * Send the buffered data and wait for all pages in flight acknowledged
+     */
+    @Override
+    public void flush() throws IOException {
+        if (bufPosition > 0) {
+            sendPage();
+        }
+
+        while (!pagesInFlight.isEmpty()) {
+            awaitOldestPage();
+        }
+
+        super.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (isClosed) {
+            return;
+        }
+
+        isClosed = true;
+        flush();
+
+        UploadState state = parseUploadState(runAndAwait("finishUpload()"));
+        String expectedMd5 = Hex.encodeHexString(digest.digest());
+
+        if (state.written != offset || !expectedMd5.equalsIgnoreCase(state.md5)) {
+            throw new IOException(String.format(
+                    "Uploaded file verification failed, expect %d bytes with MD5 %s, but got %d bytes with MD5 %s",
+                    offset, expectedMd5, state.written, state.md5));
+        }
+
+        super.close();
+    }
+
+    private void sendPage() throws IOException {
+        Page page = new Page(offset, Arrays.copyOf(buf, bufPosition));
+        digest.update(page.data);
+        offset = page.end();
+        bufPosition = 0;
+
+        while (pagesInFlight.size() >= MAX_PAGES_IN_FLIGHT) {
+            awaitOldestPage();
+        }
+
+        submit(page);
+        pagesInFlight.addLast(page);
+    }
+
+    private void submit(@NotNull Page page) throws IOException {
+        try {
+            String encoded = Base64.encodeBase64String(page.data);
+            StringBuilder codes = new StringBuilder(encoded.length() + 64)
+                    .append("writePage(").append(page.offset).append("L, Array(");
+            for (int start = 0; start < encoded.length(); start += MAX_LITERAL_LENGTH) {
+                codes.append(start == 0 ? "\"" : ", \"")
+                     .append(encoded, start, Math.min(encoded.length(), start + MAX_LITERAL_LENGTH))
+                     .append('"');
+            }
+            codes.append("))");
+
+            page.statement = session.submitCodes(codes.toString())
+                    .toBlocking()
+                    .single();
+            page.submittedTimeMs = System.currentTimeMillis();
+        } catch (RuntimeException e) {
+            throw new IOException("Failed to submit the page at offset " + page.offset, e);
+        }
+    }
+
+    private void awaitOldestPage() throws IOException {
+        Page page = pagesInFlight.peekFirst();
+        if (page == null) {
+            return;
+        }
+
+        long acknowledged;
+        try {
+            acknowledged = parseUploadState(awaitOutput(page.statement)).written;
+        } catch (IOException | RuntimeException e) {
+            log().warn("Page at offset " + page.offset + " failed, resume from the last acknowledged offset.", e);
+            resume(e);
+
+            return;
+        }
+
+        if (acknowledged != page.end()) {
+            resume(new IOException(String.format("Page at offset %d isn't written, the acknowledged offset is %d",
+                                                 page.offset, acknowledged)));
+
+            return;
+        }
+
+        pagesInFlight.removeFirst();
+        adaptPageSize(System.currentTimeMillis() - page.submittedTimeMs);
+    }
+
+    /**
+     * Re-send the pages in flight after the offset acknowledged by the cluster side. The upload fails once the oldest
+     * page in flight has been resumed for more than MAX_PAGE_RESUMES times.
+     */
+    private void resume(@NotNull Exception cause) throws IOException {
+        for (int retry = 0; retry < MAX_RESUME_RETRIES; retry++) {
+            long acknowledged;
+            try {
+                // Statements are run in order, so all pages in flight are done when the state query is done
+                acknowledged = parseUploadState(runAndAwait("uploadState()")).written;
+            } catch (IOException | RuntimeException e) {
+                cause.addSuppressed(e);
+                continue;
+            }
+
+            while (!pagesInFlight.isEmpty() && pagesInFlight.peekFirst().end() <= acknowledged) {
+                pagesInFlight.removeFirst();
+            }
+
+            Page oldest = pagesInFlight.peekFirst();
+            if (oldest == null) {
+                return;
+            }
+
+            if (oldest.offset != acknowledged) {
+                throw new IOException("Can't resume uploading from the offset " + acknowledged, cause);
+            }
+
+            if (++oldest.resumes > MAX_PAGE_RESUMES) {
+                throw new IOException(String.format("Page at offset %d still failed after %d resumes",
+                                                    oldest.offset, MAX_PAGE_RESUMES), cause);
+            }
+
+            shrinkPageSize();
+
+            try {
+                List<Page> pagesToResend = new ArrayList<>(pagesInFlight);
+                for (Page page : pagesToResend) {
+                    submit(page);
+                }
+
+                return;
+            } catch (IOException e) {
+                cause.addSuppressed(e);
+            }
+        }
+
+        throw cause instanceof IOException ? (IOException) cause : new IOException(cause);
+    }
+
+    private void adaptPageSize(long ackMs) {
+        if (ackMs < FAST_ACK_MS && buf.length < MAX_PAGE_SIZE) {
+            buf = Arrays.copyOf(buf, buf.length * 2);
+        } else if (ackMs > SLOW_ACK_MS) {
+            shrinkPageSize();
+        }
+    }
+
+    private void shrinkPageSize() {
+        if (buf.length > MIN_PAGE_SIZE && bufPosition <= buf.length / 2) {
+            buf = Arrays.copyOf(buf, buf.length / 2);
+        }
+    }
+
+    @NotNull
+    private StatementOutput runAndAwait(@NotNull String codes) throws IOException {
+        try {
+            return awaitOutput(session.submitCodes(codes).toBlocking().single());
+        } catch (RuntimeException e) {
+            throw new IOException("Failed to run " + codes, e);
+        }
+    }
+
+    @NotNull
+    private static StatementOutput awaitOutput(@NotNull Statement statement) throws IOException {
+        StatementOutput output = statement.awaitOutput().toBlocking().singleOrDefault(null);
+
+        if (output == null || !"ok".equalsIgnoreCase(output.getStatus())) {
+            throw new IOException("Statement execution failed: " +
+                    (output == null ? "no output" : output.getEname() + ": " + output.getEvalue()));
+        }
+
+        return output;
+    }
+
+    @NotNull
+    private static UploadState parseUploadState(@NotNull StatementOutput output) throws IOException {
+        Map<String, String> data = output.getData();
+        String text = data == null ? null : data.get("text/plain");
+        Matcher matcher = UPLOAD_STATE_PATTERN.matcher(text == null ? "" : text);
+
+        UploadState state = null;
+        while (matcher.find()) {
+            state = new UploadState(Long.parseLong(matcher.group(1)), matcher.group(2));
+        }
+
+        if (state == null) {
+            throw new IOException("Unknown upload state: " + text);
+        }
+
+        return state;
+    }
+
+    private static class Page {
+        private final long offset;
+
+        @NotNull
+        private final byte[] data;
+
+        @Nullable
+        private Statement statement;
+
+        private long submittedTimeMs;
+
+        // The times the page is sent again
+        private int resumes = 0;
+
+        Page(long offset, @NotNull byte[] data) {
+            this.offset = offset;
+            this.data = data;
+        }
+
+        long end() {
+            return offset + data.length;
+        }
+    }
+
+    private static class UploadState {
+        private final long written;
+
+        @Nullable
+        private final String md5;
+
+        UploadState(long written, @Nullable String md5) {
+            this.written = written;
+            this.md5 = md5;
+        }
+    }
+}
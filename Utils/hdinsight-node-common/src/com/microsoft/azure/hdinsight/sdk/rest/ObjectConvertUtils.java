@@ -13,9 +13,11 @@ import com.fasterxml.jackson.databind.type.TypeFactory;
 import com.fasterxml.jackson.dataformat.xml.XmlMapper;
 import com.microsoft.azuretools.azurecommons.helpers.NotNull;
 import org.apache.http.HttpEntity;
-import org.apache.http.util.EntityUtils;
+import rx.Observable;
+import rx.exceptions.Exceptions;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -48,9 +50,13 @@ public final class ObjectConvertUtils {
 
         switch (type) {
             case "application/json" :
-                return convertJsonToObject(EntityUtils.toString(entity), clazz);
+                try (InputStream content = entity.getContent()) {
+                    return convertJsonToObject(content, clazz);
+                }
             case "application/xml" :
-                return convertXmlToObject(EntityUtils.toString(entity), clazz);
+                try (InputStream content = entity.getContent()) {
+                    return Optional.ofNullable(xmlMapper.readValue(content, clazz));
+                }
             default:
         }
         return Optional.empty();
@@ -65,14 +71,63 @@ public final class ObjectConvertUtils {
 
         switch (type) {
             case "application/json" :
-                return convertJsonToList(EntityUtils.toString(entity), clazz);
+                try (InputStream content = entity.getContent()) {
+                    return Optional.ofNullable(objectMapper.readValue(content,
+                            TypeFactory.defaultInstance().constructCollectionType(List.class, clazz)));
+                }
             case "application/xml" :
-                return convertXmlToList(EntityUtils.toString(entity), clazz);
+                try (InputStream content = entity.getContent()) {
+                    return Optional.ofNullable(xmlMapper.readValue(content,
+                            TypeFactory.defaultInstance().constructCollectionType(List.class, clazz)));
+                }
             default:
         }
         return Optional.empty();
     }
 
+    /**
+     * Bind a JSON document directly from a stream, without reading it into a String first.
+     * The stream is closed after binding.
+     */
+    public static <T> Optional<T> convertJsonToObject(@NotNull InputStream jsonStream, @NotNull Class<T> clazz) throws IOException {
+        return Optional.ofNullable(objectMapper.readValue(jsonStream, clazz));
+    }
+
+    /**
+     * Emit the elements of a JSON array stream one by one as they are parsed, so that the whole list is never held
+     * in memory. The stream is closed when the observable completes, fails or is unsubscribed.
+     */
+    public static <T> Observable<T> convertJsonStreamToObservable(@NotNull InputStream jsonStream, @NotNull Class<T> clazz) {
+        return Observable.using(
+                () -> {
+                    try {
+                        return objectMapper.readerFor(clazz).<T>readValues(jsonStream);
+                    } catch (IOException e) {
+                        throw Exceptions.propagate(e);
+                    }
+                },
+                iterator -> Observable.from(() -> iterator),
+                iterator -> {
+                    try {
+                        iterator.close();
+                    } catch (IOException ignore) {
+                    }
+                });
+    }
+
+    /**
+     * Emit the elements of a JSON array HTTP entity one by one as they are parsed.
+     */
+    public static <T> Observable<T> convertEntityToObservable(@NotNull HttpEntity entity, @NotNull Class<T> clazz) {
+        return Observable.defer(() -> {
+            try {
+                return convertJsonStreamToObservable(entity.getContent(), clazz);
+            } catch (IOException e) {
+                return Observable.error(e);
+            }
+        });
+    }
+
     public static <T> Optional<List<T>> convertJsonToList(@NotNull String jsonString, Class<T> clazz) throws IOException {
         List<T> myLists = objectMapper.readValue(jsonString, TypeFactory.defaultInstance().constructCollectionType(List.class, clazz));
         return Optional.ofNullable(myLists);
@@ -7,6 +7,7 @@ package com.microsoft.azure.hdinsight.sdk.storage.adlsgen2;
 
 import com.google.common.collect.ImmutableList;
 import com.microsoft.azure.hdinsight.sdk.common.HttpObservable;
+import com.microsoft.azure.hdinsight.sdk.common.errorresponse.HttpErrorStatus;
 import com.microsoft.azure.hdinsight.sdk.rest.azure.storageaccounts.RemoteFile;
 import com.microsoft.azure.hdinsight.sdk.rest.azure.storageaccounts.api.GetRemoteFilesResponse;
 import com.microsoft.azuretools.azurecommons.helpers.NotNull;
@@ -16,23 +17,30 @@ import org.apache.http.Header;
 import org.apache.http.NameValuePair;
 import org.apache.http.client.methods.HttpPatch;
 import org.apache.http.client.methods.HttpPut;
-import org.apache.http.entity.BufferedHttpEntity;
+import org.apache.http.entity.ByteArrayEntity;
 import org.apache.http.entity.ContentType;
-import org.apache.http.entity.InputStreamEntity;
 import org.apache.http.message.BasicHeader;
 import rx.Observable;
+import rx.schedulers.Schedulers;
 
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 public class ADLSGen2FSOperation {
     public static final String DEFAULT_UMASK = "0000";
     public static final String PERMISSIONS_HEADER = "x-ms-permissions";
     public static final String UMASK_HEADER = "x-ms-umask";
+    public static final int APPEND_RANGE_SIZE = 4 * 1024 * 1024;     // 4MB
+    public static final int MAX_CONCURRENT_APPENDS = 4;
+    public static final int MAX_APPEND_RETRIES = 3;
+    // The delay before the first retry of an append, doubled for each next retry
+    public static final long APPEND_RETRY_DELAY_MS = 500;
 
     private HttpObservable http;
 
@@ -42,9 +50,6 @@ public class ADLSGen2FSOperation {
     @NotNull
     private List<NameValuePair> createFileReqParams;
 
-    @NotNull
-    private List<NameValuePair> appendReqParams;
-
     @NotNull
     private ADLSGen2ParamsBuilder listReqBuilder;
 
@@ -61,11 +66,6 @@ public class ADLSGen2FSOperation {
                 .setResource("file")
                 .build();
 
-        this.appendReqParams = new ADLSGen2ParamsBuilder()
-                .setAction("append")
-                .setPosition(0)
-                .build();
-
         this.flushReqParamsBuilder = new ADLSGen2ParamsBuilder()
                 .setAction("flush");
     }
@@ -87,7 +87,10 @@ public class ADLSGen2FSOperation {
                                                         new BasicHeader(UMASK_HEADER, uMask))
                                      : Collections.emptyList();
         return http.executeReqAndCheckStatus(req, null, this.createDirReqParams, headers, 201)
-                   .map(ignore -> true);
+                   .map(resp -> {
+                       HttpObservable.closeQuietly(resp);
+                       return true;
+                   });
     }
 
     public Observable<Boolean> createFile(String filePath) {
@@ -107,7 +110,10 @@ public class ADLSGen2FSOperation {
                                                         new BasicHeader(UMASK_HEADER, uMask))
                                      : Collections.emptyList();
         return http.executeReqAndCheckStatus(req, null, this.createFileReqParams, headers, 201)
-                .map(ignore -> true);
+                .map(resp -> {
+                    HttpObservable.closeQuietly(resp);
+                    return true;
+                });
     }
 
     public Observable<Boolean> uploadData(String destFilePath, File src) {
@@ -128,25 +134,114 @@ public class ADLSGen2FSOperation {
                 .flatMap(pathList -> Observable.from(pathList.getRemoteFiles()));
     }
 
+    /**
+     * Append the file content in ranges, several ranges are sent concurrently at their positions and each failed range
+     * is retried individually. The data appended is committed by flushing with the length returned.
+     *
+     * @param filePath the destination file path
+     * @param src the source file
+     * @return the length of data appended
+     */
     private Observable<Long> appendData(String filePath, File src) {
-        try {
-            InputStreamEntity reqEntity = new InputStreamEntity(
-                    new FileInputStream(src),
-                    -1,
-                    ContentType.APPLICATION_OCTET_STREAM);
-            BufferedHttpEntity entity = new BufferedHttpEntity(reqEntity);
-            long len = entity.getContentLength();
-
-            HttpPatch req = new HttpPatch(filePath);
-            http.setContentType("application/octet-stream");
-
-            return http.executeReqAndCheckStatus(req, entity, this.appendReqParams, Collections.emptyList(), 202)
-                    .map(ignore -> len);
-        } catch (FileNotFoundException e) {
-            throw new RuntimeException(new IllegalArgumentException("Can not find the aritifact"));
-        } catch (IOException e) {
-            throw new RuntimeException(new IllegalArgumentException("Can not read the aritfact"));
+        return Observable.using(
+                () -> {
+                    try {
+                        return FileChannel.open(src.toPath(), StandardOpenOption.READ);
+                    } catch (IOException e) {
+                        throw new RuntimeException(new IllegalArgumentException("Can not read the aritfact", e));
+                    }
+                },
+                channel -> {
+                    final long len;
+                    try {
+                        len = channel.size();
+                    } catch (IOException e) {
+                        return Observable.error(new IllegalArgumentException("Can not read the aritfact", e));
+                    }
+
+                    final long rangeCount = (len + APPEND_RANGE_SIZE - 1) / APPEND_RANGE_SIZE;
+                    http.setContentType("application/octet-stream");
+
+                    return Observable.range(0, (int) rangeCount)
+                            .flatMap(index -> {
+                                final long position = (long) index * APPEND_RANGE_SIZE;
+                                return appendRange(filePath, channel, position,
+                                                   (int) Math.min(APPEND_RANGE_SIZE, len - position));
+                            }, MAX_CONCURRENT_APPENDS)
+                            .lastOrDefault(len)
+                            .map(ignore -> len);
+                },
+                channel -> {
+                    try {
+                        channel.close();
+                    } catch (IOException ignore) {
+                    }
+                });
+    }
+
+    private Observable<Long> appendRange(String filePath, FileChannel channel, long position, int size) {
+        return Observable.fromCallable(() -> {
+                    final ByteBuffer buffer = ByteBuffer.allocate(size);
+                    while (buffer.hasRemaining()) {
+                        if (channel.read(buffer, position + buffer.position()) < 0) {
+                            throw new IllegalArgumentException(
+                                    "Unexpected end of the aritfact at " + (position + buffer.position()));
+                        }
+                    }
+
+                    return buffer.array();
+                })
+                .flatMap(data -> {
+                    final List<NameValuePair> appendReqParams = new ADLSGen2ParamsBuilder()
+                            .setAction("append")
+                            .setPosition(position)
+                            .build();
+
+                    return http.request(new HttpPatch(filePath),
+                                        new ByteArrayEntity(data, ContentType.APPLICATION_OCTET_STREAM),
+                                        appendReqParams,
+                                        Collections.emptyList());
+                })
+                .flatMap(resp -> {
+                    // Close the response of each attempt, so retrying doesn't leak the connections
+                    try {
+                        if (resp.getStatusLine().getStatusCode() != 202) {
+                            return Observable.<Long>error(HttpObservable.classifyHttpError(resp));
+                        }
+
+                        return Observable.just(position);
+                    } catch (IOException e) {
+                        return Observable.error(e);
+                    } finally {
+                        HttpObservable.closeQuietly(resp);
+                    }
+                })
+                .retryWhen(errors -> errors
+                        .zipWith(Observable.range(1, MAX_APPEND_RETRIES + 1), (err, attempt) ->
+                                attempt > MAX_APPEND_RETRIES || !isTransientAppendError(err)
+                                        ? Observable.<Long>error(err)
+                                        : Observable.timer(APPEND_RETRY_DELAY_MS << (attempt - 1),
+                                                           TimeUnit.MILLISECONDS,
+                                                           Schedulers.io()))
+                        .flatMap(delay -> delay))
+                .subscribeOn(Schedulers.io());
+    }
+
+    /**
+     * Check whether a failed append is worth retrying. The IO errors, the server errors and the throttling are
+     * transient, while the others, such as 403 for the denied access and 409 for the conflict, fail the same again.
+     *
+     * @param err the error of the append
+     * @return true if the append should be retried
+     */
+    static boolean isTransientAppendError(Throwable err) {
+        if (err instanceof HttpErrorStatus) {
+            final int statusCode = ((HttpErrorStatus) err).getStatusCode();
+
+            return statusCode >= 500 || statusCode == 429;
         }
+
+        return err instanceof IOException;
     }
 
     private Observable<Boolean> flushData(String filePath, long flushLen) {
@@ -155,6 +250,9 @@ public class ADLSGen2FSOperation {
         http.setContentType("application/json");
 
         return http.executeReqAndCheckStatus(req, null, flushReqParams, Collections.emptyList(), 200)
-                .map(ignore -> true);
+                .map(resp -> {
+                    HttpObservable.closeQuietly(resp);
+                    return true;
+                });
     }
 }
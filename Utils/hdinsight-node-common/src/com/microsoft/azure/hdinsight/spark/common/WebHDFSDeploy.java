@@ -14,6 +14,7 @@ import com.microsoft.azure.hdinsight.spark.jobs.JobUtils;
 import com.microsoft.azuretools.azurecommons.helpers.NotNull;
 import com.microsoft.azuretools.azurecommons.helpers.Nullable;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.http.Header;
 import org.apache.http.NameValuePair;
 import org.apache.http.client.config.RequestConfig;
 import org.apache.http.client.methods.HttpPut;
@@ -81,16 +82,22 @@ public class WebHDFSDeploy implements Deployable, ILogger {
         final URI dest = getUploadDir();
         final HttpPut req = new HttpPut(dest.toString());
         return http.request(req, null, this.createDirReqParams, null)
-                .doOnNext(
-                        resp -> {
-                            if (resp.getStatusLine().getStatusCode() != 200) {
-                                Exceptions.propagate(new UnknownServiceException("Can not create directory to save artifact using webHDFS storage type"));
-                            }
-                        }
-                )
-                .map(ignored -> new HttpPut(dest.resolve(src.getName()).toString()))
+                .flatMap(resp -> {
+                    // Only the status and the headers are checked, give every connection back to the pool at once
+                    final int statusCode = resp.getStatusLine().getStatusCode();
+                    HttpObservable.closeQuietly(resp);
+                    if (statusCode != 200) {
+                        return Observable.error(new UnknownServiceException("Can not create directory to save artifact using webHDFS storage type"));
+                    }
+
+                    return Observable.just(new HttpPut(dest.resolve(src.getName()).toString()));
+                })
                 .flatMap(put -> http.request(put, null, this.uploadReqParams, null))
-                .map(resp -> resp.getFirstHeader("Location").getValue())
+                .map(resp -> {
+                    final Header location = resp.getFirstHeader("Location");
+                    HttpObservable.closeQuietly(resp);
+                    return location != null ? location.getValue() : "";
+                })
                 .doOnNext(redirectedUri -> {
                     if (StringUtils.isBlank(redirectedUri)) {
                         Exceptions.propagate(new UnknownServiceException("Can not get valid redirect uri using webHDFS storage type"));
@@ -98,9 +105,9 @@ public class WebHDFSDeploy implements Deployable, ILogger {
                 })
                 .map(HttpPut::new)
                 .flatMap(put -> {
-                    try {
+                    try (FileInputStream artifact = new FileInputStream(src)) {
                         InputStreamEntity reqEntity = new InputStreamEntity(
-                                new FileInputStream(src),
+                                artifact,
                                 -1,
                                 ContentType.APPLICATION_OCTET_STREAM);
                         reqEntity.setChunked(true);
@@ -110,7 +117,8 @@ public class WebHDFSDeploy implements Deployable, ILogger {
                         throw new RuntimeException(new IllegalArgumentException("Can not get local artifact when uploading" + ex.toString()));
                     }
                 })
-                .map(ignored -> {
+                .map(resp -> {
+                    HttpObservable.closeQuietly(resp);
                     try {
                         return getArtifactUploadedPath(dest.resolve(src.getName()).toString());
                     } catch (final URISyntaxException ex) {
@@ -5,6 +5,7 @@
 
 package com.microsoft.azure.hdinsight.spark.common.log;
 
+import com.microsoft.azuretools.azurecommons.helpers.Nullable;
 import org.apache.log4j.Level;
 
 import java.util.Arrays;
@@ -29,15 +30,107 @@ public class SparkLogUtils {
             "\\b(?<level>"
                     + log4jAllLevels.stream().map(Level::toString).collect(Collectors.joining("|")) + ")\\b");
 
+    /**
+     * Find the first log4j level keyword in the log line, the same as {@link #log4jLevelRegex} does, but by scanning
+     * the characters without any allocation. The regex is only used for the rare lines the scanner can't decide,
+     * such as a keyword next to a Unicode combining mark.
+     *
+     * @param line the log line
+     * @return the level found, or null if there is no level keyword in the line
+     */
+    @Nullable
+    public static Level findLog4jLevel(final CharSequence line) {
+        final int length = line.length();
+        for (int i = 0; i < length; i++) {
+            final Level level = matchLevelKeyword(line, i);
+            if (level == null) {
+                continue;
+            }
+
+            final int end = i + level.toString().length();
+            if (isUndecidableBoundary(line, i - 1) || isUndecidableBoundary(line, end)) {
+                return findLog4jLevelByRegex(line);
+            }
+
+            if (!isWordChar(line, i - 1) && !isWordChar(line, end)) {
+                return level;
+            }
+        }
+
+        return null;
+    }
+
+    @Nullable
+    static Level findLog4jLevelByRegex(final CharSequence line) {
+        final Matcher matcher = log4jLevelRegex.matcher(line);
+
+        return matcher.find() ? Level.toLevel(matcher.group("level")) : null;
+    }
+
+    @Nullable
+    private static Level matchLevelKeyword(final CharSequence line, final int start) {
+        switch (line.charAt(start)) {
+            case 'F':
+                return regionMatches(line, start, "FATAL") ? Level.FATAL : null;
+            case 'E':
+                return regionMatches(line, start, "ERROR") ? Level.ERROR : null;
+            case 'W':
+                return regionMatches(line, start, "WARN") ? Level.WARN : null;
+            case 'I':
+                return regionMatches(line, start, "INFO") ? Level.INFO : null;
+            case 'D':
+                return regionMatches(line, start, "DEBUG") ? Level.DEBUG : null;
+            case 'T':
+                return regionMatches(line, start, "TRACE") ? Level.TRACE : null;
+            default:
+                return null;
+        }
+    }
+
+    private static boolean regionMatches(final CharSequence line, final int start, final String keyword) {
+        if (start + keyword.length() > line.length()) {
+            return false;
+        }
+
+        for (int i = 1; i < keyword.length(); i++) {
+            if (line.charAt(start + i) != keyword.charAt(i)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    // The word characters of regex word boundary `\b`
+    private static boolean isWordChar(final CharSequence line, final int index) {
+        if (index < 0 || index >= line.length()) {
+            return false;
+        }
+
+        final char ch = line.charAt(index);
+
+        return ch == '_' || Character.isLetterOrDigit(ch);
+    }
+
+    // The regex word boundary treats the combining marks and surrogates specially, leave them to the regex
+    private static boolean isUndecidableBoundary(final CharSequence line, final int index) {
+        if (index < 0 || index >= line.length()) {
+            return false;
+        }
+
+        final char ch = line.charAt(index);
+
+        return Character.isSurrogate(ch) || Character.getType(ch) == Character.NON_SPACING_MARK;
+    }
+
     public static SparkLogLine mapTypedMessageByLog4jLevels(
             final SparkLogLine previous,
             final SparkLogLine current) {
         if (current.getMessageInfoType() == Log) {
             final String msg = current.getRawLog();
-            final Matcher matcher = log4jLevelRegex.matcher(msg);
+            final Level level = findLog4jLevel(msg);
 
-            if (matcher.find()) {
-                final Level level = Level.toLevel(matcher.group("level"));
+            if (level != null) {
                 if (level.isGreaterOrEqual(Level.ERROR)) {
                     return new SparkLogLine(current.getLogSource(), Error, msg);
                 }
@@ -8,6 +8,8 @@ package com.microsoft.azure.hdinsight.spark.jobs;
 import com.microsoft.azure.hdinsight.sdk.cluster.IClusterDetail;
 import com.microsoft.azuretools.azurecommons.helpers.NotNull;
 
+import java.util.Objects;
+
 public class ApplicationKey {
     private final IClusterDetail clusterDetail;
     private final String appId;
@@ -31,7 +33,7 @@ public class ApplicationKey {
 
     @Override
     public int hashCode() {
-        return getClusterConnString().toLowerCase().hashCode() + getAppId().toLowerCase().hashCode();
+        return Objects.hash(getClusterConnString().toLowerCase(), getAppId().toLowerCase());
     }
 
     @Override
@@ -45,7 +47,7 @@ public class ApplicationKey {
         if (obj instanceof ApplicationKey) {
             ApplicationKey that = (ApplicationKey)obj;
             return getClusterConnString().equalsIgnoreCase(that.getClusterConnString()) &&
-                    getAppId().equalsIgnoreCase(that.getClusterConnString());
+                    getAppId().equalsIgnoreCase(that.getAppId());
         }
         return false;
     }
@@ -5,11 +5,8 @@
 
 package com.microsoft.azure.hdinsight.spark.jobs;
 
-import com.gargoylesoftware.htmlunit.BrowserVersion;
 import com.gargoylesoftware.htmlunit.Cache;
-import com.gargoylesoftware.htmlunit.FailingHttpStatusCodeException;
-import com.gargoylesoftware.htmlunit.WebClient;
-import com.gargoylesoftware.htmlunit.html.*;
+import com.google.common.hash.Hashing;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.gson.reflect.TypeToken;
@@ -28,7 +25,8 @@ import com.microsoft.azure.hdinsight.sdk.common.AuthenticationException;
 import com.microsoft.azure.hdinsight.sdk.common.HDIException;
 import com.microsoft.azure.hdinsight.sdk.common.HttpObservable;
 import com.microsoft.azure.hdinsight.sdk.common.livy.interactive.SparkSession;
-import com.microsoft.azure.hdinsight.sdk.io.spark.ClusterFileBase64BufferedOutputStream;
+import com.microsoft.azure.hdinsight.sdk.io.spark.ClusterFileChunkedOutputStream;
+import com.microsoft.azure.hdinsight.sdk.rest.ObjectConvertUtils;
 import com.microsoft.azure.hdinsight.sdk.rest.yarn.rm.App;
 import com.microsoft.azure.hdinsight.sdk.rest.yarn.rm.ApplicationMasterLogs;
 import com.microsoft.azure.hdinsight.sdk.storage.HDStorageAccount;
@@ -49,8 +47,8 @@ import com.microsoft.tooling.msservices.helpers.CallableSingleArg;
 import com.microsoft.tooling.msservices.helpers.azure.sdk.StorageClientSDKManager;
 import com.microsoft.tooling.msservices.model.storage.BlobContainer;
 import com.microsoft.tooling.msservices.model.storage.ClientStorageAccount;
+import com.sun.net.httpserver.Headers;
 import com.sun.net.httpserver.HttpExchange;
-import org.apache.commons.codec.binary.Base64OutputStream;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.http.*;
@@ -82,16 +80,14 @@ import java.awt.*;
 import java.io.*;
 import java.lang.reflect.Type;
 import java.net.URI;
-import java.net.URISyntaxException;
 import java.net.URL;
 import java.net.UnknownServiceException;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 import java.util.List;
 import java.util.AbstractMap.SimpleImmutableEntry;
 import java.util.concurrent.ExecutionException;
-import java.util.concurrent.atomic.AtomicReference;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.zip.GZIPOutputStream;
 
 import static com.microsoft.azure.hdinsight.common.MessageInfoType.Info;
 import static com.microsoft.azure.hdinsight.spark.common.log.SparkLogLine.TOOL;
@@ -107,20 +103,213 @@ public class JobUtils {
 
     private static final CredentialsProvider provider = new BasicCredentialsProvider();
 
+    private static final String GZIP_ENCODING = "gzip";
+    // The smaller bodies don't get much smaller by gzip, not worth the compressing
+    private static final int MIN_GZIP_SIZE = 1024;
+
     public static void setResponse(@NotNull HttpExchange httpExchange, @NotNull String message) {
         setResponse(httpExchange, message, 200);
     }
 
     public static void setResponse(@NotNull HttpExchange httpExchange, @NotNull String message, int code) {
+        setResponse(httpExchange, code, message.getBytes(StandardCharsets.UTF_8), null, null);
+    }
+
+    /**
+     * Send the body, compressed with gzip if the client accepts it. With an ETag, the client is answered with
+     * `304 Not Modified` and no body if it already has the body of that ETag.
+     *
+     * @param httpExchange the HTTP exchange to respond
+     * @param code the status code
+     * @param body the body to send
+     * @param gzippedBody the body compressed already, or null to compress it when needed
+     * @param etag the strong ETag of the body, or null if the body isn't cacheable
+     */
+    public static void setResponse(@NotNull HttpExchange httpExchange,
+                                   int code,
+                                   @NotNull byte[] body,
+                                   @Nullable byte[] gzippedBody,
+                                   @Nullable String etag) {
         try {
-            httpExchange.sendResponseHeaders(code, message.length());
+            final Headers headers = httpExchange.getResponseHeaders();
+            if (etag != null) {
+                headers.set(HttpHeaders.ETAG, etag);
+                // The cached body can be used, but only after checking it's still the latest one
+                headers.set(HttpHeaders.CACHE_CONTROL, "no-cache");
+
+                if (isETagMatched(httpExchange, etag)) {
+                    httpExchange.sendResponseHeaders(HttpStatus.SC_NOT_MODIFIED, -1);
+                    return;
+                }
+            }
+
+            byte[] content = body;
+            if (body.length >= MIN_GZIP_SIZE) {
+                headers.set(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+                if (isGzipAccepted(httpExchange)) {
+                    content = gzippedBody != null ? gzippedBody : gzip(body);
+                    headers.set(HttpHeaders.CONTENT_ENCODING, GZIP_ENCODING);
+                }
+            }
+
+            httpExchange.sendResponseHeaders(code, content.length == 0 ? -1 : content.length);
             final OutputStream stream = httpExchange.getResponseBody();
-            stream.write(message.getBytes());
+            stream.write(content);
             stream.flush();
-            httpExchange.close();
         } catch (final IOException e) {
             LOGGER.error("JobUtils set Response error", e);
+        } finally {
+            httpExchange.close();
+        }
+    }
+
+    /**
+     * Send the element chunks as one JSON array in a chunked response, so that the client receives every chunk as soon
+     * as it's available rather than after all of them are loaded.
+     *
+     * The `200` status is only sent with the first chunk, so a failure before it is answered with `500`. A failure
+     * after that can't change the status sent, the response is closed with the JSON array truncated.
+     *
+     * @param httpExchange the HTTP exchange to respond
+     * @param chunks the element chunks to send
+     */
+    public static void setJsonArrayResponse(@NotNull HttpExchange httpExchange,
+                                            @NotNull Observable<? extends List<?>> chunks) {
+        final boolean isGzipped = isGzipAccepted(httpExchange);
+        final OutputStream[] body = { null };
+
+        try {
+            writeJsonArray(() -> {
+                httpExchange.getResponseHeaders().set(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+                if (isGzipped) {
+                    httpExchange.getResponseHeaders().set(HttpHeaders.CONTENT_ENCODING, GZIP_ENCODING);
+                }
+
+                httpExchange.sendResponseHeaders(200, 0);
+                // Sync flush the compressor for each chunk, so it's still received as soon as it's available
+                body[0] = isGzipped
+                        ? new GZIPOutputStream(httpExchange.getResponseBody(), true)
+                        : httpExchange.getResponseBody();
+                return body[0];
+            }, chunks);
+        } catch (final IOException | RuntimeException e) {
+            LOGGER.error("JobUtils set JSON array Response error", e);
+
+            if (body[0] == null) {
+                // Nothing is sent yet, the failure can still be told by the status
+                setResponse(httpExchange, String.valueOf(e.getMessage()), 500);
+            }
+        } finally {
+            // Close the body even if the writing failed, to release the compressor
+            if (body[0] != null) {
+                try {
+                    body[0].close();
+                } catch (final IOException e) {
+                    LOGGER.error("JobUtils close JSON array Response error", e);
+                }
+            }
+
+            httpExchange.close();
+        }
+    }
+
+    /**
+     * Write the element chunks as one JSON array, the stream is flushed after each chunk
+     *
+     * @param stream the stream to write
+     * @param chunks the element chunks to write
+     */
+    public static void writeJsonArray(@NotNull OutputStream stream,
+                                      @NotNull Observable<? extends List<?>> chunks) throws IOException {
+        writeJsonArray(() -> stream, chunks);
+    }
+
+    private interface OutputStreamOpener {
+        @NotNull
+        OutputStream open() throws IOException;
+    }
+
+    /**
+     * Write the element chunks as one JSON array into the stream opened once the first chunk is got, or once the
+     * chunks complete empty. So nothing is written if the chunks fail at first.
+     */
+    private static void writeJsonArray(@NotNull OutputStreamOpener opener,
+                                       @NotNull Observable<? extends List<?>> chunks) throws IOException {
+        final OutputStream[] stream = { null };
+        final boolean[] isFirst = { true };
+        chunks.toBlocking().forEach(elements -> {
+            try {
+                if (stream[0] == null) {
+                    stream[0] = opener.open();
+                    stream[0].write('[');
+                }
+
+                for (Object element : elements) {
+                    if (!isFirst[0]) {
+                        stream[0].write(',');
+                    }
+                    isFirst[0] = false;
+                    stream[0].write(ObjectConvertUtils.convertObjectToJsonString(element)
+                            .orElseThrow(IOException::new)
+                            .getBytes(StandardCharsets.UTF_8));
+                }
+                stream[0].flush();
+            } catch (IOException e) {
+                throw propagate(e);
+            }
+        });
+
+        if (stream[0] == null) {
+            stream[0] = opener.open();
+            stream[0].write('[');
+        }
+        stream[0].write(']');
+        stream[0].flush();
+    }
+
+    /**
+     * Create the strong ETag of the body, which is the quoted SHA-256 digest of it
+     */
+    @NotNull
+    public static String createETag(@NotNull byte[] body) {
+        return "\"" + Hashing.sha256().hashBytes(body) + "\"";
+    }
+
+    @NotNull
+    public static byte[] gzip(@NotNull byte[] body) throws IOException {
+        final ByteArrayOutputStream compressed = new ByteArrayOutputStream(body.length / 4 + 64);
+        try (GZIPOutputStream gzipStream = new GZIPOutputStream(compressed)) {
+            gzipStream.write(body);
+        }
+
+        return compressed.toByteArray();
+    }
+
+    private static boolean isETagMatched(@NotNull HttpExchange httpExchange, @NotNull String etag) {
+        final List<String> ifNoneMatches = httpExchange.getRequestHeaders().get(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatches == null) {
+            return false;
+        }
+
+        // If-None-Match uses the weak comparison, which ignores the weak indicator
+        return ifNoneMatches.stream()
+                .flatMap(ifNoneMatch -> Arrays.stream(ifNoneMatch.split(",")))
+                .map(String::trim)
+                .map(tag -> StringUtils.removeStart(tag, "W/"))
+                .anyMatch(tag -> tag.equals("*") || tag.equals(etag));
+    }
+
+    private static boolean isGzipAccepted(@NotNull HttpExchange httpExchange) {
+        final List<String> acceptEncodings = httpExchange.getRequestHeaders().get(HttpHeaders.ACCEPT_ENCODING);
+        if (acceptEncodings == null) {
+            return false;
         }
+
+        return acceptEncodings.stream()
+                .flatMap(acceptEncoding -> Arrays.stream(acceptEncoding.split(",")))
+                .map(coding -> coding.trim().toLowerCase().split(";"))
+                .anyMatch(coding -> coding[0].trim().equals(GZIP_ENCODING) &&
+                        !(coding.length > 1 && coding[1].replace(" ", "").matches("q=0(\\.0*)?")));
     }
 
     public static URI getLivyLogPath(@NotNull String rootPath, @NotNull String applicationId) {
@@ -242,85 +431,7 @@ public class JobUtils {
                                                       @NotNull String type,
                                                       long start,
                                                       int size) {
-        final WebClient HTTP_WEB_CLIENT = new WebClient(BrowserVersion.CHROME);
-        HTTP_WEB_CLIENT.getOptions().setUseInsecureSSL(HttpObservable.isSSLCertificateValidationDisabled());
-        HTTP_WEB_CLIENT.setCache(globalCache);
-
-        if (authCode != null) {
-            HTTP_WEB_CLIENT.addRequestHeader(AUTHORIZATION, authCode);
-        }
-
-        return getInformationFromYarnLogDom(HTTP_WEB_CLIENT, baseUrl, type, start, size);
-    }
-
-    private static String getInformationFromYarnLogDom(@NotNull WebClient client,
-                                                      @NotNull String baseUrl,
-                                                      @NotNull String type,
-                                                      long start,
-                                                      int size) {
-        URI url = null;
-
-        try {
-            url = new URI(baseUrl + "/").resolve(
-                    String.format("%s?start=%d", type, start) +
-                            (size <= 0 ? "" : String.format("&&end=%d", start + size)));
-            final HtmlPage htmlPage = client.getPage(url.toString());
-
-            final Iterator<DomElement> iterator = htmlPage.getElementById("navcell").getNextElementSibling().getChildElements().iterator();
-
-            final HashMap<String, String> logTypeMap = new HashMap<>();
-            final AtomicReference<String> logType = new AtomicReference<>();
-            String logs = "";
-
-            while (iterator.hasNext()) {
-                final DomElement node = iterator.next();
-
-                if (node instanceof HtmlParagraph) {
-                    // In history server, need to read log type paragraph in page
-                    final Pattern logTypePattern = Pattern.compile("Log Type:\\s+(\\S+)");
-
-                    Optional.ofNullable(node.getFirstChild())
-                            .map(DomNode::getTextContent)
-                            .map(String::trim)
-                            .map(logTypePattern::matcher)
-                            .filter(Matcher::matches)
-                            .map(matcher -> matcher.group(1))
-                            .ifPresent(logType::set);
-                } else if (node instanceof HtmlPreformattedText) {
-                    // In running, no log type paragraph in page
-                    logs = Optional.ofNullable(node.getFirstChild())
-                                .map(DomNode::getTextContent)
-                                .orElse("");
-
-                    if (logType.get() != null) {
-                        // Only get the first <pre>...</pre>
-                        logTypeMap.put(logType.get(), logs);
-
-                        logType.set(null);
-                    }
-                }
-            }
-
-            return logTypeMap.getOrDefault(type, logs);
-        } catch (final FailingHttpStatusCodeException httpError) {
-            // If the URL is wrong, will get 200 response with content:
-            //      Unable to locate 'xxx' log for container
-            //  OR
-            //      Logs not available for <user>. Aggregation may not be complete, Check back later or try the nodemanager at...
-            //  OR
-            //      Cannot get container logs without ...
-            //
-            // if fetching Yarn log hits the gap between the job running and stop, will get the status 403
-            // the log is moving to job history server, just wait and retry.
-            if (httpError.getStatusCode() != HttpStatus.SC_FORBIDDEN) {
-                LOGGER.warn("The GET request to " + url + " responded error: " + httpError.getMessage());
-            }
-        } catch (final URISyntaxException e) {
-            LOGGER.error("baseUrl has syntax error: " + baseUrl);
-        } catch (final Exception e) {
-            LOGGER.warn("get Spark job log Error", e);
-        }
-        return "";
+        return YarnContainerLogFetcher.fetch(authCode, baseUrl, type, start, size);
     }
 
     /**
@@ -338,7 +449,8 @@ public class JobUtils {
                                                              @NotNull final String containerLogUrl,
                                                              @NotNull final String type,
                                                              final int blockSize) {
-        final int retryIntervalMs = 1000;
+        final int minRetryIntervalMs = 1000;
+        final int maxRetryIntervalMs = 8000;
 
         if (blockSize <= 0)
             return Observable.empty();
@@ -347,6 +459,7 @@ public class JobUtils {
             long nextStart = 0;
             String remainedLine = "";
             String logs;
+            int retryIntervalMs = minRetryIntervalMs;
             Thread currentThread = Thread.currentThread();
 
             // Refer to the Observable.window() operation:
@@ -389,6 +502,10 @@ public class JobUtils {
                         remainedLine = "";
                     }
 
+                    // Poll the growing log fast, and back off while it's quiet
+                    retryIntervalMs = logs.isEmpty()
+                            ? Math.min(retryIntervalMs * 2, maxRetryIntervalMs)
+                            : minRetryIntervalMs;
                     Thread.sleep(retryIntervalMs);
                 }
             } catch (InterruptedException ignore) {
@@ -491,36 +608,34 @@ public class JobUtils {
                                                @Nullable Observer<SparkLogLine> newLogSubject,
                                                @Nullable CallableSingleArg<Void, Long> uploadInProcessCallback) throws Exception {
         if(storageAccount.getAccountType() == StorageAccountType.BLOB) {
-            try (final FileInputStream fileInputStream = new FileInputStream(file)) {
-                try (final BufferedInputStream bufferedInputStream = new BufferedInputStream(fileInputStream)) {
-                    final HDStorageAccount blobStorageAccount = (HDStorageAccount) storageAccount;
-                    final BlobContainer container = getSparkClusterContainer(blobStorageAccount, containerName);
-                    if (container == null) {
-                        throw new IllegalArgumentException("Can't get the valid container.");
-                    }
+            if (!file.isFile()) {
+                throw new FileNotFoundException(file.getPath());
+            }
+
+            final HDStorageAccount blobStorageAccount = (HDStorageAccount) storageAccount;
+            final BlobContainer container = getSparkClusterContainer(blobStorageAccount, containerName);
+            if (container == null) {
+                throw new IllegalArgumentException("Can't get the valid container.");
+            }
 
-                    final String path = String.format("SparkSubmission/%s/%s", uploadFolderPath, file.getName());
-                    final String uploadedPath = String.format("wasbs://%s@%s/%s", containerName, blobStorageAccount.getFullStorageBlobName(), path);
+            final String path = String.format("SparkSubmission/%s/%s", uploadFolderPath, file.getName());
+            final String uploadedPath = String.format("wasbs://%s@%s/%s", containerName, blobStorageAccount.getFullStorageBlobName(), path);
 
-                    ctrlInfo(legacyLogSubject, newLogSubject,
-                             String.format("Begin uploading file %s to Azure Blob Storage Account %s ...",
-                                           file.getPath(), uploadedPath));
+            ctrlInfo(legacyLogSubject, newLogSubject,
+                     String.format("Begin uploading file %s to Azure Blob Storage Account %s ...",
+                                   file.getPath(), uploadedPath));
 
-                    StorageClientSDKManager.getManager().uploadBlobFileContent(
-                            blobStorageAccount.getConnectionString(),
-                            container,
-                            path,
-                            bufferedInputStream,
-                            uploadInProcessCallback,
-                            1024 * 1024,
-                            file.length());
+            StorageClientSDKManager.getManager().uploadBlobFile(
+                    blobStorageAccount.getConnectionString(),
+                    container,
+                    path,
+                    file,
+                    uploadInProcessCallback);
 
-                    ctrlInfo(legacyLogSubject, newLogSubject,
-                             String.format("Submit file to azure blob '%s' successfully.", uploadedPath));
+            ctrlInfo(legacyLogSubject, newLogSubject,
+                     String.format("Submit file to azure blob '%s' successfully.", uploadedPath));
 
-                    return uploadedPath;
-                }
-            }
+            return uploadedPath;
         } else if(storageAccount.getAccountType() == StorageAccountType.ADLS) {
             final String uploadPath = String.format("adl://%s.azuredatalakestore.net%s%s", storageAccount.getName(), storageAccount.getDefaultContainerOrRootPath(), "SparkSubmission");
             ctrlInfo(legacyLogSubject, newLogSubject,
@@ -657,20 +772,15 @@ public class JobUtils {
                                                         err -> ctrlError(legacyLogSubject, newLogSubject, err),
                                                         () -> {});
 
-                                 ClusterFileBase64BufferedOutputStream clusterFileBase64Out =
-                                         new ClusterFileBase64BufferedOutputStream(sparkSession, destUri);
-                                 Base64OutputStream base64Enc = new Base64OutputStream(clusterFileBase64Out, true);
-                                 InputStream inFile;
-
-                                 try {
-                                     inFile = new BufferedInputStream(new FileInputStream(srcJarFile));
+                                 try (InputStream inFile = new FileInputStream(srcJarFile)) {
+                                     ClusterFileChunkedOutputStream clusterFileOut =
+                                             new ClusterFileChunkedOutputStream(sparkSession, destUri);
 
                                      ctrlInfo(legacyLogSubject, newLogSubject, String.format("Uploading %s...",
                                                                                              srcJarFile));
-                                     IOUtils.copy(inFile, base64Enc);
+                                     IOUtils.copyLarge(inFile, clusterFileOut, new byte[64 * 1024]);
 
-                                     inFile.close();
-                                     base64Enc.close();
+                                     clusterFileOut.close();
                                  } catch (FileNotFoundException fnfEx) {
                                      throw propagate(new HDIException(String.format("Source file %s not found.",
                                                                                     srcJarFile), fnfEx));
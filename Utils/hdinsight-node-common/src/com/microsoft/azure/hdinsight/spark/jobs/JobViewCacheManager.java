@@ -5,10 +5,12 @@
 
 package com.microsoft.azure.hdinsight.spark.jobs;
 
+import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
 import com.microsoft.azure.hdinsight.common.JobViewManager;
+import com.microsoft.azure.hdinsight.sdk.common.HDIException;
 import com.microsoft.azure.hdinsight.sdk.cluster.IClusterDetail;
 import com.microsoft.azure.hdinsight.sdk.rest.spark.Application;
 import com.microsoft.azure.hdinsight.sdk.rest.spark.event.JobStartEventLog;
@@ -19,15 +21,39 @@ import com.microsoft.azure.hdinsight.sdk.rest.spark.task.Task;
 import com.microsoft.azure.hdinsight.sdk.rest.yarn.rm.App;
 import com.microsoft.azure.hdinsight.sdk.rest.yarn.rm.ApplicationMasterLogs;
 import com.microsoft.azuretools.azurecommons.helpers.NotNull;
+import rx.Observable;
+import rx.Scheduler;
+import rx.schedulers.Schedulers;
 
-import java.util.ArrayList;
+import java.io.IOException;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Objects;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 public class JobViewCacheManager {
+    private static final int TASKS_LOADING_PARALLELISM = 8;
+    private static final int TASKS_CHUNK_SIZE = 1000;
+
+    // The state of a running application changes, so it's only reused by the requests of one job view refreshing
+    static final long APPLICATION_STATE_EXPIRE_SECONDS = 5;
+
+    // Only stage attempts in these states have a final task list
+    private static final List<String> FINISHED_STAGE_STATUSES = Arrays.asList("COMPLETE", "FAILED", "SKIPPED");
+
+    private static final Scheduler tasksLoadingScheduler = Schedulers.from(
+            Executors.newFixedThreadPool(TASKS_LOADING_PARALLELISM, runnable -> {
+                Thread thread = new Thread(runnable, "spark-job-view-tasks-loader");
+                thread.setDaemon(true);
+                return thread;
+            }));
+
     private static final LoadingCache<ApplicationKey, List<Job>> sparkJobLocalCache = CacheBuilder.newBuilder()
             .maximumSize(100)
             .initialCapacity(20)
+            .expireAfterWrite(APPLICATION_STATE_EXPIRE_SECONDS, TimeUnit.SECONDS)
             .build(new CacheLoader<ApplicationKey, List<Job>>() {
                 @Override
                 public List<Job> load(ApplicationKey key) throws Exception {
@@ -38,6 +64,7 @@ public class JobViewCacheManager {
     private static final LoadingCache<ApplicationKey, List<Stage>> sparkStageLocalCache = CacheBuilder.newBuilder()
             .maximumSize(100)
             .initialCapacity(20)
+            .expireAfterWrite(APPLICATION_STATE_EXPIRE_SECONDS, TimeUnit.SECONDS)
             .build(new CacheLoader<ApplicationKey, List<Stage>>() {
                 @Override
                 public List<Stage> load(ApplicationKey key) throws Exception {
@@ -48,6 +75,7 @@ public class JobViewCacheManager {
     private static final LoadingCache<ApplicationKey, List<Executor>> sparkExecutorLocalCache = CacheBuilder.newBuilder()
             .maximumSize(100)
             .initialCapacity(20)
+            .expireAfterWrite(APPLICATION_STATE_EXPIRE_SECONDS, TimeUnit.SECONDS)
             .build(new CacheLoader<ApplicationKey, List<Executor>>() {
                 @Override
                 public List<Executor> load(ApplicationKey key) throws Exception {
@@ -65,27 +93,16 @@ public class JobViewCacheManager {
                 }
             });
 
-    private static final LoadingCache<ApplicationKey, List<Task>> sparkTasksSummaryLocalCache = CacheBuilder.newBuilder()
-            .maximumSize(100)
-            .initialCapacity(20)
-            .build(new CacheLoader<ApplicationKey, List<Task>>() {
-                @Override
-                public List<Task> load(ApplicationKey key) throws Exception {
-                    List<Task> allTasks = new ArrayList<>();
-                    List<Stage> stages = sparkStageLocalCache.get(key);
-                    for (Stage stage: stages) {
-                        int stageId = stage.getStageId();
-                        int attemptedId = stage.getAttemptId();
-                        List<Task> tasks = SparkRestUtil.getSparkTasks(key, stageId, attemptedId);
-                        allTasks.addAll(tasks);
-                    }
-                    return allTasks;
-                }
-            });
+    // The task list of a finished stage attempt never changes, so it's kept until evicted and never fetched again
+    private static final Cache<StageAttemptKey, List<Task>> sparkFinishedStageTasksLocalCache = CacheBuilder.newBuilder()
+            .maximumSize(10000)
+            .initialCapacity(200)
+            .build();
 
     private static final LoadingCache<ApplicationKey, ApplicationMasterLogs> yarnAppLogLocalCache = CacheBuilder.newBuilder()
             .maximumSize(100)
             .initialCapacity(20)
+            .expireAfterWrite(APPLICATION_STATE_EXPIRE_SECONDS, TimeUnit.SECONDS)
             .build(new CacheLoader<ApplicationKey, ApplicationMasterLogs>() {
                 @Override
                 public ApplicationMasterLogs load(ApplicationKey key) throws Exception {
@@ -96,6 +113,7 @@ public class JobViewCacheManager {
     private static final LoadingCache<ApplicationKey, App> yarnApplicationLocalCache = CacheBuilder.newBuilder()
             .maximumSize(100)
             .initialCapacity(20)
+            .expireAfterWrite(APPLICATION_STATE_EXPIRE_SECONDS, TimeUnit.SECONDS)
             .build(new CacheLoader<ApplicationKey, App>() {
                 @Override
                 public App load(ApplicationKey key) throws Exception {
@@ -106,6 +124,7 @@ public class JobViewCacheManager {
     private static final LoadingCache<ApplicationKey, List<JobStartEventLog>> sparkJobStartEventLogCache = CacheBuilder.newBuilder()
             .maximumSize(100)
             .initialCapacity(20)
+            .expireAfterWrite(APPLICATION_STATE_EXPIRE_SECONDS, TimeUnit.SECONDS)
             .build(new CacheLoader<ApplicationKey, List<JobStartEventLog>>() {
                 @Override
                 public List<JobStartEventLog> load(ApplicationKey key) throws Exception {
@@ -148,10 +167,118 @@ public class JobViewCacheManager {
     }
 
     public static List<Task> getTasks(@NotNull ApplicationKey key) throws ExecutionException {
-        return sparkTasksSummaryLocalCache.get(key);
+        try {
+            return getStageTasks(key, sparkStageLocalCache.get(key))
+                    .flatMapIterable(tasks -> tasks)
+                    .toList()
+                    .toBlocking()
+                    .single();
+        } catch (RuntimeException e) {
+            throw new ExecutionException(e.getCause() == null ? e : e.getCause());
+        }
+    }
+
+    /**
+     * Get the task lists of the stages, loaded concurrently with a bounded parallelism.
+     * The lists are emitted in the order of the stages, each one as soon as it and the ones before it are loaded.
+     * Finished stage attempts are served from the cache, only the active and pending ones are fetched again, and
+     * their tasks are emitted in chunks as they're parsed from the response rather than as one list per stage.
+     *
+     * @param key the application key
+     * @param stages the stages of the application
+     * @return the task lists, one per finished stage and one or more chunks per other stage
+     */
+    public static Observable<List<Task>> getStageTasks(@NotNull ApplicationKey key, @NotNull List<Stage> stages) {
+        return Observable.from(stages)
+                .concatMapEager(stage -> getStageTasks(key, stage), stages.size() + 1, TASKS_LOADING_PARALLELISM);
+    }
+
+    private static Observable<List<Task>> getStageTasks(@NotNull ApplicationKey key, @NotNull Stage stage) {
+        StageAttemptKey stageAttemptKey = new StageAttemptKey(key, stage.getStageId(), stage.getAttemptId());
+        List<Task> cachedTasks = sparkFinishedStageTasksLocalCache.getIfPresent(stageAttemptKey);
+        if (cachedTasks != null) {
+            return Observable.just(cachedTasks);
+        }
+
+        if (stage.getStatus() != null && FINISHED_STAGE_STATUSES.contains(stage.getStatus().toUpperCase())) {
+            return Observable.fromCallable(() -> {
+                        List<Task> tasks = SparkRestUtil.getSparkTasks(key, stage.getStageId(), stage.getAttemptId());
+                        sparkFinishedStageTasksLocalCache.put(stageAttemptKey, tasks);
+
+                        return tasks;
+                    })
+                    .subscribeOn(tasksLoadingScheduler);
+        }
+
+        // The tasks of the other stages are never cached, so they're not collected into one list
+        return Observable.defer(() -> {
+                    try {
+                        return SparkRestUtil.getSparkTasksObservable(key, stage.getStageId(), stage.getAttemptId());
+                    } catch (IOException | ExecutionException | HDIException e) {
+                        return Observable.error(e);
+                    }
+                })
+                .buffer(TASKS_CHUNK_SIZE)
+                .subscribeOn(tasksLoadingScheduler);
     }
 
     public static List<Stage> getStages(@NotNull ApplicationKey key) throws ExecutionException {
         return sparkStageLocalCache.get(key);
     }
+
+    /**
+     * Drop the cached Spark applications list of the cluster, so that the next requests load it again from the cluster
+     *
+     * @param clusterDetail the cluster
+     */
+    public static void invalidateSparkApplications(@NotNull IClusterDetail clusterDetail) {
+        sparkApplicationsLocalCache.invalidate(clusterDetail.getName());
+    }
+
+    /**
+     * Drop the cached Spark state of the application, so that the next requests load it again from the cluster
+     *
+     * @param key the application key
+     */
+    public static void invalidateSparkState(@NotNull ApplicationKey key) {
+        sparkJobLocalCache.invalidate(key);
+        sparkStageLocalCache.invalidate(key);
+        sparkExecutorLocalCache.invalidate(key);
+        sparkJobStartEventLogCache.invalidate(key);
+        yarnAppLogLocalCache.invalidate(key);
+    }
+
+    private static class StageAttemptKey {
+        private final String clusterConnString;
+        private final String appId;
+        private final int stageId;
+        private final int attemptId;
+
+        StageAttemptKey(@NotNull ApplicationKey key, int stageId, int attemptId) {
+            this.clusterConnString = key.getClusterConnString().toLowerCase();
+            this.appId = key.getAppId().toLowerCase();
+            this.stageId = stageId;
+            this.attemptId = attemptId;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(clusterConnString, appId, stageId, attemptId);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj == this) {
+                return true;
+            }
+            if (!(obj instanceof StageAttemptKey)) {
+                return false;
+            }
+            StageAttemptKey that = (StageAttemptKey) obj;
+            return stageId == that.stageId &&
+                    attemptId == that.attemptId &&
+                    clusterConnString.equals(that.clusterConnString) &&
+                    appId.equals(that.appId);
+        }
+    }
 }
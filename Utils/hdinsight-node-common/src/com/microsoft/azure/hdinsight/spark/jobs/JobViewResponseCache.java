@@ -0,0 +1,224 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.hdinsight.spark.jobs;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.microsoft.azure.hdinsight.sdk.rest.ObjectConvertUtils;
+import com.microsoft.azure.hdinsight.sdk.rest.spark.Application;
+import com.microsoft.azure.hdinsight.sdk.rest.yarn.rm.App;
+import com.microsoft.azuretools.azurecommons.helpers.NotNull;
+import com.sun.net.httpserver.HttpExchange;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The cache of the job view responses of the finished applications.
+ *
+ * The data of an application attempt never changes once the application has finished, so the response is serialized,
+ * compressed and tagged only once, then it's kept until evicted and never loaded from the cluster again. The responses
+ * of the running applications, or of the finished ones whose Spark attempt isn't completed yet, are not cached and
+ * always loaded again.
+ */
+public class JobViewResponseCache {
+    private static final long MAX_CACHED_BYTES = 64 * 1024 * 1024;
+
+    // Not known from the cached applications list, such as the Yarn applications which are not Spark ones
+    private static final int UNKNOWN_ATTEMPT_ID = -1;
+
+    private static final Cache<ResponseKey, CachedResponse> finishedResponses = CacheBuilder.newBuilder()
+            .maximumWeight(MAX_CACHED_BYTES)
+            .weigher((ResponseKey key, CachedResponse response) -> response.getWeight())
+            .build();
+
+    // The applications whose last Spark attempt was seen completed, with their cached state dropped once
+    private static final Cache<ApplicationKey, Boolean> completedApps = CacheBuilder.newBuilder()
+            .maximumSize(1000)
+            .build();
+
+    // The applications seen finished by Yarn, whose applications list was loaded again lately to check the attempt
+    private static final Cache<ApplicationKey, Boolean> refreshedApps = CacheBuilder.newBuilder()
+            .maximumSize(1000)
+            .expireAfterWrite(JobViewCacheManager.APPLICATION_STATE_EXPIRE_SECONDS, TimeUnit.SECONDS)
+            .build();
+
+    public interface ResponseLoader {
+        Object load() throws ExecutionException, IOException;
+    }
+
+    /**
+     * Respond with the cached response of the application, or with the JSON of the object loaded if there is no
+     * cached response, which is cached if the application has finished.
+     *
+     * @param httpExchange the HTTP exchange to respond
+     * @param key the application key
+     * @param endpoint the endpoint of the response, which is one part of the cache key
+     * @param loader the loader of the object to respond
+     */
+    public static void respond(@NotNull HttpExchange httpExchange,
+                               @NotNull ApplicationKey key,
+                               @NotNull String endpoint,
+                               @NotNull ResponseLoader loader) throws ExecutionException, IOException {
+        if (respondFromCache(httpExchange, key, endpoint)) {
+            return;
+        }
+
+        // Check the state before loading, so the object loaded after the application has finished is the final one
+        final boolean isFinished = isFinished(key);
+        final byte[] body = ObjectConvertUtils.convertObjectToJsonString(loader.load())
+                .orElseThrow(IOException::new)
+                .getBytes(StandardCharsets.UTF_8);
+        respond(httpExchange, key, endpoint, body, isFinished);
+    }
+
+    /**
+     * Respond with the cached response of the application if there is one
+     *
+     * @return true if responded
+     */
+    public static boolean respondFromCache(@NotNull HttpExchange httpExchange,
+                                           @NotNull ApplicationKey key,
+                                           @NotNull String endpoint) {
+        final CachedResponse cached = finishedResponses.getIfPresent(new ResponseKey(key, getLastAttemptId(key), endpoint));
+        if (cached == null) {
+            return false;
+        }
+
+        JobUtils.setResponse(httpExchange, 200, cached.body, cached.gzippedBody, cached.etag);
+        return true;
+    }
+
+    /**
+     * Respond with the body, which is cached if the application has finished
+     *
+     * @param isFinished whether the application had finished before the body was loaded
+     */
+    public static void respond(@NotNull HttpExchange httpExchange,
+                               @NotNull ApplicationKey key,
+                               @NotNull String endpoint,
+                               @NotNull byte[] body,
+                               boolean isFinished) throws IOException {
+        if (!isFinished) {
+            JobUtils.setResponse(httpExchange, 200, body, null, null);
+            return;
+        }
+
+        final CachedResponse cached = new CachedResponse(body, JobUtils.gzip(body), JobUtils.createETag(body));
+        finishedResponses.put(new ResponseKey(key, getLastAttemptId(key), endpoint), cached);
+        JobUtils.setResponse(httpExchange, 200, cached.body, cached.gzippedBody, cached.etag);
+    }
+
+    /**
+     * Whether the responses of the application are final, which is once the application has finished and its last
+     * Spark attempt is completed. Yarn reports the application finished before the Spark history server has replayed
+     * its last events, so the Yarn state alone isn't enough.
+     */
+    public static boolean isFinished(@NotNull ApplicationKey key) throws ExecutionException {
+        if (completedApps.getIfPresent(key) != null) {
+            return true;
+        }
+
+        final App app = JobViewCacheManager.getYarnApp(key);
+        if (app == null || app.getState() == null || !app.isFinished()) {
+            return false;
+        }
+
+        if (refreshedApps.asMap().putIfAbsent(key, true) == null) {
+            // The applications list cached may be loaded before the attempt completed
+            JobViewCacheManager.invalidateSparkApplications(key.getClusterDetails());
+        }
+
+        if (!isLastAttemptCompleted(key)) {
+            return false;
+        }
+
+        // The state cached may be loaded before the attempt completed, which must not be cached as final. It's marked
+        // completed after dropping the state, so the responses cached as final are always loaded after it
+        JobViewCacheManager.invalidateSparkState(key);
+        completedApps.put(key, true);
+
+        return true;
+    }
+
+    private static boolean isLastAttemptCompleted(@NotNull ApplicationKey key) throws ExecutionException {
+        final Application application = JobViewCacheManager.getSingleSparkApplication(key);
+        if (application == null) {
+            return false;
+        }
+
+        final String lastAttemptId = String.valueOf(application.getLastAttemptId());
+        return application.getAttempts().stream()
+                .anyMatch(attempt -> lastAttemptId.equals(attempt.getAttemptId())
+                        && Boolean.parseBoolean(attempt.getCompleted()));
+    }
+
+    private static int getLastAttemptId(@NotNull ApplicationKey key) {
+        try {
+            // The applications list is cached, so no request is sent to the cluster here after the first one
+            final Application application = JobViewCacheManager.getSingleSparkApplication(key);
+            return application != null ? application.getLastAttemptId() : UNKNOWN_ATTEMPT_ID;
+        } catch (ExecutionException | RuntimeException ignored) {
+            return UNKNOWN_ATTEMPT_ID;
+        }
+    }
+
+    private static class CachedResponse {
+        @NotNull
+        private final byte[] body;
+        @NotNull
+        private final byte[] gzippedBody;
+        @NotNull
+        private final String etag;
+
+        CachedResponse(@NotNull byte[] body, @NotNull byte[] gzippedBody, @NotNull String etag) {
+            this.body = body;
+            this.gzippedBody = gzippedBody;
+            this.etag = etag;
+        }
+
+        int getWeight() {
+            return body.length + gzippedBody.length;
+        }
+    }
+
+    private static class ResponseKey {
+        private final String clusterConnString;
+        private final String appId;
+        private final int attemptId;
+        private final String endpoint;
+
+        ResponseKey(@NotNull ApplicationKey key, int attemptId, @NotNull String endpoint) {
+            this.clusterConnString = key.getClusterConnString().toLowerCase();
+            this.appId = key.getAppId().toLowerCase();
+            this.attemptId = attemptId;
+            this.endpoint = endpoint;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(clusterConnString, appId, attemptId, endpoint);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj == this) {
+                return true;
+            }
+            if (!(obj instanceof ResponseKey)) {
+                return false;
+            }
+            ResponseKey that = (ResponseKey) obj;
+            return attemptId == that.attemptId &&
+                    clusterConnString.equals(that.clusterConnString) &&
+                    appId.equals(that.appId) &&
+                    endpoint.equals(that.endpoint);
+        }
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.hdinsight.spark.jobs;
+
+import com.microsoft.azure.hdinsight.sdk.common.HDIException;
+import com.microsoft.azure.hdinsight.sdk.rest.ObjectConvertUtils;
+import com.microsoft.azuretools.azurecommons.helpers.NotNull;
+import com.microsoft.azuretools.azurecommons.helpers.Nullable;
+import rx.Observable;
+import rx.Subscriber;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Reads Spark events from the event logs zip returned by Spark history server `/applications/{appId}/logs` API.
+ *
+ * The zip is read straight from the stream, entry by entry and line by line, so the event log is never held in
+ * memory or on disk as a whole. Each line is one JSON event, starting with the `Event` field as Spark writes it, so
+ * the event type is checked by scanning that field and only the matched lines are parsed.
+ */
+public class SparkEventLogReader {
+    private static final String EVENT_FIELD = "\"Event\":\"";
+    private static final String EVENT_FIELD_PREFIX = "{" + EVENT_FIELD;
+
+    /**
+     * Read the events of a type from an event logs zip stream. The stream isn't closed by the reader.
+     *
+     * @param zipStream the event logs zip stream
+     * @param entryName the zip entry to read, in the formation "{appId}_{attemptId}"
+     * @param eventName the Spark event name to read, such as `SparkListenerJobStart`
+     * @param clazz the event type to convert to
+     * @param <T> the event type
+     * @return the events emitted one by one while the stream is read
+     */
+    public static <T> Observable<T> readEvents(@NotNull InputStream zipStream,
+                                               @NotNull String entryName,
+                                               @NotNull String eventName,
+                                               @NotNull Class<T> clazz) {
+        return Observable.create((Subscriber<? super T> ob) -> {
+            try {
+                ZipInputStream zipInputStream = new ZipInputStream(zipStream);
+                ZipEntry entry;
+                while ((entry = zipInputStream.getNextEntry()) != null) {
+                    if (!entry.getName().equals(entryName)) {
+                        continue;
+                    }
+
+                    BufferedReader reader = new BufferedReader(
+                            new InputStreamReader(zipInputStream, StandardCharsets.UTF_8));
+                    String line;
+                    while (!ob.isUnsubscribed() && (line = reader.readLine()) != null) {
+                        if (!isEvent(line, eventName)) {
+                            continue;
+                        }
+
+                        T event = ObjectConvertUtils.convertToObjectQuietly(line, clazz);
+                        if (event != null) {
+                            ob.onNext(event);
+                        }
+                    }
+
+                    ob.onCompleted();
+                    return;
+                }
+
+                ob.onError(new HDIException("No Spark event log entity " + entryName + " found"));
+            } catch (IOException e) {
+                ob.onError(e);
+            }
+        });
+    }
+
+    /**
+     * Check the event type of an event log line without parsing it
+     *
+     * @param line the event log line
+     * @param eventName the expected event name
+     * @return true if the line is the event expected
+     */
+    static boolean isEvent(@Nullable String line, @NotNull String eventName) {
+        if (line == null) {
+            return false;
+        }
+
+        int nameStart;
+        if (line.startsWith(EVENT_FIELD_PREFIX)) {
+            nameStart = EVENT_FIELD_PREFIX.length();
+        } else {
+            int fieldStart = line.indexOf(EVENT_FIELD);
+            if (fieldStart < 0) {
+                return false;
+            }
+
+            nameStart = fieldStart + EVENT_FIELD.length();
+        }
+
+        int nameEnd = nameStart + eventName.length();
+
+        return nameEnd < line.length() &&
+                line.charAt(nameEnd) == '"' &&
+                line.regionMatches(true, nameStart, eventName, 0, eventName.length());
+    }
+}
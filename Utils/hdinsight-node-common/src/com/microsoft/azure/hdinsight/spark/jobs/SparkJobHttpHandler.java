@@ -10,16 +10,15 @@ import com.microsoft.azure.hdinsight.sdk.rest.ObjectConvertUtils;
 import com.microsoft.azure.hdinsight.sdk.rest.spark.Application;
 import com.microsoft.azure.hdinsight.sdk.rest.spark.YarnAppWithJobs;
 import com.microsoft.azure.hdinsight.sdk.rest.spark.event.JobStartEventLog;
-import com.microsoft.azure.hdinsight.sdk.rest.spark.executor.Executor;
 import com.microsoft.azure.hdinsight.sdk.rest.spark.job.Job;
 import com.microsoft.azure.hdinsight.sdk.rest.spark.stage.Stage;
-import com.microsoft.azure.hdinsight.sdk.rest.spark.task.Task;
 import com.microsoft.azure.hdinsight.sdk.rest.yarn.rm.App;
 import com.microsoft.azure.hdinsight.spark.jobs.framework.JobRequestDetails;
 import com.microsoft.tooling.msservices.components.DefaultLoader;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.util.List;
 import java.util.Optional;
@@ -43,24 +42,32 @@ public class SparkJobHttpHandler implements HttpHandler {
                 }
             } else if (path.contains("application_graph")) {
                 ApplicationKey key = new ApplicationKey(requestDetail.getCluster(), requestDetail.getAppId());
-                List<Job> jobs = JobViewCacheManager.getJob(key);
-                App app = JobViewCacheManager.getYarnApp(key);
-                List<JobStartEventLog> jobStartEventLogs = JobViewCacheManager.getJobStartEventLogs(key);
-                YarnAppWithJobs yarnAppWithJobs = new YarnAppWithJobs(app, jobs, jobStartEventLogs);
-                Optional<String> responseString = ObjectConvertUtils.convertObjectToJsonString(yarnAppWithJobs);
-                JobUtils.setResponse(httpExchange, responseString.orElseThrow(IOException::new));
+                JobViewResponseCache.respond(httpExchange, key, "application_graph", () -> {
+                    List<Job> jobs = JobViewCacheManager.getJob(key);
+                    App app = JobViewCacheManager.getYarnApp(key);
+                    List<JobStartEventLog> jobStartEventLogs = JobViewCacheManager.getJobStartEventLogs(key);
+                    return new YarnAppWithJobs(app, jobs, jobStartEventLogs);
+                });
             } else if (path.contains("stages_summary")) {
-                List<Stage> stages = JobViewCacheManager.getStages(new ApplicationKey(requestDetail.getCluster(), requestDetail.getAppId()));
-                Optional<String> responseString = ObjectConvertUtils.convertObjectToJsonString(stages);
-                JobUtils.setResponse(httpExchange, responseString.orElseThrow(IOException::new));
+                ApplicationKey key = new ApplicationKey(requestDetail.getCluster(), requestDetail.getAppId());
+                JobViewResponseCache.respond(httpExchange, key, "stages_summary", () -> JobViewCacheManager.getStages(key));
             } else if (path.contains("executors_summary")) {
-                List<Executor> executors = JobViewCacheManager.getExecutors(new ApplicationKey(requestDetail.getCluster(), requestDetail.getAppId()));
-                Optional<String> responseString = ObjectConvertUtils.convertObjectToJsonString(executors);
-                JobUtils.setResponse(httpExchange, responseString.orElseThrow(IOException::new));
+                ApplicationKey key = new ApplicationKey(requestDetail.getCluster(), requestDetail.getAppId());
+                JobViewResponseCache.respond(httpExchange, key, "executors_summary", () -> JobViewCacheManager.getExecutors(key));
             } else if (path.contains("tasks_summary")) {
-                List<Task> tasks = JobViewCacheManager.getTasks(new ApplicationKey(requestDetail.getCluster(), requestDetail.getAppId()));
-                Optional<String> responseString = ObjectConvertUtils.convertObjectToJsonString(tasks);
-                JobUtils.setResponse(httpExchange, responseString.orElseThrow(IOException::new));
+                ApplicationKey key = new ApplicationKey(requestDetail.getCluster(), requestDetail.getAppId());
+                if (!JobViewResponseCache.respondFromCache(httpExchange, key, "tasks_summary")) {
+                    boolean isFinished = JobViewResponseCache.isFinished(key);
+                    List<Stage> stages = JobViewCacheManager.getStages(key);
+                    if (isFinished) {
+                        // The tasks of a finished application are cached as a whole, rather than streamed chunk by chunk
+                        ByteArrayOutputStream body = new ByteArrayOutputStream();
+                        JobUtils.writeJsonArray(body, JobViewCacheManager.getStageTasks(key, stages));
+                        JobViewResponseCache.respond(httpExchange, key, "tasks_summary", body.toByteArray(), true);
+                    } else {
+                        JobUtils.setJsonArrayResponse(httpExchange, JobViewCacheManager.getStageTasks(key, stages));
+                    }
+                }
             }
         } catch (ExecutionException e) {
             JobUtils.setResponse(httpExchange, e.getMessage(), 500);
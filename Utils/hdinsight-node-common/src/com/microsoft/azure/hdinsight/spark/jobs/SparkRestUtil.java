@@ -19,20 +19,21 @@ import com.microsoft.azure.hdinsight.sdk.rest.spark.stage.Stage;
 import com.microsoft.azure.hdinsight.sdk.rest.spark.task.Task;
 import com.microsoft.azuretools.azurecommons.helpers.NotNull;
 import org.apache.commons.io.FileUtils;
-import org.apache.commons.io.IOUtils;
 import org.apache.http.HttpEntity;
-import org.json.JSONObject;
+import rx.Observable;
 
 
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
-import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.util.*;
 import java.util.concurrent.ExecutionException;
 import java.util.stream.Collectors;
-import java.util.zip.ZipEntry;
-import java.util.zip.ZipFile;
 
 public class SparkRestUtil {
     public static final String SPARK_REST_API_ENDPOINT = "%s/sparkhistory/api/v1/applications/%s";
@@ -75,49 +76,112 @@ public class SparkRestUtil {
     }
 
     public static List<Task> getSparkTasks(@NotNull ApplicationKey key, @NotNull int stage, int attemptId) throws IOException, ExecutionException, HDIException {
+        return getSparkTasksObservable(key, stage, attemptId).toList().toBlocking().single();
+    }
+
+    /**
+     * Get the task list of a stage attempt, emitting every task as soon as it's parsed from the response stream
+     */
+    public static Observable<Task> getSparkTasksObservable(@NotNull ApplicationKey key, int stage, int attemptId) throws IOException, ExecutionException, HDIException {
         AttemptWithAppId attemptWithAppId = getLastAttemptFromLocalCache(key);
         String url = String.format("/%s/%s/stages/%s/%s/taskList", attemptWithAppId.getAppId(), attemptWithAppId.getAttemptId(),stage, attemptId);
         HttpEntity entity = getSparkRestEntity(key.getClusterDetails(), url);
 
-        Optional<List<Task>> tasks = ObjectConvertUtils.convertEntityToList(entity, Task.class);
-        return tasks.orElse(RestUtil.getEmptyList(Task.class));
+        return ObjectConvertUtils.convertEntityToObservable(entity, Task.class);
     }
 
-    public static List<JobStartEventLog> getSparkEventLogs(@NotNull ApplicationKey key) throws HDIException, IOException {
-        String url = String.format("%s/logs", key.getAppId());
-        String eventLogsPath = String.format("%s/SparkEventLogs/%s/eventLogs.zip", HDInsightLoader.getHDInsightHelper().getPluginRootPath(), key.getAppId());
-        File file = new File(eventLogsPath);
-        HttpEntity entity = getSparkRestEntity(key.getClusterDetails(), url);
-        InputStream inputStream = entity.getContent();
-        FileUtils.copyInputStreamToFile(inputStream, file);
-        IOUtils.closeQuietly(inputStream);
-
-        ZipFile zipFile = new ZipFile(file);
-        List<? extends ZipEntry> entities =  Collections.list(zipFile.entries());
+    public static List<JobStartEventLog> getSparkEventLogs(@NotNull ApplicationKey key) throws HDIException, IOException, ExecutionException {
+        AttemptWithAppId attemptWithAppId = getLastAttemptFromLocalCache(key);
         // every application has an attempt in event log
         // and the entity name should be in formation "{appId}_{attemptId}"
-        String entityName = String.format("%s_%s", key.getAppId(), entities.size());
-        ZipEntry lastEntity = zipFile.getEntry(entityName);
-        if (lastEntity == null) {
-            throw new HDIException(String.format("No Spark event log entity found for app: %s", key.getAppId()));
+        String entityName = String.format("%s_%s", key.getAppId(), attemptWithAppId.getAttemptId());
+
+        // The event log of a completed attempt never changes, index its job start events for the next opening
+        boolean isCompleted = Boolean.parseBoolean(attemptWithAppId.getCompleted());
+        File indexFile = new File(String.format("%s/SparkEventLogs/%s/%s.jobStartEvents.json",
+                HDInsightLoader.getHDInsightHelper().getPluginRootPath(), key.getAppId(), entityName));
+
+        return getJobStartEvents(key.getAppId(), entityName, isCompleted, indexFile,
+                () -> getSparkRestEntity(key.getClusterDetails(), String.format("%s/logs", key.getAppId())).getContent());
+    }
+
+    /**
+     * Get the job start events of an attempt from its index file when it's completed and indexed, otherwise read them
+     * from its event logs and index them if it's completed
+     */
+    static List<JobStartEventLog> getJobStartEvents(@NotNull String appId,
+                                                    @NotNull String entityName,
+                                                    boolean isCompleted,
+                                                    @NotNull File indexFile,
+                                                    @NotNull EventLogsOpener eventLogsOpener) throws HDIException, IOException {
+        if (isCompleted && indexFile.isFile()) {
+            try {
+                Optional<List<JobStartEventLog>> indexedEvents = ObjectConvertUtils.convertJsonToList(
+                        FileUtils.readFileToString(indexFile, StandardCharsets.UTF_8), JobStartEventLog.class);
+                if (indexedEvents.isPresent()) {
+                    return indexedEvents.get();
+                }
+            } catch (IOException ignore) {
+                // A broken index is rebuilt from the event logs
+            }
+        }
+
+        List<JobStartEventLog> jobStartEvents;
+        try (InputStream inputStream = eventLogsOpener.open()) {
+            jobStartEvents = SparkEventLogReader
+                    .readEvents(inputStream, entityName, "SparkListenerJobStart", JobStartEventLog.class)
+                    .toList()
+                    .toBlocking()
+                    .single();
+        } catch (RuntimeException e) {
+            if (e.getCause() instanceof HDIException) {
+                throw new HDIException(String.format("No Spark event log entity found for app: %s", appId));
+            }
+
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+
+            throw e;
+        }
+
+        if (isCompleted) {
+            Optional<String> index = ObjectConvertUtils.convertObjectToJsonString(jobStartEvents);
+            if (index.isPresent()) {
+                writeIndex(indexFile, index.get());
+            }
         }
-        InputStream zipFileInputStream = zipFile.getInputStream(lastEntity);
-        String entityContent = IOUtils.toString(zipFileInputStream, Charset.forName("utf-8"));
-
-        String[] lines = entityContent.split("\n");
-        List<JobStartEventLog> jobStartEvents = Arrays.stream(lines)
-                .filter(line -> {
-                    JSONObject jsonObject = new JSONObject(line);
-                    String eventName = jsonObject.getString("Event");
-                    return eventName.equalsIgnoreCase("SparkListenerJobStart");
-                    })
-                .map(oneLine -> ObjectConvertUtils.convertToObjectQuietly(oneLine, JobStartEventLog.class))
-                .filter(Objects::nonNull)
-                .collect(Collectors.toList());
 
         return jobStartEvents;
     }
 
+    /**
+     * Write the index to a temporary file in its folder, then move it in place, so that it's never read partially
+     * written by another job view or IDE instance reading the same attempt
+     */
+    private static void writeIndex(@NotNull File indexFile, @NotNull String index) throws IOException {
+        final Path indexFolder = Files.createDirectories(indexFile.getAbsoluteFile().getParentFile().toPath());
+        final Path tempFile = Files.createTempFile(indexFolder, indexFile.getName(), ".tmp");
+        try {
+            Files.write(tempFile, index.getBytes(StandardCharsets.UTF_8));
+            try {
+                Files.move(tempFile, indexFile.toPath(), StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException ignored) {
+                Files.move(tempFile, indexFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    /**
+     * Opens the event logs zip stream of an application
+     */
+    @FunctionalInterface
+    interface EventLogsOpener {
+        InputStream open() throws HDIException, IOException;
+    }
+
     private static AttemptWithAppId getLastAttemptFromLocalCache(@NotNull ApplicationKey key) throws ExecutionException, HDIException {
         List<Application> sparkApplications = JobViewCacheManager.getSparkApplications(key.getClusterDetails());
         Optional<Application> selectedApplication = sparkApplications.stream().filter(application -> application.getId().equalsIgnoreCase(key.getAppId())
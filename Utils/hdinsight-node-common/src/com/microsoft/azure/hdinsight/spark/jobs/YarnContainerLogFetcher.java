@@ -0,0 +1,249 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.hdinsight.spark.jobs;
+
+import com.microsoft.azure.hdinsight.sdk.common.SharedHttpConnectionManager;
+import com.microsoft.azuretools.azurecommons.helpers.NotNull;
+import com.microsoft.azuretools.azurecommons.helpers.Nullable;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpStatus;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.conn.HttpClientConnectionManager;
+import org.apache.http.entity.ContentType;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.util.EntityUtils;
+import org.jsoup.parser.Parser;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.apache.http.HttpHeaders.AUTHORIZATION;
+
+/**
+ * Fetches a byte range of a Yarn container log from the Yarn UI or the job history server log page.
+ *
+ * All requests lease connections from the shared pooled connection manager, so polling keeps the connections to
+ * every cluster alive. The log page is scanned as a character stream for the `Log Type` paragraphs and `<pre>` blocks,
+ * rather than being rendered by a headless browser.
+ */
+public class YarnContainerLogFetcher {
+    private static final Logger LOGGER = LoggerFactory.getLogger(YarnContainerLogFetcher.class);
+    private static final Pattern LOG_TYPE_PATTERN = Pattern.compile("Log Type:\\s+(\\S+)");
+
+    private static final RequestConfig REQUEST_CONFIG = RequestConfig.custom()
+            .setConnectionRequestTimeout(SharedHttpConnectionManager.CONNECTION_REQUEST_TIMEOUT_MS)
+            .build();
+
+    // The clients by the pools they lease connections from, which are one for each trust strategy
+    @NotNull
+    private static final ConcurrentMap<HttpClientConnectionManager, CloseableHttpClient> httpClients =
+            new ConcurrentHashMap<>();
+
+    /**
+     * Fetch a range of the container log
+     *
+     * @param authCode the authCode in request's Authorization header
+     * @param baseUrl the container log URL
+     * @param type the log type, such as `stdout` and `stderr`
+     * @param start the log range start offset, the negative value for the offset from the end
+     * @param size the log range size, the value 0 or less for all the rest
+     * @return the log got, or empty string for any failure
+     */
+    @NotNull
+    public static String fetch(@Nullable String authCode,
+                               @NotNull String baseUrl,
+                               @NotNull String type,
+                               long start,
+                               int size) {
+        URI url = null;
+
+        try {
+            url = new URI(baseUrl + "/").resolve(
+                    String.format("%s?start=%d", type, start) +
+                            (size <= 0 ? "" : String.format("&&end=%d", start + size)));
+
+            final HttpGet request = new HttpGet(url);
+            if (authCode != null) {
+                request.setHeader(AUTHORIZATION, authCode);
+            }
+
+            try (CloseableHttpResponse response = getHttpClient().execute(request)) {
+                final HttpEntity entity = response.getEntity();
+                final int statusCode = response.getStatusLine().getStatusCode();
+
+                if (statusCode >= 300) {
+                    // If the URL is wrong, will get 200 response with content:
+                    //      Unable to locate 'xxx' log for container
+                    //  OR
+                    //      Logs not available for <user>. Aggregation may not be complete, Check back later or try the nodemanager at...
+                    //  OR
+                    //      Cannot get container logs without ...
+                    //
+                    // if fetching Yarn log hits the gap between the job running and stop, will get the status 403
+                    // the log is moving to job history server, just wait and retry.
+                    if (statusCode != HttpStatus.SC_FORBIDDEN) {
+                        LOGGER.warn("The GET request to " + url + " responded error: " + response.getStatusLine());
+                    }
+
+                    EntityUtils.consume(entity);
+                    return "";
+                }
+
+                if (entity == null) {
+                    return "";
+                }
+
+                final Charset charset = Optional.ofNullable(ContentType.getOrDefault(entity).getCharset())
+                        .orElse(StandardCharsets.UTF_8);
+                final String logs;
+                try (Reader reader = new BufferedReader(new InputStreamReader(entity.getContent(), charset))) {
+                    logs = extractLog(reader, type);
+                }
+
+                return logs;
+            }
+        } catch (final URISyntaxException e) {
+            LOGGER.error("baseUrl has syntax error: " + baseUrl);
+        } catch (final Exception e) {
+            LOGGER.warn("get Spark job log Error", e);
+        }
+
+        return "";
+    }
+
+    /**
+     * Extract the log of a type from the log page.
+     *
+     * The history server page has a `Log Type: {type}` paragraph ahead of every log `<pre>` block, while the running
+     * container page has only one `<pre>` block without the paragraph. The paragraphs are never closed by the page, so
+     * a paragraph ends at the next `<p>` or `<pre>` tag. Only the log of the type asked is returned if there are log
+     * type paragraphs, otherwise the last `<pre>` block.
+     *
+     * @param reader the log page reader
+     * @param type the log type
+     * @return the log extracted
+     * @throws IOException for the reading failure
+     */
+    @NotNull
+    static String extractLog(@NotNull Reader reader, @NotNull String type) throws IOException {
+        final StringBuilder text = new StringBuilder();
+        final StringBuilder tag = new StringBuilder();
+        boolean isInContent = false;
+        boolean isInParagraph = false;
+        boolean isInPre = false;
+        // Whether the page has any log type paragraph, without them it's the running container page
+        boolean hasLogType = false;
+        String logType = null;
+        String logs = "";
+
+        int ch;
+        while ((ch = reader.read()) != -1) {
+            if (ch != '<') {
+                if (isInParagraph || isInPre) {
+                    text.append((char) ch);
+                }
+
+                continue;
+            }
+
+            tag.setLength(0);
+            while ((ch = reader.read()) != -1 && ch != '>') {
+                tag.append((char) ch);
+            }
+
+            final String tagName = getTagName(tag);
+
+            if (!isInContent) {
+                // The logs are in the content cell next to the navigation cell
+                isInContent = tag.indexOf("navcell") >= 0;
+                continue;
+            }
+
+            if (isInParagraph && (tagName.equals("p") || tagName.equals("/p") || tagName.equals("pre"))) {
+                // The paragraph isn't closed in the page, it's ended by the next paragraph or log block
+                final Matcher matcher = LOG_TYPE_PATTERN.matcher(text.toString().trim());
+                if (matcher.matches()) {
+                    logType = matcher.group(1);
+                    hasLogType = true;
+                }
+
+                isInParagraph = false;
+            }
+
+            switch (tagName) {
+                case "p":
+                    isInParagraph = true;
+                    text.setLength(0);
+                    break;
+                case "pre":
+                    isInPre = true;
+                    text.setLength(0);
+                    break;
+                case "/pre":
+                    if (isInPre) {
+                        // Only get the first <pre>...</pre> after the log type paragraph
+                        if (logType != null && logType.equals(type)) {
+                            return Parser.unescapeEntities(text.toString(), false);
+                        }
+
+                        if (!hasLogType) {
+                            logs = Parser.unescapeEntities(text.toString(), false);
+                        }
+
+                        logType = null;
+                    }
+
+                    isInPre = false;
+                    break;
+                default:
+            }
+        }
+
+        return logs;
+    }
+
+    @NotNull
+    private static String getTagName(@NotNull CharSequence tag) {
+        int end = tag.length() > 0 && tag.charAt(0) == '/' ? 1 : 0;
+        while (end < tag.length() && Character.isLetterOrDigit(tag.charAt(end))) {
+            end++;
+        }
+
+        return tag.subSequence(0, end).toString().toLowerCase();
+    }
+
+    /**
+     * Get the client for the pool of the trust strategy currently provided. The clients are kept by their pools, which
+     * are kept by the trust strategies, so a client is built once for each strategy rather than on every fetch.
+     */
+    @NotNull
+    private static CloseableHttpClient getHttpClient() {
+        return httpClients.computeIfAbsent(
+                SharedHttpConnectionManager.getInstance().getConnectionManager(),
+                connectionManager -> HttpClients.custom()
+                        .useSystemProperties()
+                        .setConnectionManager(connectionManager)
+                        .setConnectionManagerShared(true)
+                        .setDefaultRequestConfig(REQUEST_CONFIG)
+                        .build());
+    }
+}
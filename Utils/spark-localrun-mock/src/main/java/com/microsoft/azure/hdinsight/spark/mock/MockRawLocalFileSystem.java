@@ -18,14 +18,29 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.*;
 import java.util.stream.Collectors;
 
 class MockRawLocalFileSystem extends RawLocalFileSystem {
+    private static final int MAX_CACHED_PATHS = 10000;
+
     private String authority;
     private String scheme = "wasb";
     private URI uri;
 
+    // The resolved local files of the paths, which are dropped when the local working directory changes
+    private final Map<Path, File> resolvedFiles = new LinkedHashMap<Path, File>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Path, File> eldest) {
+            return size() > MAX_CACHED_PATHS;
+        }
+    };
+    private String resolvedUserDir;
+
     @Override
     public FileStatus getFileStatus(Path f) throws IOException {
         File path = pathToFile(f);
@@ -39,7 +54,6 @@ class MockRawLocalFileSystem extends RawLocalFileSystem {
     @Override
     public FileStatus[] listStatus(Path f) throws IOException {
         File localf = pathToFile(f);
-        FileStatus[] results;
 
         if (!localf.exists()) {
             throw new FileNotFoundException("File " + f + " does not exist");
@@ -49,27 +63,30 @@ class MockRawLocalFileSystem extends RawLocalFileSystem {
                     new RawLocalFileStatus(localf, getDefaultBlockSize(f), makeQualified(f)) };
         }
 
-        String[] names = localf.list();
-        if (names == null) {
-            return null;
-        }
-        results = new FileStatus[names.length];
-        int j = 0;
-        for (int i = 0; i < names.length; i++) {
-            try {
+        // Read the attributes of all children in one pass, rather than resolving and checking each child path again
+        long defaultBlockSize = getDefaultBlockSize(f);
+        Path qualified = makeQualified(f);
+        List<FileStatus> results = new ArrayList<>();
+        try (DirectoryStream<java.nio.file.Path> children = Files.newDirectoryStream(localf.toPath())) {
+            for (java.nio.file.Path child : children) {
+                BasicFileAttributes attributes;
+                try {
+                    attributes = Files.readAttributes(child, BasicFileAttributes.class);
+                } catch (NoSuchFileException e) {
+                    // ignore the files not found since the dir may have changed during listing
+                    continue;
+                }
+
                 // Assemble the path using the Path 3 arg constructor to make sure
                 // paths with colon are properly resolved on Linux
-                results[j] = getFileStatus(new Path(f, new Path(null, null, names[i])));
-                j++;
-            } catch (FileNotFoundException e) {
-                // ignore the files not found since the dir list may have have changed
-                // since the names[] list was generated.
+                Path childPath = new Path(qualified, new Path(null, null, child.getFileName().toString()));
+                results.add(new RawLocalFileStatus(child.toFile(), attributes, defaultBlockSize, childPath));
             }
+        } catch (NoSuchFileException e) {
+            throw new FileNotFoundException("File " + f + " does not exist");
         }
-        if (j == names.length) {
-            return results;
-        }
-        return Arrays.copyOf(results, j);
+
+        return results.toArray(new FileStatus[0]);
     }
 
     @Override
@@ -79,6 +96,10 @@ class MockRawLocalFileSystem extends RawLocalFileSystem {
         this.authority = uri.getAuthority();
         this.scheme = uri.getScheme();
 
+        synchronized (resolvedFiles) {
+            resolvedFiles.clear();
+        }
+
         try {
             this.uri = new URI(scheme, authority, "/", null, null);
         } catch (URISyntaxException e) {
@@ -119,6 +140,12 @@ class MockRawLocalFileSystem extends RawLocalFileSystem {
             this.file = f;
         }
 
+        RawLocalFileStatus(File f, BasicFileAttributes attributes, long defaultBlockSize, Path p) {
+            super(attributes.size(), attributes.isDirectory(), 1, defaultBlockSize,
+                  attributes.lastModifiedTime().toMillis(), p);
+            this.file = f;
+        }
+
         @Override
         public FsPermission getPermission() {
             if (!isPermissionLoaded()) {
@@ -201,6 +228,32 @@ class MockRawLocalFileSystem extends RawLocalFileSystem {
 
     @Override
     public File pathToFile(Path path) {
+        String userDir = System.getProperty("user.dir");
+
+        synchronized (resolvedFiles) {
+            if (!Objects.equals(userDir, resolvedUserDir)) {
+                resolvedFiles.clear();
+                resolvedUserDir = userDir;
+            }
+
+            File cached = resolvedFiles.get(path);
+            if (cached != null) {
+                return cached;
+            }
+        }
+
+        File resolved = resolvePathToFile(path, userDir);
+
+        synchronized (resolvedFiles) {
+            if (Objects.equals(userDir, resolvedUserDir)) {
+                resolvedFiles.put(path, resolved);
+            }
+        }
+
+        return resolved;
+    }
+
+    private File resolvePathToFile(Path path, String userDir) {
         Path realPath;
 
         URI originUri = path.toUri();
@@ -224,8 +277,8 @@ class MockRawLocalFileSystem extends RawLocalFileSystem {
             Path fsRoot = Optional.ofNullable(Optional.ofNullable(originUri.getAuthority())
                                                       .orElse(this.authority))
                     .filter(auth -> !auth.isEmpty())
-                    .map(auth -> new Path(new Path(System.getProperty("user.dir")).getParent().getParent().getParent(), auth))
-                    .orElse(new Path(System.getProperty("user.dir")).getParent().getParent());
+                    .map(auth -> new Path(new Path(userDir).getParent().getParent().getParent(), auth))
+                    .orElse(new Path(userDir).getParent().getParent());
 
             realPath = new Path(fsRoot,
                                 Optional.of(String.join(Path.SEPARATOR, components))
@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) Microsoft Corporation
+ * <p/>
+ * All rights reserved.
+ * <p/>
+ * MIT License
+ * <p/>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p/>
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ * <p/>
+ * THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package com.microsoft.azure.hdinsight.spark.mock
+
+import org.apache.hadoop.conf.Configuration
+import org.apache.hadoop.fs.Path
+import java.io.File
+import java.nio.file.Files
+
+/**
+ * Measure listing a large directory with the mocked file system.
+ *
+ * Run it with the main method, the file count can be given as the first argument. The directory is listed for some
+ * warm-up iterations before the measured ones, and is deleted at the end.
+ */
+object MockRawLocalFileSystemBenchmark {
+    private const val WARM_UP_ITERATIONS = 2
+    private const val MEASURED_ITERATIONS = 5
+
+    @JvmStatic
+    fun main(args: Array<String>) {
+        val fileCount = args.getOrNull(0)?.toInt() ?: 100000
+        val dir = Files.createTempDirectory("mockfs-list").toFile()
+        try {
+            for (i in 0 until fileCount) {
+                File(dir, String.format("part-%05d", i)).createNewFile()
+            }
+
+            val fs = MockRawLocalFileSystem()
+            fs.conf = Configuration()
+            val path = Path(dir.toURI())
+
+            repeat(WARM_UP_ITERATIONS) { fs.listStatus(path) }
+
+            var totalNanos = 0L
+            var listed = 0L
+            repeat(MEASURED_ITERATIONS) {
+                val start = System.nanoTime()
+                listed += fs.listStatus(path).size
+                totalNanos += System.nanoTime() - start
+            }
+
+            System.out.printf("listStatus %10.1f ms/listing (%d files, listed %d)%n",
+                    totalNanos / 1e6 / MEASURED_ITERATIONS, fileCount, listed)
+        } finally {
+            dir.deleteRecursively()
+        }
+    }
+}
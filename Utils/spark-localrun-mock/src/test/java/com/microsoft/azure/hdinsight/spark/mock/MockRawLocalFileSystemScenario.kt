@@ -28,10 +28,12 @@ import org.apache.hadoop.conf.Configuration
 import org.apache.hadoop.fs.Path
 import org.assertj.core.api.Assertions.assertThat
 import java.io.File
+import java.nio.file.Files
 import kotlin.test.assertNotNull
 
 class MockRawLocalFileSystemScenario {
     private var workDir = ""
+    private var tempDir: File? = null
 
     @Given("^set mocked file system local working directory to '(.*)'")
     fun setWorkingDirectory(workDir: String) {
@@ -51,4 +53,30 @@ class MockRawLocalFileSystemScenario {
         fs.conf = Configuration()
         assertNotNull(fs.getFileStatus(Path(path)))
     }
-}
\ No newline at end of file
+
+    @Given("^create (\\d+) files in a temporary directory$")
+    fun createFiles(count: Int) {
+        val dir = Files.createTempDirectory("mockfs-list").toFile()
+        for (i in 0 until count) {
+            File(dir, String.format("part-%05d", i)).createNewFile()
+        }
+
+        tempDir = dir
+    }
+
+    @Then("^listing the temporary directory with mocked file system should return (\\d+) files$")
+    fun verifyListStatus(count: Int) {
+        val fs = MockRawLocalFileSystem()
+        fs.conf = Configuration()
+
+        val statuses = try {
+            fs.listStatus(Path(tempDir!!.toURI()))
+        } finally {
+            tempDir!!.deleteRecursively()
+        }
+
+        assertThat(statuses.map { it.path.name })
+                .containsExactlyInAnyOrderElementsOf((0 until count).map { String.format("part-%05d", it) })
+        assertThat(statuses).allMatch { it.isFile && it.len == 0L }
+    }
+}
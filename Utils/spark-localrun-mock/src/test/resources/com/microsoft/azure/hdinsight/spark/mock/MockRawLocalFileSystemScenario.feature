@@ -26,3 +26,7 @@ Feature: Mock File System Unit Test
   Scenario: Resources file exists
     Given set mocked file system local working directory to 'src/test/resources/data/__default__/user/current'
     Then mocked file 'my_words.txt' should exists
+
+  Scenario: List a directory
+    Given create 20 files in a temporary directory
+    Then listing the temporary directory with mocked file system should return 20 files